@@ -0,0 +1,414 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.analyzer;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import eu.opends.analyzer.IdealLine.IdealLineStatus;
+import eu.opends.drivingTask.DrivingTaskDataQuery;
+import eu.opends.drivingTask.scenario.IdealTrackContainer;
+import eu.opends.drivingTask.scenario.ScenarioLoader;
+import eu.opends.drivingTask.scene.SceneLoader;
+
+/**
+ * Analyzes many drive logs (carData*.txt and carData*.bin) without starting the
+ * drive analyzer, i.e. without a rendering context. For each log, the deviation
+ * from all ideal lines of its driving task, distance, speed statistics and pedal
+ * reaction metrics are computed. Logs are processed in parallel (one log per
+ * task); the results are written in input order to a single CSV file (one row
+ * per log and ideal line). Driving tasks are loaded once and shared by all logs
+ * referring to them.
+ *
+ * Driving task paths stored in the logs are relative to the OpenDS directory,
+ * hence the analyzer should be started from there (or the driving task is given
+ * explicitly).
+ *
+ * Usage: BatchAnalyzer [-threads &lt;n&gt;] [-drivingTask &lt;file&gt;] &lt;output.csv&gt;
+ * &lt;log file or folder&gt; ...
+ *
+ * @author OpenDS contributors
+ */
+public class BatchAnalyzer
+{
+	private static final String SEPARATOR = ";";
+	private static final String HEADER = "file;driver;drivingTask;date;samples;duration [s];distance [m];" +
+			"mean speed [km/h];sd speed [km/h];max speed [km/h];brake onsets;mean accelerator-to-brake time [ms];" +
+			"ideal line;area [m^2];length [m];mean deviation [m];status";
+
+	// a pedal counts as pressed above this position
+	private static final float PEDAL_THRESHOLD = 0.05f;
+
+	// brake onsets later than this after releasing the accelerator are no reactions
+	private static final long MAX_PEDAL_SWITCH_TIME = 2000;
+
+	private static String newLine = System.getProperty("line.separator");
+
+	private String drivingTaskOverride;
+	private ConcurrentHashMap<String, FutureTask<Map<String, IdealTrackContainer>>> idealTrackCache =
+			new ConcurrentHashMap<String, FutureTask<Map<String, IdealTrackContainer>>>();
+
+
+	public static void main(String[] args)
+	{
+		int threads = Runtime.getRuntime().availableProcessors();
+		String drivingTask = null;
+		String outputPath = null;
+		List<File> inputs = new ArrayList<File>();
+
+		for(int i=0; i<args.length; i++)
+		{
+			if(args[i].equals("-threads") && i+1 < args.length)
+				threads = Integer.parseInt(args[++i]);
+			else if(args[i].equals("-drivingTask") && i+1 < args.length)
+				drivingTask = args[++i];
+			else if(outputPath == null)
+				outputPath = args[i];
+			else
+				inputs.add(new File(args[i]));
+		}
+
+		if(outputPath == null || inputs.isEmpty())
+		{
+			System.err.println("Usage: BatchAnalyzer [-threads <n>] [-drivingTask <file>] <output.csv> " +
+					"<log file or folder> ...");
+			return;
+		}
+
+		List<File> logFiles = new ArrayList<File>();
+		for(File input : inputs)
+		{
+			// files given explicitly are analyzed regardless of their name
+			if(input.isFile())
+				logFiles.add(input);
+			else
+				collectLogFiles(input, logFiles);
+		}
+
+		try {
+
+			new BatchAnalyzer(drivingTask).analyze(logFiles, new File(outputPath), threads);
+
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+
+	/**
+	 * Creates a new batch analyzer.
+	 *
+	 * @param drivingTaskOverride
+	 * 			Driving task used for all logs (null: driving task given in each log).
+	 */
+	public BatchAnalyzer(String drivingTaskOverride)
+	{
+		this.drivingTaskOverride = drivingTaskOverride;
+	}
+
+
+	/**
+	 * Analyzes the given logs using the given number of threads and writes one
+	 * CSV file. Throughput is reported on the console.
+	 */
+	public void analyze(List<File> logFiles, File outputFile, int threads) throws IOException, InterruptedException
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+		long start = System.nanoTime();
+		long samples = 0;
+		int failed = 0;
+
+		List<Future<Result>> futures = new ArrayList<Future<Result>>(logFiles.size());
+		for(final File logFile : logFiles)
+		{
+			futures.add(executor.submit(new Callable<Result>()
+			{
+				@Override
+				public Result call()
+				{
+					return analyzeFile(logFile);
+				}
+			}));
+		}
+		executor.shutdown();
+
+		BufferedWriter out = new BufferedWriter(new FileWriter(outputFile));
+		try {
+
+			out.write(HEADER + newLine);
+
+			// collect results in input order (later logs may already be finished)
+			for(int i=0; i<futures.size(); i++)
+			{
+				Result result;
+				try {
+					result = futures.get(i).get();
+				} catch (ExecutionException e) {
+					System.err.println("Could not analyze '" + logFiles.get(i) + "': " + e.getCause());
+					result = null;
+				}
+
+				if(result == null)
+				{
+					failed++;
+					continue;
+				}
+
+				out.write(result.rows);
+				samples += result.samples;
+			}
+
+		} finally {
+			out.close();
+		}
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		int analyzed = logFiles.size() - failed;
+		System.out.println("Analyzed " + analyzed + " of " + logFiles.size() + " files (" +
+				samples + " samples) with " + threads + " threads in " + String.format("%.2f", seconds) + " s: " +
+				String.format("%.1f", analyzed / seconds) + " files/s, " +
+				String.format("%.0f", samples / seconds) + " samples/s");
+		if(failed > 0)
+			System.out.println(failed + " files could not be analyzed (not included in files/s)");
+		System.out.println("Results written to '" + outputFile + "'");
+	}
+
+
+	private static class Result
+	{
+		String rows;
+		int samples;
+	}
+
+
+	/**
+	 * Computes all metrics of a single log.
+	 *
+	 * @return
+	 * 			CSV rows of the log or null, if the log could not be read.
+	 */
+	private Result analyzeFile(File logFile)
+	{
+		DataReader dataReader = new DataReader();
+		if(!dataReader.initReader(logFile.getPath(), false) || !dataReader.loadDriveData())
+		{
+			System.err.println("Could not read '" + logFile + "'");
+			return null;
+		}
+
+		int count = dataReader.getSampleCount();
+		long[] timeStamps = dataReader.getTimeStamps();
+		float[] speed = dataReader.getSpeed();
+		float[] accelerator = dataReader.getAcceleratorPedalPosition();
+		float[] brake = dataReader.getBrakePedalPosition();
+
+		// speed statistics
+		double speedSum = 0;
+		double speedSquareSum = 0;
+		float maxSpeed = 0;
+		for(int i=0; i<count; i++)
+		{
+			speedSum += speed[i];
+			speedSquareSum += speed[i] * speed[i];
+			maxSpeed = Math.max(maxSpeed, speed[i]);
+		}
+		double meanSpeed = (count > 0 ? speedSum / count : 0);
+		double sdSpeed = (count > 0 ? Math.sqrt(Math.max(0, speedSquareSum / count - meanSpeed * meanSpeed)) : 0);
+
+		// brake onsets and time from releasing the accelerator to pressing the brake
+		int brakeOnsets = 0;
+		int pedalSwitches = 0;
+		long pedalSwitchTimeSum = 0;
+		long acceleratorReleaseTime = -1;
+		for(int i=1; i<count; i++)
+		{
+			if(accelerator[i-1] >= PEDAL_THRESHOLD && accelerator[i] < PEDAL_THRESHOLD)
+				acceleratorReleaseTime = timeStamps[i];
+
+			if(brake[i-1] < PEDAL_THRESHOLD && brake[i] >= PEDAL_THRESHOLD)
+			{
+				brakeOnsets++;
+				if(acceleratorReleaseTime >= 0 && timeStamps[i] - acceleratorReleaseTime <= MAX_PEDAL_SWITCH_TIME)
+				{
+					pedalSwitches++;
+					pedalSwitchTimeSum += timeStamps[i] - acceleratorReleaseTime;
+				}
+				acceleratorReleaseTime = -1;
+			}
+		}
+
+		String drivingTaskPath = (drivingTaskOverride != null ? drivingTaskOverride : dataReader.getNameOfDrivingTaskFile());
+		double duration = (count > 0 ? (timeStamps[count-1] - timeStamps[0]) / 1000.0 : 0);
+
+		String fileColumns = quote(logFile.getPath()) + SEPARATOR + quote(dataReader.getNameOfDriver()) + SEPARATOR +
+				quote(drivingTaskPath) + SEPARATOR + quote(dataReader.getDateTimeString()) + SEPARATOR + count + SEPARATOR +
+				format(duration) + SEPARATOR + format(dataReader.getTotalDistance()) + SEPARATOR +
+				format(meanSpeed) + SEPARATOR + format(sdSpeed) + SEPARATOR + format(maxSpeed) + SEPARATOR +
+				brakeOnsets + SEPARATOR + (pedalSwitches > 0 ? format(pedalSwitchTimeSum / (double) pedalSwitches) : "");
+
+		// deviation from ideal lines
+		StringBuilder rows = new StringBuilder();
+		Map<String, IdealTrackContainer> idealTrackMap = getIdealTracks(drivingTaskPath);
+		if(!idealTrackMap.isEmpty() && count > 0)
+		{
+			DeviationComputer devComp = new DeviationComputer(dataReader.getCarPositionList(), idealTrackMap);
+			for(IdealLine idealLine : devComp.getIdealLines())
+			{
+				if(idealLine.getStatus() != IdealLineStatus.Unavailable)
+				{
+					float area = idealLine.getArea();
+					float length = idealLine.getLength();
+					rows.append(fileColumns).append(SEPARATOR).append(quote(idealLine.getId())).append(SEPARATOR)
+						.append(format(area)).append(SEPARATOR).append(format(length)).append(SEPARATOR)
+						.append(format(area/length)).append(SEPARATOR).append(idealLine.getStatus()).append(newLine);
+				}
+			}
+		}
+
+		// no ideal line available --> file metrics only
+		if(rows.length() == 0)
+			rows.append(fileColumns).append(SEPARATOR).append(SEPARATOR).append(SEPARATOR).append(SEPARATOR)
+				.append(SEPARATOR).append(newLine);
+
+		Result result = new Result();
+		result.rows = rows.toString();
+		result.samples = count;
+		return result;
+	}
+
+
+	/**
+	 * Returns the ideal tracks of the given driving task. Each driving task is
+	 * loaded only once by the first thread requesting it; other threads requesting
+	 * the same driving task wait until it has been loaded, while threads requesting
+	 * other (or already loaded) driving tasks are not blocked.
+	 */
+	private Map<String, IdealTrackContainer> getIdealTracks(final String drivingTaskPath)
+	{
+		FutureTask<Map<String, IdealTrackContainer>> idealTracks = idealTrackCache.get(drivingTaskPath);
+		if(idealTracks == null)
+		{
+			FutureTask<Map<String, IdealTrackContainer>> newIdealTracks = new FutureTask<Map<String, IdealTrackContainer>>(
+					new Callable<Map<String, IdealTrackContainer>>()
+			{
+				@Override
+				public Map<String, IdealTrackContainer> call()
+				{
+					return loadIdealTracks(drivingTaskPath);
+				}
+			});
+
+			idealTracks = idealTrackCache.putIfAbsent(drivingTaskPath, newIdealTracks);
+			if(idealTracks == null)
+			{
+				// this thread loads the driving task
+				idealTracks = newIdealTracks;
+				idealTracks.run();
+			}
+		}
+
+		try {
+			return idealTracks.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+
+	private static Map<String, IdealTrackContainer> loadIdealTracks(String drivingTaskPath)
+	{
+		Map<String, IdealTrackContainer> idealTrackMap = Collections.emptyMap();
+
+		if(new File(drivingTaskPath).isFile())
+		{
+			DrivingTaskDataQuery dtData = new DrivingTaskDataQuery(drivingTaskPath);
+			if(dtData.isValidDrivingTask())
+				idealTrackMap = ScenarioLoader.extractIdealTracks(dtData, SceneLoader.extractPoints(dtData));
+		}
+		else
+			System.err.println("Driving task '" + drivingTaskPath + "' not found (no deviation computed)");
+
+		return idealTrackMap;
+	}
+
+
+	private static void collectLogFiles(File input, List<File> logFiles)
+	{
+		if(input.isDirectory())
+		{
+			File[] files = input.listFiles();
+			if(files == null)
+				return;
+
+			Arrays.sort(files);
+			for(File file : files)
+				collectLogFiles(file, logFiles);
+		}
+		else if(input.getName().startsWith("carData") &&
+				(input.getName().endsWith(".txt") || input.getName().endsWith(BinaryDataFormat.FILE_EXTENSION)))
+			logFiles.add(input);
+	}
+
+
+	/**
+	 * Formats a number for the CSV file. Undefined values (e.g. the mean deviation
+	 * of an ideal line of length 0) result in an empty field.
+	 */
+	private static String format(double value)
+	{
+		if(Double.isNaN(value) || Double.isInfinite(value))
+			return "";
+		
+		return String.format(Locale.US, "%.3f", value);
+	}
+	
+	
+	/**
+	 * Encloses a text field of the CSV file in quotes if it contains the separator,
+	 * quotes or line breaks (quotes inside are doubled).
+	 */
+	private static String quote(String value)
+	{
+		if(value == null)
+			return "";
+		
+		if(value.contains(SEPARATOR) || value.contains("\"") || value.contains("\n") || value.contains("\r"))
+			return "\"" + value.replace("\"", "\"\"") + "\"";
+		
+		return value;
+	}
+}
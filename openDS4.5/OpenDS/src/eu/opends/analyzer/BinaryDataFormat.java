@@ -0,0 +1,220 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.analyzer;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Description of the binary drive-data format (version 1).
+ *
+ * A file consists of a header followed by an arbitrary number of blocks.
+ * The header contains a magic number, the format version, the start time
+ * of the recording (ms since epoch), the relative path of the driving task,
+ * the date-time string of the recording, the name of the driver and the
+ * list of columns (name and type). Each block starts with the number of rows
+ * it contains, followed by the values of each column in column order, i.e.
+ * all values of column 0, then all values of column 1, etc. Every column has
+ * a fixed width given by its type. All numbers are stored in little endian.
+ *
+ * @author OpenDS contributors
+ */
+public class BinaryDataFormat
+{
+	public static final int MAGIC = 0x4453444F; // "ODSD" in little endian
+	public static final short VERSION = 1;
+	public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+	public static final String FILE_EXTENSION = ".bin";
+
+	/**
+	 * Number of rows buffered in memory before a block is written to disk.
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+
+	public enum ColumnType
+	{
+		LONG(0, 8), INT(1, 4), FLOAT(2, 4), DOUBLE(3, 8), BOOLEAN(4, 1);
+
+		private byte id;
+		private int size;
+
+		ColumnType(int id, int size)
+		{
+			this.id = (byte) id;
+			this.size = size;
+		}
+
+		public byte getID()
+		{
+			return id;
+		}
+
+		public int getSize()
+		{
+			return size;
+		}
+
+		public static ColumnType valueOf(byte id) throws IOException
+		{
+			for(ColumnType type : values())
+				if(type.id == id)
+					return type;
+
+			throw new IOException("Unknown column type: " + id);
+		}
+	}
+
+
+	public static class Column
+	{
+		private String name;
+		private ColumnType type;
+
+		public Column(String name, ColumnType type)
+		{
+			this.name = name;
+			this.type = type;
+		}
+
+		public String getName()
+		{
+			return name;
+		}
+
+		public ColumnType getType()
+		{
+			return type;
+		}
+	}
+
+
+	// names of the columns written by the DataWriter
+	public static final String TIME = "time";
+	public static final String POSITION_X = "positionX";
+	public static final String POSITION_Y = "positionY";
+	public static final String POSITION_Z = "positionZ";
+	public static final String ROTATION_X = "rotationX";
+	public static final String ROTATION_Y = "rotationY";
+	public static final String ROTATION_Z = "rotationZ";
+	public static final String ROTATION_W = "rotationW";
+	public static final String SPEED = "speed";
+	public static final String STEERING_WHEEL = "steeringWheel";
+	public static final String ACCELERATOR_PEDAL = "acceleratorPedal";
+	public static final String BRAKE_PEDAL = "brakePedal";
+	public static final String ENGINE_ON = "engineOn";
+
+	private static final List<Column> driveDataColumns;
+	static
+	{
+		List<Column> columns = new ArrayList<Column>();
+		columns.add(new Column(TIME, ColumnType.LONG));
+		columns.add(new Column(POSITION_X, ColumnType.FLOAT));
+		columns.add(new Column(POSITION_Y, ColumnType.FLOAT));
+		columns.add(new Column(POSITION_Z, ColumnType.FLOAT));
+		columns.add(new Column(ROTATION_X, ColumnType.FLOAT));
+		columns.add(new Column(ROTATION_Y, ColumnType.FLOAT));
+		columns.add(new Column(ROTATION_Z, ColumnType.FLOAT));
+		columns.add(new Column(ROTATION_W, ColumnType.FLOAT));
+		columns.add(new Column(SPEED, ColumnType.FLOAT));
+		columns.add(new Column(STEERING_WHEEL, ColumnType.FLOAT));
+		columns.add(new Column(ACCELERATOR_PEDAL, ColumnType.FLOAT));
+		columns.add(new Column(BRAKE_PEDAL, ColumnType.FLOAT));
+		columns.add(new Column(ENGINE_ON, ColumnType.BOOLEAN));
+		driveDataColumns = Collections.unmodifiableList(columns);
+	}
+
+
+	/**
+	 * Returns the columns of the drive-data format in the same order as
+	 * in the text format ("carData.txt").
+	 *
+	 * @return
+	 * 			List of drive-data columns.
+	 */
+	public static List<Column> getDriveDataColumns()
+	{
+		return driveDataColumns;
+	}
+
+
+	/**
+	 * Checks whether the given file starts with the magic number of the
+	 * binary drive-data format.
+	 *
+	 * @param file
+	 * 			File to check.
+	 *
+	 * @return
+	 * 			true, if the given file is a binary drive-data file.
+	 */
+	public static boolean isBinaryDataFile(File file)
+	{
+		if(!file.isFile() || file.length() < 4)
+			return false;
+
+		DataInputStream in = null;
+		try {
+
+			in = new DataInputStream(new FileInputStream(file));
+			return Integer.reverseBytes(in.readInt()) == MAGIC;
+
+		} catch (IOException e) {
+			return false;
+		} finally {
+			try {
+				if(in != null)
+					in.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+
+
+	static void putString(ByteBuffer buffer, String string)
+	{
+		byte[] bytes = (string == null ? "" : string).getBytes(UTF8);
+		buffer.putInt(bytes.length);
+		buffer.put(bytes);
+	}
+
+
+	static String getString(ByteBuffer buffer)
+	{
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, UTF8);
+	}
+
+
+	static int getStringSize(String string)
+	{
+		return 4 + (string == null ? "" : string).getBytes(UTF8).length;
+	}
+}
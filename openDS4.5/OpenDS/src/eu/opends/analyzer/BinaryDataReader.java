@@ -0,0 +1,285 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.analyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.List;
+
+import eu.opends.analyzer.BinaryDataFormat.Column;
+import eu.opends.analyzer.BinaryDataFormat.ColumnType;
+
+/**
+ * Reads a file in the binary drive-data format (see <code>BinaryDataFormat</code>).
+ * The file is memory-mapped; the header is parsed on construction, all blocks
+ * are copied into one primitive array per column when <code>load()</code> is
+ * called. An incomplete block at the end of the file (e.g. after a crash of the
+ * simulator) will be ignored.
+ *
+ * @author OpenDS contributors
+ */
+public class BinaryDataReader
+{
+	private MappedByteBuffer buffer;
+	private int dataOffset;
+
+	private short version;
+	private long startTime;
+	private String drivingTaskPath;
+	private String dateTime;
+	private String driverName;
+	private List<Column> columns = new ArrayList<Column>();
+	private int rowWidth = 0;
+
+	private Object[] columnData;
+	private int rowCount = 0;
+
+
+	public BinaryDataReader(File file) throws IOException
+	{
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+
+			FileChannel channel = randomAccessFile.getChannel();
+			if(channel.size() > Integer.MAX_VALUE)
+				throw new IOException("File too large: " + file.getPath());
+
+			// mapping stays valid after the channel has been closed
+			buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(BinaryDataFormat.BYTE_ORDER);
+
+		} finally {
+			randomAccessFile.close();
+		}
+
+		readHeader(file);
+	}
+
+
+	private void readHeader(File file) throws IOException
+	{
+		try {
+
+			if(buffer.getInt() != BinaryDataFormat.MAGIC)
+				throw new IOException("Not a binary drive-data file: " + file.getPath());
+
+			version = buffer.getShort();
+			if(version > BinaryDataFormat.VERSION)
+				throw new IOException("Unsupported format version " + version + ": " + file.getPath());
+
+			startTime = buffer.getLong();
+			drivingTaskPath = BinaryDataFormat.getString(buffer);
+			dateTime = BinaryDataFormat.getString(buffer);
+			driverName = BinaryDataFormat.getString(buffer);
+
+			int columnCount = buffer.getInt();
+			for(int i=0; i<columnCount; i++)
+			{
+				String name = BinaryDataFormat.getString(buffer);
+				ColumnType type = ColumnType.valueOf(buffer.get());
+				columns.add(new Column(name, type));
+				rowWidth += type.getSize();
+			}
+
+			dataOffset = buffer.position();
+
+		} catch (RuntimeException e) {
+
+			// buffer underflow, negative string length, etc.
+			throw new IOException("Invalid header: " + file.getPath(), e);
+		}
+	}
+
+
+	/**
+	 * Copies the values of all complete blocks into one array per column.
+	 */
+	public void load()
+	{
+		// pass 1: count rows of all complete blocks
+		int position = dataOffset;
+		int limit = buffer.limit();
+		long totalRows = 0;
+		while(position + 4 <= limit)
+		{
+			int rows = buffer.getInt(position);
+			long end = position + 4 + (long) rows * rowWidth;
+			if(rows <= 0 || end > limit)
+				break;
+
+			totalRows += rows;
+			position = (int) end;
+		}
+		rowCount = (int) totalRows;
+
+		columnData = new Object[columns.size()];
+		for(int i=0; i<columns.size(); i++)
+			columnData[i] = createArray(columns.get(i).getType(), rowCount);
+
+		// pass 2: bulk copy column regions of each block
+		position = dataOffset;
+		int row = 0;
+		while(row < rowCount)
+		{
+			int rows = buffer.getInt(position);
+			position += 4;
+
+			for(int i=0; i<columns.size(); i++)
+			{
+				ColumnType type = columns.get(i).getType();
+				buffer.position(position);
+				copy(type, columnData[i], row, rows);
+				position += rows * type.getSize();
+			}
+
+			row += rows;
+		}
+	}
+
+
+	private static Object createArray(ColumnType type, int length)
+	{
+		switch(type)
+		{
+			case LONG: return new long[length];
+			case INT: return new int[length];
+			case FLOAT: return new float[length];
+			case DOUBLE: return new double[length];
+			default: return new boolean[length];
+		}
+	}
+
+
+	private void copy(ColumnType type, Object target, int offset, int length)
+	{
+		switch(type)
+		{
+			case LONG: buffer.asLongBuffer().get((long[]) target, offset, length); break;
+			case INT: buffer.asIntBuffer().get((int[]) target, offset, length); break;
+			case FLOAT: buffer.asFloatBuffer().get((float[]) target, offset, length); break;
+			case DOUBLE: buffer.asDoubleBuffer().get((double[]) target, offset, length); break;
+			default:
+				boolean[] array = (boolean[]) target;
+				int position = buffer.position();
+				for(int i=0; i<length; i++)
+					array[offset+i] = (buffer.get(position+i) != 0);
+				break;
+		}
+	}
+
+
+	public short getVersion()
+	{
+		return version;
+	}
+
+
+	public long getStartTime()
+	{
+		return startTime;
+	}
+
+
+	public String getDrivingTaskPath()
+	{
+		return drivingTaskPath;
+	}
+
+
+	public String getDateTime()
+	{
+		return dateTime;
+	}
+
+
+	public String getDriverName()
+	{
+		return driverName;
+	}
+
+
+	public List<Column> getColumns()
+	{
+		return columns;
+	}
+
+
+	public int getRowCount()
+	{
+		return rowCount;
+	}
+
+
+	public int getColumnIndex(String name)
+	{
+		for(int i=0; i<columns.size(); i++)
+			if(columns.get(i).getName().equals(name))
+				return i;
+
+		return -1;
+	}
+
+
+	public long[] getLongColumn(String name)
+	{
+		return (long[]) getColumn(name, ColumnType.LONG);
+	}
+
+
+	public int[] getIntColumn(String name)
+	{
+		return (int[]) getColumn(name, ColumnType.INT);
+	}
+
+
+	public float[] getFloatColumn(String name)
+	{
+		return (float[]) getColumn(name, ColumnType.FLOAT);
+	}
+
+
+	public double[] getDoubleColumn(String name)
+	{
+		return (double[]) getColumn(name, ColumnType.DOUBLE);
+	}
+
+
+	public boolean[] getBooleanColumn(String name)
+	{
+		return (boolean[]) getColumn(name, ColumnType.BOOLEAN);
+	}
+
+
+	private Object getColumn(String name, ColumnType type)
+	{
+		if(columnData == null)
+			load();
+
+		int index = getColumnIndex(name);
+		if(index < 0 || columns.get(index).getType() != type)
+			return null;
+
+		return columnData[index];
+	}
+}
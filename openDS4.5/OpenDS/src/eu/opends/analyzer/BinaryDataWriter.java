@@ -0,0 +1,205 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.analyzer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import eu.opends.analyzer.BinaryDataFormat.Column;
+import eu.opends.analyzer.BinaryDataFormat.ColumnType;
+
+/**
+ * Writes rows of primitive values to a file in the binary drive-data format
+ * (see <code>BinaryDataFormat</code>). Rows are collected in a pre-allocated
+ * block buffer and written to disk through a <code>FileChannel</code> when
+ * the block is full or <code>flush()</code> is called.
+ *
+ * Usage: set the values of all columns of the current row with the
+ * <code>set*()</code> methods and finish the row by calling
+ * <code>nextRow()</code>.
+ *
+ * @author OpenDS contributors
+ */
+public class BinaryDataWriter
+{
+	private FileOutputStream outputStream;
+	private FileChannel channel;
+	private ColumnType[] types;
+	private int[] offsets;
+	private int blockSize;
+	private int rowCount = 0;
+
+	private ByteBuffer block;
+	private ByteBuffer blockHeader;
+	private ByteBuffer[] blockParts;
+
+
+	public BinaryDataWriter(File file, String drivingTaskPath, String dateTime, long startTime,
+			String driverName, List<Column> columns) throws IOException
+	{
+		this(file, drivingTaskPath, dateTime, startTime, driverName, columns, BinaryDataFormat.DEFAULT_BLOCK_SIZE);
+	}
+
+
+	public BinaryDataWriter(File file, String drivingTaskPath, String dateTime, long startTime,
+			String driverName, List<Column> columns, int blockSize) throws IOException
+	{
+		this.blockSize = blockSize;
+
+		int columnCount = columns.size();
+		types = new ColumnType[columnCount];
+		offsets = new int[columnCount];
+
+		// each column occupies a contiguous region of blockSize values in the block buffer
+		int headerSize = 4 + 2 + 8 + BinaryDataFormat.getStringSize(drivingTaskPath) +
+				BinaryDataFormat.getStringSize(dateTime) + BinaryDataFormat.getStringSize(driverName) + 4;
+		int offset = 0;
+		for(int i=0; i<columnCount; i++)
+		{
+			Column column = columns.get(i);
+			types[i] = column.getType();
+			offsets[i] = offset;
+			offset += blockSize * types[i].getSize();
+			headerSize += BinaryDataFormat.getStringSize(column.getName()) + 1;
+		}
+
+		block = ByteBuffer.allocateDirect(offset).order(BinaryDataFormat.BYTE_ORDER);
+		blockHeader = ByteBuffer.allocateDirect(4).order(BinaryDataFormat.BYTE_ORDER);
+
+		// views on the block buffer (one per column) used for gathering writes
+		blockParts = new ByteBuffer[columnCount + 1];
+		blockParts[0] = blockHeader;
+		for(int i=0; i<columnCount; i++)
+			blockParts[i+1] = block.duplicate();
+
+		outputStream = new FileOutputStream(file);
+		channel = outputStream.getChannel();
+
+		// write file header
+		ByteBuffer header = ByteBuffer.allocate(headerSize).order(BinaryDataFormat.BYTE_ORDER);
+		header.putInt(BinaryDataFormat.MAGIC);
+		header.putShort(BinaryDataFormat.VERSION);
+		header.putLong(startTime);
+		BinaryDataFormat.putString(header, drivingTaskPath);
+		BinaryDataFormat.putString(header, dateTime);
+		BinaryDataFormat.putString(header, driverName);
+		header.putInt(columnCount);
+		for(Column column : columns)
+		{
+			BinaryDataFormat.putString(header, column.getName());
+			header.put(column.getType().getID());
+		}
+		header.flip();
+
+		while(header.hasRemaining())
+			channel.write(header);
+	}
+
+
+	public void setLong(int column, long value)
+	{
+		block.putLong(offsets[column] + 8*rowCount, value);
+	}
+
+
+	public void setInt(int column, int value)
+	{
+		block.putInt(offsets[column] + 4*rowCount, value);
+	}
+
+
+	public void setFloat(int column, float value)
+	{
+		block.putFloat(offsets[column] + 4*rowCount, value);
+	}
+
+
+	public void setDouble(int column, double value)
+	{
+		block.putDouble(offsets[column] + 8*rowCount, value);
+	}
+
+
+	public void setBoolean(int column, boolean value)
+	{
+		block.put(offsets[column] + rowCount, (byte) (value ? 1 : 0));
+	}
+
+
+	/**
+	 * Finishes the current row. If the block buffer is full, it will be
+	 * written to disk.
+	 *
+	 * @throws IOException
+	 * 			if writing the block failed.
+	 */
+	public void nextRow() throws IOException
+	{
+		rowCount++;
+
+		if(rowCount >= blockSize)
+			flush();
+	}
+
+
+	/**
+	 * Writes all finished rows as one block to disk.
+	 *
+	 * @throws IOException
+	 * 			if writing the block failed.
+	 */
+	public void flush() throws IOException
+	{
+		if(rowCount == 0)
+			return;
+
+		blockHeader.clear();
+		blockHeader.putInt(0, rowCount);
+
+		long bytesToWrite = 4;
+		for(int i=0; i<types.length; i++)
+		{
+			int length = rowCount * types[i].getSize();
+			ByteBuffer part = blockParts[i+1];
+			part.limit(offsets[i] + length);
+			part.position(offsets[i]);
+			bytesToWrite += length;
+		}
+
+		while(bytesToWrite > 0)
+			bytesToWrite -= channel.write(blockParts);
+
+		rowCount = 0;
+	}
+
+
+	public void close() throws IOException
+	{
+		try {
+			flush();
+		} finally {
+			channel.close();
+			outputStream.close();
+		}
+	}
+}
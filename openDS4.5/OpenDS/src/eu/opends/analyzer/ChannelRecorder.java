@@ -0,0 +1,454 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.analyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.PhysicsTickListener;
+
+import eu.opends.analyzer.BinaryDataFormat.Column;
+import eu.opends.analyzer.BinaryDataFormat.ColumnType;
+import eu.opends.tools.Util;
+
+/**
+ * Registry of recordable signals ("channels") and high-rate recorder.
+ *
+ * Subsystems (e.g. <code>Car</code>, <code>PowerTrain</code>, <code>TrafficCar</code>,
+ * <code>ReactionCenter</code>) register typed primitive channels, each with its own
+ * sample rate. While recording, all channels are sampled in the physics tick and time
+ * stamped with the simulation clock (sum of physics time steps; stops during pause).
+ * Channels with the same sample rate form a group which is written to a separate file
+ * in the binary drive-data format ("channels_&lt;rate&gt;Hz.bin", first column: simulation
+ * time in microseconds). Samples are passed to a <code>DataWriterThread</code> through
+ * pre-allocated ring buffers, so the cost per sample is constant and independent of disk
+ * I/O. If a ring buffer is full, samples will be dropped and counted.
+ *
+ * As samples are taken in the physics tick, the physics accuracy will be increased
+ * when recording starts if any channel requests a higher rate than the physics rate.
+ *
+ * @author OpenDS contributors
+ */
+public class ChannelRecorder implements PhysicsTickListener, RingBufferConsumer
+{
+	public interface FloatChannel { public float getValue(); }
+	public interface DoubleChannel { public double getValue(); }
+	public interface IntChannel { public int getValue(); }
+	public interface LongChannel { public long getValue(); }
+	public interface BooleanChannel { public boolean getValue(); }
+
+	public static final String SIMULATION_TIME = "simulationTime";
+
+	/**
+	 * Maximum sample rate (Hz) of a channel.
+	 */
+	public static final int MAX_SAMPLE_RATE = 1000;
+
+	/**
+	 * Duration (in seconds) of samples each ring buffer can hold.
+	 */
+	private static final int BUFFERED_SECONDS = 30;
+
+
+	private class Channel
+	{
+		private String name;
+		private ColumnType type;
+		private Object source;
+
+		private Channel(String name, ColumnType type, Object source)
+		{
+			this.name = name;
+			this.type = type;
+			this.source = source;
+		}
+	}
+
+
+	private class ChannelGroup
+	{
+		private int sampleRate;
+		private long periodMicros;
+		private long nextSampleTime = 0;
+		private Channel[] channels;
+		private DataRingBuffer ringBuffer;
+		private BinaryDataWriter writer;
+		private long droppedSamples = 0;
+
+		private ChannelGroup(int sampleRate, List<Channel> channelList)
+		{
+			this.sampleRate = sampleRate;
+			this.periodMicros = 1000000L / sampleRate;
+			this.channels = channelList.toArray(new Channel[channelList.size()]);
+		}
+
+		private List<Column> getColumns()
+		{
+			List<Column> columns = new ArrayList<Column>();
+			columns.add(new Column(SIMULATION_TIME, ColumnType.LONG));
+			for(Channel channel : channels)
+				columns.add(new Column(channel.name, channel.type));
+			return columns;
+		}
+
+		private void sample(long time, DataWriterThread writerThread)
+		{
+			int slot = ringBuffer.claim();
+			if(slot < 0)
+			{
+				droppedSamples++;
+				writerThread.wakeUp();
+				return;
+			}
+
+			ringBuffer.setLong(slot, 0, time);
+			for(int i=0; i<channels.length; i++)
+			{
+				Channel channel = channels[i];
+				switch(channel.type)
+				{
+					case FLOAT: ringBuffer.setFloat(slot, i+1, ((FloatChannel) channel.source).getValue()); break;
+					case DOUBLE: ringBuffer.setDouble(slot, i+1, ((DoubleChannel) channel.source).getValue()); break;
+					case INT: ringBuffer.setInt(slot, i+1, ((IntChannel) channel.source).getValue()); break;
+					case LONG: ringBuffer.setLong(slot, i+1, ((LongChannel) channel.source).getValue()); break;
+					default: ringBuffer.setBoolean(slot, i+1, ((BooleanChannel) channel.source).getValue()); break;
+				}
+			}
+			ringBuffer.publish();
+
+			if(ringBuffer.size() >= ringBuffer.getCapacity()/2)
+				writerThread.wakeUp();
+		}
+	}
+
+
+	private PhysicsSpace physicsSpace;
+	private int defaultSampleRate;
+
+	// channels sorted by sample rate (registration order is kept within a rate)
+	private Map<Integer, List<Channel>> channelMap = new TreeMap<Integer, List<Channel>>();
+	private List<String> channelNames = new ArrayList<String>();
+
+	// read by the physics tick (may run on a parallel physics thread)
+	private volatile ChannelGroup[] groups;
+	private volatile DataWriterThread writerThread;
+	private volatile boolean isRecording = false;
+	private long simulationTime = 0;
+	private float timeRemainder = 0;
+
+
+	/**
+	 * @param physicsSpace
+	 * 			Physics space providing the tick (= simulation clock).
+	 *
+	 * @param defaultSampleRate
+	 * 			Sample rate (Hz) of channels registered without explicit rate.
+	 */
+	public ChannelRecorder(PhysicsSpace physicsSpace, int defaultSampleRate)
+	{
+		this.physicsSpace = physicsSpace;
+		this.defaultSampleRate = defaultSampleRate;
+	}
+
+
+	public int getDefaultSampleRate()
+	{
+		return defaultSampleRate;
+	}
+
+
+	public void registerFloatChannel(String name, int sampleRate, FloatChannel channel)
+	{
+		register(name, sampleRate, ColumnType.FLOAT, channel);
+	}
+
+
+	public void registerDoubleChannel(String name, int sampleRate, DoubleChannel channel)
+	{
+		register(name, sampleRate, ColumnType.DOUBLE, channel);
+	}
+
+
+	public void registerIntChannel(String name, int sampleRate, IntChannel channel)
+	{
+		register(name, sampleRate, ColumnType.INT, channel);
+	}
+
+
+	public void registerLongChannel(String name, int sampleRate, LongChannel channel)
+	{
+		register(name, sampleRate, ColumnType.LONG, channel);
+	}
+
+
+	public void registerBooleanChannel(String name, int sampleRate, BooleanChannel channel)
+	{
+		register(name, sampleRate, ColumnType.BOOLEAN, channel);
+	}
+
+
+	/**
+	 * Registers a channel. A sample rate &lt;= 0 will be replaced by the default sample rate.
+	 * Channels registered while recording will be considered from the next recording on.
+	 */
+	private synchronized void register(String name, int sampleRate, ColumnType type, Object source)
+	{
+		if(channelNames.contains(name) || name.equals(SIMULATION_TIME))
+		{
+			System.err.println("ChannelRecorder: channel '" + name + "' already registered");
+			return;
+		}
+
+		if(sampleRate <= 0)
+			sampleRate = defaultSampleRate;
+		sampleRate = Math.min(sampleRate, MAX_SAMPLE_RATE);
+
+		List<Channel> channelList = channelMap.get(sampleRate);
+		if(channelList == null)
+		{
+			channelList = new ArrayList<Channel>();
+			channelMap.put(sampleRate, channelList);
+		}
+		channelList.add(new Channel(name, type, source));
+		channelNames.add(name);
+	}
+
+
+	public synchronized List<String> getChannelNames()
+	{
+		return new ArrayList<String>(channelNames);
+	}
+
+
+	/**
+	 * Opens one file per sample rate and starts sampling all registered channels.
+	 *
+	 * @param outputFolder
+	 * 			Folder to write the files to.
+	 *
+	 * @param driverName
+	 * 			Name of the driver (will be written to the header).
+	 *
+	 * @param absoluteDrivingTaskPath
+	 * 			Path of the driving task (will be written to the header).
+	 *
+	 * @param trackNumber
+	 * 			Number of track (will be part of the file name). Ignored if negative.
+	 */
+	public synchronized void start(String outputFolder, String driverName, String absoluteDrivingTaskPath,
+			int trackNumber)
+	{
+		if(isRecording || channelMap.isEmpty())
+			return;
+
+		Util.makeDirectory(outputFolder);
+
+		String relativeDrivingTaskPath = getRelativePath(absoluteDrivingTaskPath);
+		Date now = new Date();
+		String dateTime = new SimpleDateFormat(DataWriter.DATE_FORMAT).format(now);
+		String prefix = outputFolder + "/channels" + (trackNumber >= 0 ? "_track" + trackNumber : "");
+
+		groups = new ChannelGroup[channelMap.size()];
+		DataRingBuffer[] ringBuffers = new DataRingBuffer[groups.length];
+		int maxSampleRate = 0;
+		int i = 0;
+		for(Map.Entry<Integer, List<Channel>> entry : channelMap.entrySet())
+		{
+			ChannelGroup group = new ChannelGroup(entry.getKey(), entry.getValue());
+			List<Column> columns = group.getColumns();
+			group.ringBuffer = new DataRingBuffer(columns, group.sampleRate * BUFFERED_SECONDS);
+
+			try {
+
+				File file = getUnusedFile(prefix + "_" + group.sampleRate + "Hz");
+				group.writer = new BinaryDataWriter(file, relativeDrivingTaskPath, dateTime,
+						now.getTime(), driverName, columns);
+
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+
+			groups[i] = group;
+			ringBuffers[i] = group.ringBuffer;
+			maxSampleRate = Math.max(maxSampleRate, group.sampleRate);
+			i++;
+		}
+
+		adjustPhysicsRate(maxSampleRate);
+
+		simulationTime = 0;
+		timeRemainder = 0;
+
+		writerThread = new DataWriterThread(this, ringBuffers, DataWriter.DRAIN_INTERVAL);
+		writerThread.start();
+
+		isRecording = true;
+		physicsSpace.addTickListener(this);
+	}
+
+
+	private void adjustPhysicsRate(int maxSampleRate)
+	{
+		float requiredAccuracy = 1f / maxSampleRate;
+		if(physicsSpace.getAccuracy() > requiredAccuracy)
+		{
+			System.out.println("ChannelRecorder: increasing physics rate to " + maxSampleRate + " Hz");
+			physicsSpace.setAccuracy(requiredAccuracy);
+
+			// allow enough sub steps for frame rates down to 20 fps
+			physicsSpace.setMaxSubSteps(Math.max(4, (int) Math.ceil(maxSampleRate / 20f)));
+		}
+	}
+
+
+	/**
+	 * Stops sampling, writes all remaining samples and closes all files.
+	 */
+	public synchronized void stop()
+	{
+		if(!isRecording)
+			return;
+
+		// a tick already in progress on the physics thread sees the flag or keeps 
+		// its own references to groups and writer thread (see physicsTick())
+		isRecording = false;
+		physicsSpace.removeTickListener(this);
+
+		writerThread.requestStop();
+		try {
+			writerThread.join();
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+		writerThread = null;
+
+		for(ChannelGroup group : groups)
+		{
+			try {
+				if(group.writer != null)
+					group.writer.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+
+			if(group.droppedSamples > 0)
+				System.err.println("ChannelRecorder: " + group.droppedSamples + " samples ("
+						+ group.sampleRate + " Hz) have been dropped");
+		}
+		groups = null;
+	}
+
+
+	public boolean isRecording()
+	{
+		return isRecording;
+	}
+
+
+	/**
+	 * @return
+	 * 			Current simulation time (in microseconds since start of recording).
+	 */
+	public long getSimulationTime()
+	{
+		return simulationTime;
+	}
+
+
+	@Override
+	public void prePhysicsTick(PhysicsSpace space, float timeStep)
+	{
+	}
+
+
+	@Override
+	public void physicsTick(PhysicsSpace space, float timeStep)
+	{
+		ChannelGroup[] currentGroups = groups;
+		DataWriterThread currentWriterThread = writerThread;
+		if(!isRecording || currentGroups == null || currentWriterThread == null)
+			return;
+
+		// advance simulation clock (keep fractions of microseconds)
+		float micros = timeStep * 1000000f + timeRemainder;
+		long elapsed = (long) micros;
+		timeRemainder = micros - elapsed;
+		simulationTime += elapsed;
+
+		for(ChannelGroup group : currentGroups)
+		{
+			if(simulationTime >= group.nextSampleTime)
+			{
+				group.sample(simulationTime, currentWriterThread);
+
+				// do not try to catch up if sample rate is higher than physics rate
+				group.nextSampleTime = Math.max(group.nextSampleTime + group.periodMicros,
+						simulationTime - group.periodMicros + 1);
+			}
+		}
+	}
+
+
+	@Override
+	public void writeBatch(DataRingBuffer ringBuffer, int count)
+	{
+		for(ChannelGroup group : groups)
+		{
+			if(group.ringBuffer == ringBuffer && group.writer != null)
+			{
+				try {
+					for(int i=0; i<count; i++)
+						ringBuffer.copyRowTo(ringBuffer.getSlot(i), group.writer);
+					group.writer.flush();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+
+	private static File getUnusedFile(String path)
+	{
+		File file = new File(path + BinaryDataFormat.FILE_EXTENSION);
+		int i = 2;
+		while(file.exists())
+		{
+			file = new File(path + "(" + i + ")" + BinaryDataFormat.FILE_EXTENSION);
+			i++;
+		}
+		return file;
+	}
+
+
+	private static String getRelativePath(String absolutePath)
+	{
+		URI baseURI = new File("./").toURI();
+		URI absoluteURI = new File(absolutePath).toURI();
+		return baseURI.relativize(absoluteURI).getPath();
+	}
+}
@@ -0,0 +1,205 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.analyzer;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+
+/**
+ * Converts drive-data files from text format ("carData.txt") to binary
+ * format (see <code>BinaryDataFormat</code>) and vice versa. The conversion
+ * is lossless in both directions: all values (including the header entries)
+ * are preserved exactly.
+ *
+ * Usage: DataConverter &lt;input file&gt; [&lt;output file&gt;]
+ *
+ * The direction of the conversion is derived from the input file. If no
+ * output file is given, the extension of the input file will be replaced.
+ *
+ * @author OpenDS contributors
+ */
+public class DataConverter
+{
+	private static final int ROWS_PER_WRITE = 1000;
+	private static String newLine = System.getProperty("line.separator");
+
+
+	public static void main(String[] args)
+	{
+		if(args.length < 1)
+		{
+			System.err.println("Usage: DataConverter <input file> [<output file>]");
+			return;
+		}
+
+		File inputFile = new File(args[0]);
+		boolean toText = BinaryDataFormat.isBinaryDataFile(inputFile);
+
+		File outputFile;
+		if(args.length >= 2)
+			outputFile = new File(args[1]);
+		else
+			outputFile = new File(replaceExtension(args[0],
+					toText ? ".txt" : BinaryDataFormat.FILE_EXTENSION));
+
+		try {
+
+			long start = System.currentTimeMillis();
+
+			if(toText)
+				convertToText(inputFile, outputFile);
+			else
+				convertToBinary(inputFile, outputFile);
+
+			System.out.println("Converted '" + inputFile + "' to '" + outputFile + "' in "
+					+ (System.currentTimeMillis() - start) + " ms");
+
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+
+	/**
+	 * Converts a drive-data file in text format to binary format.
+	 *
+	 * @param textFile
+	 * 			Input file (text format).
+	 *
+	 * @param binaryFile
+	 * 			Output file (binary format).
+	 *
+	 * @throws IOException
+	 * 			if reading or writing failed.
+	 */
+	public static void convertToBinary(File textFile, File binaryFile) throws IOException
+	{
+		DataReader reader = load(textFile);
+
+		long startTime = 0;
+		try {
+			startTime = new SimpleDateFormat(DataWriter.DATE_FORMAT).parse(reader.getDateTimeString()).getTime();
+		} catch (ParseException e) {
+			// keep start time 0 if date is invalid; original string will be preserved anyway
+		}
+
+		BinaryDataWriter writer = new BinaryDataWriter(binaryFile, reader.getNameOfDrivingTaskFile(),
+				reader.getDateTimeString(), startTime, reader.getNameOfDriver(),
+				BinaryDataFormat.getDriveDataColumns());
+
+		try {
+
+			for(int i=0; i<reader.getSampleCount(); i++)
+			{
+				writer.setLong(0, reader.getTimeStamps()[i]);
+				writer.setFloat(1, reader.getPositionX()[i]);
+				writer.setFloat(2, reader.getPositionY()[i]);
+				writer.setFloat(3, reader.getPositionZ()[i]);
+				writer.setFloat(4, reader.getRotationX()[i]);
+				writer.setFloat(5, reader.getRotationY()[i]);
+				writer.setFloat(6, reader.getRotationZ()[i]);
+				writer.setFloat(7, reader.getRotationW()[i]);
+				writer.setFloat(8, reader.getSpeed()[i]);
+				writer.setFloat(9, reader.getSteeringWheelPosition()[i]);
+				writer.setFloat(10, reader.getAcceleratorPedalPosition()[i]);
+				writer.setFloat(11, reader.getBrakePedalPosition()[i]);
+				writer.setBoolean(12, reader.getEngineOn()[i]);
+				writer.nextRow();
+			}
+
+		} finally {
+			writer.close();
+		}
+	}
+
+
+	/**
+	 * Converts a drive-data file in binary format to text format.
+	 *
+	 * @param binaryFile
+	 * 			Input file (binary format).
+	 *
+	 * @param textFile
+	 * 			Output file (text format).
+	 *
+	 * @throws IOException
+	 * 			if reading or writing failed.
+	 */
+	public static void convertToText(File binaryFile, File textFile) throws IOException
+	{
+		DataReader reader = load(binaryFile);
+
+		BufferedWriter out = new BufferedWriter(new FileWriter(textFile));
+		try {
+
+			out.write("Driving Task: " + reader.getNameOfDrivingTaskFile() + newLine);
+			out.write("Date-Time: " + reader.getDateTimeString() + newLine);
+			out.write("Driver: " + reader.getNameOfDriver() + newLine);
+			out.write(DataWriter.USED_FORMAT + newLine);
+
+			StringBuffer sb = new StringBuffer();
+			for(int i=0; i<reader.getSampleCount(); i++)
+			{
+				DataWriter.appendTextRow(sb, reader.getTimeStamps()[i], reader.getPositionX()[i],
+						reader.getPositionY()[i], reader.getPositionZ()[i], reader.getRotationX()[i],
+						reader.getRotationY()[i], reader.getRotationZ()[i], reader.getRotationW()[i],
+						reader.getSpeed()[i], reader.getSteeringWheelPosition()[i],
+						reader.getAcceleratorPedalPosition()[i], reader.getBrakePedalPosition()[i],
+						reader.getEngineOn()[i]);
+				sb.append(newLine);
+
+				if((i+1) % ROWS_PER_WRITE == 0)
+				{
+					out.write(sb.toString());
+					sb.setLength(0);
+				}
+			}
+			out.write(sb.toString());
+
+		} finally {
+			out.close();
+		}
+	}
+
+
+	private static DataReader load(File file) throws IOException
+	{
+		DataReader reader = new DataReader();
+		if(!reader.initReader(file.getPath(), false) || !reader.loadDriveData())
+			throw new IOException("Could not read drive-data file: " + file.getPath());
+
+		return reader;
+	}
+
+
+	private static String replaceExtension(String path, String extension)
+	{
+		int dotIndex = path.lastIndexOf('.');
+		int separatorIndex = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\'));
+
+		if(dotIndex > separatorIndex)
+			return path.substring(0, dotIndex) + extension;
+		else
+			return path + extension;
+	}
+}
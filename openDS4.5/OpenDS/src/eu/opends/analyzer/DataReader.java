@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.LinkedList;
 
@@ -34,6 +35,9 @@ import com.jme3.math.Vector3f;
 import eu.opends.drivingTask.DrivingTask;
 
 /**
+ * Reads drive-data files written by the <code>DataWriter</code>. Both the 
+ * text format ("carData.txt") and the binary format (see <code>BinaryDataFormat</code>)
+ * are supported. The data is stored as one primitive array per signal.
  * 
  * @author Saied, Rafael Math
  */
@@ -41,13 +45,31 @@ public class DataReader
 {
 	private File inFile;
 	private BufferedReader inputReader;
+	private BinaryDataReader binaryReader;
 	private String nameOfDrivingTaskFile;
 	private String nameOfDriver;
+	private String dateTimeString;
 	private Date fileDate;
 	
 	private Float traveledDistance = 0f;
-	private ArrayList<Vector3f> carPositionList = new ArrayList<Vector3f>();
-	private LinkedList<DataUnit> dataUnitList = new LinkedList<DataUnit>();
+	private ArrayList<Vector3f> carPositionList;
+	private LinkedList<DataUnit> dataUnitList;
+	
+	private int sampleCount = 0;
+	private long[] timeStamps = new long[0];
+	private float[] positionX = new float[0];
+	private float[] positionY = new float[0];
+	private float[] positionZ = new float[0];
+	private float[] rotationX = new float[0];
+	private float[] rotationY = new float[0];
+	private float[] rotationZ = new float[0];
+	private float[] rotationW = new float[0];
+	private float[] speed = new float[0];
+	private float[] steeringWheelPosition = new float[0];
+	private float[] acceleratorPedalPosition = new float[0];
+	private float[] brakePedalPosition = new float[0];
+	private boolean[] engineOn = new boolean[0];
+	private float[] traveledDistances = new float[0];
 	
 	
 	public boolean initReader(String filePath, boolean verbose) 
@@ -60,6 +82,10 @@ public class DataReader
 			System.err.println("File " + inFile.toString()
 					+ " could not be found.");
 		}
+		
+		if(BinaryDataFormat.isBinaryDataFile(inFile))
+			return initBinaryReader(verbose);
+		
 		try {
 			inputReader = new BufferedReader(new FileReader(inFile));
 
@@ -77,23 +103,13 @@ public class DataReader
 			// created.
 			inputLine = inputReader.readLine();
 			splittedLineArray = inputLine.split(": ");
-			try {
-				// Save the date
-				fileDate = new SimpleDateFormat("yyyy_mm_dd-hh_mm_ss")
-						.parse(splittedLineArray[1]);
-				if(verbose)
-					System.out.println("Creation Time: " + fileDate);
-
-			} catch (ParseException e) {
-				System.err.println("The date could not be read: " + inputLine
-						+ " is no valid date.");
-				fileDate = null;
-			}
+			dateTimeString = splittedLineArray[1];
+			parseFileDate(verbose);
 
 			// Read in name of the driver
 			inputLine = inputReader.readLine();
 			splittedLineArray = inputLine.split(": ");
-			nameOfDriver = splittedLineArray[1];
+			nameOfDriver = splittedLineArray.length > 1 ? splittedLineArray[1] : "";
 			if(verbose)
 				System.out.println("Driver: " + nameOfDriver);
 
@@ -109,55 +125,185 @@ public class DataReader
 	}
 	
 	
+	private boolean initBinaryReader(boolean verbose) 
+	{
+		try {
+			
+			binaryReader = new BinaryDataReader(inFile);
+			
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+			return false;
+		}
+		
+		nameOfDrivingTaskFile = binaryReader.getDrivingTaskPath();
+		if(verbose)
+			System.out.println("Driving Task: " + nameOfDrivingTaskFile);
+		
+		dateTimeString = binaryReader.getDateTime();
+		parseFileDate(verbose);
+		
+		nameOfDriver = binaryReader.getDriverName();
+		if(verbose)
+			System.out.println("Driver: " + nameOfDriver);
+		
+		return true;
+	}
+
+
+	private void parseFileDate(boolean verbose) 
+	{
+		try {
+			// Save the date
+			fileDate = new SimpleDateFormat("yyyy_MM_dd-HH_mm_ss").parse(dateTimeString);
+			if(verbose)
+				System.out.println("Creation Time: " + fileDate);
+
+		} catch (ParseException e) {
+			System.err.println("The date could not be read: " + dateTimeString
+					+ " is no valid date.");
+			fileDate = null;
+		}
+	}
+	
+	
 	public boolean loadDriveData() 
+	{
+		carPositionList = null;
+		dataUnitList = null;
+		
+		if(binaryReader != null)
+			loadBinaryDriveData();
+		else if(!loadTextDriveData())
+			return false;
+		
+		computeTraveledDistances();
+		
+		return true;
+	}
+
+
+	private void loadBinaryDriveData() 
+	{
+		binaryReader.load();
+		
+		sampleCount = binaryReader.getRowCount();
+		timeStamps = binaryReader.getLongColumn(BinaryDataFormat.TIME);
+		positionX = binaryReader.getFloatColumn(BinaryDataFormat.POSITION_X);
+		positionY = binaryReader.getFloatColumn(BinaryDataFormat.POSITION_Y);
+		positionZ = binaryReader.getFloatColumn(BinaryDataFormat.POSITION_Z);
+		rotationX = binaryReader.getFloatColumn(BinaryDataFormat.ROTATION_X);
+		rotationY = binaryReader.getFloatColumn(BinaryDataFormat.ROTATION_Y);
+		rotationZ = binaryReader.getFloatColumn(BinaryDataFormat.ROTATION_Z);
+		rotationW = binaryReader.getFloatColumn(BinaryDataFormat.ROTATION_W);
+		speed = binaryReader.getFloatColumn(BinaryDataFormat.SPEED);
+		steeringWheelPosition = binaryReader.getFloatColumn(BinaryDataFormat.STEERING_WHEEL);
+		acceleratorPedalPosition = binaryReader.getFloatColumn(BinaryDataFormat.ACCELERATOR_PEDAL);
+		brakePedalPosition = binaryReader.getFloatColumn(BinaryDataFormat.BRAKE_PEDAL);
+		engineOn = binaryReader.getBooleanColumn(BinaryDataFormat.ENGINE_ON);
+		
+		// release memory-mapped file
+		binaryReader = null;
+	}
+	
+	
+	private boolean loadTextDriveData() 
 	{		
 		try {
 			// get drive data
 			String inputLine = inputReader.readLine();
-			
-			Vector3f previousPos = null;
 
 			while (inputLine != null) 
 			{
-				Vector3f carPosition = parseCarPosition(inputLine);
-				carPositionList.add(carPosition);
-				
-				Quaternion carRotation = parseCarRotation(inputLine);
-				
-				Long timeStamp = parseTimeStamp(inputLine);
-
-				Float speed = parseSpeed(inputLine);
-				
-				if(previousPos == null)
-					previousPos = carPosition;
-
-				traveledDistance += carPosition.distance(previousPos);
-				previousPos = carPosition;
-				
-				Float steeringWheelPosition = parseSteeringWheelPosition(inputLine);
-				
-				Float acceleratorPedalPosition = parseAcceleratorPedalPosition(inputLine);
-				
-				Float brakePedalPosition = parseBrakePedalPosition(inputLine);
-				
-				Boolean isEngineOn = parseIsEngineOn(inputLine);
-
-				DataUnit dataUnit = new DataUnit(new Date(timeStamp), carPosition, carRotation,
-						speed, steeringWheelPosition, acceleratorPedalPosition, brakePedalPosition,
-						isEngineOn, traveledDistance);
-				dataUnitList.add(dataUnit);
+				if(!inputLine.isEmpty())
+				{
+					String[] splittedLineArray = inputLine.split(":");
+					
+					ensureCapacity(sampleCount + 1);
+					
+					int i = sampleCount;
+					timeStamps[i] = Long.parseLong(splittedLineArray[0]);
+					positionX[i] = Float.parseFloat(splittedLineArray[1]);
+					positionY[i] = Float.parseFloat(splittedLineArray[2]);
+					positionZ[i] = Float.parseFloat(splittedLineArray[3]);
+					rotationX[i] = Float.parseFloat(splittedLineArray[4]);
+					rotationY[i] = Float.parseFloat(splittedLineArray[5]);
+					rotationZ[i] = Float.parseFloat(splittedLineArray[6]);
+					rotationW[i] = Float.parseFloat(splittedLineArray[7]);
+					speed[i] = Float.parseFloat(splittedLineArray[8]);
+					steeringWheelPosition[i] = Float.parseFloat(splittedLineArray[9]);
+					acceleratorPedalPosition[i] = Float.parseFloat(splittedLineArray[10]);
+					brakePedalPosition[i] = Float.parseFloat(splittedLineArray[11]);
+					engineOn[i] = Boolean.parseBoolean(splittedLineArray[12]);
+					sampleCount++;
+				}
 				
 				inputLine = inputReader.readLine();
 			}
-
+			
+			inputReader.close();
 
 		} catch (IOException e) {
 			//e.printStackTrace();
 			return false;
 		}
 		
+		trimToSize();
+		
 		return true;
 	}
+
+
+	private void ensureCapacity(int minCapacity) 
+	{
+		if(minCapacity <= timeStamps.length)
+			return;
+		
+		int capacity = Math.max(minCapacity, Math.max(1024, timeStamps.length * 2));
+		resize(capacity);
+	}
+	
+	
+	private void trimToSize() 
+	{
+		if(sampleCount < timeStamps.length)
+			resize(sampleCount);
+	}
+
+
+	private void resize(int capacity) 
+	{
+		timeStamps = Arrays.copyOf(timeStamps, capacity);
+		positionX = Arrays.copyOf(positionX, capacity);
+		positionY = Arrays.copyOf(positionY, capacity);
+		positionZ = Arrays.copyOf(positionZ, capacity);
+		rotationX = Arrays.copyOf(rotationX, capacity);
+		rotationY = Arrays.copyOf(rotationY, capacity);
+		rotationZ = Arrays.copyOf(rotationZ, capacity);
+		rotationW = Arrays.copyOf(rotationW, capacity);
+		speed = Arrays.copyOf(speed, capacity);
+		steeringWheelPosition = Arrays.copyOf(steeringWheelPosition, capacity);
+		acceleratorPedalPosition = Arrays.copyOf(acceleratorPedalPosition, capacity);
+		brakePedalPosition = Arrays.copyOf(brakePedalPosition, capacity);
+		engineOn = Arrays.copyOf(engineOn, capacity);
+	}
+	
+	
+	private void computeTraveledDistances() 
+	{
+		traveledDistances = new float[sampleCount];
+		traveledDistance = 0f;
+		
+		for(int i=1; i<sampleCount; i++)
+		{
+			// same arithmetic as Vector3f.distance()
+			double dx = positionX[i] - positionX[i-1];
+			double dy = positionY[i] - positionY[i-1];
+			double dz = positionZ[i] - positionZ[i-1];
+			traveledDistance += (float) Math.sqrt((float) (dx*dx + dy*dy + dz*dz));
+			traveledDistances[i] = traveledDistance;
+		}
+	}
 	
 	
 	public String getNameOfDriver() 
@@ -171,6 +317,16 @@ public class DataReader
 		return fileDate;
 	}
 	
+	
+	/**
+	 * @return
+	 * 			Date-time string as contained in the header of the file.
+	 */
+	public String getDateTimeString() 
+	{
+		return dateTimeString;
+	}
+	
 
 	public String getNameOfDrivingTaskFile() 
 	{
@@ -180,6 +336,13 @@ public class DataReader
 	
 	public ArrayList<Vector3f> getCarPositionList()
 	{
+		if(carPositionList == null)
+		{
+			carPositionList = new ArrayList<Vector3f>(sampleCount);
+			for(int i=0; i<sampleCount; i++)
+				carPositionList.add(new Vector3f(positionX[i], positionY[i], positionZ[i]));
+		}
+		
 		return carPositionList;
 	}
 	
@@ -190,12 +353,163 @@ public class DataReader
 	}
 	
 	
+	/**
+	 * Creates a list of data units from the primitive arrays. Consider using
+	 * the array getters or <code>getDataUnit()</code> instead.
+	 * 
+	 * @return
+	 * 			List of all data units.
+	 */
 	public LinkedList<DataUnit> getDataUnitList()
 	{
+		if(dataUnitList == null)
+		{
+			dataUnitList = new LinkedList<DataUnit>();
+			for(int i=0; i<sampleCount; i++)
+				dataUnitList.add(getDataUnit(i));
+		}
+		
 		return dataUnitList;
 	}
 	
 	
+	public DataUnit getDataUnit(int index)
+	{
+		return new DataUnit(new Date(timeStamps[index]), 
+				new Vector3f(positionX[index], positionY[index], positionZ[index]),
+				new Quaternion(rotationX[index], rotationY[index], rotationZ[index], rotationW[index]),
+				speed[index], steeringWheelPosition[index], acceleratorPedalPosition[index], 
+				brakePedalPosition[index], engineOn[index], traveledDistances[index]);
+	}
+	
+	
+	public int getSampleCount()
+	{
+		return sampleCount;
+	}
+	
+	
+	public long getTimeStamp(int index)
+	{
+		return timeStamps[index];
+	}
+	
+	
+	/**
+	 * Looks up the last sample recorded at or before the given time (binary search).
+	 * 
+	 * @param timeStamp
+	 * 			Recording time (in ms since 1970).
+	 * 
+	 * @return
+	 * 			Index of the sample or 0, if the time is before the first sample.
+	 */
+	public int getIndex(long timeStamp)
+	{
+		int low = 0;
+		int high = sampleCount - 1;
+		int result = 0;
+		
+		while(low <= high)
+		{
+			int middle = (low + high) >>> 1;
+			if(timeStamps[middle] <= timeStamp)
+			{
+				result = middle;
+				low = middle + 1;
+			}
+			else
+				high = middle - 1;
+		}
+		
+		return result;
+	}
+	
+	
+	public long[] getTimeStamps()
+	{
+		return timeStamps;
+	}
+	
+	
+	public float[] getPositionX()
+	{
+		return positionX;
+	}
+	
+	
+	public float[] getPositionY()
+	{
+		return positionY;
+	}
+	
+	
+	public float[] getPositionZ()
+	{
+		return positionZ;
+	}
+	
+	
+	public float[] getRotationX()
+	{
+		return rotationX;
+	}
+	
+	
+	public float[] getRotationY()
+	{
+		return rotationY;
+	}
+	
+	
+	public float[] getRotationZ()
+	{
+		return rotationZ;
+	}
+	
+	
+	public float[] getRotationW()
+	{
+		return rotationW;
+	}
+	
+	
+	public float[] getSpeed()
+	{
+		return speed;
+	}
+	
+	
+	public float[] getSteeringWheelPosition()
+	{
+		return steeringWheelPosition;
+	}
+	
+	
+	public float[] getAcceleratorPedalPosition()
+	{
+		return acceleratorPedalPosition;
+	}
+	
+	
+	public float[] getBrakePedalPosition()
+	{
+		return brakePedalPosition;
+	}
+	
+	
+	public boolean[] getEngineOn()
+	{
+		return engineOn;
+	}
+	
+	
+	public float[] getTraveledDistances()
+	{
+		return traveledDistances;
+	}
+	
+	
 	public boolean isValidAnalyzerFile(File analyzerFile) 
 	{
 		String analyzerFilePath = analyzerFile.getPath();
@@ -235,68 +549,4 @@ public class DataReader
 		
 		return true;
 	}
-	
-	
-	private Long parseTimeStamp(String inputLine) 
-	{
-		String[] splittedLineArray = inputLine.split(":");
-		return Long.parseLong(splittedLineArray[0]);
-	}
-	
-
-	private Vector3f parseCarPosition(String inputLine) 
-	{
-		String[] splittedLineArray = inputLine.split(":");
-
-		return new Vector3f(Float.parseFloat(splittedLineArray[1]), Float
-				.parseFloat(splittedLineArray[2]), Float
-				.parseFloat(splittedLineArray[3]));
-	}
-
-	
-	private Quaternion parseCarRotation(String inputLine)
-	{
-		String[] splittedLineArray = inputLine.split(":");
-
-		return new Quaternion(Float.parseFloat(splittedLineArray[4]), Float
-				.parseFloat(splittedLineArray[5]), Float
-				.parseFloat(splittedLineArray[6]), Float
-				.parseFloat(splittedLineArray[7]));
-	}
-	
-	
-	private Float parseSpeed(String inputLine) 
-	{
-		String[] splittedLineArray = inputLine.split(":");
-		return Float.parseFloat(splittedLineArray[8]);
-
-	}
-	
-	
-	private Float parseSteeringWheelPosition(String inputLine) 
-	{
-		String[] splittedLineArray = inputLine.split(":");
-		return Float.parseFloat(splittedLineArray[9]);
-	}
-	
-	
-	private Float parseAcceleratorPedalPosition(String inputLine) 
-	{
-		String[] splittedLineArray = inputLine.split(":");
-		return Float.parseFloat(splittedLineArray[10]);
-	}
-	
-	
-	private Float parseBrakePedalPosition(String inputLine) 
-	{
-		String[] splittedLineArray = inputLine.split(":");
-		return Float.parseFloat(splittedLineArray[11]);
-	}
-
-	
-	private Boolean parseIsEngineOn(String inputLine) 
-	{
-		String[] splittedLineArray = inputLine.split(":");
-		return Boolean.parseBoolean(splittedLineArray[12]);
-	}
 }
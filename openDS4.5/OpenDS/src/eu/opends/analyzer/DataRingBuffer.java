@@ -0,0 +1,271 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.analyzer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import eu.opends.analyzer.BinaryDataFormat.Column;
+import eu.opends.analyzer.BinaryDataFormat.ColumnType;
+
+/**
+ * Pre-allocated ring buffer of rows of primitive values (one array per column).
+ * The buffer supports exactly one producer thread (e.g. the render thread) and
+ * one consumer thread (e.g. the <code>DataWriterThread</code>) without locking.
+ *
+ * Producer: <code>claim()</code> a slot, set its values and <code>publish()</code> it.
+ * Consumer: read the first <code>available()</code> slots (<code>getSlot()</code>)
+ * and <code>release()</code> them afterwards.
+ *
+ * @author OpenDS contributors
+ */
+public class DataRingBuffer
+{
+	private int capacity;
+	private int mask;
+	private ColumnType[] types;
+	private Object[] data;
+
+	// index of next slot to publish (written by producer only)
+	private AtomicLong head = new AtomicLong(0);
+
+	// index of next slot to read (written by consumer only)
+	private AtomicLong tail = new AtomicLong(0);
+
+
+	/**
+	 * @param columns
+	 * 			Columns of each row.
+	 *
+	 * @param minCapacity
+	 * 			Minimum number of rows (will be rounded up to the next power of two).
+	 */
+	public DataRingBuffer(List<Column> columns, int minCapacity)
+	{
+		capacity = Integer.highestOneBit(Math.max(2, minCapacity) - 1) << 1;
+		mask = capacity - 1;
+
+		types = new ColumnType[columns.size()];
+		data = new Object[columns.size()];
+		for(int i=0; i<types.length; i++)
+		{
+			types[i] = columns.get(i).getType();
+			switch(types[i])
+			{
+				case LONG: data[i] = new long[capacity]; break;
+				case INT: data[i] = new int[capacity]; break;
+				case FLOAT: data[i] = new float[capacity]; break;
+				case DOUBLE: data[i] = new double[capacity]; break;
+				default: data[i] = new boolean[capacity]; break;
+			}
+		}
+	}
+
+
+	public int getCapacity()
+	{
+		return capacity;
+	}
+
+
+	/**
+	 * Returns the number of rows published but not yet released.
+	 *
+	 * @return
+	 * 			Number of used slots.
+	 */
+	public int size()
+	{
+		return (int) (head.get() - tail.get());
+	}
+
+
+	// producer methods ---------------------------------------------------
+
+	/**
+	 * Returns the slot the next row can be written to (producer only).
+	 *
+	 * @return
+	 * 			Index of free slot or -1 if the buffer is full.
+	 */
+	public int claim()
+	{
+		long currentHead = head.get();
+		if(currentHead - tail.get() >= capacity)
+			return -1;
+
+		return (int) (currentHead & mask);
+	}
+
+
+	/**
+	 * Makes the claimed row visible to the consumer (producer only).
+	 */
+	public void publish()
+	{
+		head.lazySet(head.get() + 1);
+	}
+
+
+	public void setLong(int slot, int column, long value)
+	{
+		((long[]) data[column])[slot] = value;
+	}
+
+
+	public void setInt(int slot, int column, int value)
+	{
+		((int[]) data[column])[slot] = value;
+	}
+
+
+	public void setFloat(int slot, int column, float value)
+	{
+		((float[]) data[column])[slot] = value;
+	}
+
+
+	public void setDouble(int slot, int column, double value)
+	{
+		((double[]) data[column])[slot] = value;
+	}
+
+
+	public void setBoolean(int slot, int column, boolean value)
+	{
+		((boolean[]) data[column])[slot] = value;
+	}
+
+
+	// consumer methods ---------------------------------------------------
+
+	/**
+	 * Returns the number of rows ready to be read (consumer only).
+	 *
+	 * @return
+	 * 			Number of published rows.
+	 */
+	public int available()
+	{
+		return size();
+	}
+
+
+	/**
+	 * Returns the slot of the i-th row ready to be read (consumer only).
+	 *
+	 * @param i
+	 * 			Index relative to the oldest unread row.
+	 *
+	 * @return
+	 * 			Slot index.
+	 */
+	public int getSlot(int i)
+	{
+		return (int) ((tail.get() + i) & mask);
+	}
+
+
+	/**
+	 * Frees the given number of rows for the producer (consumer only).
+	 *
+	 * @param count
+	 * 			Number of rows that have been read.
+	 */
+	public void release(int count)
+	{
+		tail.lazySet(tail.get() + count);
+	}
+
+
+	public long getLong(int slot, int column)
+	{
+		return ((long[]) data[column])[slot];
+	}
+
+
+	public int getInt(int slot, int column)
+	{
+		return ((int[]) data[column])[slot];
+	}
+
+
+	public float getFloat(int slot, int column)
+	{
+		return ((float[]) data[column])[slot];
+	}
+
+
+	public double getDouble(int slot, int column)
+	{
+		return ((double[]) data[column])[slot];
+	}
+
+
+	public boolean getBoolean(int slot, int column)
+	{
+		return ((boolean[]) data[column])[slot];
+	}
+
+
+	/**
+	 * Copies all values of the given slot to the current row of the binary writer
+	 * and finishes this row.
+	 */
+	public void copyRowTo(int slot, BinaryDataWriter writer) throws IOException
+	{
+		for(int i=0; i<types.length; i++)
+		{
+			switch(types[i])
+			{
+				case LONG: writer.setLong(i, getLong(slot, i)); break;
+				case INT: writer.setInt(i, getInt(slot, i)); break;
+				case FLOAT: writer.setFloat(i, getFloat(slot, i)); break;
+				case DOUBLE: writer.setDouble(i, getDouble(slot, i)); break;
+				default: writer.setBoolean(i, getBoolean(slot, i)); break;
+			}
+		}
+		writer.nextRow();
+	}
+
+
+	/**
+	 * Appends all values of the given slot separated by colons (without line
+	 * separator). For the drive-data columns the output is the same as written
+	 * to "carData.txt".
+	 */
+	public void appendTextRow(int slot, StringBuffer sb)
+	{
+		for(int i=0; i<types.length; i++)
+		{
+			if(i > 0)
+				sb.append(':');
+
+			switch(types[i])
+			{
+				case LONG: sb.append(getLong(slot, i)); break;
+				case INT: sb.append(getInt(slot, i)); break;
+				case FLOAT: sb.append(getFloat(slot, i)); break;
+				case DOUBLE: sb.append(getDouble(slot, i)); break;
+				default: sb.append(getBoolean(slot, i)); break;
+			}
+		}
+	}
+}
@@ -29,6 +29,9 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
 
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+
 import eu.opends.car.Car;
 import eu.opends.tools.Util;
 
@@ -40,7 +43,7 @@ import eu.opends.tools.Util;
  * @author Saied
  * 
  */
-public class DataWriter 
+public class DataWriter implements RingBufferConsumer
 {
 	private Calendar startTime = new GregorianCalendar();
 
@@ -56,19 +59,85 @@ public class DataWriter
 	private File analyzerDataFile;
 	private boolean dataWriterEnabled = false;
 	private String relativeDrivingTaskPath;
+	private BinaryDataWriter binaryWriter;
+	private volatile boolean writeFailed = false;
+	
+	// asynchronous recording: render thread fills ring buffer, writer thread drains it
+	private DataRingBuffer ringBuffer;
+	private DataWriterThread writerThread;
+	private long droppedSamples = 0;
+	private Vector3f position = new Vector3f();
+	private Quaternion rotation = new Quaternion();
+	
+	/**
+	 * Number of rows the ring buffer can hold (approx. 200 seconds at 20 Hz).
+	 */
+	public static final int RING_BUFFER_CAPACITY = 4096;
+	
+	/**
+	 * Time (in ms) between two drains of the ring buffer by the writer thread.
+	 */
+	public static final int DRAIN_INTERVAL = 250;
+	
+	/**
+	 * Description of the columns (text format).
+	 */
+	public static final String USED_FORMAT = "Used Format = Time (ms): Position (x,y,z) : Rotation (x,y,z,w) :"
+			+ " Speed (km/h) : Steering Wheel Position [-1,1] : Gas Pedal Position :"
+			+ " Brake Pedal Position : Engine Running";
+	
+	/**
+	 * Date format of the "Date-Time" entry in the header.
+	 */
+	public static final String DATE_FORMAT = "yyyy_MM_dd-HH_mm_ss";
 
 
 	public DataWriter(String outputFolder, Car car, String driverName, String absoluteDrivingTaskPath, int trackNumber) 
+	{
+		this(outputFolder, car, driverName, absoluteDrivingTaskPath, trackNumber, false, false);
+	}
+	
+	
+	/**
+	 * Creates a new drive-data file in the given output folder.
+	 * 
+	 * @param outputFolder
+	 * 			Folder to write the file to.
+	 * 
+	 * @param car
+	 * 			Car to record.
+	 * 
+	 * @param driverName
+	 * 			Name of the driver (will be written to the header).
+	 * 
+	 * @param absoluteDrivingTaskPath
+	 * 			Path of the driving task (will be written to the header).
+	 * 
+	 * @param trackNumber
+	 * 			Number of track (will be part of the file name). Ignored if negative.
+	 * 
+	 * @param binaryFormat
+	 * 			If true, the file will be written in the binary format (see <code>BinaryDataFormat</code>),
+	 * 			else in the text format.
+	 * 
+	 * @param asynchronous
+	 * 			If true, samples will be copied to a ring buffer and written to disk by 
+	 * 			a background thread (see <code>DataWriterThread</code>).
+	 */
+	public DataWriter(String outputFolder, Car car, String driverName, String absoluteDrivingTaskPath, 
+			int trackNumber, boolean binaryFormat, boolean asynchronous) 
 	{
 		this.car = car;
 		this.relativeDrivingTaskPath = getRelativePath(absoluteDrivingTaskPath);
 		
 		Util.makeDirectory(outputFolder);
+		
+		String extension = binaryFormat ? BinaryDataFormat.FILE_EXTENSION : ".txt";
 
 		if(trackNumber >= 0)
-			analyzerDataFile = new File(outputFolder + "/carData_track" + trackNumber + ".txt");
+			analyzerDataFile = new File(outputFolder + "/carData_track" + trackNumber + extension);
 		else
-			analyzerDataFile = new File(outputFolder + "/carData.txt");
+			analyzerDataFile = new File(outputFolder + "/carData" + extension);
 
 		
 		if (analyzerDataFile.getAbsolutePath() == null) 
@@ -83,31 +152,45 @@ public class DataWriter
 		while(outFile.exists()) 
 		{
 			if(trackNumber >= 0)
-				analyzerDataFile = new File(outputFolder + "/carData_track" + trackNumber + "(" + i + ").txt");
+				analyzerDataFile = new File(outputFolder + "/carData_track" + trackNumber + "(" + i + ")" + extension);
 			else
-				analyzerDataFile = new File(outputFolder + "/carData(" + i + ").txt");
+				analyzerDataFile = new File(outputFolder + "/carData(" + i + ")" + extension);
 			
 			outFile = new File(analyzerDataFile.getAbsolutePath());
 			i++;
 		}
 		
 		
+		Date now = new Date();
+		String dateTime = new SimpleDateFormat(DATE_FORMAT).format(now);
+		
 		try {
-			out = new BufferedWriter(new FileWriter(outFile));
-			out.write("Driving Task: " + relativeDrivingTaskPath + newLine);
-			out.write("Date-Time: "
-					+ new SimpleDateFormat("yyyy_MM_dd-HH_mm_ss")
-							.format(new Date()) + newLine);
-			out.write("Driver: " + driverName + newLine);
-			out.write("Used Format = Time (ms): Position (x,y,z) : Rotation (x,y,z,w) :"
-					+ " Speed (km/h) : Steering Wheel Position [-1,1] : Gas Pedal Position :"
-					+ " Brake Pedal Position : Engine Running" + newLine);
+			if(binaryFormat)
+			{
+				binaryWriter = new BinaryDataWriter(outFile, relativeDrivingTaskPath, dateTime, 
+						now.getTime(), driverName, BinaryDataFormat.getDriveDataColumns());
+			}
+			else
+			{
+				out = new BufferedWriter(new FileWriter(outFile));
+				out.write("Driving Task: " + relativeDrivingTaskPath + newLine);
+				out.write("Date-Time: " + dateTime + newLine);
+				out.write("Driver: " + driverName + newLine);
+				out.write(USED_FORMAT + newLine);
+			}
 
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 		arrayDataList = new ArrayList<DataUnit>();
-		lastAnalyzerDataSave = (new Date()).getTime();
+		lastAnalyzerDataSave = System.currentTimeMillis();
+		
+		if(asynchronous)
+		{
+			ringBuffer = new DataRingBuffer(BinaryDataFormat.getDriveDataColumns(), RING_BUFFER_CAPACITY);
+			writerThread = new DataWriterThread(this, ringBuffer, DRAIN_INTERVAL);
+			writerThread.start();
+		}
 	}
 	
 	
@@ -129,36 +212,139 @@ public class DataWriter
 	{
 		int updateInterval = 50; // = 1000/20
 		
-		Date curDate = new Date();
+		long currentTime = System.currentTimeMillis();
 
-		if (curDate.getTime() - lastAnalyzerDataSave/*.getTime()*/ >= 2*updateInterval) 
+		if (currentTime - lastAnalyzerDataSave >= 2*updateInterval) 
 		{
-			lastAnalyzerDataSave = curDate.getTime() - 2*updateInterval;
+			lastAnalyzerDataSave = currentTime - 2*updateInterval;
 		}
 		
 		
-		if (curDate.getTime() - lastAnalyzerDataSave/*.getTime()*/ >= updateInterval) 
+		if (currentTime - lastAnalyzerDataSave >= updateInterval) 
 		{
-			//System.err.println("diff: " + (curDate.getTime() - lastAnalyzerDataSave));
-			write(
-					curDate,
-					Math.round(car.getPosition().x * 1000) / 1000.0f,
-					Math.round(car.getPosition().y * 1000) / 1000.0f,
-					Math.round(car.getPosition().z * 1000) / 1000.0f,
-					Math.round(car.getRotation().getX() * 10000) / 10000.0f,
-					Math.round(car.getRotation().getY() * 10000) / 10000.0f,
-					Math.round(car.getRotation().getZ() * 10000) / 10000.0f,
-					Math.round(car.getRotation().getW() * 10000) / 10000.0f,
-					car.getCurrentSpeedKmhRounded(), Math.round(car
-							.getSteeringWheelState() * 100000) / 100000.0f, car
-							.getAcceleratorPedalIntensity(), car.getBrakePedalIntensity(), 
-							car.isEngineOn());
+			// fill pre-allocated objects instead of creating new ones
+			car.getPosition(position);
+			car.getRotation(rotation);
+			
+			float x = Math.round(position.x * 1000) / 1000.0f;
+			float y = Math.round(position.y * 1000) / 1000.0f;
+			float z = Math.round(position.z * 1000) / 1000.0f;
+			float xRot = Math.round(rotation.getX() * 10000) / 10000.0f;
+			float yRot = Math.round(rotation.getY() * 10000) / 10000.0f;
+			float zRot = Math.round(rotation.getZ() * 10000) / 10000.0f;
+			float wRot = Math.round(rotation.getW() * 10000) / 10000.0f;
+			float speed = car.getCurrentSpeedKmhRounded();
+			float steeringWheelState = Math.round(car.getSteeringWheelState() * 100000) / 100000.0f;
+			float gasPedalState = car.getAcceleratorPedalIntensity();
+			float brakePedalState = car.getBrakePedalIntensity();
+			boolean isEngineOn = car.isEngineOn();
+			
+			if(ringBuffer != null)
+				record(currentTime, x, y, z, xRot, yRot, zRot, wRot, speed, steeringWheelState, 
+						gasPedalState, brakePedalState, isEngineOn);
+			else
+				write(new Date(currentTime), x, y, z, xRot, yRot, zRot, wRot, speed, steeringWheelState, 
+						gasPedalState, brakePedalState, isEngineOn);
 
-			//lastAnalyzerDataSave = curDate;
 			lastAnalyzerDataSave += updateInterval;
 		}
 
 	}
+	
+	
+	/**
+	 * Copies the given values to the ring buffer (asynchronous mode only). If
+	 * the ring buffer is full, the writer thread will be woken up and the sample 
+	 * will be dropped (and counted), so the render thread never waits for disk I/O.
+	 */
+	private void record(long time, float x, float y, float z, float xRot,
+			float yRot, float zRot, float wRot, float linearSpeed,
+			float steeringWheelState, float gasPedalState, float brakePedalState,
+			boolean isEngineOn)
+	{
+		if(writeFailed)
+			return;
+		
+		int slot = ringBuffer.claim();
+		if(slot < 0)
+		{
+			writerThread.wakeUp();
+			droppedSamples++;
+			return;
+		}
+		
+		ringBuffer.setLong(slot, 0, time);
+		ringBuffer.setFloat(slot, 1, x);
+		ringBuffer.setFloat(slot, 2, y);
+		ringBuffer.setFloat(slot, 3, z);
+		ringBuffer.setFloat(slot, 4, xRot);
+		ringBuffer.setFloat(slot, 5, yRot);
+		ringBuffer.setFloat(slot, 6, zRot);
+		ringBuffer.setFloat(slot, 7, wRot);
+		ringBuffer.setFloat(slot, 8, linearSpeed);
+		ringBuffer.setFloat(slot, 9, steeringWheelState);
+		ringBuffer.setFloat(slot, 10, gasPedalState);
+		ringBuffer.setFloat(slot, 11, brakePedalState);
+		ringBuffer.setBoolean(slot, 12, isEngineOn);
+		ringBuffer.publish();
+		
+		// do not wait for the next regular drain if the buffer is filling up
+		if(ringBuffer.size() >= ringBuffer.getCapacity()/2)
+			writerThread.wakeUp();
+	}
+	
+	
+	/**
+	 * Writes the oldest rows of the ring buffer to disk (called by the writer 
+	 * thread in asynchronous mode).
+	 * 
+	 * @param ringBuffer
+	 * 			Ring buffer to read from.
+	 * 
+	 * @param count
+	 * 			Number of rows to write.
+	 */
+	@Override
+	public void writeBatch(DataRingBuffer ringBuffer, int count)
+	{
+		// recording stopped after an error: discard samples
+		if(writeFailed)
+			return;
+		
+		try {
+			if(binaryWriter != null)
+			{
+				for(int i=0; i<count; i++)
+					ringBuffer.copyRowTo(ringBuffer.getSlot(i), binaryWriter);
+				
+				binaryWriter.flush();
+			}
+			else
+			{
+				StringBuffer sb = new StringBuffer();
+				for(int i=0; i<count; i++)
+				{
+					ringBuffer.appendTextRow(ringBuffer.getSlot(i), sb);
+					sb.append(newLine);
+				}
+				out.write(sb.toString());
+				out.flush();
+			}
+		} catch (IOException e) {
+			reportWriteError(e);
+		}
+	}
+	
+	
+	/**
+	 * @return
+	 * 			Number of samples that have been dropped because the ring buffer
+	 * 			was full (asynchronous mode only).
+	 */
+	public long getDroppedSamples()
+	{
+		return droppedSamples;
+	}
 
 	
 	// see eu.opends.analyzer.IAnalyzationDataWriter#write(float,
@@ -168,6 +354,33 @@ public class DataWriter
 			float steeringWheelState, float gasPedalState, float brakePedalState,
 			boolean isEngineOn) 
 	{
+		if(binaryWriter != null)
+		{
+			if(writeFailed)
+				return;
+			
+			// binary format: no need to create a data unit
+			try {
+				binaryWriter.setLong(0, curDate.getTime());
+				binaryWriter.setFloat(1, x);
+				binaryWriter.setFloat(2, y);
+				binaryWriter.setFloat(3, z);
+				binaryWriter.setFloat(4, xRot);
+				binaryWriter.setFloat(5, yRot);
+				binaryWriter.setFloat(6, zRot);
+				binaryWriter.setFloat(7, wRot);
+				binaryWriter.setFloat(8, linearSpeed);
+				binaryWriter.setFloat(9, steeringWheelState);
+				binaryWriter.setFloat(10, gasPedalState);
+				binaryWriter.setFloat(11, brakePedalState);
+				binaryWriter.setBoolean(12, isEngineOn);
+				binaryWriter.nextRow();
+			} catch (IOException e) {
+				reportWriteError(e);
+			}
+			return;
+		}
+		
 		DataUnit row = new DataUnit(curDate, x, y, z, xRot, yRot, zRot, wRot,
 				linearSpeed, steeringWheelState, gasPedalState, brakePedalState,
 				isEngineOn);
@@ -193,16 +406,28 @@ public class DataWriter
 
 	public void flush() 
 	{
+		if(binaryWriter != null)
+		{
+			if(!writeFailed)
+			{
+				try {
+					binaryWriter.flush();
+				} catch (IOException e) {
+					reportWriteError(e);
+				}
+			}
+			return;
+		}
+		
 		try {
+			
 			StringBuffer sb = new StringBuffer();
 			for (DataUnit r : arrayDataList) {
-				sb.append(r.getDate().getTime() + ":" + r.getXpos() + ":"
-						+ r.getYpos() + ":" + r.getZpos() + ":" + r.getXrot()
-						+ ":" + r.getYrot() + ":" + r.getZrot() + ":"
-						+ r.getWrot() + ":" + r.getSpeed() + ":"
-						+ r.getSteeringWheelPos() + ":" + r.getAcceleratorPedalPos() + ":"
-						+ r.getBrakePedalPos() + ":" + r.isEngineOn() + newLine
-						);
+				appendTextRow(sb, r.getDate().getTime(), r.getXpos(), r.getYpos(), r.getZpos(), 
+						r.getXrot(), r.getYrot(), r.getZrot(), r.getWrot(), r.getSpeed(), 
+						r.getSteeringWheelPos(), r.getAcceleratorPedalPos(), r.getBrakePedalPos(), 
+						r.isEngineOn());
+				sb.append(newLine);
 			}
 			out.write(sb.toString());
 			arrayDataList.clear();
@@ -214,13 +439,62 @@ public class DataWriter
 	}
 
 	
+	/**
+	 * Reports an I/O error of the binary writer (or of the writer thread) and 
+	 * disables recording: further samples are discarded, the simulation continues.
+	 */
+	private void reportWriteError(IOException e)
+	{
+		if(writeFailed)
+			return;
+		
+		writeFailed = true;
+		e.printStackTrace();
+		System.err.println("DataWriter: could not write '" + outFile + "', recording of drive data stopped");
+	}
+	
+	
+	/**
+	 * Appends one row of drive data in text format (without line separator).
+	 */
+	static void appendTextRow(StringBuffer sb, long time, float x, float y, float z, float xRot,
+			float yRot, float zRot, float wRot, float speed, float steeringWheelPos, 
+			float acceleratorPedalPos, float brakePedalPos, boolean isEngineOn)
+	{
+		sb.append(time).append(':').append(x).append(':').append(y).append(':').append(z)
+			.append(':').append(xRot).append(':').append(yRot).append(':').append(zRot)
+			.append(':').append(wRot).append(':').append(speed).append(':').append(steeringWheelPos)
+			.append(':').append(acceleratorPedalPos).append(':').append(brakePedalPos)
+			.append(':').append(isEngineOn);
+	}
+	
+	
 	public void quit() 
 	{
 		dataWriterEnabled = false;
+		
+		if(writerThread != null)
+		{
+			// write all remaining samples of the ring buffer
+			writerThread.requestStop();
+			try {
+				writerThread.join();
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+			writerThread = null;
+			
+			if(droppedSamples > 0)
+				System.err.println("DataWriter: " + droppedSamples + " samples have been dropped");
+		}
+		
 		flush();
 		try {
 			if (out != null)
 				out.close();
+			
+			if (binaryWriter != null)
+				binaryWriter.close();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
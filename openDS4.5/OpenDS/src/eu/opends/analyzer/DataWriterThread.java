@@ -0,0 +1,102 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.analyzer;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This thread drains one or more ring buffers (e.g. of the <code>DataWriter</code>)
+ * in batches and passes the rows to a consumer which writes them to disk, so the 
+ * producing thread never blocks on file I/O. It wakes up every <code>drainInterval</code> 
+ * ms or when a producer signals that a buffer is filling up. After a stop request, 
+ * all remaining rows will be written before the thread terminates.
+ *
+ * @author OpenDS contributors
+ */
+public class DataWriterThread extends Thread
+{
+	private RingBufferConsumer consumer;
+	private DataRingBuffer[] ringBuffers;
+	private long drainIntervalNanos;
+	private volatile boolean stopRequested = false;
+
+
+	public DataWriterThread(RingBufferConsumer consumer, DataRingBuffer ringBuffer, int drainInterval)
+	{
+		this(consumer, new DataRingBuffer[]{ringBuffer}, drainInterval);
+	}
+	
+	
+	public DataWriterThread(RingBufferConsumer consumer, DataRingBuffer[] ringBuffers, int drainInterval)
+	{
+		super("DataWriterThread");
+		this.consumer = consumer;
+		this.ringBuffers = ringBuffers;
+		this.drainIntervalNanos = drainInterval * 1000000L;
+		setDaemon(true);
+	}
+
+
+	public void run()
+	{
+		while(true)
+		{
+			// read stop flag before checking buffer --> nothing published before stop will be lost
+			boolean stop = stopRequested;
+
+			boolean written = false;
+			for(DataRingBuffer ringBuffer : ringBuffers)
+			{
+				int available = ringBuffer.available();
+				if(available > 0)
+				{
+					consumer.writeBatch(ringBuffer, available);
+					ringBuffer.release(available);
+					written = true;
+				}
+			}
+			
+			if(written)
+				continue;
+			else if(stop)
+				break;
+			else
+				LockSupport.parkNanos(this, drainIntervalNanos);
+		}
+	}
+
+
+	/**
+	 * Triggers an immediate drain of the ring buffer.
+	 */
+	public void wakeUp()
+	{
+		LockSupport.unpark(this);
+	}
+
+
+	/**
+	 * Requests the thread to write all remaining rows and terminate.
+	 */
+	public synchronized void requestStop()
+	{
+		stopRequested = true;
+		wakeUp();
+	}
+}
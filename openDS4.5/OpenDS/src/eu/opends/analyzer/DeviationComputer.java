@@ -49,9 +49,25 @@ public class DeviationComputer
 	 * 			list of way points
 	 */
 	public DeviationComputer(ArrayList<Vector3f> wayPoints)
+	{
+		this(wayPoints, DriveAnalyzer.getDrivingTask().getScenarioLoader().getIdealTrackMap());
+	}
+	
+	
+	/**
+	 * Creates a new deviation computer for the given ideal tracks (no driving 
+	 * task of the drive analyzer needed)
+	 * 
+	 * @param wayPoints
+	 * 			list of way points
+	 * 
+	 * @param idealTrackMap
+	 * 			ideal tracks by ID
+	 */
+	public DeviationComputer(ArrayList<Vector3f> wayPoints, Map<String, IdealTrackContainer> idealTrackMap)
 	{
 		this.wayPoints = wayPoints;
-		this.idealTrackMap = DriveAnalyzer.getDrivingTask().getScenarioLoader().getIdealTrackMap();
+		this.idealTrackMap = idealTrackMap;
 	}
 	
 		
@@ -87,6 +103,9 @@ public class DeviationComputer
 	{
 		ArrayList<IdealLine> idealLineList = new ArrayList<IdealLine>();
 		
+		// index way points once for all ideal lines
+		WayPointGrid wayPointGrid = new WayPointGrid(wayPoints, IdealLine.MAX_DISTANCE);
+		
 		for(Map.Entry<String, IdealTrackContainer> entry : idealTrackMap.entrySet())
 		{
 			String id = entry.getKey();
@@ -96,7 +115,7 @@ public class DeviationComputer
 			
 			try {
 				
-				idealLineList.add(new IdealLine(id, roadWidth, idealPoints, wayPoints));
+				idealLineList.add(new IdealLine(id, roadWidth, idealPoints, wayPoints, wayPointGrid));
 				
 			} catch (Exception e) {
 	
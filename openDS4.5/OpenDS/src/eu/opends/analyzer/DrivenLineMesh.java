@@ -0,0 +1,286 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.analyzer;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import com.jme3.scene.Mesh;
+import com.jme3.scene.Mesh.Mode;
+import com.jme3.scene.VertexBuffer;
+import com.jme3.scene.VertexBuffer.Format;
+import com.jme3.scene.VertexBuffer.Type;
+import com.jme3.scene.VertexBuffer.Usage;
+import com.jme3.util.BufferUtils;
+
+/**
+ * Creates the meshes of the driven line (and points) of the drive analyzer
+ * directly from the position arrays of <code>DataReader</code>, without creating
+ * a <code>Vector3f</code> per sample. All positions are stored in one vertex
+ * buffer which is shared by the line and the point mesh. Each mesh has several
+ * levels of detail (index buffers): level 0 contains all samples, the following
+ * levels omit samples which deviate less than the given tolerance from the
+ * simplified line (Douglas-Peucker).
+ *
+ * The Douglas-Peucker simplification is computed once: each sample gets the
+ * deviation at which it would be dropped ("importance"), so all levels can be
+ * extracted from the same array.
+ *
+ * @author OpenDS contributors
+ */
+public class DrivenLineMesh
+{
+	// max. deviation (in m) of the simplified line for each level of detail
+	public static final float[] LOD_TOLERANCES = new float[] {0, 0.02f, 0.2f, 1f, 5f};
+	
+	// the line is simplified in sections of this size (limits worst case run time)
+	private static final int SECTION_SIZE = 4096;
+
+	private VertexBuffer positionBuffer;
+	private VertexBuffer[] lodLevels;
+	private int[] lodVertexCounts;
+
+
+	/**
+	 * Creates the (shared) vertex buffer and the index buffers of all levels of
+	 * detail.
+	 *
+	 * @param x
+	 * 			x-coordinates of the samples.
+	 *
+	 * @param y
+	 * 			y-coordinates of the samples.
+	 *
+	 * @param z
+	 * 			z-coordinates of the samples.
+	 *
+	 * @param count
+	 * 			Number of samples.
+	 */
+	public DrivenLineMesh(float[] x, float[] y, float[] z, int count)
+	{
+		FloatBuffer positions = BufferUtils.createFloatBuffer(3 * count);
+		for(int i=0; i<count; i++)
+			positions.put(x[i]).put(y[i]).put(z[i]);
+		positions.flip();
+
+		positionBuffer = new VertexBuffer(Type.Position);
+		positionBuffer.setupData(Usage.Static, 3, Format.Float, positions);
+
+		float[] importance = computeImportance(x, y, z, count);
+
+		lodLevels = new VertexBuffer[LOD_TOLERANCES.length];
+		lodVertexCounts = new int[LOD_TOLERANCES.length];
+		for(int level=0; level<LOD_TOLERANCES.length; level++)
+		{
+			int[] indices = getIndices(importance, count, LOD_TOLERANCES[level]);
+
+			IntBuffer indexBuffer = BufferUtils.createIntBuffer(indices);
+			lodLevels[level] = new VertexBuffer(Type.Index);
+			lodLevels[level].setupData(Usage.Static, 1, Format.UnsignedInt, indexBuffer);
+			lodVertexCounts[level] = indices.length;
+		}
+	}
+
+
+	/**
+	 * Creates a mesh of the given mode (e.g. LineStrip or Points). All meshes of
+	 * this instance share the same vertex buffer.
+	 *
+	 * @param mode
+	 * 			Mode of the new mesh.
+	 *
+	 * @return
+	 * 			Mesh with all levels of detail (level 0 selected).
+	 */
+	public Mesh createMesh(Mode mode)
+	{
+		Mesh mesh = new Mesh();
+		mesh.setMode(mode);
+		mesh.setBuffer(positionBuffer);
+		mesh.setBuffer(lodLevels[0]);
+		mesh.setLodLevels(lodLevels);
+		mesh.updateBound();
+		mesh.updateCounts();
+		return mesh;
+	}
+
+
+	/**
+	 * @return
+	 * 			Number of vertices of the given level of detail.
+	 */
+	public int getVertexCount(int level)
+	{
+		return lodVertexCounts[level];
+	}
+
+
+	/**
+	 * Selects the level of detail for the given distance between camera and line:
+	 * the coarsest level whose tolerance is below 1/500 of the distance (i.e. less
+	 * than about a pixel).
+	 *
+	 * @param distance
+	 * 			Distance between camera and line (in m).
+	 *
+	 * @return
+	 * 			Level of detail.
+	 */
+	public static int getLodLevel(float distance)
+	{
+		float maxTolerance = distance / 500f;
+
+		int level = 0;
+		while(level+1 < LOD_TOLERANCES.length && LOD_TOLERANCES[level+1] <= maxTolerance)
+			level++;
+
+		return level;
+	}
+
+
+	/**
+	 * Computes the Douglas-Peucker importance of all samples: the max. deviation
+	 * of the simplified line at which the sample is still needed. First and last
+	 * sample of each section are always needed. The importance of a sample never 
+	 * exceeds the importance of the sample that split its segment, so every level 
+	 * contains all samples of the coarser levels.
+	 */
+	static float[] computeImportance(float[] x, float[] y, float[] z, int count)
+	{
+		float[] importance = new float[count];
+		if(count == 0)
+			return importance;
+
+		// explicit stack of segments (first, last, importance of parent) instead of recursion
+		int[] firstStack = new int[64];
+		int[] lastStack = new int[64];
+		float[] parentStack = new float[64];
+		int stackSize = 0;
+
+		for(int first=0; first<count-1; first+=SECTION_SIZE)
+		{
+			int last = Math.min(first+SECTION_SIZE, count-1);
+			importance[first] = Float.MAX_VALUE;
+			importance[last] = Float.MAX_VALUE;
+
+			if(stackSize + 1 > firstStack.length)
+			{
+				firstStack = Arrays.copyOf(firstStack, 2*firstStack.length);
+				lastStack = Arrays.copyOf(lastStack, 2*lastStack.length);
+				parentStack = Arrays.copyOf(parentStack, 2*parentStack.length);
+			}
+
+			firstStack[stackSize] = first;
+			lastStack[stackSize] = last;
+			parentStack[stackSize] = Float.MAX_VALUE;
+			stackSize++;
+		}
+		importance[count-1] = Float.MAX_VALUE;
+
+		while(stackSize > 0)
+		{
+			stackSize--;
+			int first = firstStack[stackSize];
+			int last = lastStack[stackSize];
+			float parent = parentStack[stackSize];
+
+			if(last - first < 2)
+				continue;
+
+			// search sample with max. distance to segment first..last
+			int maxIndex = -1;
+			float maxDistance = -1;
+			for(int i=first+1; i<last; i++)
+			{
+				float distance = distanceToSegment(x, y, z, i, first, last);
+				if(distance > maxDistance)
+				{
+					maxDistance = distance;
+					maxIndex = i;
+				}
+			}
+
+			float value = Math.min(maxDistance, parent);
+			importance[maxIndex] = value;
+
+			if(stackSize + 2 > firstStack.length)
+			{
+				firstStack = Arrays.copyOf(firstStack, 2*firstStack.length);
+				lastStack = Arrays.copyOf(lastStack, 2*lastStack.length);
+				parentStack = Arrays.copyOf(parentStack, 2*parentStack.length);
+			}
+
+			firstStack[stackSize] = first;
+			lastStack[stackSize] = maxIndex;
+			parentStack[stackSize] = value;
+			stackSize++;
+
+			firstStack[stackSize] = maxIndex;
+			lastStack[stackSize] = last;
+			parentStack[stackSize] = value;
+			stackSize++;
+		}
+
+		return importance;
+	}
+
+
+	private static float distanceToSegment(float[] x, float[] y, float[] z, int i, int first, int last)
+	{
+		float sx = x[last] - x[first];
+		float sy = y[last] - y[first];
+		float sz = z[last] - z[first];
+		float px = x[i] - x[first];
+		float py = y[i] - y[first];
+		float pz = z[i] - z[first];
+
+		float lengthSquared = sx*sx + sy*sy + sz*sz;
+		float t = 0;
+		if(lengthSquared > 0)
+			t = Math.max(0, Math.min(1, (px*sx + py*sy + pz*sz) / lengthSquared));
+
+		float dx = px - t*sx;
+		float dy = py - t*sy;
+		float dz = pz - t*sz;
+		return (float) Math.sqrt(dx*dx + dy*dy + dz*dz);
+	}
+
+
+	private static int[] getIndices(float[] importance, int count, float tolerance)
+	{
+		int size = 0;
+		for(int i=0; i<count; i++)
+		{
+			if(tolerance == 0 || importance[i] > tolerance)
+				size++;
+		}
+
+		int[] indices = new int[size];
+		int index = 0;
+		for(int i=0; i<count; i++)
+		{
+			if(tolerance == 0 || importance[i] > tolerance)
+				indices[index++] = i;
+		}
+
+		return indices;
+	}
+}
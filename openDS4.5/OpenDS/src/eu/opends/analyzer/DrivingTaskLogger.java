@@ -18,10 +18,7 @@
 
 package eu.opends.analyzer;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
@@ -30,18 +27,91 @@ import java.util.GregorianCalendar;
 import eu.opends.tools.Util;
 
 /**
- * This class is used for logging driving task data to a text file. 
+ * This class is used for logging driving task data to a text file. Lines are 
+ * added as records to the asynchronous event log sink, which formats and writes
+ * them on its own thread; the calling thread (e.g. render thread) does not block
+ * on file I/O. 
  * 
  * @author Rafael Math
  */
 public class DrivingTaskLogger 
 {
 	private String outputFolder;
-	private File outFile;
-	private BufferedWriter output;
+	private EventLogSink sink;
+	private EventLogSink.LogFile logFile;
 	private String newLine = System.getProperty("line.separator");
 	private String driverName;
 	private String drivingTask;
+	
+	// used by the sink thread only
+	private SimpleDateFormat timestampFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+	private SimpleDateFormat durationFormat = new SimpleDateFormat("mm:ss.SSS");
+	
+	
+	/**
+	 * Line of text, optionally with time stamp.
+	 */
+	private class TextRecord implements EventLogSink.Record
+	{
+		private long timestamp;
+		private String text;
+		
+		
+		private TextRecord(long timestamp, String text)
+		{
+			this.timestamp = timestamp;
+			this.text = text;
+		}
+		
+		
+		@Override
+		public void write(StringBuilder out)
+		{
+			if(timestamp >= 0)
+				out.append(timestampFormat.format(new Date(timestamp))).append(" --> ");
+			out.append(text).append(newLine);
+		}
+	}
+	
+	
+	/**
+	 * Reaction time measured at a trigger.
+	 */
+	private class ReactionTimeRecord implements EventLogSink.Record
+	{
+		private long startTime;
+		private String triggerName;
+		private long reactionTime;
+		
+		
+		@Override
+		public void write(StringBuilder out)
+		{
+			out.append(timestampFormat.format(new Date(startTime))).append(" --> reaction time at '")
+				.append(triggerName).append("': ").append(durationFormat.format(new Date(reactionTime)))
+				.append(newLine);
+		}
+	}
+	
+	
+	/**
+	 * Mean and standard deviation of speed.
+	 */
+	private class SpeedDifferenceRecord implements EventLogSink.Record
+	{
+		private long timestamp;
+		private float averageDifference;
+		private float standardDeviation;
+		
+		
+		@Override
+		public void write(StringBuilder out)
+		{
+			out.append(timestampFormat.format(new Date(timestamp))).append(" --> speed deviation: ")
+				.append(averageDifference).append(" km/h (average), ").append(standardDeviation)
+				.append(" km/h (standard deviation)").append(newLine);
+		}
+	}
 
 
 	/**
@@ -57,12 +127,16 @@ public class DrivingTaskLogger
 	 * 
 	 * @param drivingTask
 	 * 			Name of the driving task file.
+	 * 
+	 * @param sink
+	 * 			Event log sink writing the log file.
 	 */
-	public DrivingTaskLogger(String outputFolder, String driverName, String drivingTask) 
+	public DrivingTaskLogger(String outputFolder, String driverName, String drivingTask, EventLogSink sink) 
 	{
 		this.outputFolder = outputFolder;
 		this.driverName = driverName;
 		this.drivingTask = drivingTask;
+		this.sink = sink;
 
 		Util.makeDirectory(outputFolder);
 		initWriter();
@@ -80,17 +154,7 @@ public class DrivingTaskLogger
 	 */
 	public void reportText(String string, Date timestamp) 
 	{
-		// format current time stamp
-		String timestampString = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(timestamp);
-
-		// write data to file
-		try {
-			output.write(timestampString + " --> " + string + newLine);
-			output.flush();
-			
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		sink.add(logFile, new TextRecord(timestamp.getTime(), string));
 	}
 	
 	
@@ -102,14 +166,20 @@ public class DrivingTaskLogger
 	 */
 	public void reportText(String string) 
 	{
-		// write data to file
-		try {
-			output.write(string + newLine);
-			output.flush();
-			
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		sink.add(logFile, new TextRecord(-1, string));
+	}
+	
+	
+	/**
+	 * Adds a record to the output file. The record will be formatted by the 
+	 * sink thread, hence it must not be changed after adding.
+	 * 
+	 * @param record
+	 * 			Record to add.
+	 */
+	public void reportRecord(EventLogSink.Record record) 
+	{
+		sink.add(logFile, record);
 	}
 	
 	
@@ -124,23 +194,13 @@ public class DrivingTaskLogger
 	 */
 	public void reportReactionTime(String triggerName, Calendar startTime) 
 	{
-		// get time stamp of start time
-		long startTimeInMilliseconds = startTime.getTimeInMillis();
-		String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(startTimeInMilliseconds);
-
 		// get passed milliseconds since start time (= reaction time)
-		Calendar now = new GregorianCalendar();
-		long passedMilliseconds = now.getTimeInMillis() - startTimeInMilliseconds;
-		String reactionTime = new SimpleDateFormat("mm:ss.SSS").format(passedMilliseconds);
+		ReactionTimeRecord record = new ReactionTimeRecord();
+		record.startTime = startTime.getTimeInMillis();
+		record.triggerName = triggerName;
+		record.reactionTime = new GregorianCalendar().getTimeInMillis() - record.startTime;
 		
-		// write data to file
-		try {
-			output.write(timestamp + " --> reaction time at '" + triggerName + "': " + reactionTime + newLine);
-			output.flush();
-			
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		sink.add(logFile, record);
 	}
 
 	
@@ -153,26 +213,18 @@ public class DrivingTaskLogger
 	 */
 	public void reportPresentationType(int currentPresentationType) 
 	{
-		String ptString = "";
+		String ptString = "PresentationTask: ";
 		
 		// lookup string representation of presentation type
 		switch (currentPresentationType)
 		{
-			case 0 : ptString = "before construction site"; break;
-			case 1 : ptString = "in construction site"; break;
-			case 2 : ptString = "behind construction site"; break;
-			case 3 : ptString = "empty screen"; break;
+			case 0 : ptString = "PresentationTask: before construction site"; break;
+			case 1 : ptString = "PresentationTask: in construction site"; break;
+			case 2 : ptString = "PresentationTask: behind construction site"; break;
+			case 3 : ptString = "PresentationTask: empty screen"; break;
 		}
 		
-		// write data to file
-		try {	
-			output.write(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date()) + 
-					" --> PresentationTask: " + ptString + newLine);
-			output.flush();
-			
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		sink.add(logFile, new TextRecord(System.currentTimeMillis(), ptString));
 	}
 	
 	
@@ -181,15 +233,7 @@ public class DrivingTaskLogger
 	 */
 	public void reportSpeedLimitExceeded() 
 	{
-		// write data to file
-		try {	
-			output.write(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date()) + 
-					" --> exceeded speed limit" + newLine);
-			output.flush();
-			
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		sink.add(logFile, new TextRecord(System.currentTimeMillis(), "exceeded speed limit"));
 	}
 
 	
@@ -198,15 +242,7 @@ public class DrivingTaskLogger
 	 */
 	public void reportSpeedLimitUnderExceeded() 
 	{
-		// write data to file
-		try {	
-			output.write(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date()) + 
-					" --> fall below speed limit" + newLine);
-			output.flush();
-			
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		sink.add(logFile, new TextRecord(System.currentTimeMillis(), "fall below speed limit"));
 	}
 	
 	
@@ -215,15 +251,7 @@ public class DrivingTaskLogger
 	 */
 	public void reportSpeedNormal() 
 	{
-		// write data to file
-		try {	
-			output.write(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date()) + 
-					" --> complying with speed limit again" + newLine);
-			output.flush();
-			
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		sink.add(logFile, new TextRecord(System.currentTimeMillis(), "complying with speed limit again"));
 	}
 	
 	
@@ -240,32 +268,22 @@ public class DrivingTaskLogger
 	 */
 	public void reportSpeedDifference(float averageDifference, float standardDeviation) 
 	{
-		// write data to file
-		try {	
-			output.write(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date()) + 
-					" --> speed deviation: " + averageDifference + " km/h (average), " +
-					standardDeviation + " km/h (standard deviation)" + newLine);
-			output.flush();
-			
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		SpeedDifferenceRecord record = new SpeedDifferenceRecord();
+		record.timestamp = System.currentTimeMillis();
+		record.averageDifference = averageDifference;
+		record.standardDeviation = standardDeviation;
+		
+		sink.add(logFile, record);
 	}
 	
 	
 	/**
-	 * Closes the file when the simulator has been halted.
+	 * Writes all pending lines and closes the file when the simulator has been halted.
 	 */
 	public void quit() 
 	{
-		try {
-			
-			if (output != null)
-				output.close();
-			
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		sink.close(logFile);
+		logFile = null;
 	}
 
 
@@ -286,23 +304,13 @@ public class DrivingTaskLogger
 			return;
 		}
 		
-		outFile = new File(analyzerDataFile.getAbsolutePath());
+		logFile = sink.open(analyzerDataFile.getAbsolutePath());
 		
 		// write date to file
-		try {
-			
-			String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date());
-			
-			output = new BufferedWriter(new FileWriter(outFile));
-			output.write("Driver: " + driverName + newLine);
-			output.write("Driving Task: " + drivingTask + newLine);
-			output.write("Start Time: "	+ timestamp + newLine + newLine);
-			output.flush();
-
-		} catch (IOException e) {
-
-			e.printStackTrace();
-		}
+		String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date());
+		sink.add(logFile, new TextRecord(-1, "Driver: " + driverName + newLine + 
+				"Driving Task: " + drivingTask + newLine + 
+				"Start Time: " + timestamp + newLine));
 	}
 
 }
@@ -0,0 +1,363 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.analyzer;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous sink of the study logs (e.g. driving task log, reaction data).
+ * Producers (e.g. the render thread) add structured records to a lock-free queue
+ * and return immediately; formatting and file I/O take place on this thread. The
+ * queue is drained every <code>flushInterval</code> ms and all records of a batch
+ * are written before each touched file is flushed once (group commit). Hence, a
+ * record reaches the disk at most <code>flushInterval</code> ms after it has been
+ * added. Records of a file are written in the order they have been added.
+ * If the VM exits without <code>requestStop()</code> (e.g. by System.exit()), a
+ * shutdown hook writes all remaining records and closes the files.
+ *
+ * @author OpenDS contributors
+ */
+public class EventLogSink extends Thread
+{
+	/**
+	 * Record of a log file, formatted by the sink thread.
+	 */
+	public interface Record
+	{
+		/**
+		 * Appends the text representation of this record (including line
+		 * separators) to the given buffer.
+		 */
+		public void write(StringBuilder out);
+	}
+
+
+	/**
+	 * Log file opened at the sink.
+	 */
+	public static class LogFile
+	{
+		private String path;
+		private BufferedWriter writer;
+		private boolean isDirty = false;
+
+
+		public String getPath()
+		{
+			return path;
+		}
+	}
+
+
+	private static class Entry
+	{
+		LogFile file;
+		Record record;
+		CountDownLatch closeSignal;
+	}
+
+
+	private ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<Entry>();
+	private ArrayList<LogFile> openFiles = new ArrayList<LogFile>();
+	private ArrayList<LogFile> dirtyFiles = new ArrayList<LogFile>();
+	private StringBuilder buffer = new StringBuilder(256);
+	private long flushIntervalNanos;
+	private AtomicLong recordCount = new AtomicLong(0);
+	private volatile boolean stopRequested = false;
+
+	// maximum time to wait for the thread to write all remaining records on stop
+	private static final long STOP_TIMEOUT = 10000;
+
+	// interval (in ms) to check whether the thread is still running while closing a file
+	private static final long CLOSE_POLL_INTERVAL = 100;
+
+	private Thread shutdownHook = new Thread("EventLogSink shutdown")
+	{
+		public void run()
+		{
+			requestStop();
+		}
+	};
+
+
+	/**
+	 * Creates a new sink. Call <code>start()</code> before adding records.
+	 *
+	 * @param flushInterval
+	 * 			Maximum time (in ms) between adding a record and writing it to disk.
+	 */
+	public EventLogSink(int flushInterval)
+	{
+		super("EventLogSink");
+		this.flushIntervalNanos = Math.max(1, flushInterval) * 1000000L;
+	}
+
+
+	public synchronized void start()
+	{
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+		super.start();
+	}
+
+
+	/**
+	 * Creates (or overwrites) the log file at the given path.
+	 *
+	 * @param path
+	 * 			Path of the log file.
+	 *
+	 * @return
+	 * 			Log file to add records to (null, if file could not be created).
+	 */
+	public LogFile open(String path)
+	{
+		try {
+
+			LogFile file = new LogFile();
+			file.path = path;
+			file.writer = new BufferedWriter(new FileWriter(path), 65536);
+
+			synchronized(openFiles)
+			{
+				openFiles.add(file);
+			}
+
+			return file;
+
+		} catch (IOException e) {
+
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+
+	/**
+	 * Adds a record to the given log file. May be called by any thread without
+	 * blocking.
+	 *
+	 * @param file
+	 * 			Log file.
+	 *
+	 * @param record
+	 * 			Record to write.
+	 */
+	public void add(LogFile file, Record record)
+	{
+		if(file == null)
+			return;
+
+		if(stopRequested && !isAlive())
+		{
+			System.err.println("Event log closed, record for '" + file.getPath() + "' dropped");
+			return;
+		}
+
+		Entry entry = new Entry();
+		entry.file = file;
+		entry.record = record;
+		queue.add(entry);
+	}
+
+
+	/**
+	 * Writes all records of the given log file which have been added so far and
+	 * closes the file. Blocks until the file has been closed (e.g. to read it
+	 * afterwards).
+	 *
+	 * @param file
+	 * 			Log file to close.
+	 */
+	public void close(LogFile file)
+	{
+		if(file == null)
+			return;
+
+		Entry entry = new Entry();
+		entry.file = file;
+		entry.closeSignal = new CountDownLatch(1);
+		queue.add(entry);
+
+		LockSupport.unpark(this);
+
+		try {
+
+			// the thread might terminate before taking the entry from the queue
+			while(entry.closeSignal.getCount() > 0)
+			{
+				if(!isAlive())
+				{
+					// sink not running (any more) --> write on calling thread
+					synchronized(this)
+					{
+						drain();
+					}
+				}
+				else
+					entry.closeSignal.await(CLOSE_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+			}
+
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+	}
+
+
+	/**
+	 * @return
+	 * 			Number of records written so far.
+	 */
+	public long getRecordCount()
+	{
+		return recordCount.get();
+	}
+
+
+	public void run()
+	{
+		while(true)
+		{
+			// read stop flag before draining --> nothing added before stop will be lost
+			boolean stop = stopRequested;
+
+			synchronized(this)
+			{
+				drain();
+			}
+
+			if(stop)
+				break;
+
+			LockSupport.parkNanos(this, flushIntervalNanos);
+		}
+
+		// close all files still open
+		synchronized(openFiles)
+		{
+			for(LogFile file : openFiles)
+				closeFile(file);
+			openFiles.clear();
+		}
+	}
+
+
+	/**
+	 * Requests the thread to write all remaining records, close all files and
+	 * terminate. Blocks until the thread has terminated (at most STOP_TIMEOUT ms).
+	 */
+	public void requestStop()
+	{
+		stopRequested = true;
+		LockSupport.unpark(this);
+
+		try {
+			join(STOP_TIMEOUT);
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+
+		if(isAlive())
+			System.err.println("Event log not closed within " + STOP_TIMEOUT + " ms, records may be lost");
+
+		if(Thread.currentThread() != shutdownHook)
+		{
+			try {
+				Runtime.getRuntime().removeShutdownHook(shutdownHook);
+			} catch (IllegalStateException e) {
+				// VM is shutting down already
+			}
+		}
+	}
+
+
+	private void drain()
+	{
+		Entry entry;
+		while((entry = queue.poll()) != null)
+		{
+			LogFile file = entry.file;
+
+			if(entry.closeSignal != null)
+			{
+				closeFile(file);
+				synchronized(openFiles)
+				{
+					openFiles.remove(file);
+				}
+				entry.closeSignal.countDown();
+			}
+			else if(file.writer != null)
+			{
+				try {
+
+					buffer.setLength(0);
+					entry.record.write(buffer);
+					file.writer.append(buffer);
+					recordCount.incrementAndGet();
+
+					if(!file.isDirty)
+					{
+						file.isDirty = true;
+						dirtyFiles.add(file);
+					}
+
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		// group commit: one flush per file and batch
+		for(LogFile file : dirtyFiles)
+		{
+			file.isDirty = false;
+			if(file.writer != null)
+			{
+				try {
+					file.writer.flush();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		dirtyFiles.clear();
+	}
+
+
+	private void closeFile(LogFile file)
+	{
+		if(file.writer != null)
+		{
+			try {
+				file.writer.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			file.writer = null;
+		}
+	}
+}
@@ -38,12 +38,14 @@ public class IdealLine
 	}
 
  
-	private static final float MAX_DISTANCE = 10.0f; // max. allowed distance from any point on halfway vector
+	static final float MAX_DISTANCE = 10.0f; // max. allowed distance from any point on halfway vector
 	private static final boolean DEBUGMODE = false;
 	
 	private String id;
 	private float roadWidth = 15.0f; // length of halfway vectors (= max deviation from ideal line)
 	private ArrayList<Vector3f> wayPoints;
+	private WayPointGrid wayPointGrid;
+	private int[] candidates = new int[64];
 	private float area = 0.0f; 
 	private float length = 0.0f;
 	private IdealLineStatus status = IdealLineStatus.Complete;
@@ -53,9 +55,25 @@ public class IdealLine
 	
 
 	public IdealLine(String id, Float roadWidth, ArrayList<Vector2f> idealPoints, ArrayList<Vector3f> wayPoints) throws Exception
+	{
+		this(id, roadWidth, idealPoints, wayPoints, new WayPointGrid(wayPoints, MAX_DISTANCE));
+	}
+	
+	
+	/**
+	 * Computes the deviation of the given way points from the ideal line.
+	 * 
+	 * @param wayPointGrid
+	 * 			Spatial index of the way points (may be shared by several ideal lines). If
+	 * 			null, all way points will be scanned for each ideal point (reference for 
+	 * 			IdealLineCheck of tools/bench).
+	 */
+	public IdealLine(String id, Float roadWidth, ArrayList<Vector2f> idealPoints, ArrayList<Vector3f> wayPoints, 
+			WayPointGrid wayPointGrid) throws Exception
 	{
 		this.id = id;
 		this.wayPoints = wayPoints;
+		this.wayPointGrid = wayPointGrid;
 		
 		if(roadWidth != null)
 			this.roadWidth = roadWidth;
@@ -83,18 +101,21 @@ public class IdealLine
 					
 					// compute the line which divides the angle at currIP in two equal halves
 					Line2D.Float crossLine = getHalfwayVector(prevIP, currIP, nextIP);
-					log("Line through IP " + currIP + " from (" + crossLine.getX1() + "," + crossLine.getY1() + ")" +
-							" to (" + crossLine.getX2() + "," + crossLine.getY2() + ")");
+					if(DEBUGMODE)
+						log("Line through IP " + currIP + " from (" + crossLine.getX1() + "," + crossLine.getY1() + ")" +
+								" to (" + crossLine.getX2() + "," + crossLine.getY2() + ")");
 					
 					// get way point on or next to the line
 					Vector3f currWP3f = getPointOnLine(crossLine);
 					Vector2f currWP = new Vector2f(currWP3f.getX(), currWP3f.getZ());
-					log("Point on line: " + currWP);
+					if(DEBUGMODE)
+						log("Point on line: " + currWP);
 					
 					// compute area of current quadrangle with the given corners
 					quadrangle = new DeviationQuadrangle(prevWP, currWP, currIP, prevIP);
 					float segmentArea = quadrangle.getArea();
-					log("Area of current segment: " + segmentArea);
+					if(DEBUGMODE)
+						log("Area of current segment: " + segmentArea);
 					
 					// sum up all computed areas
 					area += segmentArea;
@@ -298,40 +319,64 @@ public class IdealLine
 		boolean leftValueFound = false;
 		boolean rightValueFound = false;
 		
+		// only way points near the line need to be checked (in the same order)
+		int count;
+		if(wayPointGrid != null)
+		{
+			// way points within MAX_DISTANCE of the line are located within its bounding 
+			// box extended by MAX_DISTANCE (plus margin for rounding)
+			float margin = MAX_DISTANCE + 1;
+			float minX = Math.min(line.x1, line.x2) - margin;
+			float minZ = Math.min(line.y1, line.y2) - margin;
+			float maxX = Math.max(line.x1, line.x2) + margin;
+			float maxZ = Math.max(line.y1, line.y2) + margin;
+			
+			int maxCandidates = wayPointGrid.getMaxCandidates(minX, minZ, maxX, maxZ);
+			if(candidates.length < maxCandidates)
+				candidates = new int[2*maxCandidates];
+			
+			count = wayPointGrid.getCandidates(minX, minZ, maxX, maxZ, candidates);
+		}
+		else
+			count = wayPoints.size();
+		
 		// loop is ended as soon as points on the left and right could be found 
-		for(Vector3f wayPoint : wayPoints)
+		for(int k=0; k<count; k++)
 		{
+			Vector3f wayPoint = wayPoints.get(wayPointGrid != null ? candidates[k] : k);
+			
 			// get coordinates of current way point
 			float x = wayPoint.getX();
 			float z = wayPoint.getZ();
-			Point2D point = new Point2D.Float(x,z);
 			
 			// distance of current point from line segment
-			double distance = line.ptSegDist(point);
+			double distance = Line2D.ptSegDist(line.x1, line.y1, line.x2, line.y2, x, z);
 			
 			// ignore points, that are located too far away from the line
 			if(distance > MAX_DISTANCE)
 				continue;
 
+			int side = Line2D.relativeCCW(line.x1, line.y1, line.x2, line.y2, x, z);
+			
 			// if point is already located on the line --> return this point
-			if(line.relativeCCW(point) == 0)
+			if(side == 0)
 			{
 				return wayPoint;
 			}
 
 			// store distance and coordinates of the nearest point left of the line
-			if(line.relativeCCW(point) == -1)
+			if(side == -1)
 			{
 				leftValue = wayPoint;
-				leftDistance = (float) line.ptLineDist(point);
+				leftDistance = (float) Line2D.ptLineDist(line.x1, line.y1, line.x2, line.y2, x, z);
 				leftValueFound = true;
 			}
 			
 			// store distance and coordinates of the nearest point right of the line
-			if(line.relativeCCW(point) == 1)
+			if(side == 1)
 			{
 				rightValue = wayPoint;
-				rightDistance = (float) line.ptLineDist(point);
+				rightDistance = (float) Line2D.ptLineDist(line.x1, line.y1, line.x2, line.y2, x, z);
 				rightValueFound = true;
 			}
 			
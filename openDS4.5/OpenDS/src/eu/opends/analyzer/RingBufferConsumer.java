@@ -0,0 +1,39 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.analyzer;
+
+/**
+ * Writes rows drained from a <code>DataRingBuffer</code> by the
+ * <code>DataWriterThread</code>.
+ * 
+ * @author OpenDS contributors
+ */
+public interface RingBufferConsumer 
+{
+	/**
+	 * Writes the oldest rows of the given ring buffer (called by the writer thread).
+	 * 
+	 * @param ringBuffer
+	 * 			Ring buffer to read from.
+	 * 
+	 * @param count
+	 * 			Number of rows to write.
+	 */
+	public void writeBatch(DataRingBuffer ringBuffer, int count);
+}
@@ -0,0 +1,159 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.analyzer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+
+/**
+ * Spatial index of the way points of a drive (x-z-plane). The plane is divided
+ * into square cells; cells are hashed into a fixed number of buckets, so memory
+ * does not depend on the extent of the drive. Each bucket holds the indices of its
+ * way points in ascending order (compact arrays, no objects per way point).
+ *
+ * A query returns the indices of all way points in the cells overlapping a
+ * rectangle, sorted by index. This is a superset of the way points within the
+ * rectangle (hash collisions add further candidates), hence callers apply their
+ * exact test to each candidate. The grid is not modified after construction and
+ * may be shared between threads.
+ *
+ * @author OpenDS contributors
+ */
+public class WayPointGrid
+{
+	private float cellSize;
+	private int bucketMask;
+
+	// indices of bucket b: bucketIndices[bucketStart[b]] ... bucketIndices[bucketStart[b+1]-1]
+	private int[] bucketStart;
+	private int[] bucketIndices;
+
+
+	/**
+	 * Creates the index of the given way points.
+	 *
+	 * @param wayPoints
+	 * 			Way points of the drive.
+	 *
+	 * @param cellSize
+	 * 			Edge length of a cell (in m).
+	 */
+	public WayPointGrid(List<Vector3f> wayPoints, float cellSize)
+	{
+		this.cellSize = cellSize;
+
+		int count = wayPoints.size();
+		int buckets = Math.max(16, FastMath.nearestPowerOfTwo(count));
+		if(buckets < count)
+			buckets *= 2;
+		bucketMask = buckets - 1;
+
+		// counting sort of the way points by bucket (keeps ascending index order)
+		int[] bucketOfWayPoint = new int[count];
+		bucketStart = new int[buckets + 1];
+		for(int i=0; i<count; i++)
+		{
+			Vector3f wayPoint = wayPoints.get(i);
+			int bucket = getBucket(getCell(wayPoint.getX()), getCell(wayPoint.getZ()));
+			bucketOfWayPoint[i] = bucket;
+			bucketStart[bucket+1]++;
+		}
+
+		for(int b=0; b<buckets; b++)
+			bucketStart[b+1] += bucketStart[b];
+
+		bucketIndices = new int[count];
+		int[] next = Arrays.copyOf(bucketStart, buckets);
+		for(int i=0; i<count; i++)
+			bucketIndices[next[bucketOfWayPoint[i]]++] = i;
+	}
+
+
+	/**
+	 * @return
+	 * 			Upper bound of the number of candidates returned by
+	 * 			<code>getCandidates()</code> for the given rectangle.
+	 */
+	public int getMaxCandidates(float minX, float minZ, float maxX, float maxZ)
+	{
+		int maxCandidates = 0;
+		for(int cellX=getCell(minX); cellX<=getCell(maxX); cellX++)
+		{
+			for(int cellZ=getCell(minZ); cellZ<=getCell(maxZ); cellZ++)
+			{
+				int bucket = getBucket(cellX, cellZ);
+				maxCandidates += bucketStart[bucket+1] - bucketStart[bucket];
+			}
+		}
+		return maxCandidates;
+	}
+
+
+	/**
+	 * Writes the indices of all way points in the cells overlapping the given
+	 * rectangle to the given array (ascending, no duplicates).
+	 *
+	 * @param candidates
+	 * 			Array of at least <code>getMaxCandidates()</code> elements.
+	 *
+	 * @return
+	 * 			Number of candidates.
+	 */
+	public int getCandidates(float minX, float minZ, float maxX, float maxZ, int[] candidates)
+	{
+		int count = 0;
+		for(int cellX=getCell(minX); cellX<=getCell(maxX); cellX++)
+		{
+			for(int cellZ=getCell(minZ); cellZ<=getCell(maxZ); cellZ++)
+			{
+				int bucket = getBucket(cellX, cellZ);
+				int end = bucketStart[bucket+1];
+				for(int k=bucketStart[bucket]; k<end; k++)
+					candidates[count++] = bucketIndices[k];
+			}
+		}
+
+		Arrays.sort(candidates, 0, count);
+
+		// different cells may share a bucket --> remove duplicates
+		int unique = 0;
+		for(int k=0; k<count; k++)
+		{
+			if(unique == 0 || candidates[unique-1] != candidates[k])
+				candidates[unique++] = candidates[k];
+		}
+		return unique;
+	}
+
+
+	private int getCell(float coordinate)
+	{
+		return (int) Math.floor(coordinate / cellSize);
+	}
+
+
+	private int getBucket(int cellX, int cellZ)
+	{
+		int hash = cellX * 73856093 ^ cellZ * 19349663;
+		return (hash ^ (hash >>> 16)) & bucketMask;
+	}
+}
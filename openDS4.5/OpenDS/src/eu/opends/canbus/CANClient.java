@@ -18,20 +18,19 @@
 
 package eu.opends.canbus;
 
-import java.net.Socket;
-import java.net.SocketException;
 //import java.util.Calendar;
 //import java.util.GregorianCalendar;
-import java.io.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 //import com.jme3.math.Vector3f;
 
 import eu.opends.car.Car;
 import eu.opends.drivingTask.settings.SettingsLoader;
 import eu.opends.drivingTask.settings.SettingsLoader.Setting;
-import eu.opends.environment.XMLParser;
+import eu.opends.environment.XMLInstructionReader;
 import eu.opends.main.SimulationDefaults;
 import eu.opends.main.Simulator;
+import eu.opends.tools.XMLMessageConnection;
 
 /**
  * This class represents the connector to the CAN-Interface. Steering, gas, brake and 
@@ -49,13 +48,16 @@ public class CANClient extends Thread
 	private Simulator sim;
 	private Car car;
 	//private int framerate;
-	private boolean stoprequested;
+	private volatile boolean stoprequested;
 	private boolean errorOccurred;
 	private float steeringAngle;
 	private boolean doSteering;
 	//private Calendar timeOfLastFire;
-	private PrintWriter printWriter;
-	private Socket socket;
+	private XMLMessageConnection connection;
+	private XMLInstructionReader instructionReader = new XMLInstructionReader();
+	
+	// messages received by this thread, evaluated by the render thread
+	private ConcurrentLinkedQueue<String> messageQueue = new ConcurrentLinkedQueue<String>();
 	
 	
 	/**
@@ -82,13 +84,14 @@ public class CANClient extends Thread
 		//framerate = settingsLoader.getSetting(Setting.CANInterface_updateRate, SimulationDefaults.CANInterface_updateRate);
 		maxSteeringAngle = settingsLoader.getSetting(Setting.CANInterface_maxSteeringAngle, SimulationDefaults.CANInterface_maxSteeringAngle); 
 
+		// do not keep the simulator alive while waiting for messages
+		setDaemon(true);
 		
 		try {
 
 			
 			// connect to Server
-			socket = new Socket(ip,port);
-			socket.setSoTimeout(10);
+			connection = new XMLMessageConnection(ip, port);
 
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -100,7 +103,8 @@ public class CANClient extends Thread
     
 	/**
 	 * Listens for incoming CAN instructions (as XML), such as gas, brake, steering angle, 
-	 * reset and change view, which will be forwarded to the XML-parser
+	 * reset and change view, which will be handed over to the render thread (see update()).
+	 * Blocks while no message arrives.
 	 */
 	@Override
 	public void run() 
@@ -111,50 +115,73 @@ public class CANClient extends Thread
 		{
 			try {
 
-				// delete "NUL" at the end of each line
-				String message = readMessage(socket).replace("\0", "");
+				// next complete XML element
+				String message = connection.readMessage();
+				
+				// connection closed (by CAN-Interface or requestStop())
+				if(message == null)
+					break;
 				
 				// print XML instruction
 				//System.out.println(message);
 				
-				// parse and evaluate XML instruction
-				XMLParser parser = new XMLParser("<CAN>" + message + "</CAN>");
-				parser.evalCANInstruction(sim,this);
+				messageQueue.add(message);
 				
-			} catch (SocketException e) {
+			} catch (Exception e) {
 				
 				// will be thrown if e.g. server was shut down
 				System.err.println("Socket error: Connection to CAN-Interface has to be closed");
 				errorOccurred = true;
-				
-			} catch (Exception e) {
 			}
-			
-			// set virtual car's steering angle to the given steering angle
-			if(doSteering)
-				updateSteeringAngle();
 		}
 		
 		// close TCP connection to CAN-Interface if connected at all
-		try {
-			if ((socket != null) && (printWriter != null))
-			{
-				// wait for 10 ms
+		if(connection != null)
+		{
+			try {
+				
+				// wait for 100 ms
 				try {Thread.sleep(100);} 
 				catch (InterruptedException e){}
+				
+				// only the input has been shut down by requestStop()
+				connection.send("exit");
+				
+			} catch (Exception e) {
+				System.err.println("Could not send exit to CAN-Interface");
+			}
+			
+			connection.close();
+			System.out.println("Connection to CAN-Interface closed");
+		}
+	}
 
-				printWriter.print("exit");
-				printWriter.flush();
+	
+	/**
+	 * Evaluates the CAN instructions received since the last call and sends car data.
+	 * Must be called once per frame by the render thread.
+	 */
+	public void update()
+	{
+		String message;
+		while((message = messageQueue.poll()) != null)
+		{
+			try {
 				
-				// close socket connection
-				printWriter.close();
-				socket.close();
+				// parse and evaluate XML instruction
+				instructionReader.evalCANInstruction(message, sim, this);
 				
-				System.out.println("Connection to CAN-Interface closed");
+			} catch (Exception e) {
+				e.printStackTrace();
 			}
-		} catch (Exception ex) {
-			System.err.println("Could not close connection to CAN-Interface");
 		}
+		
+		// set virtual car's steering angle to the given steering angle (once per frame, 
+		// which also keeps the crosswind influence up to date)
+		if(doSteering)
+			updateSteeringAngle();
+		
+		sendCarData();
 	}
 
 	
@@ -287,13 +314,17 @@ public class CANClient extends Thread
 	public synchronized void requestStop() 
 	{
 		stoprequested = true;
+		
+		// wake up listening thread
+		if(connection != null)
+			connection.shutdownInput();
 	}
 	
 	
 	/**
-	 * Compares the current steering angle (in the simulator) with the given 
-	 * steering angle (of the real car). The bigger the difference, the faster
-	 * the steering angle of the simulator will be changed to the wanted value 
+	 * Sets the steering of the simulator to the steering angle (of the real car) 
+	 * received last. The target is applied at once, not approached step by step, 
+	 * hence the result does not depend on how often this method is called.
 	 */
 	private void updateSteeringAngle() 
 	{
@@ -319,27 +350,6 @@ public class CANClient extends Thread
 	}
     
 	
-	/**
-	 * Reads an incoming message from the socket connection.
-	 * 
-	 * @param socket
-	 * 			Socket connection
-	 * 
-	 * @return
-	 * 			Message string of up to 10,000 characters
-	 * 
-	 * @throws IOException
-	 */
-	private String readMessage(Socket socket) throws IOException 
-	{
-		BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-		char[] buffer = new char[10000];
-		int nrOfChars = bufferedReader.read(buffer, 0, buffer.length);
-		
-		return new String(buffer, 0, nrOfChars);
-	}
-	
-	
 	/**
 	 * This method checks whether the incoming camera information should 
 	 * be sent to the server at the current time complying with the given 
@@ -37,6 +37,7 @@ import com.jme3.scene.Node;
 import com.jme3.scene.Spatial.CullHint;
 import com.jme3.scene.shape.Box;
 
+import eu.opends.analyzer.ChannelRecorder;
 import eu.opends.audio.AudioCenter;
 import eu.opends.car.LightTexturesContainer.TurnSignalState;
 import eu.opends.environment.GeoPosition;
@@ -72,7 +73,13 @@ public abstract class Car
     protected float traction = 0.0f;
     protected int resetPositionCounter;
     protected Vector3f previousPosition;
+    
+    // scratch vector of channel recorder (physics thread only)
+    private Vector3f angularVelocity = new Vector3f();
     private float distanceOfCurrentFrame = 0;
+    private volatile VehicleState state;
+    private long stateVersion = 0;
+    private VehicleState.Scratch stateScratch = new VehicleState.Scratch();
     protected float mileage;
     protected boolean engineOn;
 
@@ -304,6 +311,29 @@ public abstract class Car
 	}
 	
 	
+	/**
+	 * Captures the current state of the car and hands it over to all readers 
+	 * on other threads (render thread only, once per frame).
+	 */
+	public void publishState()
+	{
+		state = new VehicleState(this, ++stateVersion, stateScratch);
+	}
+	
+	
+	/**
+	 * Returns the state of the car published last. Threads other than the render 
+	 * thread must read the car state from here only.
+	 * 
+	 * @return
+	 * 			State of the last frame; null if not published yet.
+	 */
+	public VehicleState getState()
+	{
+		return state;
+	}
+	
+	
 	public Transmission getTransmission()
 	{
 		return transmission;
@@ -372,10 +402,31 @@ public abstract class Car
 	}
 	
 	
+	/**
+	 * Same as <code>getPosition()</code>, but stores the position in the given 
+	 * vector instead of creating a new one.
+	 */
+	public Vector3f getPosition(Vector3f store) 
+	{
+		return carControl.getPhysicsLocation(store);
+	}
+	
+	
 	public Vector3d getGeoPosition() 
 	{
 		return GeoPosition.modelToGeo(getPosition());
 	}
+	
+	
+	/**
+	 * Same as <code>getGeoPosition()</code>, but converts the given position of 
+	 * the car and stores the result in the given vector instead of creating new 
+	 * objects.
+	 */
+	public Vector3d getGeoPosition(Vector3f position, Vector3d store) 
+	{
+		return GeoPosition.modelToGeo(position, store);
+	}
 
 	
 	public float getHeadingDegree() 
@@ -383,6 +434,16 @@ public abstract class Car
 		// get Euler angles from rotation quaternion
 		float[] angles = carControl.getPhysicsRotation().toAngles(null);
 		
+		return getHeadingDegree(angles);
+	}
+	
+	
+	/**
+	 * Same as <code>getHeadingDegree()</code>, but computes the heading from the 
+	 * given Euler angles of the rotation of the car.
+	 */
+	public float getHeadingDegree(float[] angles) 
+	{
 		// heading in radians
 		float heading = -angles[1];
 		
@@ -400,6 +461,12 @@ public abstract class Car
 		// get Euler angles from rotation quaternion
 		float[] angles = carControl.getPhysicsRotation().toAngles(null);
 		
+		return getSlope(angles);
+	}
+	
+	
+	private float getSlope(float[] angles)
+	{
 		// slope in radians (with correction due to different suspension heights)
 		return angles[0] - 0.031765f;
 	}
@@ -412,6 +479,58 @@ public abstract class Car
 	}
 	
 	
+	/**
+	 * Same as <code>getSlopeDegree()</code>, but computes the slope from the 
+	 * given Euler angles of the rotation of the car.
+	 */
+	public float getSlopeDegree(float[] angles)
+	{
+		// convert radian to degree and round to one decimal
+		return ((int)(getSlope(angles) * 180/FastMath.PI *10f))/10f;
+	}
+	
+	
+	/**
+	 * @return
+	 * 			Angular velocity around the vertical axis (in rad/s, positive = left).
+	 */
+	public float getYawRate()
+	{
+		return getYawRate(new Vector3f());
+	}
+	
+	
+	/**
+	 * Same as <code>getYawRate()</code>, but uses the given vector instead of 
+	 * creating a new one.
+	 */
+	public float getYawRate(Vector3f store)
+	{
+		carControl.getAngularVelocity(store);
+		return store.getY();
+	}
+	
+	
+	/**
+	 * @return
+	 * 			Lateral acceleration (in m/s^2) of steady-state cornering (a = v * omega).
+	 */
+	public float getLateralAcceleration()
+	{
+		return getLateralAcceleration(getYawRate());
+	}
+	
+	
+	/**
+	 * Same as <code>getLateralAcceleration()</code>, but uses the given yaw rate 
+	 * (in rad/s) instead of reading it again.
+	 */
+	public float getLateralAcceleration(float yawRate)
+	{
+		return carControl.getCurrentVehicleSpeedKmHour() / 3.6f * yawRate;
+	}
+	
+	
 	public void setRotation(Quaternion q) 
 	{	
 		setRotation(q.getX(), q.getY(), q.getZ(), q.getW());
@@ -448,6 +567,16 @@ public abstract class Car
 	}
 	
 	
+	/**
+	 * Same as <code>getRotation()</code>, but stores the rotation in the given 
+	 * quaternion instead of creating a new one.
+	 */
+	public Quaternion getRotation(Quaternion store) 
+	{
+		return carControl.getPhysicsRotation(store);
+	}
+	
+	
 	/**
 	 * Accelerates the car forward or backwards. Does it by accelerating both
 	 * suspensions (4WD). If you want a front wheel drive, comment out the
@@ -792,6 +921,61 @@ public abstract class Car
 	}
 	
 	
+	/**
+	 * Registers speed, steering wheel, pedals, yaw rate and lateral acceleration
+	 * of this car as channels of the given recorder. Channel names start with the 
+	 * given prefix (e.g. "car.").
+	 * 
+	 * @param recorder
+	 * 			Channel recorder to register at.
+	 * 
+	 * @param prefix
+	 * 			Prefix of all channel names.
+	 */
+	public void registerChannels(ChannelRecorder recorder, String prefix)
+	{
+		int rate = recorder.getDefaultSampleRate();
+		
+		recorder.registerFloatChannel(prefix + "speed", rate, new ChannelRecorder.FloatChannel() {
+			public float getValue() { return getCurrentSpeedKmh(); }
+		});
+		
+		recorder.registerFloatChannel(prefix + "steeringWheel", rate, new ChannelRecorder.FloatChannel() {
+			public float getValue() { return getSteeringWheelState(); }
+		});
+		
+		recorder.registerFloatChannel(prefix + "acceleratorPedal", rate, new ChannelRecorder.FloatChannel() {
+			public float getValue() { return getAcceleratorPedalIntensity(); }
+		});
+		
+		recorder.registerFloatChannel(prefix + "brakePedal", rate, new ChannelRecorder.FloatChannel() {
+			public float getValue() { return getBrakePedalIntensity(); }
+		});
+		
+		recorder.registerFloatChannel(prefix + "clutchPedal", rate, new ChannelRecorder.FloatChannel() {
+			public float getValue() { return getClutchPedalIntensity(); }
+		});
+		
+		// angular velocity around vertical axis in rad/s (sampled in physics tick)
+		recorder.registerFloatChannel(prefix + "yawRate", rate, new ChannelRecorder.FloatChannel() {
+			public float getValue() 
+			{ 
+				carControl.getAngularVelocity(angularVelocity);
+				return angularVelocity.getY(); 
+			}
+		});
+		
+		// lateral acceleration in m/s^2 of steady-state cornering (a = v * omega)
+		recorder.registerFloatChannel(prefix + "lateralAcceleration", rate, new ChannelRecorder.FloatChannel() {
+			public float getValue() 
+			{ 
+				carControl.getAngularVelocity(angularVelocity);
+				return carControl.getCurrentVehicleSpeedKmHour() / 3.6f * angularVelocity.getY(); 
+			}
+		});
+	}
+	
+	
 	public void close()
 	{
 		lightTexturesContainer.close();
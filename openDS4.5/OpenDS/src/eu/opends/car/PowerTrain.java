@@ -18,17 +18,15 @@
 
 package eu.opends.car;
 
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.Iterator;
-
 import com.jme3.math.FastMath;
 
+import eu.opends.analyzer.ChannelRecorder;
 import eu.opends.basics.SimulationBasics;
 import eu.opends.drivingTask.scenario.ScenarioLoader;
 import eu.opends.drivingTask.scenario.ScenarioLoader.CarProperty;
 import eu.opends.main.Simulator;
 import eu.opends.tools.PanelCenter;
+import eu.opends.tools.RollingWindow;
 
 /**
  * 
@@ -37,62 +35,33 @@ import eu.opends.tools.PanelCenter;
 public class PowerTrain 
 {
 	private Car car;
-	private ArrayList<FuelConsumption> fuelConsumptionList = new ArrayList<FuelConsumption>();
 		
 	// (default) displacement volume of the engine (in cm^3)
 	private final float defaultDisplacementVolumeInCCM = 1800f;
 	
-	// update fuel panel every 500 ms
-	private final int fuelConsumptionUpdateInterval = 500;
+	// update fuel panel every 0.5 seconds (simulation time)
+	private final float fuelConsumptionUpdateInterval = 0.5f;
+	
+	// compute average fuel consumption over last 2 seconds (simulation time)
+	private final float observationPeriod = 2f;
+	
+	// max. number of frames in observation period (older frames will be dropped)
+	private final int maxFramesInObservationPeriod = 2048;
 	
-	// compute average fuel consumption over last 1000 ms
-	private final int observationPeriod = 2000;
+	// distance (in km), duration (in s) and fuel (in L) of the frames in the observation period
+	private RollingWindow distanceWindow = new RollingWindow(observationPeriod, maxFramesInObservationPeriod);
+	private RollingWindow durationWindow = new RollingWindow(observationPeriod, maxFramesInObservationPeriod);
+	private RollingWindow fuelWindow = new RollingWindow(observationPeriod, maxFramesInObservationPeriod);
 	
 	private float totalFuelConsumption = 0;
 	private float litersPer100Km = 0;
 	private float litersPerHour = 0;
 	private float previousVelocity = 0;
-	private long lastPanelUpdate = 0;
+	private double simulationTime = 0;
+	private double lastPanelUpdate = -fuelConsumptionUpdateInterval;
 	private float resultingPower = 0;
 	
 	
-	private class FuelConsumption
-	{
-		private long timeStamp;
-		private float distance;
-		private float duration;
-		private float fuelBurned;
-		
-		private FuelConsumption(long timeStamp, float distance, float duration, float fuelBurned) 
-		{
-			this.timeStamp = timeStamp;
-			this.distance = distance;
-			this.duration = duration;
-			this.fuelBurned = fuelBurned;
-		}
-		
-		private long getTimeStamp()
-		{
-			return timeStamp;
-		}
-		
-		private float getDistance()
-		{
-			return distance;
-		}
-		
-		private float getDuration()
-		{
-			return duration;
-		}
-		
-		private float getFuelBurned()
-		{
-			return fuelBurned;
-		}
-	}
-
-
 	public PowerTrain(Car car)
 	{
 		this.car = car;
@@ -116,6 +85,38 @@ public class PowerTrain
 	}
 	
 	
+	/**
+	 * Registers engine speed, gear and fuel consumption as channels of the 
+	 * given recorder. Channel names start with the given prefix (e.g. "car.").
+	 * 
+	 * @param recorder
+	 * 			Channel recorder to register at.
+	 * 
+	 * @param prefix
+	 * 			Prefix of all channel names.
+	 */
+	public void registerChannels(ChannelRecorder recorder, String prefix)
+	{
+		int rate = recorder.getDefaultSampleRate();
+		
+		recorder.registerFloatChannel(prefix + "rpm", rate, new ChannelRecorder.FloatChannel() {
+			public float getValue() { return car.getTransmission().getRPM(); }
+		});
+		
+		recorder.registerIntChannel(prefix + "gear", rate, new ChannelRecorder.IntChannel() {
+			public int getValue() { return car.getTransmission().getGear(); }
+		});
+		
+		recorder.registerFloatChannel(prefix + "litersPerHour", rate, new ChannelRecorder.FloatChannel() {
+			public float getValue() { return litersPerHour; }
+		});
+		
+		recorder.registerFloatChannel(prefix + "totalFuelConsumption", rate, new ChannelRecorder.FloatChannel() {
+			public float getValue() { return totalFuelConsumption; }
+		});
+	}
+	
+	
 	public float getPAccel(float tpf, float gasPedalPressIntensity)
 	{
 		// engine power needed in current frame (in kJ/s)
@@ -156,8 +157,9 @@ public class PowerTrain
 	
 	private void computeFuelConsumption(float deltaT, float PEngine)
 	{
-		// current time stamp
-		long now = (new Date()).getTime();
+		// current time stamp (sum of all frame durations)
+		simulationTime += deltaT;
+		double now = simulationTime;
 		
 		// compute distance traveled in current frame
 		float distance = car.getDistanceOfCurrentFrameInKm();
@@ -181,16 +183,16 @@ public class PowerTrain
 		
 		totalFuelConsumption += fuelInLiters;
 		
-		// add fuel consumption (in current frame) to the list
-		fuelConsumptionList.add(new FuelConsumption(now, distance, deltaT, fuelInLiters));
+		// add fuel consumption (in current frame) to the observation period
+		distanceWindow.add(now, distance);
+		durationWindow.add(now, deltaT);
+		fuelWindow.add(now, fuelInLiters);
 		
 		// if last panel update longer than specified time ago --> update
 		if(lastPanelUpdate <= now - fuelConsumptionUpdateInterval)
 		{
 			// compute fuel consumption
-			float[] fuelConsumption = computeLitersPerX();
-			litersPer100Km = fuelConsumption[0];
-			litersPerHour = fuelConsumption[1];
+			computeLitersPerX();
 			
 			// update panels
 			PanelCenter.setLitersPer100Km(litersPer100Km);
@@ -233,41 +235,22 @@ public class PowerTrain
 	}
 
 
-	private float[] computeLitersPerX()
+	private void computeLitersPerX()
 	{
-		//only consider entries which are newer than the observation time stamp
-		long observationTimeStamp = (new Date()).getTime() - observationPeriod;
-	
-		// initialize amount of fuel (in L) burned in observation period
-		float totalFuel = 0;
+		// amount of fuel (in L) burned in observation period
+		float totalFuel = (float) fuelWindow.getSum();
 	
-		// initialize distance (in km) driven in observation period
-		float totalDistance = 0;
+		// distance (in km) driven in observation period
+		float totalDistance = (float) distanceWindow.getSum();
 		
-		// initialize recorded duration in observation period
-		float totalDuration = 0;
-		
-		// compute the sum of traveled distances and burned fuel for the 
-		// given observation period; remove out-dated entries
-		Iterator<FuelConsumption> iterator = fuelConsumptionList.iterator();
-        while(iterator.hasNext()) 
-        {
-        	FuelConsumption fuelEntry = iterator.next();
-            if(fuelEntry.getTimeStamp() <= observationTimeStamp)
-            	iterator.remove();
-            else
-            {
-            	totalDistance += fuelEntry.getDistance();
-            	totalDuration += fuelEntry.getDuration();
-            	totalFuel += fuelEntry.getFuelBurned();
-            }
-        }
+		// recorded duration in observation period
+		float totalDuration = (float) durationWindow.getSum();
 		
         // avoid division by 0
         if(totalDistance == 0)
         	totalDistance = 0.000001f;
         
-        float litersPer100Km = -1;
+        litersPer100Km = -1;
         
         if((car.getTransmission().getGear()!=0) && (car.getCurrentSpeedKmh() > 1))
         {
@@ -276,9 +259,7 @@ public class PowerTrain
         }
         
 		// liters per hour
-		float litersPerHour = (totalFuel / totalDuration) * 3600f;
-		
-		return new float[] {litersPer100Km, litersPerHour};
+		litersPerHour = (totalFuel / totalDuration) * 3600f;
 	}
 	
 	
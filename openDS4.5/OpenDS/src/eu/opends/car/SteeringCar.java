@@ -167,6 +167,9 @@ public class SteeringCar extends Car implements TrafficObject
         isAutoPilot = scenarioLoader.isAutoPilot();
         followBox = new FollowBox(sim, this, followBoxSettings, isAutoPilot);
         // AutoPilot **************************************************************	
+        
+        // initial state for readers on other threads
+        publishState();
 	}
 
 
@@ -0,0 +1,356 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.car;
+
+import com.jme3.bullet.control.VehicleControl;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+
+import eu.opends.tools.Vector3d;
+
+/**
+ * Immutable state of a car at the end of a frame. A new state is captured by the
+ * render thread once per frame (see <code>Car.publishState()</code>) and handed to
+ * all other threads (settings controller, multi driver, knowledge base) by a single
+ * volatile reference. Readers never access the live car, so all values of a state
+ * belong to the same frame and readers do not contend with the render loop.
+ *
+ * @author OpenDS contributors
+ */
+public class VehicleState
+{
+	private final long version;
+	private final long timeStamp;
+
+	// position, rotation and geo position are copied to primitive fields, so a 
+	// state is a single object
+	private final float positionX, positionY, positionZ;
+	private final float rotationX, rotationY, rotationZ, rotationW;
+	private final double latitude, longitude, altitude;
+	private final float headingDegree;
+	private final float slopeDegree;
+	private final float speedKmh;
+	private final float yawRate;
+	private final float lateralAcceleration;
+
+	private final float steeringWheelState;
+	private final float acceleratorPedalIntensity;
+	private final float brakePedalIntensity;
+	private final float clutchPedalIntensity;
+	private final boolean isCruiseControl;
+	private final boolean isHandBrakeApplied;
+	private final String lightState;
+	private final boolean isEngineOn;
+	private final int gear;
+	private final float rpm;
+	private final float litersPer100Km;
+	private final float totalFuelConsumption;
+
+	private final float wheelSteering;
+	private final float wheelPosition;
+
+
+	/**
+	 * Temporary objects needed while capturing a state. Each car keeps one 
+	 * instance, so capturing allocates nothing but the state itself.
+	 */
+	static class Scratch
+	{
+		private Vector3f vector = new Vector3f();
+		private Quaternion rotation = new Quaternion();
+		private Vector3d geoPosition = new Vector3d();
+		private float[] angles = new float[3];
+	}
+
+
+	/**
+	 * Captures the current state of the given car (render thread only).
+	 *
+	 * @param car
+	 * 			Car to capture.
+	 *
+	 * @param version
+	 * 			Number of the state (increased with every published state).
+	 *
+	 * @param scratch
+	 * 			Temporary objects of the given car.
+	 */
+	VehicleState(Car car, long version, Scratch scratch)
+	{
+		this.version = version;
+		this.timeStamp = System.currentTimeMillis();
+
+		Vector3f position = car.getPosition(scratch.vector);
+		positionX = position.x;
+		positionY = position.y;
+		positionZ = position.z;
+
+		Quaternion rotation = car.getRotation(scratch.rotation);
+		rotationX = rotation.getX();
+		rotationY = rotation.getY();
+		rotationZ = rotation.getZ();
+		rotationW = rotation.getW();
+
+		Vector3d geoPosition = car.getGeoPosition(position, scratch.geoPosition);
+		latitude = geoPosition.getX();
+		longitude = geoPosition.getY();
+		altitude = geoPosition.getZ();
+
+		float[] angles = rotation.toAngles(scratch.angles);
+		headingDegree = car.getHeadingDegree(angles);
+		slopeDegree = car.getSlopeDegree(angles);
+		speedKmh = car.getCurrentSpeedKmh();
+		yawRate = car.getYawRate(scratch.vector);
+		lateralAcceleration = car.getLateralAcceleration(yawRate);
+
+		steeringWheelState = car.getSteeringWheelState();
+		acceleratorPedalIntensity = car.getAcceleratorPedalIntensity();
+		brakePedalIntensity = car.getBrakePedalIntensity();
+		clutchPedalIntensity = car.getClutchPedalIntensity();
+		isCruiseControl = car.isCruiseControl();
+		isHandBrakeApplied = (car instanceof SteeringCar) && ((SteeringCar) car).isHandBrakeApplied();
+		lightState = car.getLightState();
+		isEngineOn = car.isEngineOn();
+
+		Transmission transmission = car.getTransmission();
+		if(transmission != null)
+		{
+			gear = transmission.getGear();
+			rpm = transmission.getRPM();
+		}
+		else
+		{
+			gear = 0;
+			rpm = 0;
+		}
+
+		PowerTrain powerTrain = car.getPowerTrain();
+		if(powerTrain != null)
+		{
+			litersPer100Km = powerTrain.getLitersPer100Km();
+			totalFuelConsumption = powerTrain.getTotalFuelConsumption();
+		}
+		else
+		{
+			litersPer100Km = 0;
+			totalFuelConsumption = 0;
+		}
+
+		VehicleControl carControl = car.getCarControl();
+		if(carControl != null && carControl.getNumWheels() > 0 && carControl.getWheel(0).getWheelSpatial() != null)
+		{
+			carControl.getWheel(0).getWheelSpatial().getLocalRotation().toAngles(angles);
+			wheelSteering = angles[1];
+			wheelPosition = angles[0];
+		}
+		else
+		{
+			wheelSteering = 0;
+			wheelPosition = 0;
+		}
+	}
+
+
+	/**
+	 * @return
+	 * 			Number of the state. Later states have higher numbers.
+	 */
+	public long getVersion()
+	{
+		return version;
+	}
+
+
+	/**
+	 * @return
+	 * 			Time of capture (in ms since 1970).
+	 */
+	public long getTimeStamp()
+	{
+		return timeStamp;
+	}
+
+
+	/**
+	 * @return
+	 * 			Copy of the position (model coordinates).
+	 */
+	public Vector3f getPosition()
+	{
+		return new Vector3f(positionX, positionY, positionZ);
+	}
+
+
+	/**
+	 * @return
+	 * 			Copy of the rotation.
+	 */
+	public Quaternion getRotation()
+	{
+		return new Quaternion(rotationX, rotationY, rotationZ, rotationW);
+	}
+
+
+	/**
+	 * @return
+	 * 			Geo position (latitude, longitude, altitude).
+	 */
+	public Vector3d getGeoPosition()
+	{
+		return new Vector3d(latitude, longitude, altitude);
+	}
+
+
+	/**
+	 * @return
+	 * 			Heading (0..360 degree).
+	 */
+	public float getHeadingDegree()
+	{
+		return headingDegree;
+	}
+
+
+	public float getSlopeDegree()
+	{
+		return slopeDegree;
+	}
+
+
+	/**
+	 * @return
+	 * 			Absolute speed (in km/h).
+	 */
+	public float getSpeedKmh()
+	{
+		return speedKmh;
+	}
+
+
+	/**
+	 * @return
+	 * 			Angular velocity around the vertical axis (in rad/s, positive = left).
+	 */
+	public float getYawRate()
+	{
+		return yawRate;
+	}
+
+
+	/**
+	 * @return
+	 * 			Lateral acceleration (in m/s^2).
+	 */
+	public float getLateralAcceleration()
+	{
+		return lateralAcceleration;
+	}
+
+
+	public float getSteeringWheelState()
+	{
+		return steeringWheelState;
+	}
+
+
+	public float getAcceleratorPedalIntensity()
+	{
+		return acceleratorPedalIntensity;
+	}
+
+
+	public float getBrakePedalIntensity()
+	{
+		return brakePedalIntensity;
+	}
+
+
+	public float getClutchPedalIntensity()
+	{
+		return clutchPedalIntensity;
+	}
+
+
+	public boolean isCruiseControl()
+	{
+		return isCruiseControl;
+	}
+
+
+	public boolean isHandBrakeApplied()
+	{
+		return isHandBrakeApplied;
+	}
+
+
+	public String getLightState()
+	{
+		return lightState;
+	}
+
+
+	public boolean isEngineOn()
+	{
+		return isEngineOn;
+	}
+
+
+	public int getGear()
+	{
+		return gear;
+	}
+
+
+	public float getRPM()
+	{
+		return rpm;
+	}
+
+
+	public float getLitersPer100Km()
+	{
+		return litersPer100Km;
+	}
+
+
+	public float getTotalFuelConsumption()
+	{
+		return totalFuelConsumption;
+	}
+
+
+	/**
+	 * @return
+	 * 			Steering angle of the front left wheel (in radians).
+	 */
+	public float getWheelSteering()
+	{
+		return wheelSteering;
+	}
+
+
+	/**
+	 * @return
+	 * 			Rolling angle of the front left wheel (in radians).
+	 */
+	public float getWheelPosition()
+	{
+		return wheelPosition;
+	}
+}
@@ -0,0 +1,112 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.drivingTask;
+
+import eu.opends.drivingTask.DrivingTaskDataQuery.Layer;
+
+/**
+ * Values of a fixed set of properties (e.g. all settings of the enum 
+ * <code>Setting</code>), resolved from a driving task layer once at load time. 
+ * Values are stored in an array indexed by the ordinal of the enum constant, so 
+ * a lookup does not evaluate any XPath expression. The string values are 
+ * immutable; the typed value (e.g. Float) is converted on first request of a 
+ * type and kept for further requests.
+ * 
+ * @author OpenDS contributors
+ */
+public class CompiledProperties<E extends Enum<E>>
+{
+	private final String[] values;
+	private final TypedValue[] typedValues;
+	
+	
+	private static class TypedValue
+	{
+		private final Class<?> cast;
+		private final Object value;
+		
+		private TypedValue(Class<?> cast, Object value)
+		{
+			this.cast = cast;
+			this.value = value;
+		}
+	}
+	
+	
+	/**
+	 * Resolves all given queries.
+	 * 
+	 * @param dtData
+	 * 			Driving task to read from.
+	 * 
+	 * @param layer
+	 * 			Layer of the driving task.
+	 * 
+	 * @param queries
+	 * 			XPath query of each enum constant (index = ordinal).
+	 */
+	public CompiledProperties(DrivingTaskDataQuery dtData, Layer layer, String[] queries)
+	{
+		values = dtData.xPathQueryStrings(layer, queries);
+		typedValues = new TypedValue[queries.length];
+	}
+	
+	
+	/**
+	 * @return
+	 * 			true, if the query of the given property could be evaluated at load 
+	 * 			time. Otherwise, the caller should fall back to a XPath query.
+	 */
+	public boolean isResolved(E property)
+	{
+		return values[property.ordinal()] != null;
+	}
+	
+	
+	/**
+	 * Returns the value of the given property. Like 
+	 * <code>DrivingTaskDataQuery.getValue()</code>, the value is the result of the 
+	 * given type's String constructor.
+	 * 
+	 * @param property
+	 * 			Property to look up.
+	 * 
+	 * @param cast
+	 * 			Type of the result.
+	 * 
+	 * @return
+	 * 			Value of the property or null, if it cannot be converted to the 
+	 * 			given type.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getValue(E property, Class<T> cast)
+	{
+		int index = property.ordinal();
+		
+		// concurrent conversions of the same value are harmless (same result)
+		TypedValue typedValue = typedValues[index];
+		if(typedValue == null || typedValue.cast != cast)
+		{
+			typedValue = new TypedValue(cast, DrivingTaskDataQuery.convert(values[index], cast));
+			typedValues[index] = typedValue;
+		}
+		
+		return (T) typedValue.value;
+	}
+}
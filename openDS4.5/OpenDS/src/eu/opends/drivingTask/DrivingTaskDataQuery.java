@@ -149,6 +149,23 @@ public class DrivingTaskDataQuery
     }
 	
 	
+	/**
+	 * Creates a query module for already parsed (and validated) documents, e.g. 
+	 * for tools and benchmarks. Missing documents will be replaced by empty ones.
+	 */
+	public DrivingTaskDataQuery(Document scene, Document scenario, Document interaction, 
+			Document settings, Document task)
+	{
+		this.scene = (scene != null ? scene : newEmptyDocument());
+		this.scenario = (scenario != null ? scenario : newEmptyDocument());
+		this.interaction = (interaction != null ? interaction : newEmptyDocument());
+		this.settings = (settings != null ? settings : newEmptyDocument());
+		this.task = (task != null ? task : newEmptyDocument());
+		verbose = false;
+		isValid = true;
+	}
+	
+	
 	private Document newEmptyDocument()
 	{
 		try {
@@ -421,7 +438,6 @@ public class DrivingTaskDataQuery
      * @param cast result will be casted to the class
      * @return the casted XPath query result
      */
-    @SuppressWarnings("unchecked")
 	public <T> T getValue(Layer layer, String query, Class<T> cast)
     {
         try {
@@ -434,6 +450,33 @@ public class DrivingTaskDataQuery
                 System.out.println("Result: " + stringValue);
             }
             
+            return convert(stringValue, cast);
+
+        } catch (Exception ex) {
+            //Logger.getLogger(DrivingTaskDataQuery.class.getName()).log(Level.SEVERE, null, ex);
+        	return null;
+        }
+    }
+    
+    
+    /**
+     * Converts the given result of a XPath query to the given type (by the type's 
+     * String constructor, e.g. Float(String)).
+     * 
+     * @param stringValue
+     * 			Result of a XPath query (empty string if node does not exist).
+     * 
+     * @param cast
+     * 			Type of the result.
+     * 
+     * @return
+     * 			Converted value or null, if the string could not be converted.
+     */
+    @SuppressWarnings("unchecked")
+	public static <T> T convert(String stringValue, Class<T> cast)
+    {
+        try {
+            
             Constructor<T> constructor = cast.getConstructor(String.class);
             Object obj = constructor.newInstance(stringValue);
             return (T) obj;
@@ -444,6 +487,50 @@ public class DrivingTaskDataQuery
         }
     }
     
+    
+    /**
+     * Evaluates the given XPath queries (results as string) to the specified layer 
+     * file with a single XPath instance. Used to resolve a whole set of properties 
+     * at load time, see <code>CompiledProperties</code>.
+     * 
+     * @param layer
+     * 			Driving task layer.
+     * 
+     * @param queries
+     * 			XPath queries (absolute or relative to the root node of the layer).
+     * 
+     * @return
+     * 			Results in the order of the queries; null for queries that could not 
+     * 			be evaluated.
+     */
+    public String[] xPathQueryStrings(Layer layer, String[] queries) 
+    {
+    	String[] results = new String[queries.length];
+    	
+    	XPath xpath = XPathFactory.newInstance().newXPath();
+    	xpath.setNamespaceContext(new DrivingTaskNamespaceContext());
+    	Document document = lookUpSource(layer);
+    	if(document == null)
+    		return results;
+    	
+    	for(int i=0; i<queries.length; i++)
+    	{
+    		String query = queries[i];
+    		if (!query.startsWith("/"))
+    			query = "/" + layer.toString() + ":" + layer.toString() + "/" + query;
+    		
+    		try {
+    			
+    			results[i] = (String) xpath.compile(query).evaluate(document, XPathConstants.STRING);
+    			
+    		} catch (XPathExpressionException ex) {
+    			Logger.getLogger(DrivingTaskDataQuery.class.getName()).log(Level.SEVERE, null, ex);
+    		}
+    	}
+    	
+    	return results;
+    }
+    
 	
 	public Object xPathQuery(Layer layer, String query, QName xPathConst) 
     {
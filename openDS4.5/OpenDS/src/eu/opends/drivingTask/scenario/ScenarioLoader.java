@@ -40,6 +40,7 @@ import eu.opends.basics.MapObject;
 import eu.opends.basics.SimulationBasics;
 import eu.opends.cameraFlight.CameraFlightSettings;
 import eu.opends.car.ResetPosition;
+import eu.opends.drivingTask.CompiledProperties;
 import eu.opends.drivingTask.DrivingTask;
 import eu.opends.drivingTask.DrivingTaskDataQuery;
 import eu.opends.drivingTask.DrivingTaskDataQuery.Layer;
@@ -71,6 +72,7 @@ public class ScenarioLoader
 	private static final float MAX_DISTANCE_BETWEEN_TWO_IDEAL_POINTS = 0.1f;
 	
 	private DrivingTaskDataQuery dtData;
+	private CompiledProperties<CarProperty> carPropertyValues;
 	private SimulationBasics sim;
 	private SceneLoader sceneLoader;
 	private float driverCarMass;
@@ -130,6 +132,14 @@ public class ScenarioLoader
 		this.dtData = dtData;
 		this.sim = sim;
 		this.sceneLoader = drivingTask.getSceneLoader();
+		
+		// resolve all car properties once instead of evaluating XPath on every request
+		CarProperty[] carProperties = CarProperty.values();
+		String[] queries = new String[carProperties.length];
+		for(CarProperty carProperty : carProperties)
+			queries[carProperty.ordinal()] = carProperty.getXPathQuery();
+		carPropertyValues = new CompiledProperties<CarProperty>(dtData, Layer.SCENARIO, queries);
+		
 		processSceneCar();
 		extractTraffic();
 		extractCameraFlight();
@@ -302,7 +312,29 @@ public class ScenarioLoader
 	
 	
 	private void extractIdealLine()
-	{		
+	{
+		idealTrackMap = extractIdealTracks(dtData, sceneLoader.getPointMap());
+	}
+	
+	
+	/**
+	 * Extracts all ideal tracks of the given driving task. Does not need a simulator 
+	 * instance, hence can be used for offline analysis (e.g. BatchAnalyzer).
+	 * 
+	 * @param dtData
+	 * 			Driving task data.
+	 * 
+	 * @param pointMap
+	 * 			Points of the scene (ideal points may reference them).
+	 * 
+	 * @return
+	 * 			Map of ideal tracks by ID.
+	 */
+	public static Map<String, IdealTrackContainer> extractIdealTracks(DrivingTaskDataQuery dtData, 
+			Map<String, Vector3f> pointMap)
+	{
+		Map<String, IdealTrackContainer> idealTrackMap = new HashMap<String, IdealTrackContainer>();
+		
 		try {
 			
 			NodeList idealTrackNodes = (NodeList) dtData.xPathQuery(Layer.SCENARIO, 
@@ -330,8 +362,6 @@ public class ScenarioLoader
 						
 						String pointRef = dtData.getValue(Layer.SCENARIO, 
 								"/scenario:scenario/scenario:driver/scenario:idealTracks/scenario:idealTrack["+i+"]/scenario:point["+k+"]/@ref", String.class);
-		
-						Map<String, Vector3f> pointMap = sceneLoader.getPointMap();
 						
 						if(point != null)
 						{
@@ -381,6 +411,8 @@ public class ScenarioLoader
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
+		
+		return idealTrackMap;
 	}
 	
 	
@@ -408,7 +440,7 @@ public class ScenarioLoader
 	 * 			currentIdealPoint) with distance MAX_DISTANCE_BETWEEN_TWO_IDEAL_POINTS
 	 * 			from previousIdealPoint.
 	 */
-	private Vector2f createIdealPoint(Vector2f previousIdealPoint,	Vector2f currentIdealPoint)
+	private static Vector2f createIdealPoint(Vector2f previousIdealPoint,	Vector2f currentIdealPoint)
 	{
 		// difference in x- and y-coordinates between previous and current ideal point
 		float diffX = currentIdealPoint.x - previousIdealPoint.x;
@@ -567,7 +599,11 @@ public class ScenarioLoader
 	{
 		try {
 			Class<T> cast = (Class<T>) defaultValue.getClass();
-			T returnValue = (T) dtData.getValue(Layer.SCENARIO, carProperty.getXPathQuery(), cast);
+			T returnValue;
+			if(carPropertyValues.isResolved(carProperty))
+				returnValue = carPropertyValues.getValue(carProperty, cast);
+			else
+				returnValue = (T) dtData.getValue(Layer.SCENARIO, carProperty.getXPathQuery(), cast);
 			
 			if(returnValue != null)
 				return returnValue;
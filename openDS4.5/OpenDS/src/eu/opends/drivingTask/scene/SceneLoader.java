@@ -1155,7 +1155,25 @@ public class SceneLoader
 	
 
 	public void getPoints()
-	{	
+	{
+		pointMap.putAll(extractPoints(dtData));
+	}
+	
+	
+	/**
+	 * Extracts all points of the scene. Does not need a simulator instance, hence 
+	 * can be used for offline analysis (e.g. BatchAnalyzer).
+	 * 
+	 * @param dtData
+	 * 			Driving task data.
+	 * 
+	 * @return
+	 * 			Map of point translations by ID.
+	 */
+	public static Map<String, Vector3f> extractPoints(DrivingTaskDataQuery dtData)
+	{
+		Map<String, Vector3f> pointMap = new HashMap<String, Vector3f>();
+		
 		NodeList pointNodes = (NodeList) dtData.xPathQuery(Layer.SCENE, 
 				"/scene:scene/scene:geometries/scene:point", XPathConstants.NODESET);
 
@@ -1165,12 +1183,14 @@ public class SceneLoader
 					"/scene:scene/scene:geometries/scene:point" + "["+k+"]/@id", String.class);
 
 			if(pointID != null)
-				addPoint("/scene:scene/scene:geometries/scene:point" + "["+k+"]");
+				addPoint(dtData, pointMap, "/scene:scene/scene:geometries/scene:point" + "["+k+"]");
 		}
+		
+		return pointMap;
 	}
 	
 	
-	private void addPoint(String path) 
+	private static void addPoint(DrivingTaskDataQuery dtData, Map<String, Vector3f> pointMap, String path) 
 	{
 		String id = dtData.getValue(Layer.SCENE, path + "/@id", String.class);
 		Vector3f translation = dtData.getVector3f(Layer.SCENE, path + "/scene:translation");
@@ -28,6 +28,7 @@ import javax.xml.xpath.XPathConstants;
 
 import org.w3c.dom.NodeList;
 
+import eu.opends.drivingTask.CompiledProperties;
 import eu.opends.drivingTask.DrivingTaskDataQuery;
 import eu.opends.drivingTask.DrivingTaskDataQuery.Layer;
 import eu.opends.input.KeyMapping;
@@ -40,6 +41,7 @@ import eu.opends.input.KeyMapping;
 public class SettingsLoader
 {
 	private DrivingTaskDataQuery dtData;
+	private CompiledProperties<Setting> settingValues;
 	private Map<String,String[]> keyAssignmentMap = new HashMap<String,String[]>();
 
 	public enum Setting
@@ -95,6 +97,11 @@ public class SettingsLoader
 		HighPolygon_carModel("settings:shadowCarModel/settings:enableHighPolyCarModel"),
 		Analyzer_fileName("settings:analyzer/settings:fileName"),
 		Analyzer_suppressPDFPopup("settings:analyzer/settings:suppressPDFPopup"), 
+		Analyzer_writeBinaryData("settings:analyzer/settings:writeBinaryData"),
+		Analyzer_asynchronousRecording("settings:analyzer/settings:asynchronousRecording"),
+		Analyzer_channelRecorder_enable("settings:analyzer/settings:channelRecorder/settings:enable"),
+		Analyzer_channelRecorder_sampleRate("settings:analyzer/settings:channelRecorder/settings:sampleRate"),
+		Analyzer_logFlushInterval("settings:analyzer/settings:logFlushInterval"),
 		ObjectLocator_enable("settings:objectLocator/settings:enable"),
 		ObjectLocator_fileName("settings:objectLocator/settings:fileName"),
 		HMI_enableConnection("settings:HMI/settings:enableConnection"),
@@ -121,6 +128,8 @@ public class SettingsLoader
 		MultiDriver_ip("settings:multiDriver/settings:ip"),
 		MultiDriver_port("settings:multiDriver/settings:port"),
 		MultiDriver_updateRate("settings:multiDriver/settings:updateRate"),
+		MultiDriver_interpolationDelay("settings:multiDriver/settings:interpolationDelay"),
+		MultiDriver_maxExtrapolation("settings:multiDriver/settings:maxExtrapolation"),
 		VsimrtiServer_startServer("settings:vsimrtiServer/settings:startServer"),
 		VsimrtiServer_port("settings:vsimrtiServer/settings:port"),
 		SettingsControllerServer_startServer("settings:settingsControllerServer/settings:startServer"),
@@ -173,6 +182,7 @@ public class SettingsLoader
 		Eyetracker_warningFrame_flashingInterval("settings:eyetracker/settings:warningFrame/settings:flashingInterval"),
 		OculusRift_isAttached("settings:oculusRift/settings:isAttached"),
 		Maritime_displayMode("settings:maritime/settings:displayMode"),
+		TrafficLights_trafficCarsRequestGreen("settings:trafficLights/settings:trafficCarsRequestGreen"),
 		MultiThreading_enableThreads("settings:multiThreading/settings:enableThreads"),
 		MultiThreading_numberOfThreads("settings:multiThreading/settings:numberOfThreads");
 		
@@ -205,6 +215,14 @@ public class SettingsLoader
 	public SettingsLoader(DrivingTaskDataQuery dtData) 
 	{
 		this.dtData = dtData;
+		
+		// resolve all settings once instead of evaluating XPath on every request
+		Setting[] settings = Setting.values();
+		String[] queries = new String[settings.length];
+		for(Setting setting : settings)
+			queries[setting.ordinal()] = setting.getXPathQuery();
+		settingValues = new CompiledProperties<Setting>(dtData, Layer.SETTINGS, queries);
+		
 		loadKeyAssignments();
 		loadJoystickKeyAssignments();
 	}
@@ -366,7 +384,11 @@ public class SettingsLoader
 		try {
 			
 			Class<T> cast = (Class<T>) defaultValue.getClass();
-			T returnvalue = (T) dtData.getValue(Layer.SETTINGS, setting.getXPathQuery(), cast);
+			T returnvalue;
+			if(settingValues.isResolved(setting))
+				returnvalue = settingValues.getValue(setting, cast);
+			else
+				returnvalue = (T) dtData.getValue(Layer.SETTINGS, setting.getXPathQuery(), cast);
 			
 			if(returnvalue == null)
 				returnvalue = defaultValue;
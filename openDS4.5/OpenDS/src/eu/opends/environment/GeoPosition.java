@@ -34,6 +34,34 @@ import eu.opends.tools.Vector3d;
  */
 public class GeoPosition 
 {	
+	private static final Matrix defaultModelToGeoMatrix = createDefaultModelToGeoMatrix();
+	
+	
+	private static Matrix createDefaultModelToGeoMatrix()
+	{
+		// default conversion matrix
+		Matrix modelToGeoMatrix = new Matrix(4,4);
+		modelToGeoMatrix.set(0, 0, -1.78355088340735E-07);
+		modelToGeoMatrix.set(0, 1, -5.43081511229155E-06);
+		modelToGeoMatrix.set(0, 2, 0);
+		modelToGeoMatrix.set(0, 3, 49.2358655481218);
+		modelToGeoMatrix.set(1, 0, 9.00234704847944E-06);
+		modelToGeoMatrix.set(1, 1, -3.80856478467656E-07);
+		modelToGeoMatrix.set(1, 2, 0);
+		modelToGeoMatrix.set(1, 3, 7.0048602281113);
+		modelToGeoMatrix.set(2, 0, 0);
+		modelToGeoMatrix.set(2, 1, 0);
+		modelToGeoMatrix.set(2, 2, 1);
+		modelToGeoMatrix.set(2, 3, 0);
+		modelToGeoMatrix.set(3, 0, 0);
+		modelToGeoMatrix.set(3, 1, 0);
+		modelToGeoMatrix.set(3, 2, 0);
+		modelToGeoMatrix.set(3, 3, 1);
+
+		return modelToGeoMatrix;
+	}
+	
+	
 	/**
 	 * Conversion matrix to convert model coordinates to geo coordinates in the 
 	 * "Stadtmitte am Fluss" model.
@@ -47,26 +75,7 @@ public class GeoPosition
 		Matrix modelToGeoMatrix = SimulationBasics.getDrivingTask().getScenarioLoader().getModelToGeoMatrix();
 
 		if(modelToGeoMatrix == null)
-		{
-			// default conversion matrix
-			modelToGeoMatrix = new Matrix(4,4);
-			modelToGeoMatrix.set(0, 0, -1.78355088340735E-07);
-			modelToGeoMatrix.set(0, 1, -5.43081511229155E-06);
-			modelToGeoMatrix.set(0, 2, 0);
-			modelToGeoMatrix.set(0, 3, 49.2358655481218);
-			modelToGeoMatrix.set(1, 0, 9.00234704847944E-06);
-			modelToGeoMatrix.set(1, 1, -3.80856478467656E-07);
-			modelToGeoMatrix.set(1, 2, 0);
-			modelToGeoMatrix.set(1, 3, 7.0048602281113);
-			modelToGeoMatrix.set(2, 0, 0);
-			modelToGeoMatrix.set(2, 1, 0);
-			modelToGeoMatrix.set(2, 2, 1);
-			modelToGeoMatrix.set(2, 3, 0);
-			modelToGeoMatrix.set(3, 0, 0);
-			modelToGeoMatrix.set(3, 1, 0);
-			modelToGeoMatrix.set(3, 2, 0);
-			modelToGeoMatrix.set(3, 3, 1);
-		}
+			modelToGeoMatrix = defaultModelToGeoMatrix;
 
 		return modelToGeoMatrix;
 	}
@@ -141,6 +150,35 @@ public class GeoPosition
 		
 		return new Vector3d(latitude,longitude,altitude);
 	}   
+	
+	
+	/**
+	 * Same as <code>modelToGeo(Vector3f)</code>, but stores the result in the given 
+	 * vector instead of creating intermediate matrices and a new vector.
+	 * 
+	 * @param modelPosition
+	 * 			Position as vector (x,y,z) in the "Stadtmitte am Fluss" model.
+	 * 
+	 * @param store
+	 * 			Vector to store the position (latitude,longitude,altitude) in.
+	 * 
+	 * @return
+	 * 			The given store vector.
+	 */
+	public static Vector3d modelToGeo(Vector3f modelPosition, Vector3d store)
+	{
+		Matrix matrix = getModelToGeoMatrix();
+		
+		// model coordinates in the same order as in modelToGeo(Vector3f)
+		double x = modelPosition.getX();
+		double z = modelPosition.getZ();
+		double y = modelPosition.getY();
+		
+		return store.set(
+				matrix.get(0, 0)*x + matrix.get(0, 1)*z + matrix.get(0, 2)*y + matrix.get(0, 3),  // latitude
+				matrix.get(1, 0)*x + matrix.get(1, 1)*z + matrix.get(1, 2)*y + matrix.get(1, 3),  // longitude
+				matrix.get(2, 0)*x + matrix.get(2, 1)*z + matrix.get(2, 2)*y + matrix.get(2, 3)); // altitude
+	}
     
 	
 	/**
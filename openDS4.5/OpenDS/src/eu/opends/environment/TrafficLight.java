@@ -87,6 +87,7 @@ public class TrafficLight
 	private TrafficLightState state;
 	private TrafficLightDirection direction;
 	private int phasePosition;
+	private int index = -1;
 	private ArrayList<TrafficLight> requiresRedList = null;
 	private ArrayList<String> requiresRedStringList;
 	private TrafficLightPositionData positionData;
@@ -228,6 +229,9 @@ public class TrafficLight
 		{
 			this.state = state;
 			
+			// make new state visible to other threads (e.g. traffic)
+			TrafficLightCenter.publishState(index, state);
+			
 			updateTexture();
 			
 			// creates a string containing all current traffic light states
@@ -238,6 +242,25 @@ public class TrafficLight
 	}
 	
 	
+	/**
+	 * Returns the position of this traffic light in the state array of the 
+	 * traffic light center.
+	 * 
+	 * @return
+	 * 			index of traffic light (-1, if not registered)
+	 */
+	public int getIndex()
+	{
+		return index;
+	}
+	
+	
+	void setIndex(int index)
+	{
+		this.index = index;
+	}
+	
+	
 	/**
 	 * Returns the traffic light direction, e.g. TrafficLightDirection.RIGHT
 	 * 
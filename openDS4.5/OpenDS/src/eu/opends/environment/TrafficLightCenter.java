@@ -18,6 +18,7 @@
 
 package eu.opends.environment;
 
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -34,7 +35,9 @@ import eu.opends.visualization.*;
 /**
  * This class represents the management of all traffic lights within a model. It 
  * contains a complete list of all traffic lights and a list of traffic light 
- * programs for each intersection
+ * programs for each intersection. All programs are driven by a single timer wheel
+ * on the render thread. The current state of each traffic light is published in 
+ * a compact array which may be read by other threads (e.g. traffic) without locks.
  * 
  * @author Rafael Math
  */
@@ -58,11 +61,22 @@ public class TrafficLightCenter
 	
 	private List<Intersection> intersectionsList;
 	private static List<TrafficLight> globalTrafficLightsList;
+	private static HashMap<String, TrafficLight> trafficLightMap = new HashMap<String, TrafficLight>();
+	private static final TrafficLightState[] trafficLightStates = TrafficLightState.values();
+	
+	// ordinal of state per traffic light index; written by the render thread, 
+	// (re-)assignment of the volatile reference publishes the written states
+	private static volatile byte[] stateArray = new byte[0];
+	
 	private Simulator sim;
 	private TrafficLightMode mode;
 	private TrafficLightExternalConnector trafficLightExternalConnector;
+	private TrafficLightTimerWheel timerWheel = new TrafficLightTimerWheel();
 	private List<TrafficLightInternalProgram> trafficLightProgramList = 
 		new LinkedList<TrafficLightInternalProgram>();
+	private HashMap<String, TrafficLightInternalProgram> trafficLightProgramMap = 
+		new HashMap<String, TrafficLightInternalProgram>();
+	private XMLInstructionReader instructionReader = new XMLInstructionReader();
 
 
 	/**
@@ -84,6 +98,20 @@ public class TrafficLightCenter
 		
 		// set internal traffic light program as default
 		mode = TrafficLightMode.TRIGGER; // TODO allow different modes
+		
+		// index traffic lights by name (first one wins) and by position in state array
+		trafficLightMap.clear();
+		byte[] states = new byte[globalTrafficLightsList.size()];
+		for(int i=0; i<globalTrafficLightsList.size(); i++)
+		{
+			TrafficLight trafficLight = globalTrafficLightsList.get(i);
+			if(!trafficLightMap.containsKey(trafficLight.getName()))
+				trafficLightMap.put(trafficLight.getName(), trafficLight);
+			
+			trafficLight.setIndex(i);
+			states[i] = (byte) trafficLight.getState().ordinal();
+		}
+		stateArray = states;
 
 		for(TrafficLight trafficLight : globalTrafficLightsList)
 		{
@@ -96,10 +124,14 @@ public class TrafficLightCenter
 		{
 			// create and start program
 			TrafficLightInternalProgram trafficLightInternalProgram = new TrafficLightInternalProgram(sim, this,
-					intersection.getIntersectionID(),intersection.getTrafficLightList(),intersection.getTrafficLightPhaseList());
+					intersection.getIntersectionID(),intersection.getTrafficLightList(),intersection.getTrafficLightPhaseList(),
+					timerWheel);
 			
-			trafficLightInternalProgram.start();
 			trafficLightProgramList.add(trafficLightInternalProgram);
+			if(!trafficLightProgramMap.containsKey(intersection.getIntersectionID()))
+				trafficLightProgramMap.put(intersection.getIntersectionID(), trafficLightInternalProgram);
+			
+			trafficLightInternalProgram.setMode(mode);
 		}	
 		
 		// start trafficLight-thread
@@ -119,8 +151,7 @@ public class TrafficLightCenter
 	{
 		if(mode == TrafficLightMode.EXTERNAL)
 		{
-			XMLParser parser = new XMLParser(datastring);
-			parser.evalTrafficLightInstructions();
+			instructionReader.evalTrafficLightInstructions(datastring);
 		}
 	}
 	
@@ -138,33 +169,53 @@ public class TrafficLightCenter
 	 */
 	public void reportCollision(String trafficLightName, TriggerType type)
 	{
+		TrafficLight trafficLight = getTrafficLightByName(trafficLightName);
+		if(trafficLight == null)
+			return;
+		
+		TrafficLightInternalProgram trafficLightInternalProgram = 
+				trafficLightProgramMap.get(trafficLight.getIntersectionID());
+		if(trafficLightInternalProgram == null)
+			return;
+		
 		if((mode == TrafficLightMode.TRIGGER) && (type == TriggerType.REQUEST))
 		{
-			TrafficLight trafficLight = getTrafficLightByName(trafficLightName);
-			for(TrafficLightInternalProgram trafficLightInternalProgram : trafficLightProgramList)
-			{
-				if(trafficLightInternalProgram.getIntersectionID().equals(trafficLight.getIntersectionID()))
-				{
-					trafficLightInternalProgram.requestGreen(trafficLight);
-					if(trafficLight.getState() == TrafficLightState.RED)
-						HMICenter.reportRedTrafficLightCollision(trafficLight,sim.getCar());
-				}
-			}
+			trafficLightInternalProgram.requestGreen(trafficLight);
+			if(trafficLight.getState() == TrafficLightState.RED)
+				HMICenter.reportRedTrafficLightCollision(trafficLight,sim.getCar());
 		}
 		else if((mode == TrafficLightMode.PROGRAM) && (type == TriggerType.PHASE))
 		{
-			TrafficLight trafficLight = getTrafficLightByName(trafficLightName);
-			for(TrafficLightInternalProgram trafficLightInternalProgram : trafficLightProgramList)
-			{
-				if(trafficLightInternalProgram.getIntersectionID().equals(trafficLight.getIntersectionID()))
-				{
-					HMICenter.reportTrafficLightCollision(trafficLight,sim.getCar());
-				}
-			}
+			HMICenter.reportTrafficLightCollision(trafficLight,sim.getCar());
 		}
 	}
 
 	
+	/**
+	 * When a traffic light trigger was entered by a traffic car and the internal 
+	 * traffic light program is running in TRIGGER mode, green light will be 
+	 * requested at the given traffic light (as by the driver, but without 
+	 * presenting a red light warning to the driver).
+	 * 
+	 * @param trafficLightName
+	 * 			Name of traffic light requested to switch to green
+	 */
+	public void reportTrafficCarCollision(String trafficLightName)
+	{
+		if(mode != TrafficLightMode.TRIGGER)
+			return;
+		
+		TrafficLight trafficLight = getTrafficLightByName(trafficLightName);
+		if(trafficLight == null)
+			return;
+		
+		TrafficLightInternalProgram trafficLightInternalProgram = 
+				trafficLightProgramMap.get(trafficLight.getIntersectionID());
+		if(trafficLightInternalProgram != null)
+			trafficLightInternalProgram.requestGreen(trafficLight);
+	}
+	
+	
 	/**
 	 * Returns current mode of traffic light center
 	 * 
@@ -189,6 +240,10 @@ public class TrafficLightCenter
 		{
 			setStateAll(TrafficLightState.OFF);
 			mode = _mode;
+			
+			for(TrafficLightInternalProgram trafficLightInternalProgram : trafficLightProgramList)
+				trafficLightInternalProgram.setMode(mode);
+			
 			System.out.println("Switched mode to " + _mode.toString());
 		}
 	}
@@ -218,8 +273,8 @@ public class TrafficLightCenter
 	
 	
 	/**
-	 * Looks up the traffic light object with the given name. If no object found,
-	 * null will be returned
+	 * Looks up the traffic light object with the given name (O(1)). If no object 
+	 * found, null will be returned
 	 * 
 	 * @param trafficLightName
 	 * 			name of the traffic light to look up (i.e. "TrafficLight.06_04" 
@@ -230,12 +285,48 @@ public class TrafficLightCenter
 	 */
 	public static TrafficLight getTrafficLightByName(String trafficLightName)
 	{		
-		for(TrafficLight trafficLight : globalTrafficLightsList)
+		return trafficLightMap.get(trafficLightName);
+	}
+	
+	
+	/**
+	 * Returns the published state of the traffic light at the given position 
+	 * of the state array. May be called by any thread without locking.
+	 * 
+	 * @param index
+	 * 			index of the traffic light (see TrafficLight.getIndex())
+	 * 
+	 * @return
+	 * 			latest state of the traffic light (null, if index out of range)
+	 */
+	public static TrafficLightState getPublishedState(int index)
+	{
+		byte[] states = stateArray;
+		if(index < 0 || index >= states.length)
+			return null;
+		
+		return trafficLightStates[states[index]];
+	}
+	
+	
+	/**
+	 * Publishes the given state of the traffic light at the given position 
+	 * of the state array.
+	 * 
+	 * @param index
+	 * 			index of the traffic light (see TrafficLight.getIndex())
+	 * 
+	 * @param state
+	 * 			new state of the traffic light
+	 */
+	static void publishState(int index, TrafficLightState state)
+	{
+		byte[] states = stateArray;
+		if(index >= 0 && index < states.length)
 		{
-			if(trafficLight.getName().equals(trafficLightName))
-				return trafficLight;
+			states[index] = (byte) state.ordinal();
+			stateArray = states;
 		}
-		return null;
 	}
 	
 	
@@ -296,13 +387,10 @@ public class TrafficLightCenter
 	public TrafficLightInternalProgram getInternalProgram(String intersectionID) 
 			throws NoInternalProgramException
 	{
-		// go through all internal programs (normally one program for each intersection)
-		for(TrafficLightInternalProgram trafficLightInternalProgram : trafficLightProgramList)
-		{
-			// return internal program if it matches the given intersectionID
-			if(trafficLightInternalProgram.getIntersectionID().equals(intersectionID))
-				return trafficLightInternalProgram;
-		}
+		// look up internal program (normally one program for each intersection)
+		TrafficLightInternalProgram trafficLightInternalProgram = trafficLightProgramMap.get(intersectionID);
+		if(trafficLightInternalProgram != null)
+			return trafficLightInternalProgram;
 		
 		// if no internal program found --> throw exception
 		throw new NoInternalProgramException("Not assigned to any internal program!");
@@ -384,7 +472,21 @@ public class TrafficLightCenter
 	
 	
 	/**
-	 * Closes all internal threads
+	 * Advances the timer wheel of the internal traffic light programs (simulation 
+	 * time, stands still in pause). Must be called once per frame by the render 
+	 * thread.
+	 * 
+	 * @param tpf
+	 * 			Time per frame (in seconds)
+	 */
+	public void update(float tpf)
+	{
+		timerWheel.update(tpf, sim.isPause());
+	}
+	
+	
+	/**
+	 * Stops all internal programs and threads
 	 */
 	public void close()
 	{
@@ -403,15 +505,17 @@ public class TrafficLightCenter
 			String trafficLightID = wayPoint.getTrafficLightID();
 			
 			TrafficLight trafficLight = getTrafficLightByName(trafficLightID);
-
-			if(trafficLight != null &&
-				 (
-					trafficLight.getState() == TrafficLightState.RED ||
-					trafficLight.getState() == TrafficLightState.YELLOW ||
-					trafficLight.getState() == TrafficLightState.YELLOWRED
-				 )
-			  )
-				return true;
+			
+			if(trafficLight != null)
+			{
+				// read published state (called by traffic threads)
+				TrafficLightState state = getPublishedState(trafficLight.getIndex());
+				
+				if(state == TrafficLightState.RED ||
+					state == TrafficLightState.YELLOW ||
+					state == TrafficLightState.YELLOWRED)
+					return true;
+			}
 		}
 		return false;
 	}
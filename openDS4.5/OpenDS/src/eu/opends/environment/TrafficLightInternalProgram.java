@@ -31,29 +31,49 @@ import eu.opends.main.Simulator;
 /**
  * This class represents the internal traffic light program. It provides 
  * rules to switch traffic lights of a specific intersection. Each intersection
- * requires an individual instance which runs as thread. Before a traffic light
+ * requires an individual instance. Instead of running as thread, each program 
+ * is a sequence of steps which are executed on the render thread by the timer
+ * wheel of the traffic light center (simulation time). Before a traffic light
  * will be switched to green, all traffic lights as given in the *-tlr.xml file 
  * will be switched to red first. If no rules file available, all other traffic 
  * lights will be switched to red. Traffic lights to switch green will be queued 
- * in a list (trafficLightsListForGreen) and be processed every 5 seconds.
+ * in a list (trafficLightsListForGreen) and be processed one after the other.
  * 
  * @author Rafael Math
  */
-public class TrafficLightInternalProgram extends Thread
+public class TrafficLightInternalProgram
 {
+	/**
+	 * Step of the program to execute when the timer expires.
+	 */
+	private enum Step
+	{
+		INTERSECTION_RED, REQUEST_RED, SWITCH_YELLOWRED, SWITCH_GREEN, GREEN_DONE, BLINK, NEXT_PHASE;
+	}
+	
+	
 	private Simulator sim;
 	private TrafficLightCenter trafficLightCenter;
+	private TrafficLightTimerWheel timerWheel;
 	private boolean stoprequested;
 	private String intersectionID;
 	private List<TrafficLight> trafficLightsListForGreen = new LinkedList<TrafficLight>();
 	private List<TrafficLight> intersectionTrafficLightsList = new LinkedList<TrafficLight>();
 	private LinkedList<TrafficLightPhase>intersectionPhasesList = new LinkedList<TrafficLightPhase>();
-	private TrafficLightMode previousMode;
+	private TrafficLightMode mode;
 	private TrafficLightPhase phase;
 	private ListIterator<TrafficLightPhase> iterator;
 	private boolean allTrafficLightsOff;
-	private long timeOfLastBlink = 0;
 	private int blinkingIntervall = 1000;
+	private Step nextStep;
+	private TrafficLightTimerWheel.Timer timer = new TrafficLightTimerWheel.Timer()
+	{
+		@Override
+		protected void expire()
+		{
+			runStep();
+		}
+	};
 
 	
 	/**
@@ -76,13 +96,17 @@ public class TrafficLightInternalProgram extends Thread
 	 * 
 	 * @param intersectionPhasesList
 	 * 			List of all traffic light phases at the given intersection
+	 * 
+	 * @param timerWheel
+	 * 			Timer wheel executing the steps of this program
 	 */
 	public TrafficLightInternalProgram(Simulator sim, TrafficLightCenter trafficLightCenter, String intersectionID, 
-			List<TrafficLight> allTrafficLightsList, LinkedList<TrafficLightPhase> intersectionPhasesList) 
+			List<TrafficLight> allTrafficLightsList, LinkedList<TrafficLightPhase> intersectionPhasesList,
+			TrafficLightTimerWheel timerWheel) 
 	{
-		super("TrafficLightInternalProgramThread");
 		this.sim = sim;
 		this.trafficLightCenter = trafficLightCenter;
+		this.timerWheel = timerWheel;
 		this.intersectionID = intersectionID;
 		this.intersectionTrafficLightsList = filterTrafficLightsOfIntersection(intersectionID,allTrafficLightsList);
 		this.intersectionPhasesList = intersectionPhasesList;
@@ -93,9 +117,7 @@ public class TrafficLightInternalProgram extends Thread
 		{
 			iterator = intersectionPhasesList.listIterator(0);
 			phase = gotoNextPhase();
-			phase.activate(System.currentTimeMillis());
-			if(trafficLightCenter.getMode() == TrafficLightMode.PROGRAM)
-				setPhaseToTrafficLights();
+			phase.activate(timerWheel.getTime());
 		}
 	}
 	
@@ -132,7 +154,8 @@ public class TrafficLightInternalProgram extends Thread
 	
 	/**
 	 * This method adds a traffic light to the queue of traffic lights waiting 
-	 * to turn green, if it is not contained yet.
+	 * to turn green, if it is not contained yet. If the program is idle, the
+	 * queue will be processed immediately. Must be called by the render thread.
 	 * 
 	 * @param trafficLight
 	 * 			Traffic light to be added to the green-light-queue
@@ -141,15 +164,46 @@ public class TrafficLightInternalProgram extends Thread
 	{
 		if(!trafficLightsListForGreen.contains(trafficLight))
 			trafficLightsListForGreen.add(trafficLight);
+		
+		if(!stoprequested && mode == TrafficLightMode.TRIGGER && !timer.isScheduled())
+			processQueue();
+	}
+	
+	
+	/**
+	 * Restarts the program in the given mode. Pending steps of the previous
+	 * mode will be cancelled. Must be called by the render thread.
+	 * 
+	 * @param mode
+	 * 			New traffic light mode
+	 */
+	public synchronized void setMode(TrafficLightMode mode)
+	{
+		if(stoprequested)
+			return;
+		
+		this.mode = mode;
+		timerWheel.cancel(timer);
+		
+		if(mode == TrafficLightMode.TRIGGER)
+			startTriggerMode();
+		else if(mode == TrafficLightMode.BLINKING)
+		{
+			runBlinkingMode();
+			schedule(blinkingIntervall, Step.BLINK);
+		}
+		else if(mode == TrafficLightMode.PROGRAM)
+			startProgramMode();
 	}
 	
 
 	/**
-	 * Stops the traffic light program by exiting the loop
+	 * Stops the traffic light program by cancelling all pending steps
 	 */
 	public synchronized void requestStop()
 	{
 		stoprequested = true;
+		timerWheel.cancel(timer);
 	}
 	
 	
@@ -190,7 +244,7 @@ public class TrafficLightInternalProgram extends Thread
 			throw new IsGreenException("Traffic light is green");
 		
 		// get remaining time (usually in seconds) for current phase
-		long remainingRed = phase.timeToExpiration(System.currentTimeMillis());
+		long remainingRed = phase.timeToExpiration(timerWheel.getTime());
 		
 		// remember start phase to avoid cycles
 		String startPhaseID = phase.getID();
@@ -238,7 +292,7 @@ public class TrafficLightInternalProgram extends Thread
 			throw new IsNotGreenException("Traffic light is not green");
 		
 		// get remaining time (usually in seconds) for current phase
-		long remainingGreen = phase.timeToExpiration(System.currentTimeMillis());
+		long remainingGreen = phase.timeToExpiration(timerWheel.getTime());
 		
 		// remember start phase to avoid cycles
 		String startPhaseID = phase.getID();
@@ -264,74 +318,115 @@ public class TrafficLightInternalProgram extends Thread
 	
 
 	/**
-	 * This method contains a loop with the basic rules to switch the traffic lights
-	 * of a certain intersection. Instructions will only be carried out in TRIGGER,
-	 * PROGRAMM or BLINKING mode. Each execution of this loop takes at least 1 second.
+	 * Executes the step of the program which is due. Called by the timer wheel 
+	 * on the render thread.
 	 */
-	@Override
-	public void run() 
-	{		
-		while (!stoprequested) 
+	private synchronized void runStep()
+	{
+		if(stoprequested)
+			return;
+		
+		switch(nextStep)
 		{
-			TrafficLightMode currentMode = trafficLightCenter.getMode();
-
-			if(!sim.isPause())
-			{
-				if(currentMode == TrafficLightMode.TRIGGER)
-				{
-					runTriggerMode();
-				}	
-				else if(currentMode == TrafficLightMode.BLINKING && (timeOfLastBlink + blinkingIntervall <= System.currentTimeMillis()))
-				{
-					runBlinkingMode();
-					timeOfLastBlink = System.currentTimeMillis();
-				}
-				else if(currentMode == TrafficLightMode.PROGRAM)
+			case INTERSECTION_RED:
+				// shift all remaining yellow lights to red
+				shiftIntersectionToRed(null);
+				processQueue();
+				break;
+				
+			case REQUEST_RED:
+				// shift all remaining yellow lights (required to be red) to red and wait a second
+				shiftIntersectionToRed(trafficLightsListForGreen.get(0));
+				schedule(1000, Step.SWITCH_YELLOWRED);
+				break;
+				
+			case SWITCH_YELLOWRED:
+				// if all required traffic lights are red
+				TrafficLight trafficLight = trafficLightsListForGreen.get(0);
+				if(isIntersectionRed(trafficLight))
 				{
-					runProgramMode();
+					// switch selected traffic light to YELLOWRED and wait 1 second
+					trafficLight.setState(TrafficLightState.YELLOWRED);
+					schedule(1000, Step.SWITCH_GREEN);
 				}
-			}
-
-			previousMode = currentMode;
-			
-			try {
-				// halt thread for 1 second to provide a clock for BLINKING mode; 
-				// otherwise prevent loop from repeating 
-				// to fast in OFF or EXTERNAL mode 
-				Thread.sleep(10);
+				else
+					finishRequest();
+				break;
+				
+			case SWITCH_GREEN:
+				// switch selected traffic light to GREEN and wait 3 seconds
+				trafficLightsListForGreen.get(0).setState(TrafficLightState.GREEN);
+				schedule(3000, Step.GREEN_DONE);
+				break;
+				
+			case GREEN_DONE:
+				finishRequest();
+				break;
 				
-			} catch (InterruptedException e){}
+			case BLINK:
+				runBlinkingMode();
+				schedule(blinkingIntervall, Step.BLINK);
+				break;
+				
+			case NEXT_PHASE:
+				// current phase has expired --> set next phase to traffic lights
+				phase = gotoNextPhase();
+				phase.activate(timerWheel.getTime());
+				setPhaseToTrafficLights();
+				schedule(phase.getDuration(), Step.NEXT_PHASE);
+				break;
 		}
-
-		// if loop was left: traffic light program will be terminated
-		//System.out.println("Program terminated");
+	}
+	
+	
+	/**
+	 * Schedules the given step of the program.
+	 * 
+	 * @param delay
+	 * 			Delay in ms (simulation time)
+	 * 
+	 * @param step
+	 * 			Step to execute after the delay
+	 */
+	private void schedule(long delay, Step step)
+	{
+		nextStep = step;
+		timerWheel.schedule(timer, delay);
 	}
 
 
+	/**
+	 * Initializes TRIGGER mode: clears the queue of traffic lights waiting to be 
+	 * switched to green and switches all traffic lights of this intersection to red.
+	 * Green traffic lights will first be switched to yellow, after a second they 
+	 * will be switched to red.
+	 */
+	private void startTriggerMode() 
+	{
+		// clear queue of traffic lights waiting to be switched to green
+		trafficLightsListForGreen.clear();
+		
+		// shift one step (all yellow lights to red and all green lights to yellow) 
+		shiftIntersectionToRed(null);
+		
+		if(!isIntersectionRed(null))
+			schedule(1000, Step.INTERSECTION_RED);
+	}
+	
+	
 	/**
 	 * Traffic light program for TRIGGER mode. If there is a traffic light in the 
 	 * list to be switched to green, all required traffic lights at this intersection
 	 * have to be switched to red first. The traffic lights required to turn red will 
 	 * be loaded from an external source; if not available, all other traffic lights 
 	 * will be switched to red. After this, the selected traffic light will be switched
-	 * to yellow-red and finally to green. After processing, it will be removed from queue. 
+	 * to yellow-red and finally to green. After processing, it will be removed from queue.
+	 * If the queue is empty, the program stays idle until the next request.
 	 */
-	private void runTriggerMode() 
+	private void processQueue() 
 	{
-		
-		// if mode has changed to TRIGGER mode --> initialize first
-		if(previousMode != TrafficLightMode.TRIGGER)
-		{
-			// clear queue of traffic lights waiting to be switched to green
-			trafficLightsListForGreen.clear();
-			
-			// switch all traffic lights of current intersection to red
-			requestIntersectionRed(null);
-		}
-		
-		
 		// if there are traffic lights waiting to be switched to green --> process queue
-		if(!trafficLightsListForGreen.isEmpty())
+		while(!trafficLightsListForGreen.isEmpty())
 		{
 			// get first traffic light in queue
 			TrafficLight trafficLight = trafficLightsListForGreen.get(0);
@@ -342,31 +437,36 @@ public class TrafficLightInternalProgram extends Thread
 			{
 				// switch all those traffic lights of the current intersection to red, 
 				// that are required to switch the selected traffic light to green and 
-				// wait a second
-				requestIntersectionRed(trafficLight);
-				wait(1);
+				// wait a second (if yellow lights remain: wait a second before 
+				// switching them to red)
+				shiftIntersectionToRed(trafficLight);
 				
-				// if all required traffic lights are red
-				if(isIntersectionRed(trafficLight))
-				{
-					// switch selected traffic light to YELLOWRED and wait 1 second
-					trafficLight.setState(TrafficLightState.YELLOWRED);
-					wait(1);
-					
-					// switch selected traffic light to GREEN and wait 3 seconds
-					trafficLight.setState(TrafficLightState.GREEN);
-					wait(3);
-				}
+				if(!isIntersectionRed(trafficLight))
+					schedule(1000, Step.REQUEST_RED);
+				else
+					schedule(1000, Step.SWITCH_YELLOWRED);
+				
+				return;
 			}
 			
-			// remove processed traffic light from queue
+			// remove skipped traffic light from queue
 			trafficLightsListForGreen.remove(0);
 		}
 	}
+	
+	
+	/**
+	 * Removes the processed traffic light from queue and continues with the next one.
+	 */
+	private void finishRequest() 
+	{
+		trafficLightsListForGreen.remove(0);
+		processQueue();
+	}
 
 
 	/**
-	 * Traffic light program for BLINKING mode. Since this method is called every 
+	 * Traffic light program for BLINKING mode. Since this method is scheduled every 
 	 * second (when active), all traffic lights of a certain intersection will be 
 	 * changed from OFF to YELLOW in the odd calls, and from YELLOW to OFF in the 
 	 * even calls.
@@ -385,11 +485,12 @@ public class TrafficLightInternalProgram extends Thread
 	
 	/**
 	 * Traffic light program for PROGRAM mode. Traffic light states will be scheduled
-	 * according to a given external XML file. Every step (usually 1 second) this method
-	 * checks whether the current phase has changed and if so, the traffic light states
-	 * will be changed.
+	 * according to a given external XML file. When entering this mode, the traffic 
+	 * light states of the current phase (or the next one, if the current phase has
+	 * expired) will be set and the next phase will be scheduled at the expiration
+	 * of the current phase.
 	 */
-	private void runProgramMode() 
+	private void startProgramMode() 
 	{
 		// if no external phases list available 
 		// --> switch all traffic lights off (only once)
@@ -398,22 +499,17 @@ public class TrafficLightInternalProgram extends Thread
 			switchAllTrafficLightsOff();
 			return;
 		}
-		
-		// if changed from different mode --> initialize PROGRAM mode
-		if(previousMode != TrafficLightMode.PROGRAM)
-			setPhaseToTrafficLights();
 
-		// if current phase has expired, set next phase to traffic lights
-		long currentTime = System.currentTimeMillis();
+		// if current phase has expired, continue with next phase
+		long currentTime = timerWheel.getTime();
 		if(phase.hasExpired(currentTime))
 		{
 			phase = gotoNextPhase();
 			phase.activate(currentTime);
-			setPhaseToTrafficLights();
 		}
 		
-		// increment clock
-		currentTime++;
+		setPhaseToTrafficLights();
+		schedule(phase.timeToExpiration(currentTime), Step.NEXT_PHASE);
 	}
 
 
@@ -484,35 +580,6 @@ public class TrafficLightInternalProgram extends Thread
 	}
 	
 	
-	/**
-	 * Switches all traffic lights to red which are required to switch the 
-	 * given one to green. Green traffic lights will first be switched to
-	 * yellow, after a second they will be switched to red.
-	 * 
-	 * @param trafficLightForGreen
-	 *  		Traffic light waiting for green, while all other interfering 
-	 *  		traffic lights at this intersection will be switched to red.
-	 *  		If null, all traffic lights at this intersection will be 
-	 *  		switched to red.
-	 */
-	private void requestIntersectionRed(TrafficLight trafficLightForGreen)
-	{
-		// shift rules: 1. GREEN --> YELLOW
-		//				2. wait 1 second
-		//				3. YELLOW --> RED
-		
-		// shift one step (all yellow lights to red and all green lights to yellow) 
-		shiftIntersectionToRed(trafficLightForGreen);
-		
-		if(!isIntersectionRed(trafficLightForGreen))
-		{
-			wait(1);
-			// shift one further step (all remaining yellow lights to red)
-			shiftIntersectionToRed(trafficLightForGreen);
-		}
-	}
-	
-	
 	/**
 	 * Walks through the list of all traffic lights of the current intersection
 	 * and shifts the light status one step closer to red for all traffic lights
@@ -594,22 +661,4 @@ public class TrafficLightInternalProgram extends Thread
 	}
 
 	
-	/**
-	 * Stops the loop for the given number of seconds (for INTERNAL mode only)
-	 * 
-	 * @param seconds
-	 * 			number of seconds to stop the thread
-	 */
-	private void wait(int seconds)
-	{
-		// wait only if INTERNAL mode is still running
-		if(sim.getTrafficLightCenter().getMode() == TrafficLightMode.TRIGGER)
-		{
-			try {
-				Thread.sleep(seconds*1000);
-			} catch (InterruptedException e){}
-		}
-	}
-
-	
-}
+}
\ No newline at end of file
@@ -0,0 +1,240 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.environment;
+
+/**
+ * Hashed timer wheel driving all internal traffic light programs on the render
+ * thread. Time is simulation time: it is advanced by <code>update()</code> once
+ * per frame and stands still while the simulation is paused. The wheel has a
+ * resolution of 10 ms; timers further ahead than one revolution count down the
+ * remaining revolutions. Scheduling and cancelling a timer are O(1), an update
+ * only visits the slots of the ticks passed, hence idle intersections cost
+ * nothing.
+ *
+ * Timers are not thread-safe and must be used by the render thread only; the
+ * current time may be read by any thread.
+ *
+ * @author OpenDS contributors
+ */
+public class TrafficLightTimerWheel
+{
+	public static final long TICK_LENGTH = 10;  // ms
+	private static final int SLOTS = 1024;      // ~10 s per revolution
+	private static final int SLOT_MASK = SLOTS - 1;
+
+	private Timer[] slots = new Timer[SLOTS];
+	private Timer expiringHead = null;
+	private volatile long currentTick = 0;  // read by getTime() from any thread
+	private double time = 0;
+	private int scheduledCount = 0;
+
+
+	/**
+	 * Timer that can be (re-)scheduled at the wheel. At most one expiration
+	 * per timer is pending at a time.
+	 */
+	public static abstract class Timer
+	{
+		private Timer previous;
+		private Timer next;
+		private int slot = -1;
+		private long remainingRounds;
+
+
+		/**
+		 * Called by the render thread when the timer has expired.
+		 */
+		protected abstract void expire();
+
+
+		/**
+		 * @return
+		 * 			True, if the timer is waiting for expiration.
+		 */
+		public boolean isScheduled()
+		{
+			return slot >= 0;
+		}
+	}
+
+
+	/**
+	 * Returns the current simulation time of the wheel.
+	 *
+	 * @return
+	 * 			Simulation time (in ms) since creation of the wheel
+	 */
+	public long getTime()
+	{
+		return currentTick * TICK_LENGTH;
+	}
+
+
+	/**
+	 * Schedules the given timer to expire after the given delay. If the timer
+	 * is already scheduled, the previous expiration will be cancelled.
+	 *
+	 * @param timer
+	 * 			Timer to schedule
+	 *
+	 * @param delay
+	 * 			Delay in ms (simulation time); rounded up to the next tick,
+	 * 			at least one tick
+	 */
+	public void schedule(Timer timer, long delay)
+	{
+		cancel(timer);
+
+		long ticks = Math.max(1, (delay + TICK_LENGTH - 1) / TICK_LENGTH);
+		long dueTick = currentTick + ticks;
+
+		// the slot of dueTick will be visited first after (ticks-1)/SLOTS revolutions
+		timer.slot = (int) (dueTick & SLOT_MASK);
+		timer.remainingRounds = (ticks - 1) / SLOTS;
+		link(timer);
+		scheduledCount++;
+	}
+
+
+	/**
+	 * Cancels the pending expiration of the given timer (if any).
+	 *
+	 * @param timer
+	 * 			Timer to cancel
+	 */
+	public void cancel(Timer timer)
+	{
+		if(timer.isScheduled())
+		{
+			unlink(timer);
+			timer.slot = -1;
+			scheduledCount--;
+		}
+	}
+
+
+	/**
+	 * @return
+	 * 			Number of timers waiting for expiration.
+	 */
+	public int getScheduledCount()
+	{
+		return scheduledCount;
+	}
+
+
+	/**
+	 * Advances the simulation time and expires all timers due. Must be called
+	 * once per frame by the render thread.
+	 *
+	 * @param tpf
+	 * 			Time per frame (in seconds).
+	 *
+	 * @param isPaused
+	 * 			Whether the simulation is paused (time stands still).
+	 */
+	public void update(float tpf, boolean isPaused)
+	{
+		if(isPaused)
+			return;
+
+		time += tpf * 1000;
+		long targetTick = (long) (time / TICK_LENGTH);
+
+		while(currentTick < targetTick)
+		{
+			currentTick++;
+
+			if(scheduledCount == 0)
+			{
+				// nothing to expire --> skip remaining ticks
+				currentTick = targetTick;
+				break;
+			}
+
+			expireSlot((int) (currentTick & SLOT_MASK));
+		}
+	}
+
+
+	private void expireSlot(int slot)
+	{
+		// detach list of slot; timers (re-)scheduled by expire() will be linked
+		// to their new slot, which is not visited before the next tick. Timers
+		// cancelled by expire() are unlinked from the detached list.
+		expiringHead = slots[slot];
+		slots[slot] = null;
+
+		Timer timer;
+		while((timer = expiringHead) != null)
+		{
+			expiringHead = timer.next;
+			if(expiringHead != null)
+				expiringHead.previous = null;
+			timer.next = null;
+
+			if(timer.remainingRounds > 0)
+			{
+				timer.remainingRounds--;
+				link(timer);
+			}
+			else
+			{
+				timer.slot = -1;
+				scheduledCount--;
+
+				try {
+
+					timer.expire();
+
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+
+	private void link(Timer timer)
+	{
+		Timer head = slots[timer.slot];
+		timer.previous = null;
+		timer.next = head;
+		if(head != null)
+			head.previous = timer;
+		slots[timer.slot] = timer;
+	}
+
+
+	private void unlink(Timer timer)
+	{
+		if(timer.previous != null)
+			timer.previous.next = timer.next;
+		else if(slots[timer.slot] == timer)
+			slots[timer.slot] = timer.next;
+		else if(expiringHead == timer)
+			expiringHead = timer.next;
+
+		if(timer.next != null)
+			timer.next.previous = timer.previous;
+
+		timer.previous = null;
+		timer.next = null;
+	}
+}
@@ -0,0 +1,315 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.environment;
+
+import java.io.StringReader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import eu.opends.canbus.CANClient;
+import eu.opends.main.Simulator;
+import eu.opends.multiDriver.MultiDriverInstructionHandler;
+
+/**
+ * Streaming (StAX) parser of the instructions received from the CAN-Interface, the
+ * multi driver server and external traffic light controllers. In contrast to
+ * XMLParser, no DOM is built: elements are dispatched to the same handlers (e.g.
+ * XMLParser.performCANAction()) while reading. Messages may be passed with or
+ * without an enclosing root element (e.g. "&lt;CAN&gt;"), as only the relevant
+ * elements are matched by name.
+ *
+ * An instance may be reused for any number of messages, but must not be used by
+ * several threads at the same time.
+ *
+ * @author OpenDS contributors
+ */
+public class XMLInstructionReader
+{
+	private XMLInputFactory factory;
+	private StringBuilder text = new StringBuilder(64);
+
+
+	public XMLInstructionReader()
+	{
+		factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+	}
+
+
+	/**
+	 * Evaluates CAN-bus instructions like steering wheel angle, status of brake
+	 * and gas pedal (see XMLParser.evalCANInstruction()).
+	 *
+	 * @param message
+	 * 			XML string, e.g. &lt;message&gt;&lt;action name="brake"&gt;0.3&lt;/action&gt;&lt;/message&gt;
+	 *
+	 * @param sim
+	 * 			Simulator
+	 *
+	 * @param canClient
+	 * 			CAN client class
+	 */
+	public void evalCANInstruction(String message, Simulator sim, CANClient canClient)
+	{
+		XMLStreamReader reader = null;
+		try {
+
+			reader = createReader(message);
+
+			int messageDepth = 0;
+			while(reader.hasNext())
+			{
+				int event = reader.next();
+				if(event == XMLStreamConstants.START_ELEMENT)
+				{
+					String name = reader.getLocalName();
+					if(name.equals("message"))
+						messageDepth++;
+					else if(name.equals("action") && messageDepth > 0)
+					{
+						String actionID = getAttribute(reader, "name");
+						String durationString = getAttribute(reader, "duration");
+						boolean hasText = readFirstText(reader);
+
+						try {
+
+							if(!hasText)
+								throw new Exception("No character data given");
+
+							XMLParser.performCANAction(sim, canClient, actionID, text.toString(), durationString);
+
+						} catch(Exception e){
+							e.printStackTrace();
+						}
+					}
+				}
+				else if(event == XMLStreamConstants.END_ELEMENT && reader.getLocalName().equals("message"))
+					messageDepth--;
+			}
+
+		} catch (XMLStreamException e) {
+			System.err.println("[WARNING]: Malformed XML input (XMLInstructionReader.java): " + message);
+		} finally {
+			close(reader);
+		}
+	}
+
+
+	/**
+	 * Evaluates multi driver instructions (see XMLParser.evalMultiDriverInstruction()):
+	 * on "registered" the ID will be set, on "update" vehicles will be added, changed
+	 * or removed and on "unregistered" the client will be stopped.
+	 *
+	 * @param message
+	 * 			XML string, e.g. &lt;update&gt;&lt;change id="5" pos="1;2;3" ... /&gt;&lt;/update&gt;
+	 *
+	 * @param client
+	 * 			Multi driver client (or other receiver of the instructions)
+	 */
+	public void evalMultiDriverInstruction(String message, MultiDriverInstructionHandler client)
+	{
+		XMLStreamReader reader = null;
+		try {
+
+			reader = createReader(message);
+
+			int updateDepth = 0;
+			while(reader.hasNext())
+			{
+				int event = reader.next();
+				if(event == XMLStreamConstants.START_ELEMENT)
+				{
+					String name = reader.getLocalName();
+					if(name.equals("update"))
+						updateDepth++;
+					else if(name.equals("change") && updateDepth > 0)
+					{
+						client.changeVehicle(getAttribute(reader, "id"), getAttribute(reader, "pos"),
+								getAttribute(reader, "rot"), getAttribute(reader, "heading"),
+								getAttribute(reader, "wheel"));
+					}
+					else if(name.equals("add") && updateDepth > 0)
+					{
+						client.addVehicle(getAttribute(reader, "id"), getAttribute(reader, "modelPath"),
+								getAttribute(reader, "driverName"));
+					}
+					else if(name.equals("remove") && updateDepth > 0)
+						client.removeVehicle(getAttribute(reader, "id"));
+					else if(name.equals("registered"))
+						client.setID(getAttribute(reader, "id"));
+					else if(name.equals("unregistered"))
+						client.requestStop(getAttribute(reader, "id"));
+				}
+				else if(event == XMLStreamConstants.END_ELEMENT && reader.getLocalName().equals("update"))
+					updateDepth--;
+			}
+
+		} catch (XMLStreamException e) {
+			System.err.println("[WARNING]: Malformed XML input (XMLInstructionReader.java): " + message);
+		} finally {
+			close(reader);
+		}
+	}
+
+
+	/**
+	 * Evaluates traffic light instructions (see XMLParser.evalTrafficLightInstructions()).
+	 * Each child of "TrafficLightControl" is either a SUMO instruction
+	 * (&lt;tlsstate id="0" state="rrrryygg" ... /&gt;) or a manual instruction
+	 * (&lt;TrafficLight.00_12&gt;&lt;status&gt;GREEN&lt;/status&gt;&lt;/TrafficLight.00_12&gt;).
+	 *
+	 * @param message
+	 * 			XML string with root element "TrafficLightControl"
+	 */
+	public void evalTrafficLightInstructions(String message)
+	{
+		// write instruction to console
+		System.out.println("XML-String: " + message);
+
+		XMLStreamReader reader = null;
+		try {
+
+			reader = createReader(message);
+
+			// depth 1: TrafficLightControl, depth 2: instruction
+			int depth = 0;
+			boolean isInControl = false;
+			TrafficLight trafficLight = null;
+
+			while(reader.hasNext())
+			{
+				int event = reader.next();
+				if(event == XMLStreamConstants.START_ELEMENT)
+				{
+					depth++;
+					String name = reader.getLocalName();
+
+					if(depth == 1)
+						isInControl = name.equals("TrafficLightControl");
+					else if(depth == 2 && isInControl)
+					{
+						if(name.equals("tlsstate"))
+						{
+							try {
+								XMLParser.setSUMOStates(getAttribute(reader, "id"), getAttribute(reader, "state"));
+							} catch (Exception e) {
+								e.printStackTrace();
+							}
+						}
+						else
+							trafficLight = TrafficLightCenter.getTrafficLightByName(name);
+					}
+					else if(depth == 3 && trafficLight != null && name.equals("status"))
+					{
+						readFirstText(reader);
+						depth--;
+
+						try {
+							XMLParser.setManualState(trafficLight, text.toString());
+						} catch (Exception e) {
+							System.err.println(e.toString());
+						}
+
+						// first status only
+						trafficLight = null;
+					}
+				}
+				else if(event == XMLStreamConstants.END_ELEMENT)
+				{
+					if(depth == 2)
+						trafficLight = null;
+					depth--;
+				}
+			}
+
+		} catch (XMLStreamException e) {
+			System.err.println("[WARNING]: Malformed XML input (XMLInstructionReader.java): " + message);
+		} finally {
+			close(reader);
+		}
+	}
+
+
+	private XMLStreamReader createReader(String message) throws XMLStreamException
+	{
+		return factory.createXMLStreamReader(new StringReader(message));
+	}
+
+
+	private static String getAttribute(XMLStreamReader reader, String name)
+	{
+		// same as DOM: empty string if attribute not given
+		String value = reader.getAttributeValue(null, name);
+		return (value != null ? value : "");
+	}
+
+
+	/**
+	 * Reads the text content preceding the first child element (if any) into
+	 * <code>text</code> and skips the rest of the current element.
+	 *
+	 * @return
+	 * 			True, if the element starts with character data.
+	 */
+	private boolean readFirstText(XMLStreamReader reader) throws XMLStreamException
+	{
+		text.setLength(0);
+		boolean hasText = false;
+		boolean isFirstChild = true;
+		int depth = 1;
+
+		while(depth > 0 && reader.hasNext())
+		{
+			int event = reader.next();
+			if(event == XMLStreamConstants.START_ELEMENT)
+			{
+				depth++;
+				isFirstChild = false;
+			}
+			else if(event == XMLStreamConstants.END_ELEMENT)
+				depth--;
+			else if(isFirstChild && depth == 1 && (event == XMLStreamConstants.CHARACTERS ||
+					event == XMLStreamConstants.CDATA || event == XMLStreamConstants.SPACE))
+			{
+				text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+				hasText = true;
+			}
+		}
+
+		return hasText;
+	}
+
+
+	private static void close(XMLStreamReader reader)
+	{
+		if(reader != null)
+		{
+			try {
+				reader.close();
+			} catch (XMLStreamException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+}
@@ -31,7 +31,7 @@ import eu.opends.car.SteeringCar;
 import eu.opends.environment.TrafficLight.*;
 import eu.opends.environment.TrafficLightException.InvalidStateCharacterException;
 import eu.opends.main.Simulator;
-import eu.opends.multiDriver.MultiDriverClient;
+import eu.opends.multiDriver.MultiDriverInstructionHandler;
 import eu.opends.tools.PanelCenter;
 
 
@@ -159,8 +159,6 @@ public class XMLParser
 			//<message><action name="button">cs</action></message>
 			//<message><action name="button">return</action></message>
 			
-			SteeringCar car = sim.getCar();
-			
 			NodeList nodeLst = doc.getElementsByTagName("message");
 			for(int i=0; i<nodeLst.getLength(); i++)
 			{
@@ -175,196 +173,224 @@ public class XMLParser
 						
 						String actionID = currentAction.getAttribute("name");	
 						String valueString = getCharacterDataFromElement(currentAction);
-
-						// performs a steering input
-						if(actionID.equals("steering"))
-						{
-							float value = Float.parseFloat(valueString);
-							System.out.println("Steering: " + value);
-							
-							// for Sim-TD Smart
-							canClient.setSteeringAngle(-value);
-							
-							// for Mercedes R-class
-							//canClient.setSteeringAngle(value);
-							
-							sim.getSteeringTask().setSteeringIntensity(-0.02f*value);
-						}
-						
-						// performs "cruise forward"-button
-						else if(actionID.equals("MFLplus_State") || actionID.equals("MFLtelefoneEnd_State"))	
-						{
-							int value = Integer.parseInt(valueString);
-							System.out.println("Gas: " + value);
-							if(value == 0)
-								car.setAcceleratorPedalIntensity(0);
-								//car.releaseAccel();
-							else
-								car.setAcceleratorPedalIntensity(-1);
-						}
-						
-						// performs "cruise forward"-button
-						else if(actionID.equals("acceleration"))	
-						{
-							float value = Float.parseFloat(valueString);
-							System.out.println("Gas: " + value);
-							value = value*6;
-							if(value <= 0)
-							{
-								car.setAcceleratorPedalIntensity(0);
-								//car.releaseAccel();
-							}
-							else
-							{
-								car.setAcceleratorPedalIntensity(Math.max(-value,-1.0f));
-								sim.getSteeringTask().getPrimaryTask().reportGreenLight();
-							}
-							
-							sim.getThreeVehiclePlatoonTask().reportAcceleratorIntensity(Math.abs(value));
-						}
-						
-						// performs "cruise backward"-button
-						else if(actionID.equals("MFLminus_State"))	
-						{
-							int value = Integer.parseInt(valueString);
-							System.out.println("Back: " + value);
-							if(value == 0)
-								car.setAcceleratorPedalIntensity(0);
-								//car.releaseAccel();
-							else
-								car.setAcceleratorPedalIntensity(1);
-						}
-						
-						// performs brake pedal
-						else if(actionID.equals("KL54_RM_State"))	
-						{
-							int value = Integer.parseInt(valueString);
-							System.out.println("Brake: " + value);
-							if(value == 0)
-								//car.setGasPedalIntensity(0);
-								car.setBrakePedalIntensity(0);
-								//car.releaseAccel();
-							else
-								car.setBrakePedalIntensity(1); // 1 --> full braking
-						}
-						
-						// performs brake pedal
-						else if(actionID.equals("brake"))	
-						{
-							float value = Float.parseFloat(valueString);
-							System.out.println("Brake: " + value);
-							if(value <= 0)
-							{
-								//car.setGasPedalIntensity(0);
-								car.setBrakePedalIntensity(0);
-								sim.getThreeVehiclePlatoonTask().reportBrakeIntensity(0);
-								//car.releaseAccel();
-							}
-							else
-							{
-								value = Math.min(value,1.0f);
-								car.setBrakePedalIntensity(value); // 1 --> full braking
-								sim.getSteeringTask().getPrimaryTask().reportRedLight();
-								sim.getThreeVehiclePlatoonTask().reportBrakeIntensity(value);
-								car.disableCruiseControlByBrake();
-							}
-						}
-						
-						// performs "change view"-button
-						else if(actionID.equals("button") && valueString.equals("cs"))	
-						{
-							System.out.println("Change view");
-							sim.getCameraFactory().changeCamera();
-						}
-
-						// performs "reset car"-button
-						else if(actionID.equals("button") && valueString.equals("return"))	
-						{
-							System.out.println("Reset car");
-							car.setToNextResetPosition();
-						}
-						
-						// shows message on display
-						else if(actionID.equals("display"))	
-						{
-							int duration;
-							try{
-								duration = Integer.parseInt(currentAction.getAttribute("duration"));
-							} catch(Exception e){
-								duration = 0;
-							}
-							PanelCenter.getMessageBox().addMessage(valueString,duration);
-						}
+						String durationString = currentAction.getAttribute("duration");
 						
+						performCANAction(sim, canClient, actionID, valueString, durationString);
 						
-						// channel0 input
-						else if(actionID.equals("channel0"))	
-						{
-							float value = Float.parseFloat(valueString);
-							float percentage = (2f * voltToPercentage(value, 0.0f, 5.04f)) - 1f;
-							//System.out.println("channel0: " + percentage);
-							//System.out.println("steering: " + percentage);
+					} catch(Exception e){
+						e.printStackTrace();
+					}
+				}
+			}
+		}
+		
+	}
+	
+	
+	/**
+	 * Performs a single CAN-bus action (e.g. steering wheel angle, status of brake 
+	 * and gas pedal). Shared by the DOM-based and the streaming instruction parser.
+	 * 
+	 * @param sim
+	 * 			Simulator
+	 * 
+	 * @param canClient
+	 * 			CAN client class
+	 * 
+	 * @param actionID
+	 * 			Value of attribute "name" of the action
+	 * 
+	 * @param valueString
+	 * 			Character data of the action
+	 * 
+	 * @param durationString
+	 * 			Value of attribute "duration" of the action (empty, if not given)
+	 */
+	static void performCANAction(Simulator sim, CANClient canClient, String actionID, String valueString, 
+			String durationString)
+	{
+		SteeringCar car = sim.getCar();
+		
+		// performs a steering input
+		if(actionID.equals("steering"))
+		{
+			float value = Float.parseFloat(valueString);
+			System.out.println("Steering: " + value);
+			
+			// for Sim-TD Smart
+			canClient.setSteeringAngle(-value);
+			
+			// for Mercedes R-class
+			//canClient.setSteeringAngle(value);
+			
+			sim.getSteeringTask().setSteeringIntensity(-0.02f*value);
+		}
+		
+		// performs "cruise forward"-button
+		else if(actionID.equals("MFLplus_State") || actionID.equals("MFLtelefoneEnd_State"))	
+		{
+			int value = Integer.parseInt(valueString);
+			System.out.println("Gas: " + value);
+			if(value == 0)
+				car.setAcceleratorPedalIntensity(0);
+				//car.releaseAccel();
+			else
+				car.setAcceleratorPedalIntensity(-1);
+		}
+		
+		// performs "cruise forward"-button
+		else if(actionID.equals("acceleration"))	
+		{
+			float value = Float.parseFloat(valueString);
+			System.out.println("Gas: " + value);
+			value = value*6;
+			if(value <= 0)
+			{
+				car.setAcceleratorPedalIntensity(0);
+				//car.releaseAccel();
+			}
+			else
+			{
+				car.setAcceleratorPedalIntensity(Math.max(-value,-1.0f));
+				sim.getSteeringTask().getPrimaryTask().reportGreenLight();
+			}
+			
+			sim.getThreeVehiclePlatoonTask().reportAcceleratorIntensity(Math.abs(value));
+		}
+		
+		// performs "cruise backward"-button
+		else if(actionID.equals("MFLminus_State"))	
+		{
+			int value = Integer.parseInt(valueString);
+			System.out.println("Back: " + value);
+			if(value == 0)
+				car.setAcceleratorPedalIntensity(0);
+				//car.releaseAccel();
+			else
+				car.setAcceleratorPedalIntensity(1);
+		}
+		
+		// performs brake pedal
+		else if(actionID.equals("KL54_RM_State"))	
+		{
+			int value = Integer.parseInt(valueString);
+			System.out.println("Brake: " + value);
+			if(value == 0)
+				//car.setGasPedalIntensity(0);
+				car.setBrakePedalIntensity(0);
+				//car.releaseAccel();
+			else
+				car.setBrakePedalIntensity(1); // 1 --> full braking
+		}
+		
+		// performs brake pedal
+		else if(actionID.equals("brake"))	
+		{
+			float value = Float.parseFloat(valueString);
+			System.out.println("Brake: " + value);
+			if(value <= 0)
+			{
+				//car.setGasPedalIntensity(0);
+				car.setBrakePedalIntensity(0);
+				sim.getThreeVehiclePlatoonTask().reportBrakeIntensity(0);
+				//car.releaseAccel();
+			}
+			else
+			{
+				value = Math.min(value,1.0f);
+				car.setBrakePedalIntensity(value); // 1 --> full braking
+				sim.getSteeringTask().getPrimaryTask().reportRedLight();
+				sim.getThreeVehiclePlatoonTask().reportBrakeIntensity(value);
+				car.disableCruiseControlByBrake();
+			}
+		}
+		
+		// performs "change view"-button
+		else if(actionID.equals("button") && valueString.equals("cs"))	
+		{
+			System.out.println("Change view");
+			sim.getCameraFactory().changeCamera();
+		}
 
-							canClient.setSteeringAngle(percentage);
-							sim.getSteeringTask().setSteeringIntensity(0.02f*percentage);
-						}
-						
+		// performs "reset car"-button
+		else if(actionID.equals("button") && valueString.equals("return"))	
+		{
+			System.out.println("Reset car");
+			car.setToNextResetPosition();
+		}
+		
+		// shows message on display
+		else if(actionID.equals("display"))	
+		{
+			int duration;
+			try{
+				duration = Integer.parseInt(durationString);
+			} catch(Exception e){
+				duration = 0;
+			}
+			PanelCenter.getMessageBox().addMessage(valueString,duration);
+		}
+		
+		
+		// channel0 input
+		else if(actionID.equals("channel0"))	
+		{
+			float value = Float.parseFloat(valueString);
+			float percentage = (2f * voltToPercentage(value, 0.0f, 5.04f)) - 1f;
+			//System.out.println("channel0: " + percentage);
+			//System.out.println("steering: " + percentage);
 
-						// channel1 input
-						else if(actionID.equals("channel1"))	
-						{
-							float value = Float.parseFloat(valueString);
-							float percentage = voltToPercentage(value, 0.1f, 5.0f);
-							//System.out.println("channel1: " + percentage);
-							//System.out.println(System.currentTimeMillis() + " - accelerate: " + percentage);
-							
-							car.setAcceleratorPedalIntensity(-percentage);
-							sim.getThreeVehiclePlatoonTask().reportAcceleratorIntensity(percentage);
-							
-							if(percentage > 0)
-								sim.getSteeringTask().getPrimaryTask().reportGreenLight();
-						}
-						
+			canClient.setSteeringAngle(percentage);
+			sim.getSteeringTask().setSteeringIntensity(0.02f*percentage);
+		}
+		
 
-						// channel2 input
-						else if(actionID.equals("channel2"))	
-						{
-							float value = Float.parseFloat(valueString);
-							float percentage = voltToPercentage(value, 1.0f, 5.0f);
-							//System.out.println("channel2: " + percentage);
-							//System.out.println("brake: " + percentage);
+		// channel1 input
+		else if(actionID.equals("channel1"))	
+		{
+			float value = Float.parseFloat(valueString);
+			float percentage = voltToPercentage(value, 0.1f, 5.0f);
+			//System.out.println("channel1: " + percentage);
+			//System.out.println(System.currentTimeMillis() + " - accelerate: " + percentage);
+			
+			car.setAcceleratorPedalIntensity(-percentage);
+			sim.getThreeVehiclePlatoonTask().reportAcceleratorIntensity(percentage);
+			
+			if(percentage > 0)
+				sim.getSteeringTask().getPrimaryTask().reportGreenLight();
+		}
+		
 
-							car.setBrakePedalIntensity(percentage); // 1 --> full braking
-							sim.getThreeVehiclePlatoonTask().reportBrakeIntensity(percentage);
-							
-							if(percentage > 0)
-							{
-								sim.getSteeringTask().getPrimaryTask().reportRedLight();
-								car.disableCruiseControlByBrake();
-							}
-						}
+		// channel2 input
+		else if(actionID.equals("channel2"))	
+		{
+			float value = Float.parseFloat(valueString);
+			float percentage = voltToPercentage(value, 1.0f, 5.0f);
+			//System.out.println("channel2: " + percentage);
+			//System.out.println("brake: " + percentage);
 
-						
-						// channel3 input
-						else if(actionID.equals("channel3"))	
-						{
-							//float value = Float.parseFloat(valueString);
-							//float percentage = voltToPercentage(value, 0.2f, 3.7f);
-							//System.out.println("channel3: " + percentage);
-						}
-						
-						
-					} catch(Exception e){
-						e.printStackTrace();
-					}
-				}
+			car.setBrakePedalIntensity(percentage); // 1 --> full braking
+			sim.getThreeVehiclePlatoonTask().reportBrakeIntensity(percentage);
+			
+			if(percentage > 0)
+			{
+				sim.getSteeringTask().getPrimaryTask().reportRedLight();
+				car.disableCruiseControlByBrake();
 			}
 		}
+
 		
+		// channel3 input
+		else if(actionID.equals("channel3"))	
+		{
+			//float value = Float.parseFloat(valueString);
+			//float percentage = voltToPercentage(value, 0.2f, 3.7f);
+			//System.out.println("channel3: " + percentage);
+		}
 	}
 	
 		
-	private float voltToPercentage(float value, float zeroPercent, float hundredPercent) 
+	private static float voltToPercentage(float value, float zeroPercent, float hundredPercent) 
 	{
 		if(zeroPercent <= hundredPercent)
 		{
@@ -413,22 +439,7 @@ public class XMLParser
 			// read state string and id string from SUMO instruction
 			String stateString = trafficLightInstruction.getAttribute("state");
 			String idString    = trafficLightInstruction.getAttribute("id");
-			String intersectionID = String.format("%2s", idString).replace(' ', '0');
-	
-			for(int i=0; i<stateString.length(); i++)
-			{
-				// get traffic light object from intersection ID and traffic light ID
-				String trafficlightID     = String.format("%2s", i).replace(' ', '0');
-				String trafficLightName   = "TrafficLight." + intersectionID + "_" + trafficlightID;
-				TrafficLight trafficLight = TrafficLightCenter.getTrafficLightByName(trafficLightName);
-	
-				if(trafficLight != null)
-				{
-					// assign state to traffic light object
-					TrafficLightState state = parseSUMOStateCharacter(stateString.charAt(i));
-					trafficLight.setState(state);
-				}
-			}
+			setSUMOStates(idString, stateString);
 			
 		} catch (InvalidStateCharacterException e) {
 			e.printStackTrace();
@@ -436,6 +447,40 @@ public class XMLParser
 	}
 	
 	
+	/**
+	 * Sets the traffic light states of the given intersection to the given SUMO 
+	 * state characters. Shared by the DOM-based and the streaming instruction parser.
+	 * 
+	 * @param idString
+	 * 			Intersection ID (attribute "id")
+	 * 
+	 * @param stateString
+	 * 			One state character per traffic light (attribute "state")
+	 * 
+	 * @throws InvalidStateCharacterException 
+	 * 			InvalidStateCharacterException will be thrown on invalid character input
+	 */
+	static void setSUMOStates(String idString, String stateString) throws InvalidStateCharacterException
+	{
+		String intersectionID = String.format("%2s", idString).replace(' ', '0');
+	
+		for(int i=0; i<stateString.length(); i++)
+		{
+			// get traffic light object from intersection ID and traffic light ID
+			String trafficlightID     = String.format("%2s", i).replace(' ', '0');
+			String trafficLightName   = "TrafficLight." + intersectionID + "_" + trafficlightID;
+			TrafficLight trafficLight = TrafficLightCenter.getTrafficLightByName(trafficLightName);
+	
+			if(trafficLight != null)
+			{
+				// assign state to traffic light object
+				TrafficLightState state = parseSUMOStateCharacter(stateString.charAt(i));
+				trafficLight.setState(state);
+			}
+		}
+	}
+	
+	
 	/**
 	 * Evaluates a (manual) XML instruction and sets the given traffic lights' 
 	 * states to the given state values.
@@ -465,10 +510,7 @@ public class XMLParser
 				NodeList stateList = trafficLightInstruction.getElementsByTagName("status");
 				Element stateElement = (Element) stateList.item(0);
 				String stateString = getCharacterDataFromElement(stateElement);
-				TrafficLightState state = parseManualStateString(stateString);
-				
-				// assign state to traffic light object
-				trafficLight.setState(state);
+				setManualState(trafficLight, stateString);
 			}
 			
 		} catch (Exception e) {
@@ -477,6 +519,28 @@ public class XMLParser
 	}
 	
 	
+	/**
+	 * Sets the given traffic light to the given state. Shared by the DOM-based and 
+	 * the streaming instruction parser.
+	 * 
+	 * @param trafficLight
+	 * 			Traffic light to change
+	 * 
+	 * @param stateString
+	 * 			The string representation of the state (e.g. "green")
+	 * 
+	 * @throws Exception 
+	 * 			Exception will be thrown on invalid string input
+	 */
+	static void setManualState(TrafficLight trafficLight, String stateString) throws Exception
+	{
+		TrafficLightState state = parseManualStateString(stateString);
+		
+		// assign state to traffic light object
+		trafficLight.setState(state);
+	}
+	
+	
 	/**
 	 * Transforms SUMO's character representation of states to a value of
 	 * TrafficLightState. E.g.  'r' --&gt; TrafficLightState.RED
@@ -545,7 +609,7 @@ public class XMLParser
 	 * @throws Exception 
 	 * 			Exception will be thrown on invalid string input
 	 */
-	private TrafficLightState parseManualStateString(String stateString) throws Exception
+	private static TrafficLightState parseManualStateString(String stateString) throws Exception
 	{
 		try{
 			return TrafficLightState.valueOf(stateString.toUpperCase());
@@ -555,7 +619,7 @@ public class XMLParser
 	}
 
 	
-	public void evalMultiDriverInstruction(Simulator sim, MultiDriverClient client)
+	public void evalMultiDriverInstruction(Simulator sim, MultiDriverInstructionHandler client)
 	{
 		// on "registered" --> set ID
 		// on "update" --> perform changes
@@ -38,6 +38,7 @@ public class HMICenter
 	private static Simulator sim;
 	private static boolean sendDataToHMI = false;
 	private static HMIWebSocketServer server;
+	private static PresentationScheduler scheduler = new PresentationScheduler();
 	
 	/**
 	 * Initializes the HMICenter by setting the simulator field to the current simulator instance.
@@ -48,6 +49,7 @@ public class HMICenter
 	public static void init(Simulator simulator)
 	{
 		sim = simulator;
+		scheduler = new PresentationScheduler();
 
 		sendDataToHMI = Simulator.getDrivingTask().getSettingsLoader().getSetting(Setting.HMI_enableConnection, false);
 		
@@ -66,6 +68,39 @@ public class HMICenter
 	{
 		return server;
 	}
+	
+	
+	/**
+	 * Starts sending updates of the given presentation to the HMI (every time a 
+	 * parameter has changed) until the stop condition of its model holds.
+	 * 
+	 * @param presentationModel
+	 * 			Presentation model containing parameter changes
+	 * 
+	 * @param triggerID
+	 * 			Trigger ID (from the trigger report list) which is related
+	 * 			to the presentation task (may be null)
+	 * 
+	 * @param presentationID
+	 * 			Presentation ID
+	 */
+	public static void addPresentation(PresentationModel presentationModel, String triggerID, long presentationID)
+	{
+		scheduler.add(presentationModel, triggerID, presentationID);
+	}
+	
+	
+	/**
+	 * Updates all active presentations. Must be called once per frame by the 
+	 * render thread.
+	 * 
+	 * @param tpf
+	 * 			Time per frame (in seconds).
+	 */
+	public static void update(float tpf)
+	{
+		scheduler.update(tpf, sim.isPause());
+	}
 		
 	
 	/**
@@ -83,11 +118,9 @@ public class HMICenter
 	{
 		String triggerName = getTriggerName(trafficLight);
 		
-		if(!TriggerCenter.triggerReportList.contains(triggerName) && sendDataToHMI)
-		{			
-			// add traffic light to report list
-			TriggerCenter.triggerReportList.add(triggerName);
-		
+		// add traffic light to report list
+		if(sendDataToHMI && TriggerCenter.addTriggerReport(triggerName))
+		{
 			// create new presentation model
 			TrafficLightPresentationModel presentationModel = new TrafficLightPresentationModel(sim, car, trafficLight);
 
@@ -95,8 +128,7 @@ public class HMICenter
 			long presentationID = presentationModel.createPresentation();
 			
 			// send permanent messages with distance to HMI GUI and screen
-			HMIThread thread = new HMIThread(sim, presentationModel, triggerName, presentationID);
-			thread.start();
+			addPresentation(presentationModel, triggerName, presentationID);
 		}
 	}
 
@@ -118,11 +150,9 @@ public class HMICenter
 	{
 		String trafficLightName = "isRed_" + trafficLight.getName();
 		
-		if(!TriggerCenter.triggerReportList.contains(trafficLightName) && sendDataToHMI)
-		{			
-			// add traffic light to report list
-			TriggerCenter.triggerReportList.add(trafficLightName);
-		
+		// add traffic light to report list
+		if(sendDataToHMI && TriggerCenter.addTriggerReport(trafficLightName))
+		{
 			// create new presentation model
 			RedTrafficLightPresentationModel presentationModel = new RedTrafficLightPresentationModel(car,trafficLight);
 
@@ -130,8 +160,7 @@ public class HMICenter
 			long presentationID = presentationModel.createPresentation();
 
 			// send permanent messages with distance to HMI GUI and screen
-			HMIThread thread = new HMIThread(sim, presentationModel, trafficLightName, presentationID);
-			thread.start();
+			addPresentation(presentationModel, trafficLightName, presentationID);
 		}
 	}
 	
@@ -21,7 +21,15 @@ package eu.opends.hmi;
 
 
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
 import org.java_websocket.WebSocket;
+import org.java_websocket.WebSocketImpl;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.framing.Framedata;
 import org.java_websocket.handshake.ClientHandshake;
 import org.java_websocket.server.WebSocketServer;
 
@@ -36,21 +44,79 @@ public class HMIWebSocketServer extends WebSocketServer
 	}
 	
 
-	// Sender
+	/**
+	 * Sends the given message to all connected clients. The message is encoded into 
+	 * a WebSocket frame only once (per protocol draft) and the same frame is queued 
+	 * for every connection.
+	 * 
+	 * @param msg
+	 * 			Message to send.
+	 */
 	public void sendMsg (String msg) 
 	{
-		if (!this.connections().isEmpty()) 
+		// copy connections (set is modified by the server thread)
+		WebSocket[] sockets;
+		Set<WebSocket> connections = this.connections();
+		synchronized (connections) 
+		{
+			if (connections.isEmpty())
+				return;
+			
+			sockets = connections.toArray(new WebSocket[connections.size()]);
+		}
+		
+		// encoded frame by draft class
+		HashMap<Class<?>, ByteBuffer> frameMap = new HashMap<Class<?>, ByteBuffer>(4);
+		
+		for (WebSocket socket : sockets) 
 		{
-			System.err.println("#connections: " + this.connections().size());
-			for (WebSocket socket : this.connections()) 
+			if (!socket.isOpen())
 			{
-				if (socket.isOpen())
+				System.err.println("[Connection] Failed to send to " + socket + ": connection not open");
+				continue;
+			}
+			
+			try {
+				
+				ByteBuffer frame = null;
+				if (socket instanceof WebSocketImpl)
+				{
+					Draft draft = socket.getDraft();
+					frame = frameMap.get(draft.getClass());
+					if (frame == null && !frameMap.containsKey(draft.getClass()))
+					{
+						frame = encode(draft, msg);
+						frameMap.put(draft.getClass(), frame);
+					}
+				}
+				
+				if (frame != null)
+				{
+					// same as WebSocket.send(), but without encoding again
+					((WebSocketImpl) socket).outQueue.add(frame.duplicate());
+					onWriteDemand(socket);
+				}
+				else
 					socket.send(msg);
-				else 
-					System.out.println("[Connection] Failed to send");
+				
+			} catch (Exception e) {
+				
+				// e.g. connection closed in the meantime
+				System.err.println("[Connection] Failed to send to " + socket + ": " + e);
 			}
 		}
 	}
+	
+	
+	private static ByteBuffer encode(Draft draft, String msg)
+	{
+		// server frames are not masked
+		List<Framedata> frames = draft.createFrames(msg, false);
+		if (frames.size() != 1)
+			return null;
+		
+		return draft.createBinaryFrame(frames.get(0));
+	}
 
 
 	@Override
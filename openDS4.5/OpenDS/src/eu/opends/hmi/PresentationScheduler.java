@@ -0,0 +1,199 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.hmi;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import eu.opends.trigger.TriggerCenter;
+
+/**
+ * Updates all active presentations on the render thread, replacing a polling
+ * thread per presentation. Every <code>UPDATE_INTERVAL</code> of simulation time
+ * (time in pause does not count), the parameters (distance, time, ...) of each
+ * presentation model are recomputed and the presentation is updated if any of
+ * them has changed. A presentation ends as soon as the stop condition of its
+ * model holds.
+ *
+ * Presentations may be added from any thread; they are handed over to the render
+ * thread by a concurrent queue and are updated for the first time at the next
+ * update.
+ *
+ * @author OpenDS contributors
+ */
+public class PresentationScheduler
+{
+	// time between two updates of a presentation (in seconds, simulation time)
+	private static final float UPDATE_INTERVAL = 0.1f;
+
+	// print a text message (e.g. "Traffic light in 50 m") on every change
+	private static final boolean DEBUG = false;
+
+	private ConcurrentLinkedQueue<ActivePresentation> incomingPresentations = new ConcurrentLinkedQueue<ActivePresentation>();
+	private ArrayList<ActivePresentation> activePresentations = new ArrayList<ActivePresentation>();
+	private double simulationTime = 0;
+
+
+	private static class ActivePresentation
+	{
+		PresentationModel presentationModel;
+		String triggerID;
+		long presentationID;
+		double dueTime;
+	}
+
+
+	/**
+	 * Adds a presentation to be updated until the stop condition of its model holds.
+	 *
+	 * @param presentationModel
+	 * 			Presentation model containing parameter changes
+	 *
+	 * @param triggerID
+	 * 			Trigger ID (from the trigger report list) which is related to the
+	 * 			presentation task and will be removed at the end (may be null)
+	 *
+	 * @param presentationID
+	 * 			Presentation ID (negative, if creating the presentation failed)
+	 */
+	public void add(PresentationModel presentationModel, String triggerID, long presentationID)
+	{
+		ActivePresentation presentation = new ActivePresentation();
+		presentation.presentationModel = presentationModel;
+		presentation.triggerID = triggerID;
+		presentation.presentationID = presentationID;
+		incomingPresentations.add(presentation);
+	}
+
+
+	/**
+	 * Advances the simulation clock and updates all presentations due. Must be
+	 * called once per frame by the render thread.
+	 *
+	 * @param tpf
+	 * 			Time per frame (in seconds).
+	 *
+	 * @param isPaused
+	 * 			Whether the simulation is paused (simulation time stands still).
+	 */
+	public void update(float tpf, boolean isPaused)
+	{
+		// presentations added since last update: initialize "previous" and "current" parameters
+		ActivePresentation presentation;
+		while((presentation = incomingPresentations.poll()) != null)
+		{
+			presentation.presentationModel.computePreviousParameters();
+			presentation.presentationModel.computeCurrentParameters();
+			presentation.dueTime = simulationTime;
+			activePresentations.add(presentation);
+
+			if(DEBUG)
+				System.out.println(presentation.presentationModel.generateMessage());
+		}
+
+		if(!isPaused)
+			simulationTime += tpf;
+
+		for(int i=activePresentations.size()-1; i>=0; i--)
+		{
+			presentation = activePresentations.get(i);
+			if(presentation.dueTime > simulationTime)
+				continue;
+
+			try {
+
+				if(!updatePresentation(presentation))
+				{
+					activePresentations.remove(i);
+					continue;
+				}
+
+			} catch (Exception e) {
+				e.printStackTrace();
+				activePresentations.remove(i);
+				continue;
+			}
+
+			// fixed rate; skip updates missed (e.g. after a long frame)
+			presentation.dueTime += UPDATE_INTERVAL;
+			if(presentation.dueTime <= simulationTime)
+				presentation.dueTime = simulationTime + UPDATE_INTERVAL;
+		}
+	}
+
+
+	/**
+	 * @return
+	 * 			Number of presentations currently active (or waiting for their first update).
+	 */
+	public int getActivePresentationCount()
+	{
+		return activePresentations.size() + incomingPresentations.size();
+	}
+
+
+	/**
+	 * Updates the presentation if a parameter has changed or ends it if the stop
+	 * condition holds.
+	 *
+	 * @return
+	 * 			False, if the presentation has ended.
+	 */
+	private boolean updatePresentation(ActivePresentation presentation)
+	{
+		PresentationModel presentationModel = presentation.presentationModel;
+
+		if(presentationModel.stopPresentation())
+		{
+			// remove trigger from report list
+			if(presentation.triggerID != null)
+				TriggerCenter.removeTriggerReport(presentation.triggerID);
+
+			// cancel presentation
+			if(presentation.presentationID >= 0)
+			{
+				presentationModel.stop();
+				
+				if(DEBUG)
+					System.out.println("\nCancel presentation task");
+			}
+
+			return false;
+		}
+
+		// if parameters have changed (difference between "previous" and "current" parameters)
+		if(presentationModel.hasChangedParameter())
+		{
+			// if no error occurred --> update presentation
+			if(presentation.presentationID >= 0)
+				presentationModel.updatePresentation(presentation.presentationID);
+
+			if(DEBUG)
+				System.out.println(presentationModel.generateMessage());
+		}
+
+		// assign "current" parameters to "previous" parameters
+		presentationModel.shiftCurrentToPreviousParameters();
+
+		// update "current" parameters
+		presentationModel.computeCurrentParameters();
+
+		return true;
+	}
+}
@@ -62,6 +62,11 @@ public class TrafficLightPresentationModel extends PresentationModel
 	private int currentInfoTrafficLight1;
 	private int currentInfoTrafficLight2;
 	
+	// traffic light info sent to the HMI GUI last
+	private int sentInfoTrafficLight0;
+	private int sentInfoTrafficLight1;
+	private int sentInfoTrafficLight2;
+	
 	
 	/**
 	 * Initializes a traffic light phase assistant presentation model by setting the 
@@ -271,6 +276,9 @@ public class TrafficLightPresentationModel extends PresentationModel
 			
 			// send parameters to HMI bundle
 			sendTrafficLightData("start", 10, System.currentTimeMillis(), null, arrowConfiguration, infoTrafficLight0, infoTrafficLight1 , infoTrafficLight2, false);
+			sentInfoTrafficLight0 = infoTrafficLight0;
+			sentInfoTrafficLight1 = infoTrafficLight1;
+			sentInfoTrafficLight2 = infoTrafficLight2;
 System.err.println("START");
 			return 7;
 		}
@@ -282,16 +290,22 @@ System.err.println("START");
 	/**
 	 * Updates a traffic light phase assistant presentation model if the time the car 
 	 * takes to arrive at the traffic light has changed or if the traffic light info
-	 * of any traffic light has changed.
+	 * of any traffic light has changed. As the distance is not part of the message,
+	 * a message will only be sent if the info of any traffic light differs from the
+	 * info sent last.
 	 */
 	@Override
 	public void updatePresentation(long presentationID) 
 	{
-		if(presentationID >= 0)
+		if(presentationID >= 0 && (currentInfoTrafficLight0 != sentInfoTrafficLight0 
+				|| currentInfoTrafficLight1 != sentInfoTrafficLight1 
+				|| currentInfoTrafficLight2 != sentInfoTrafficLight2))
 		{			
 			// send parameters to HMI bundle
 			sendTrafficLightData("update", 10, System.currentTimeMillis(), null, null, currentInfoTrafficLight0, currentInfoTrafficLight1 , currentInfoTrafficLight2, false);
-			System.err.println("UPDATE");
+			sentInfoTrafficLight0 = currentInfoTrafficLight0;
+			sentInfoTrafficLight1 = currentInfoTrafficLight1;
+			sentInfoTrafficLight2 = currentInfoTrafficLight2;
 		}
 	}
 
@@ -41,12 +41,12 @@ public class DriveAnalyzerAnalogListener implements AnalogListener
 
 		if (binding.equals(KeyMapping.GO_FORWARD.getID())) 
 		{
-			analyzer.moveFocus(1);
+			analyzer.scrub(1, tpf);
 		} 
 		
 		else if (binding.equals(KeyMapping.GO_BACKWARD.getID())) 
 		{
-			analyzer.moveFocus(-1);
+			analyzer.scrub(-1, tpf);
 		} 
 	}
 }
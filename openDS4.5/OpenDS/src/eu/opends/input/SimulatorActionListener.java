@@ -30,6 +30,7 @@ import eu.opends.car.LightTexturesContainer.TurnSignalState;
 import eu.opends.effects.EffectCenter;
 import eu.opends.main.Simulator;
 import eu.opends.niftyGui.MessageBoxGUI;
+import eu.opends.reactionCenter.ReactionCenter;
 import eu.opends.tools.PanelCenter;
 import eu.opends.tools.Util;
 import eu.opends.trigger.TriggerCenter;
@@ -65,6 +66,7 @@ public class SimulatorActionListener implements ActionListener {
 				canClient.suppressSteering();
 
 			sim.getSteeringTask().setSteeringIntensity(-3 * steeringValue);
+			reportInput(ReactionCenter.Input.STEERING, steeringValue);
 
 			if (FastMath.abs(steeringValue) >= 0.1f)
 				car.setAutoPilot(false);
@@ -86,6 +88,7 @@ public class SimulatorActionListener implements ActionListener {
 				canClient.suppressSteering();
 
 			sim.getSteeringTask().setSteeringIntensity(-3 * steeringValue);
+			reportInput(ReactionCenter.Input.STEERING, steeringValue);
 
 			if (FastMath.abs(steeringValue) >= 0.1f)
 				car.setAutoPilot(false);
@@ -104,6 +107,7 @@ public class SimulatorActionListener implements ActionListener {
 			}
 
 			sim.getThreeVehiclePlatoonTask().reportAcceleratorIntensity(Math.abs(accelerationValue));
+			reportInput(ReactionCenter.Input.ACCELERATOR, accelerationValue);
 			car.setAcceleratorPedalIntensity(accelerationValue);
 		}
 
@@ -115,15 +119,18 @@ public class SimulatorActionListener implements ActionListener {
 			} else {
 				accelerationValue -= 1;
 			}
+			reportInput(ReactionCenter.Input.ACCELERATOR, accelerationValue);
 			car.setAcceleratorPedalIntensity(accelerationValue);
 		}
 
 		else if (binding.equals(KeyMapping.BRAKE.getID())) {
 			if (value) {
+				reportInput(ReactionCenter.Input.BRAKE, 1f);
 				car.setBrakePedalIntensity(1f);
 				sim.getThreeVehiclePlatoonTask().reportBrakeIntensity(1f);
 				car.disableCruiseControlByBrake();
 			} else {
+				reportInput(ReactionCenter.Input.BRAKE, 0f);
 				car.setBrakePedalIntensity(0f);
 				sim.getThreeVehiclePlatoonTask().reportBrakeIntensity(0f);
 			}
@@ -640,4 +647,10 @@ public class SimulatorActionListener implements ActionListener {
 				sim.getMotorwayTask().setVisibilityDistanceBar(!sim.getMotorwayTask().getVisibilityDistanceBar());
 		}
 	}
+
+	// timestamps input for reaction time measurement
+	private void reportInput(ReactionCenter.Input input, float inputValue) {
+		if (sim.getReactionCenter() != null)
+			sim.getReactionCenter().reportInput(input, inputValue);
+	}
 }
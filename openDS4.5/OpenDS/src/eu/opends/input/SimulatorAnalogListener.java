@@ -23,6 +23,7 @@ import com.jme3.math.FastMath;
 
 import eu.opends.drivingTask.settings.SettingsLoader.Setting;
 import eu.opends.main.Simulator;
+import eu.opends.reactionCenter.ReactionCenter;
 
 /**
  * 
@@ -69,6 +70,7 @@ public class SimulatorAnalogListener implements AnalogListener
 			//System.out.println("left: " + Math.round(steeringValue*100000)/1000f);
 
 			simulator.getSteeringTask().setSteeringIntensity(-5.98f*steeringValue);
+			reportInput(ReactionCenter.Input.STEERING, steeringValue);
 		
 			if(previousSteeringValue != null && FastMath.abs(steeringValue - previousSteeringValue) > 0.0f)
 				simulator.getCar().setAutoPilot(false);
@@ -84,6 +86,7 @@ public class SimulatorAnalogListener implements AnalogListener
 			//System.out.println("right: " + Math.round(steeringValue*100000)/1000f);
 
 			simulator.getSteeringTask().setSteeringIntensity(-5.98f*steeringValue);
+			reportInput(ReactionCenter.Input.STEERING, steeringValue);
 			
 			if(previousSteeringValue != null && FastMath.abs(steeringValue - previousSteeringValue) > 0.0f)
 				simulator.getCar().setAutoPilot(false);
@@ -108,6 +111,8 @@ public class SimulatorAnalogListener implements AnalogListener
 					
 			//System.out.println("acc: " + Math.round(accelerationValue*100000)/1000f);
 			
+			reportInput(ReactionCenter.Input.ACCELERATOR, accelerationValue);
+			
 			if(Math.abs(accelerationValue) >= 0.5f)
 				simulator.getSteeringTask().getPrimaryTask().reportGreenLight();
 
@@ -138,6 +143,8 @@ public class SimulatorAnalogListener implements AnalogListener
 			
 			//System.out.println("brk: " + Math.round(brakeValue*100000)/1000f);
 			
+			reportInput(ReactionCenter.Input.BRAKE, (Math.abs(brakeValue) <= 0.05f) ? 0 : brakeValue);
+			
 			if(Math.abs(brakeValue) >= 0.5f)
 				simulator.getSteeringTask().getPrimaryTask().reportRedLight();
 			
@@ -336,5 +343,13 @@ public class SimulatorAnalogListener implements AnalogListener
 		}
 		
 	}
+	
+	
+	// timestamps input for reaction time measurement
+	private void reportInput(ReactionCenter.Input input, float inputValue)
+	{
+		if(simulator.getReactionCenter() != null)
+			simulator.getReactionCenter().reportInput(input, inputValue);
+	}
 
 }
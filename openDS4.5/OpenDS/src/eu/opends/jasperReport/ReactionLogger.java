@@ -18,15 +18,13 @@
 
 package eu.opends.jasperReport;
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 
+import eu.opends.analyzer.EventLogSink;
 import eu.opends.drivingTask.settings.SettingsLoader;
 import eu.opends.drivingTask.settings.SettingsLoader.Setting;
 import eu.opends.main.SimulationDefaults;
@@ -44,6 +42,8 @@ import net.sf.jasperreports.engine.design.JasperDesign;
 import net.sf.jasperreports.engine.xml.JRXmlLoader;
 
 /**
+ * Writes reaction measurements to an XML file (data source of the Jasper report).
+ * Measurements are added as records to the asynchronous event log sink.
  * 
  * @author Rafael Math
  */
@@ -53,26 +53,72 @@ public class ReactionLogger
 	private String dataFileName = "reactionData.xml";
 	private String reportFileName = "reactionReport.pdf";
 	private String outputFolder;
-	BufferedWriter bw;
+	private EventLogSink sink;
+	private EventLogSink.LogFile logFile;
+	
+	
+	/**
+	 * Constant part of the XML file (e.g. header).
+	 */
+	private static class TextRecord implements EventLogSink.Record
+	{
+		private String text;
+		
+		
+		private TextRecord(String text)
+		{
+			this.text = text;
+		}
+		
+		
+		@Override
+		public void write(StringBuilder out)
+		{
+			out.append(text);
+		}
+	}
+	
+	
+	/**
+	 * Single reaction measurement.
+	 */
+	private static class MeasurementRecord implements EventLogSink.Record
+	{
+		private String reactionGroup;
+		private int reactionResult;
+		private long reactionTime;
+		private long absoluteTime;
+		private long experimentTime;
+		private String comment;
+		
+		
+		@Override
+		public void write(StringBuilder out)
+		{
+			out.append("\t<reactionMeasurement>\n");
+			out.append("\t\t<reactionGroup>").append(reactionGroup).append("</reactionGroup>\n");
+			out.append("\t\t<reactionResult>").append(reactionResult).append("</reactionResult>\n");
+			out.append("\t\t<reactionTime>").append(reactionTime).append("</reactionTime>\n");
+			out.append("\t\t<absoluteTime>").append(absoluteTime).append("</absoluteTime>\n");
+			out.append("\t\t<experimentTime>").append(experimentTime).append("</experimentTime>\n");
+			out.append("\t\t<comment>").append(comment).append("</comment>\n");
+			out.append("\t</reactionMeasurement>\n");
+		}
+	}
 
 
 	private void start()
 	{
-		try
-		{		
-			outputFolder = Simulator.getOutputFolder();
-			Util.makeDirectory(outputFolder);
-			
-			bw = new BufferedWriter(new FileWriter(outputFolder + "/" + dataFileName));
-			bw.write("<?xml version=\"1.0\"?>\n");    
-			bw.write("<report>\n");
-			
+		outputFolder = Simulator.getOutputFolder();
+		Util.makeDirectory(outputFolder);
+		
+		sink = Simulator.getEventLogSink();
+		logFile = sink.open(outputFolder + "/" + dataFileName);
+		if(logFile != null)
+		{
+			sink.add(logFile, new TextRecord("<?xml version=\"1.0\"?>\n<report>\n"));
 			isRunning = true;
-			
-		} catch (IOException e) {
-	
-			e.printStackTrace();
-		}		
+		}
 	}
 	
 	
@@ -84,28 +130,15 @@ public class ReactionLogger
 		
 		if(isRunning)
 		{
-			try {
-				
-	            bw.write("\t<reactionMeasurement>\n");
-	            
-	            bw.write("\t\t<reactionGroup>" + reactionGroup + "</reactionGroup>\n");
-				
-				bw.write("\t\t<reactionResult>" + reactionResult + "</reactionResult>\n");
-				
-				bw.write("\t\t<reactionTime>" + reactionTime + "</reactionTime>\n");
-				
-				bw.write("\t\t<absoluteTime>" + absoluteTime + "</absoluteTime>\n");
-				
-				bw.write("\t\t<experimentTime>" + experimentTime + "</experimentTime>\n");
-				
-				bw.write("\t\t<comment>" + comment + "</comment>\n");
-
-	            bw.write("\t</reactionMeasurement>\n");
-	            
-			} catch (IOException e) {
-
-				e.printStackTrace();
-			}
+			MeasurementRecord record = new MeasurementRecord();
+			record.reactionGroup = reactionGroup;
+			record.reactionResult = reactionResult;
+			record.reactionTime = reactionTime;
+			record.absoluteTime = absoluteTime;
+			record.experimentTime = experimentTime;
+			record.comment = comment;
+			
+			sink.add(logFile, record);
 		}
 	}
 
@@ -116,16 +149,10 @@ public class ReactionLogger
 		{
 			isRunning = false;
 			
-			try {
-				
-				bw.write("</report>\n");        
-				bw.close();
-				generateReport();
-				
-			} catch (IOException e) {
-	
-				e.printStackTrace();
-			}
+			// wait until all measurements have been written, then read file for report
+			sink.add(logFile, new TextRecord("</report>\n"));
+			sink.close(logFile);
+			generateReport();
 		}
 	}
 	
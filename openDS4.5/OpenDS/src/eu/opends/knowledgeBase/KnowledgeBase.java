@@ -18,6 +18,13 @@
 
 package eu.opends.knowledgeBase;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
 import de.dfki.automotive.kapcom.knowledgebase.KAPcomException;
 import de.dfki.automotive.kapcom.knowledgebase.NetClient;
 import de.dfki.automotive.kapcom.knowledgebase.PropertyValue;
@@ -38,11 +45,12 @@ final public class KnowledgeBase extends Thread
 	/** Singleton KB instance */
 	public static KnowledgeBase KB = new KnowledgeBase(true, true);
 
-	private boolean isRunning = true;
+	private volatile boolean isRunning = true;
+	private volatile boolean isPublishing = false;
+	private volatile long updateCount = 0;
 	private boolean connect = false;
 	private boolean fallback = true;
 	private int outgoingUpdateIntervalMsec = 100;
-	private long lastOutgoingUpdate = 0;
 	private String culture = CULTURE_GERMAN;
 	private NetClient client = null;
 	private Root root = null;
@@ -52,6 +60,28 @@ final public class KnowledgeBase extends Thread
 	
 	private SimulationBasics sim;
 	
+	/** Property writes not yet sent to KAPcom ("path::property" --> latest value) */
+	private final Map<String, PendingProperty> pendingProperties = new LinkedHashMap<String, PendingProperty>();
+	
+	/** Paths of instances known to exist in KAPcom, e.g. "/thisVehicle/exterior" */
+	private final Set<String> knownInstancePaths = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	
+	private static class PendingProperty
+	{
+		final String path;
+		final String name;
+		final PropertyValue value;
+		final String type;
+		
+		PendingProperty(String path, String name, PropertyValue value, String type)
+		{
+			this.path = path;
+			this.name = name;
+			this.value = value;
+			this.type = type;
+		}
+	}
+	
 	public KnowledgeBase(boolean connect, boolean fallback)
 	{
 		this.connect = connect;
@@ -186,6 +216,24 @@ final public class KnowledgeBase extends Thread
 	}
 	
 	
+	/**
+	 * Writes a value to a property of the instance at the given path (missing instances
+	 * of the path will be created). If the publisher thread is running, the value is
+	 * sent with its next update; several writes to the same property in between are
+	 * coalesced (latest value wins). Thus, this method never waits for KAPcom.
+	 * 
+	 * @param path
+	 * 			Path of instance, e.g. "/thisVehicle/exterior".
+	 * 
+	 * @param propertyName
+	 * 			Name of property.
+	 * 
+	 * @param propertyValue
+	 * 			Value of property (string representation).
+	 * 
+	 * @param propertyType
+	 * 			Type of property, e.g. "int", "float", "boolean" or "String".
+	 */
 	public void sendSetProperty(String path, String propertyName, String propertyValue, String propertyType)
 	{	
 		if (!KB.isConnected()) 
@@ -214,19 +262,18 @@ final public class KnowledgeBase extends Thread
 				// for char, String and all others types different from types above
 				valueObject = new PropertyValue(propertyValue);
 			
-			// create path with sub folders (if not existing)
-			String parent = "";
-			for(String folder : path.split("/"))
+			PendingProperty property = new PendingProperty(path, propertyName, valueObject, propertyType);
+			
+			if(isPublishing)
 			{
-				if(!folder.isEmpty())
+				// will be sent by publisher thread
+				synchronized(pendingProperties)
 				{
-					KB.getClient().sendGetInstanceByShortID(parent, folder, true, propertyType);
-					parent += "/" + folder;
-				}			
+					pendingProperties.put(path + "::" + propertyName, property);
+				}
 			}
-			
-			// write value to property of given path
-			KB.getClient().sendSetProperty(path, propertyName, valueObject, true);
+			else
+				writeProperty(property);
 
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -234,42 +281,140 @@ final public class KnowledgeBase extends Thread
 	}
 	
 	
+	private void writeProperty(PendingProperty property) throws KAPcomException
+	{
+		// create path with sub folders (if not known to exist)
+		String parent = "";
+		for(String folder : property.path.split("/"))
+		{
+			if(!folder.isEmpty())
+			{
+				String folderPath = parent + "/" + folder;
+				if(!knownInstancePaths.contains(folderPath))
+				{
+					client.sendGetInstanceByShortID(parent, folder, true, property.type);
+					knownInstancePaths.add(folderPath);
+				}
+				parent = folderPath;
+			}			
+		}
+		
+		// write value to property of given path
+		client.sendSetProperty(property.path, property.name, property.value, true);
+	}
+	
+	
+	private void writePendingProperties() throws KAPcomException
+	{
+		PendingProperty[] properties;
+		synchronized(pendingProperties)
+		{
+			if(pendingProperties.isEmpty())
+				return;
+			
+			properties = pendingProperties.values().toArray(new PendingProperty[pendingProperties.size()]);
+			pendingProperties.clear();
+		}
+		
+		for(int i=0; i<properties.length; i++)
+		{
+			try {
+				writeProperty(properties[i]);
+			} catch (KAPcomException e) {
+				// keep unsent values (unless overwritten in the meantime)
+				synchronized(pendingProperties)
+				{
+					for(int j=i; j<properties.length; j++)
+					{
+						String key = properties[j].path + "::" + properties[j].name;
+						if(!pendingProperties.containsKey(key))
+							pendingProperties.put(key, properties[j]);
+					}
+				}
+				throw e;
+			}
+		}
+	}
+	
+	
 	/**
-	 * Sends information about the current vehicle status to KAPcom for use by other applications.
-	 * This may be called many times a second (update rate is limited internally).
+	 * Sends information about the current vehicle status and all pending property 
+	 * writes to KAPcom for use by other applications. Updates are sent at a fixed
+	 * rate of <code>outgoingUpdateIntervalMsec</code>; in between, the thread sleeps.
 	 */
 	//public synchronized void sendCarData(Car car)
 	@Override
     public void run()
 	{
+		if (outgoingUpdateIntervalMsec <= 0 || !isConnected()) return;
+		
+		isPublishing = true;
+		
+		long intervalNanos = outgoingUpdateIntervalMsec * 1000000L;
+		long nextUpdate = System.nanoTime();
 		while(isRunning)
 		{
-			if (outgoingUpdateIntervalMsec <= 0 || !isConnected()) return;
-			if (System.currentTimeMillis() - lastOutgoingUpdate > outgoingUpdateIntervalMsec) {
-				lastOutgoingUpdate = System.currentTimeMillis();
-				try{
-					if(sim instanceof Simulator)
-						getVehicle().sendCarData(((Simulator)sim));
-					else if(sim instanceof DriveAnalyzer)
-						getVehicle().sendAnalyzerData(((DriveAnalyzer)sim).getCurrentDataUnit());
-				} catch (Exception ex) {
-					ex.printStackTrace();
-					System.err.println("Failed to send update to KAPcom. Will stop sending updates for 60 seconds.");
-					lastOutgoingUpdate += (1000 * 60);
-					return;
-				}
+			long waitNanos = nextUpdate - System.nanoTime();
+			if(waitNanos > 0)
+			{
+				// woken up early by disconnect()
+				LockSupport.parkNanos(this, waitNanos);
+				continue;
+			}
+			
+			// fixed rate; skip updates missed (e.g. while KAPcom was slow)
+			nextUpdate += intervalNanos;
+			if(nextUpdate - System.nanoTime() < 0)
+				nextUpdate = System.nanoTime() + intervalNanos;
+			
+			try{
+				if(sim instanceof Simulator)
+					getVehicle().sendCarData(((Simulator)sim));
+				else if(sim instanceof DriveAnalyzer)
+					getVehicle().sendAnalyzerData(((DriveAnalyzer)sim).getCurrentDataUnit());
+				
+				writePendingProperties();
+				updateCount++;
+			} catch (Exception ex) {
+				ex.printStackTrace();
+				System.err.println("Failed to send update to KAPcom. Will stop sending updates for 60 seconds.");
+				nextUpdate = System.nanoTime() + 60 * 1000000000L;
+				
+				// KAPcom might have been restarted in the meantime
+				knownInstancePaths.clear();
+				getVehicle().resendAll();
 			}
 		}
+		
+		isPublishing = false;
+		
 		if(KB.isConnected())
 		{
+			try {
+				writePendingProperties();
+			} catch (KAPcomException e) {
+				e.printStackTrace();
+			}
+			
 			KB.getClient().disconnect();
 			System.out.println("Closed connection to KAPcom");
 		}
 	}
+	
+	
+	/**
+	 * @return
+	 * 			Number of updates sent by the publisher thread so far.
+	 */
+	public long getUpdateCount()
+	{
+		return updateCount;
+	}
 
 	
 	public synchronized void disconnect()
 	{
 		isRunning = false;
+		LockSupport.unpark(this);
 	}
 }
@@ -0,0 +1,233 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.knowledgeBase;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects property values of KAPcom instances (e.g. property "pressedState" of
+ * "thisVehicle/interior/cockpit/pedals/gasPedal") and renders all values changed
+ * since the last sent batch as one XML tree for NetClient.sendAddInstanceXml().
+ * Unchanged properties and instances without changed properties are left out, so
+ * several property changes cost one round trip to KAPcom and no message is needed
+ * at all if nothing has changed.
+ *
+ * Instances are rendered in order of their first use; an instance must be used
+ * before its sub instances. Not thread-safe (KnowledgeBase thread only).
+ *
+ * @author OpenDS contributors
+ */
+class PropertyBatch
+{
+	private static class Property
+	{
+		String value = null;
+		String sentValue = null;
+	}
+
+
+	private static class Instance
+	{
+		String[] elements;
+		LinkedHashMap<String, Property> properties = new LinkedHashMap<String, Property>();
+
+		Instance(String path)
+		{
+			elements = path.split("/");
+		}
+	}
+
+
+	private LinkedHashMap<String, Instance> instances = new LinkedHashMap<String, Instance>();
+	private StringBuilder xml = new StringBuilder(2048);
+	private String[] openElements = new String[16];
+
+
+	/**
+	 * Sets the value of a property (will be sent with the next batch, if different
+	 * from the value sent last).
+	 *
+	 * @param path
+	 * 			Path of instance without leading "/", e.g. "thisVehicle/gearUnit".
+	 *
+	 * @param propertyName
+	 * 			Name of property, e.g. "currentGear".
+	 *
+	 * @param value
+	 * 			Value of property (converted by String.valueOf()).
+	 */
+	void set(String path, String propertyName, Object value)
+	{
+		Instance instance = instances.get(path);
+		if(instance == null)
+		{
+			instance = new Instance(path);
+			instances.put(path, instance);
+		}
+
+		Property property = instance.properties.get(propertyName);
+		if(property == null)
+		{
+			property = new Property();
+			instance.properties.put(propertyName, property);
+		}
+
+		property.value = String.valueOf(value);
+	}
+
+
+	/**
+	 * @return
+	 * 			True, if at least one property differs from the value sent last.
+	 */
+	boolean hasChanges()
+	{
+		for(Instance instance : instances.values())
+			for(Property property : instance.properties.values())
+				if(isChanged(property))
+					return true;
+
+		return false;
+	}
+
+
+	/**
+	 * Renders all changed properties as XML tree with root element "root".
+	 *
+	 * @return
+	 * 			XML string (contains empty root element if nothing has changed).
+	 */
+	String toXml()
+	{
+		xml.setLength(0);
+		xml.append("<root>");
+
+		int openCount = 0;
+		for(Instance instance : instances.values())
+		{
+			if(!hasChangedProperty(instance))
+				continue;
+
+			// close elements not shared with the path of this instance
+			int common = 0;
+			while(common < openCount && common < instance.elements.length
+					&& openElements[common].equals(instance.elements[common]))
+				common++;
+
+			while(openCount > common)
+				appendEndTag(openElements[--openCount]);
+
+			// open remaining elements of path
+			for(int i=common; i<instance.elements.length; i++)
+			{
+				if(openCount == openElements.length)
+				{
+					String[] largerArray = new String[2*openElements.length];
+					System.arraycopy(openElements, 0, largerArray, 0, openCount);
+					openElements = largerArray;
+				}
+
+				openElements[openCount++] = instance.elements[i];
+				xml.append('<').append(instance.elements[i]).append('>');
+			}
+
+			xml.append("<Properties>");
+			for(Map.Entry<String, Property> entry : instance.properties.entrySet())
+			{
+				Property property = entry.getValue();
+				if(isChanged(property))
+				{
+					xml.append('<').append(entry.getKey()).append('>');
+					appendEscaped(property.value);
+					appendEndTag(entry.getKey());
+				}
+			}
+			xml.append("</Properties>");
+		}
+
+		while(openCount > 0)
+			appendEndTag(openElements[--openCount]);
+
+		xml.append("</root>");
+		return xml.toString();
+	}
+
+
+	/**
+	 * Marks all current values as sent (call after successful transmission).
+	 */
+	void markSent()
+	{
+		for(Instance instance : instances.values())
+			for(Property property : instance.properties.values())
+				property.sentValue = property.value;
+	}
+
+
+	/**
+	 * Forgets all sent values, i.e. the next batch will contain all properties
+	 * (e.g. after KAPcom was not reachable).
+	 */
+	void reset()
+	{
+		for(Instance instance : instances.values())
+			for(Property property : instance.properties.values())
+				property.sentValue = null;
+	}
+
+
+	private static boolean isChanged(Property property)
+	{
+		return property.value != null && !property.value.equals(property.sentValue);
+	}
+
+
+	private static boolean hasChangedProperty(Instance instance)
+	{
+		for(Property property : instance.properties.values())
+			if(isChanged(property))
+				return true;
+
+		return false;
+	}
+
+
+	private void appendEndTag(String element)
+	{
+		xml.append("</").append(element).append('>');
+	}
+
+
+	private void appendEscaped(String value)
+	{
+		for(int i=0; i<value.length(); i++)
+		{
+			char c = value.charAt(i);
+			if(c == '<')
+				xml.append("&lt;");
+			else if(c == '>')
+				xml.append("&gt;");
+			else if(c == '&')
+				xml.append("&amp;");
+			else
+				xml.append(c);
+		}
+	}
+}
@@ -25,7 +25,7 @@ import com.jme3.math.Vector3f;
 import de.dfki.automotive.kapcom.knowledgebase.KAPcomException;
 import de.dfki.automotive.kapcom.knowledgebase.ontology.*;
 import eu.opends.analyzer.DataUnit;
-import eu.opends.car.SteeringCar;
+import eu.opends.car.VehicleState;
 import eu.opends.drivingTask.settings.SettingsLoader.Setting;
 import eu.opends.main.DriveAnalyzer;
 import eu.opends.main.SimulationDefaults;
@@ -74,11 +74,14 @@ public class VehicleKnowledge
 	private double oldRise = 0;
 	private float oldSpeed = 0;
 	private long oldTime = 0;
+	private long oldStateVersion = -1;
+	private PropertyBatch batch = new PropertyBatch();
 	void sendCarData(Simulator sim) throws KAPcomException
 	{
-		SteeringCar car = sim.getCar();
+		// state of the last frame (never read the live car from this thread)
+		VehicleState state = sim.getCar().getState();
 		
-		if (vehicle == null) return;
+		if (vehicle == null || state == null || state.getVersion() == oldStateVersion) return;
 		
 		/*
 		Vector3f position = car.getPosition();
@@ -93,15 +96,15 @@ public class VehicleKnowledge
 		//engine.setActualSpeed((double) speed);
 		*/
 		
-		long time = System.currentTimeMillis();  // in milliseconds
+		long time = state.getTimeStamp();  // in milliseconds
 		float timeDiff = ((float) (time - oldTime)) / 1000f; // in seconds
 
-		Vector3d geoPosition = car.getGeoPosition();
+		Vector3d geoPosition = state.getGeoPosition();
 		double latitude = geoPosition.getX();  // N-S position in geo coordinates
 		double longitude = geoPosition.getY(); // W-E position in geo coordinates
 		double altitude = geoPosition.getZ();  // meters above sea level
 		
-		float orientation = car.getHeadingDegree();  // 0..360 degree
+		float orientation = state.getHeadingDegree();  // 0..360 degree
 		
 		float rotation = (orientation - oldOrientation)/timeDiff; // in degree/s
 		if(rotation < -180)
@@ -111,7 +114,7 @@ public class VehicleKnowledge
 		
 		float rotationAcceleration = (rotation - oldRotation)/timeDiff; // in degree/s^2
 		
-		float speed = FastMath.abs(car.getCarControl().getCurrentVehicleSpeedKmHour());  // in Km/h
+		float speed = state.getSpeedKmh();  // in Km/h
 		
 		double rise = (altitude - oldAltitude)/timeDiff; // in m/s
 		
@@ -119,110 +122,69 @@ public class VehicleKnowledge
 		
 		float acceleration = ((speed - oldSpeed)/3.6f)/timeDiff; // in m/s^2
 		
-		float gasPedalPress = car.getAcceleratorPedalIntensity(); // in %
-		float brakePedalPress = car.getBrakePedalIntensity(); // in %
+		float gasPedalPress = state.getAcceleratorPedalIntensity(); // in %
+		float brakePedalPress = state.getBrakePedalIntensity(); // in %
 		
 		float maxSteeringAngle = Simulator.getDrivingTask().getSettingsLoader().getSetting(
 				Setting.CANInterface_maxSteeringAngle, SimulationDefaults.CANInterface_maxSteeringAngle);
 		
-		float steeringAngle = -maxSteeringAngle*car.getSteeringWheelState(); // in degree (+ = right, - = left)
+		float steeringAngle = -maxSteeringAngle*state.getSteeringWheelState(); // in degree (+ = right, - = left)
 
-		String lightState = car.getLightState();
+		String lightState = state.getLightState();
 		
-		float fuelConsumption = car.getPowerTrain().getLitersPer100Km();  // current fuel consumption
+		float fuelConsumption = state.getLitersPer100Km();  // current fuel consumption
 		
 		float maxFuelCapacity = 60; //TODO set max Capacity
-		float fuelLeft = maxFuelCapacity - car.getPowerTrain().getTotalFuelConsumption();
+		float fuelLeft = maxFuelCapacity - state.getTotalFuelConsumption();
 		
-		int selectedGear = car.getTransmission().getGear();
+		int selectedGear = state.getGear();
 		
 		int engineOn;
-		if(car.isEngineOn())
+		if(state.isEngineOn())
 			engineOn = 1;
 		else
 			engineOn = 0;
 		
-		int rpm = (int) car.getTransmission().getRPM();
-		
-		String xml = "<root>" +
-						"<thisVehicle>" +
-							"<interior>" +
-								"<cockpit>" +
-									"<pedals>" +
-										"<gasPedal>" +
-											"<Properties><pressedState>" + gasPedalPress + "</pressedState></Properties>" +
-										"</gasPedal>" +
-										"<brakePedal>" +
-											"<Properties><pressedState>" + brakePedalPress + "</pressedState></Properties>" +
-										"</brakePedal>" +
-									"</pedals>" +
-									"<steeringWheel>" +
-										"<Properties><steerAngle>" + steeringAngle + "</steerAngle></Properties>" +
-									"</steeringWheel>" +
-								"</cockpit>" +
-							"</interior>" +
-							"<exterior>" +
-								"<lights>" +
-									"<Properties><headlights>" + lightState + "</headlights></Properties>" +
-								"</lights>" +
-								"<gearUnit>" +
-									"<Properties><currentGear>" + selectedGear + "</currentGear></Properties>" +
-								"</gearUnit>" +
-								"<engineCompartment>" +
-									"<engine><Properties>" +
-										"<running>" + engineOn + "</running>" +
-										"<actualRpm>" + rpm + "</actualRpm>" +
-									"</Properties></engine>" +
-								"</engineCompartment>" +
-								"<fueling>" +
-									"<fuelType>" +
-										"<Properties><currentConsumption>" + fuelConsumption + "</currentConsumption></Properties>" +
-										"<tank><Properties>" +
-											"<maxAmount>" + maxFuelCapacity + "</maxAmount>" +
-											"<actualAmount>" + fuelLeft + "</actualAmount>" +
-										"</Properties></tank>" +
-									"</fuelType>" +
-								"</fueling>";
-
+		int rpm = (int) state.getRPM();
+		
+		String cockpit = "thisVehicle/interior/cockpit";
+		batch.set(cockpit + "/pedals/gasPedal", "pressedState", gasPedalPress);
+		batch.set(cockpit + "/pedals/brakePedal", "pressedState", brakePedalPress);
+		batch.set(cockpit + "/steeringWheel", "steerAngle", steeringAngle);
+		batch.set("thisVehicle/exterior/lights", "headlights", lightState);
+		batch.set("thisVehicle/exterior/gearUnit", "currentGear", selectedGear);
+		batch.set("thisVehicle/exterior/engineCompartment/engine", "running", engineOn);
+		batch.set("thisVehicle/exterior/engineCompartment/engine", "actualRpm", rpm);
+		batch.set("thisVehicle/exterior/fueling/fuelType", "currentConsumption", fuelConsumption);
+		batch.set("thisVehicle/exterior/fueling/fuelType/tank", "maxAmount", maxFuelCapacity);
+		batch.set("thisVehicle/exterior/fueling/fuelType/tank", "actualAmount", fuelLeft);
 		
 		if(sim.getThreeVehiclePlatoonTask() != null)
 		{
 			Float distanceFromLaneCenter = sim.getThreeVehiclePlatoonTask().getDistanceFromLaneCenter();
 			if(distanceFromLaneCenter != null)
 			{
-				xml +=          "<sensors>" +
-								    "<deviationSensor>" +
-								    	"<Properties><name>deviationSensor #1</name></Properties>" +
-								        "<sensorData>" +
-								            "<Properties>" +
-							            		"<sensorType>Environmental</sensorType>" +	
-							            		"<sensorSubType>Deviation</sensorSubType>" +
-								            	"<distanceX>" + distanceFromLaneCenter + "</distanceX>" +
-								            "</Properties>" +
-								        "</sensorData>" +
-								    "</deviationSensor>" +
-								"</sensors>";
+				String sensor = "thisVehicle/exterior/sensors/deviationSensor";
+				batch.set(sensor, "name", "deviationSensor #1");
+				batch.set(sensor + "/sensorData", "sensorType", "Environmental");
+				batch.set(sensor + "/sensorData", "sensorSubType", "Deviation");
+				batch.set(sensor + "/sensorData", "distanceX", distanceFromLaneCenter);
 			}	
 		}
 
-		xml +=              "</exterior>" +
-							"<physicalAttributes><Properties>" +
-								"<latitude>"+latitude+"</latitude>" +
-								"<longitude>"+longitude+"</longitude>" +
-								"<altitude>"+altitude+"</altitude>" +
-								"<orientation>"+orientation+"</orientation>" +
-								"<speed>"+ speed +"</speed>" +
-								"<rise>"+rise+"</rise>" +
-								"<accelerationLateral>"+verticalAcceleration+"</accelerationLateral>" +
-								"<rotation>"+rotation+"</rotation>" +
-								"<accelerationRotation>"+rotationAcceleration+"</accelerationRotation>" +
-								"<acceleration>"+acceleration+"</acceleration>" +
-							"</Properties></physicalAttributes>" +
-						"</thisVehicle>" +
-					"</root>";
-
-
-		kb.getClient().sendAddInstanceXml("", xml);		
+		String physicalAttributes = "thisVehicle/physicalAttributes";
+		batch.set(physicalAttributes, "latitude", latitude);
+		batch.set(physicalAttributes, "longitude", longitude);
+		batch.set(physicalAttributes, "altitude", altitude);
+		batch.set(physicalAttributes, "orientation", orientation);
+		batch.set(physicalAttributes, "speed", speed);
+		batch.set(physicalAttributes, "rise", rise);
+		batch.set(physicalAttributes, "accelerationLateral", verticalAcceleration);
+		batch.set(physicalAttributes, "rotation", rotation);
+		batch.set(physicalAttributes, "accelerationRotation", rotationAcceleration);
+		batch.set(physicalAttributes, "acceleration", acceleration);
+		
+		sendBatch();		
 		
 		//System.out.println(timeDiff);
 		
@@ -232,6 +194,7 @@ public class VehicleKnowledge
 		oldRise = rise;
 		oldSpeed = speed;
 		oldTime = time;
+		oldStateVersion = state.getVersion();
 	}
 	
 	
@@ -279,47 +242,25 @@ public class VehicleKnowledge
 		else
 			engineOn = 0;
 		
-		String xml = "<root>" +
-						"<thisVehicle>" +
-							"<interior>" +
-								"<cockpit>" +
-									"<pedals>" +
-										"<gasPedal>" +
-											"<Properties><pressedState>" + gasPedalPress + "</pressedState></Properties>" +
-										"</gasPedal>" +
-										"<brakePedal>" +
-											"<Properties><pressedState>" + brakePedalPress + "</pressedState></Properties>" +
-										"</brakePedal>" +
-									"</pedals>" +
-									"<steeringWheel>" +
-										"<Properties><steerAngle>" + steeringAngle + "</steerAngle></Properties>" +
-									"</steeringWheel>" +
-								"</cockpit>" +
-							"</interior>" +
-							"<exterior>" +
-								"<engineCompartment>" +
-									"<engine><Properties>" +
-										"<running>" + engineOn + "</running>" +
-									"</Properties></engine>" +
-								"</engineCompartment>" +
-							"</exterior>" +
-							"<physicalAttributes><Properties>" +
-								"<latitude>"+latitude+"</latitude>" +
-								"<longitude>"+longitude+"</longitude>" +
-								"<altitude>"+altitude+"</altitude>" +
-								"<orientation>"+orientation+"</orientation>" +
-								"<speed>"+speed+"</speed>" +
-								"<rise>"+rise+"</rise>" +
-								"<accelerationLateral>"+verticalAcceleration+"</accelerationLateral>" +
-								"<rotation>"+rotation+"</rotation>" +
-								"<accelerationRotation>"+rotationAcceleration+"</accelerationRotation>" +
-								"<acceleration>"+acceleration+"</acceleration>" +
-							"</Properties></physicalAttributes>" +
-						"</thisVehicle>" +
-					"</root>";
-
+		String cockpit = "thisVehicle/interior/cockpit";
+		batch.set(cockpit + "/pedals/gasPedal", "pressedState", gasPedalPress);
+		batch.set(cockpit + "/pedals/brakePedal", "pressedState", brakePedalPress);
+		batch.set(cockpit + "/steeringWheel", "steerAngle", steeringAngle);
+		batch.set("thisVehicle/exterior/engineCompartment/engine", "running", engineOn);
 
-		kb.getClient().sendAddInstanceXml("", xml);		
+		String physicalAttributes = "thisVehicle/physicalAttributes";
+		batch.set(physicalAttributes, "latitude", latitude);
+		batch.set(physicalAttributes, "longitude", longitude);
+		batch.set(physicalAttributes, "altitude", altitude);
+		batch.set(physicalAttributes, "orientation", orientation);
+		batch.set(physicalAttributes, "speed", speed);
+		batch.set(physicalAttributes, "rise", rise);
+		batch.set(physicalAttributes, "accelerationLateral", verticalAcceleration);
+		batch.set(physicalAttributes, "rotation", rotation);
+		batch.set(physicalAttributes, "accelerationRotation", rotationAcceleration);
+		batch.set(physicalAttributes, "acceleration", acceleration);
+		
+		sendBatch();		
 		
 		//System.out.println(timeDiff);
 		
@@ -332,6 +273,31 @@ public class VehicleKnowledge
 	}
 
 	
+	/**
+	 * Sends all properties changed since the last update as one message (no message
+	 * if nothing has changed). If sending fails, the changes will be sent again with
+	 * the next update.
+	 */
+	private void sendBatch() throws KAPcomException
+	{
+		if(!batch.hasChanges())
+			return;
+		
+		kb.getClient().sendAddInstanceXml("", batch.toXml());
+		batch.markSent();
+	}
+	
+	
+	/**
+	 * Forces all properties to be sent with the next update (e.g. after KAPcom has
+	 * not been reachable for a while).
+	 */
+	void resendAll()
+	{
+		batch.reset();
+	}
+
+	
 	public float getOrientation(Quaternion carRotation) 
 	{
 		// get Euler angles from rotation quaternion
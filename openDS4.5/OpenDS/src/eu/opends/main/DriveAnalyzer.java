@@ -23,17 +23,17 @@ import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.LinkedList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.jme3.material.Material;
+import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
 import com.jme3.math.ColorRGBA;
 import com.jme3.niftygui.NiftyJmeDisplay;
 import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
 import com.jme3.scene.Node;
-import com.jme3.scene.Spatial;
 import com.jme3.asset.plugins.FileLocator;
 import com.jme3.font.BitmapText;
 import com.jme3.scene.Mesh.Mode;
@@ -46,6 +46,7 @@ import de.lessvoid.nifty.Nifty;
 import eu.opends.analyzer.DataUnit;
 import eu.opends.analyzer.DeviationComputer;
 import eu.opends.analyzer.DataReader;
+import eu.opends.analyzer.DrivenLineMesh;
 import eu.opends.analyzer.IdealLine;
 import eu.opends.analyzer.IdealLine.IdealLineStatus;
 import eu.opends.basics.InternalMapProcessing;
@@ -72,6 +73,9 @@ public class DriveAnalyzer extends SimulationBasics
 	private String KB_ip_addr = "127.0.0.1";
 	private int KB_port = 55432;
 	private int maxFramerate = 300;
+	
+	// recording time (in s) passed per second while holding the forward/backward key
+	private float scrubSpeed = 10f;
 
 	private Nifty nifty;
     private boolean analyzerFileGiven = false;
@@ -88,12 +92,19 @@ public class DriveAnalyzer extends SimulationBasics
 	private Node target = new Node();
 	private int targetIndex = 0;
 	
+	// one cone marks the current data point; the driven line has several levels of detail
+	private Geometry geoCone;
+	private int coneIndex = -1;
+	private Quaternion coneRotation = new Quaternion();
+	private Geometry geoPoints;
+	private Geometry geoLine;
+	
 	private double totalDistance = 0;
 
 	private BitmapText markerText, speedText, timeText;
 	
 	private ArrayList<Vector3f> carPositionList = new ArrayList<Vector3f>();
-	private LinkedList<DataUnit> dataUnitList = new LinkedList<DataUnit>();
+	private int sampleCount = 0;
 	
 	private DataReader dataReader = new DataReader();
 	private Long initialTimeStamp = 0l;
@@ -229,10 +240,10 @@ public class DriveAnalyzer extends SimulationBasics
 		carPositionList = dataReader.getCarPositionList();
 		
 		totalDistance = dataReader.getTotalDistance();
-		dataUnitList = dataReader.getDataUnitList();
+		sampleCount = dataReader.getSampleCount();
 		
-		if(dataUnitList.size() > 0)
-			initialTimeStamp = dataUnitList.get(0).getDate().getTime();
+		if(sampleCount > 0)
+			initialTimeStamp = dataReader.getTimeStamp(0);
 	}
 	
 	
@@ -250,20 +261,15 @@ public class DriveAnalyzer extends SimulationBasics
     	replayIsRunning = true;
     	
 		// end has been reached
-		if((targetIndex + 1) >= dataUnitList.size())
+		if((targetIndex + 1) >= sampleCount)
 		{
-			// make cone at last position invisible (if exists)
-			Spatial currentCone = coneNode.getChild("cone_" + targetIndex);
-			if(currentCone != null)
-				currentCone.setCullHint(CullHint.Always);
-			
 			// reset camera to first position 
 			targetIndex = 0;
-			updateView(dataUnitList.get(targetIndex));
+			updateView(dataReader.getDataUnit(targetIndex));
 		}
 		
 		// offset between current time and time in replay (at current position)
-		offset = System.currentTimeMillis() - dataUnitList.get(targetIndex).getDate().getTime();
+		offset = System.currentTimeMillis() - dataReader.getTimeStamp(targetIndex);
     }
     
     
@@ -363,38 +369,36 @@ public class DriveAnalyzer extends SimulationBasics
 		Material drivenMaterial = new Material(assetManager,"Common/MatDefs/Misc/Unshaded.j3md");
 		drivenMaterial.setColor("Color", ColorRGBA.Yellow);
 		
+		// points and line share the vertices (one per data point) and levels of detail
+		DrivenLineMesh drivenLineMesh = new DrivenLineMesh(dataReader.getPositionX(), 
+				dataReader.getPositionY(), dataReader.getPositionZ(), sampleCount);
+		
 		// visualize points
-		Curve points = new Curve(carPositionList.toArray(new Vector3f[0]), 1);
-		points.setMode(Mode.Points);
+		Mesh points = drivenLineMesh.createMesh(Mode.Points);
 		points.setPointSize(4f);
-		Geometry geoPoints = new Geometry("drivenPoints", points);
+		geoPoints = new Geometry("drivenPoints", points);
 		geoPoints.setMaterial(drivenMaterial);
 		pointNode.attachChild(geoPoints);
 
 		// visualize line
-		Curve line = new Curve(carPositionList.toArray(new Vector3f[0]), 1);
-		line.setMode(Mode.Lines);
+		Mesh line = drivenLineMesh.createMesh(Mode.LineStrip);
 		line.setLineWidth(4f);
-		Geometry geoLine = new Geometry("drivenLine", line);
+		geoLine = new Geometry("drivenLine", line);
 	    geoLine.setMaterial(drivenMaterial);
 	    lineNode.attachChild(geoLine);
 
 	
-	    // visualize cones
+	    // visualize cone (only the cone of the current data point is visible, 
+	    // so a single cone is moved to the current data point)
 	    Material coneMaterial = new Material(assetManager,"Common/MatDefs/Misc/Unshaded.j3md");
 	    coneMaterial.setColor("Color", ColorRGBA.Black);
 		
-		for (int i=0; i<dataUnitList.size(); i++) 
-		{
-			Cylinder cone = new Cylinder(10, 10, 0.3f, 0.01f, 0.9f, true, false);
-			cone.setLineWidth(4f);
-			Geometry geoCone = new Geometry("cone_"+i, cone);
-			geoCone.setLocalTranslation(dataUnitList.get(i).getCarPosition());
-			geoCone.setLocalRotation(dataUnitList.get(i).getCarRotation());
-			geoCone.setMaterial(coneMaterial);
-			geoCone.setCullHint(CullHint.Always);
-			coneNode.attachChild(geoCone);
-		}
+		Cylinder cone = new Cylinder(10, 10, 0.3f, 0.01f, 0.9f, true, false);
+		cone.setLineWidth(4f);
+		geoCone = new Geometry("cone", cone);
+		geoCone.setMaterial(coneMaterial);
+		geoCone.setCullHint(CullHint.Always);
+		coneNode.attachChild(geoCone);
 
 		if (pointsEnabled)
 			sceneNode.attachChild(pointNode);
@@ -406,7 +410,7 @@ public class DriveAnalyzer extends SimulationBasics
 			sceneNode.attachChild(coneNode);
 		
 		// set camera view and time/speed texts
-		updateView(dataUnitList.get(targetIndex));
+		updateView(dataReader.getDataUnit(targetIndex));
 	}
 
 
@@ -483,19 +487,77 @@ public class DriveAnalyzer extends SimulationBasics
 	{
 		if(!replayIsRunning)
 		{
-			if (!isPause() && direction == 1 && (targetIndex + 1) < dataUnitList.size()) 
+			if (!isPause() && direction == 1 && (targetIndex + 1) < sampleCount) 
 			{
 				targetIndex++;
-				updateView(dataUnitList.get(targetIndex));
+				updateView(dataReader.getDataUnit(targetIndex));
 			}
 	
 			if (!isPause() && direction == -1 && (targetIndex - 1) >= 0)
 			{
 				targetIndex--;
-				updateView(dataUnitList.get(targetIndex));
+				updateView(dataReader.getDataUnit(targetIndex));
 			}
 		}
 	}
+	
+	
+	/**
+	 * Moves the target continuously (while a key is held) through the recording. 
+	 * The target moves at least one data point per frame or by the recording time 
+	 * given by the scrub speed, whatever is more.
+	 * 
+	 * @param direction
+	 * 			Forward (1) or backward (-1).
+	 * 
+	 * @param tpf
+	 * 			Time per frame (in s).
+	 */
+	public void scrub(int direction, float tpf)
+	{
+		if(!replayIsRunning && !isPause() && sampleCount > 0)
+		{
+			long step = (long) (tpf * scrubSpeed * 1000);
+			long timeStamp = dataReader.getTimeStamp(targetIndex) + direction * step;
+			
+			int index = dataReader.getIndex(timeStamp);
+			if(direction == 1)
+				index = Math.min(Math.max(index, targetIndex + 1), sampleCount - 1);
+			else
+				index = Math.max(Math.min(index, targetIndex - 1), 0);
+			
+			seek(index);
+		}
+	}
+	
+	
+	/**
+	 * Moves the target to the data point recorded at (or last before) the given time.
+	 * 
+	 * @param timeStamp
+	 * 			Recording time (in ms since 1970).
+	 */
+	public void seek(long timeStamp)
+	{
+		if(sampleCount > 0)
+		{
+			seek(dataReader.getIndex(timeStamp));
+			
+			// continue replay at new position
+			if(replayIsRunning)
+				offset = System.currentTimeMillis() - dataReader.getTimeStamp(targetIndex);
+		}
+	}
+	
+	
+	private void seek(int index)
+	{
+		if(index != targetIndex)
+		{
+			targetIndex = index;
+			updateView(dataReader.getDataUnit(targetIndex));
+		}
+	}
 
 
 	private void updateView(DataUnit dataUnit) 
@@ -513,20 +575,17 @@ public class DriveAnalyzer extends SimulationBasics
 		// update timestamp
 		updateTimestamp();
 
-		// make previous cone invisible (if exists)
-		Spatial previousCone = coneNode.getChild("cone_" + (targetIndex-1));		
-		if(previousCone != null)
-			previousCone.setCullHint(CullHint.Always);
-		
-		// make current cone visible (if exists)
-		Spatial currentCone = coneNode.getChild("cone_" + targetIndex);
-		if(currentCone != null)
-			currentCone.setCullHint(CullHint.Dynamic);
-		
-		// make next cone invisible (if exists)
-		Spatial nextCone = coneNode.getChild("cone_" + (targetIndex+1));
-		if(nextCone != null)
-			nextCone.setCullHint(CullHint.Always);
+		// move cone to current data point
+		if(coneIndex != targetIndex)
+		{
+			geoCone.setLocalTranslation(dataReader.getPositionX()[targetIndex], 
+					dataReader.getPositionY()[targetIndex], dataReader.getPositionZ()[targetIndex]);
+			coneRotation.set(dataReader.getRotationX()[targetIndex], dataReader.getRotationY()[targetIndex], 
+					dataReader.getRotationZ()[targetIndex], dataReader.getRotationW()[targetIndex]);
+			geoCone.setLocalRotation(coneRotation);
+			geoCone.setCullHint(CullHint.Dynamic);
+			coneIndex = targetIndex;
+		}
 		
 		updateMessageBox();
 	}
@@ -599,7 +658,7 @@ public class DriveAnalyzer extends SimulationBasics
 
 	private void updateTimestamp() 
 	{
-		Long currentTimeStamp = dataUnitList.get(targetIndex).getDate().getTime();
+		Long currentTimeStamp = dataReader.getTimeStamp(targetIndex);
 		
 		if(showRelativeTime)
 		{
@@ -629,6 +688,8 @@ public class DriveAnalyzer extends SimulationBasics
 			if(replayIsRunning)
 				updatePosition();
 			
+			updateLevelOfDetail();
+			
 			try {
 				Thread.sleep((long) (Math.max((1000/maxFramerate)-tpf,0)));
 			} catch (InterruptedException e) {
@@ -640,22 +701,24 @@ public class DriveAnalyzer extends SimulationBasics
 
     private void updatePosition() 
 	{
-		if((targetIndex + 1) < dataUnitList.size())
+		if((targetIndex + 1) < sampleCount)
 		{
 			// offset translates current time string to recording time
 			long currentRecordingTime = System.currentTimeMillis() - offset;
-			long timeAtNextTarget = dataUnitList.get(targetIndex + 1).getDate().getTime();
 			
-			if(currentRecordingTime >= timeAtNextTarget)
+			// last data point passed (may skip several data points if frame rate is low)
+			int index = Math.max(targetIndex, dataReader.getIndex(currentRecordingTime));
+			
+			if(index != targetIndex)
 			{				
-				targetIndex++;
-				updateView(dataUnitList.get(targetIndex));
+				targetIndex = index;
+				updateView(dataReader.getDataUnit(targetIndex));
 			}
 			else
 			{
 				// provide previous and next data units
-				DataUnit previous = dataUnitList.get(targetIndex);
-				DataUnit next = dataUnitList.get(targetIndex+1);
+				DataUnit previous = dataReader.getDataUnit(targetIndex);
+				DataUnit next = dataReader.getDataUnit(targetIndex+1);
 				
 				// interpolate between previous and next data unit
 				DataUnit interpolatedDataUnit = DataUnit.interpolate(previous, next, currentRecordingTime);
@@ -670,6 +733,23 @@ public class DriveAnalyzer extends SimulationBasics
 	}
 
 
+    private void updateLevelOfDetail() 
+    {
+    	// select level of detail of driven line by distance between camera and target
+    	if(geoLine != null)
+    	{
+    		float distance = cam.getLocation().distance(target.getWorldTranslation());
+    		int level = DrivenLineMesh.getLodLevel(distance);
+    		
+    		if(geoLine.getLodLevel() != level)
+    		{
+    			geoLine.setLodLevel(level);
+    			geoPoints.setLodLevel(level);
+    		}
+    	}
+    }
+    
+
 	/**
 	 * Cleanup after game loop was left
 	 */
@@ -57,6 +57,8 @@ public class SimulationDefaults
 	public static String MultiDriver_ip = "127.0.0.1";
 	public static int MultiDriver_port = 1234;
 	public static int MultiDriver_updateRate = 20;
+	public static int MultiDriver_interpolationDelay = 100;
+	public static int MultiDriver_maxExtrapolation = 250;
 	
 	public static boolean Eyetracker_enableConnection = false;
 	public static int Eyetracker_port = 2010;
@@ -81,6 +83,11 @@ public class SimulationDefaults
 	public static int SettingsControllerServer_port = 1000;
 	
 	public static boolean Analyzer_suppressPDFPopup = false;
+	public static Boolean Analyzer_writeBinaryData = false;
+	public static Boolean Analyzer_asynchronousRecording = false;
+	public static Boolean Analyzer_channelRecorder_enable = false;
+	public static Integer Analyzer_channelRecorder_sampleRate = 100;
+	public static Integer Analyzer_logFlushInterval = 1000;
 	
 	public static float gravity = 9.81f;
 	
@@ -117,6 +124,9 @@ public class SimulationDefaults
 	public static boolean MultiThreading_enableThreads = false;
 	public static int multiThreading_numberOfThreads = Runtime.getRuntime().availableProcessors()+1;
 	
+	// traffic cars request green at traffic light triggers (TRIGGER mode). By default only the driver does
+	public static Boolean TrafficLights_trafficCarsRequestGreen = false;
+	
 	// integration of high polygon model. By default it is disabled
 	public static Boolean HighPolygon_carModel = false;
 }
@@ -44,7 +44,9 @@ import com.jme3.scene.Spatial.CullHint;
 import com.sun.javafx.application.PlatformImpl;
 
 import de.lessvoid.nifty.Nifty;
+import eu.opends.analyzer.ChannelRecorder;
 import eu.opends.analyzer.DrivingTaskLogger;
+import eu.opends.analyzer.EventLogSink;
 import eu.opends.analyzer.DataWriter;
 import eu.opends.audio.AudioCenter;
 import eu.opends.basics.InternalMapProcessing;
@@ -78,6 +80,9 @@ import eu.opends.tools.PanelCenter;
 import eu.opends.tools.SpeedControlCenter;
 import eu.opends.tools.Util;
 import eu.opends.traffic.PhysicalTraffic;
+import eu.opends.traffic.TrafficCar;
+import eu.opends.traffic.TrafficObject;
+import eu.opends.traffic.WaypointPath;
 import eu.opends.trigger.TriggerCenter;
 import eu.opends.visualization.LightningClient;
 import eu.opends.visualization.MoviePlayer;
@@ -122,6 +127,12 @@ public class Simulator extends SimulationBasics
 		return drivingTaskLogger;
 	}
 	
+	private static EventLogSink eventLogSink;
+	public static EventLogSink getEventLogSink()
+	{
+		return eventLogSink;
+	}
+	
 	private boolean dataWriterQuittable = false;
 	private DataWriter dataWriter;
 	public DataWriter getMyDataWriter() 
@@ -129,6 +140,12 @@ public class Simulator extends SimulationBasics
 		return dataWriter;
 	}
 	
+	private ChannelRecorder channelRecorder;
+	public ChannelRecorder getChannelRecorder() 
+	{
+		return channelRecorder;
+	}
+	
 	private LightningClient lightningClient;
 	public LightningClient getLightningClient() 
 	{
@@ -350,6 +367,9 @@ public class Simulator extends SimulationBasics
 		// start trafficLightCenter
 		trafficLightCenter = new TrafficLightCenter(this);
 		
+		// way point lookup tables of a previous driving task will not be reused
+		WaypointPath.clearCache();
+		
 		// create and place steering car
 		car = new SteeringCar(this);
 		
@@ -414,7 +434,13 @@ public class Simulator extends SimulationBasics
 			multiDriverClient.start();
 		}
 		
-		drivingTaskLogger = new DrivingTaskLogger(outputFolder, driverName, drivingTask.getFileName());
+		// study logs are written asynchronously (flushed at least every logFlushInterval ms)
+		int logFlushInterval = settingsLoader.getSetting(Setting.Analyzer_logFlushInterval, 
+				SimulationDefaults.Analyzer_logFlushInterval);
+		eventLogSink = new EventLogSink(logFlushInterval);
+		eventLogSink.start();
+		
+		drivingTaskLogger = new DrivingTaskLogger(outputFolder, driverName, drivingTask.getFileName(), eventLogSink);
 		
 		SpeedControlCenter.init(this);
 		
@@ -477,10 +503,33 @@ public class Simulator extends SimulationBasics
 		
 		joystickSpringController = new ForceFeedbackJoystickController(this);
 		
+		if(settingsLoader.getSetting(Setting.Analyzer_channelRecorder_enable, SimulationDefaults.Analyzer_channelRecorder_enable))
+			initChannelRecorder();
+		
 		initializationFinished = true;
     }
 
 	
+	private void initChannelRecorder()
+	{
+		int sampleRate = settingsLoader.getSetting(Setting.Analyzer_channelRecorder_sampleRate, 
+				SimulationDefaults.Analyzer_channelRecorder_sampleRate);
+		
+		channelRecorder = new ChannelRecorder(getPhysicsSpace(), sampleRate);
+		
+		car.registerChannels(channelRecorder, "car.");
+		car.getPowerTrain().registerChannels(channelRecorder, "car.");
+		
+		for(TrafficObject trafficObject : PhysicalTraffic.getTrafficObjectList())
+			if(trafficObject instanceof TrafficCar)
+				((TrafficCar) trafficObject).registerChannels(channelRecorder, 
+						"traffic." + trafficObject.getName() + ".");
+		
+		reactionCenter.registerChannels(channelRecorder);
+		triggerCenter.registerChannels(channelRecorder);
+	}
+	
+	
 	private void initDrivingTaskLayers()
 	{
 		String drivingTaskFileName = SimulationDefaults.drivingTaskFileName;
@@ -503,8 +552,20 @@ public class Simulator extends SimulationBasics
 	 */
 	public void initializeDataWriter(int trackNumber) 
 	{
+		boolean binaryFormat = settingsLoader.getSetting(Setting.Analyzer_writeBinaryData, 
+				SimulationDefaults.Analyzer_writeBinaryData);
+		
+		// write to disk in background thread
+		boolean asynchronous = settingsLoader.getSetting(Setting.Analyzer_asynchronousRecording, 
+				SimulationDefaults.Analyzer_asynchronousRecording);
+		
 		dataWriter = new DataWriter(outputFolder, car, SimulationDefaults.driverName, 
-				SimulationDefaults.drivingTaskFileName, trackNumber);
+				SimulationDefaults.drivingTaskFileName, trackNumber, binaryFormat, asynchronous);
+		
+		// record registered channels (e.g. at higher rate) to separate files
+		if(channelRecorder != null)
+			channelRecorder.start(outputFolder, SimulationDefaults.driverName, 
+					SimulationDefaults.drivingTaskFileName, trackNumber);
 	}
 	
 	
@@ -524,6 +585,15 @@ public class Simulator extends SimulationBasics
 			PanelCenter.update();
 		
 			triggerCenter.doTriggerChecks();
+			
+			// execute trigger actions due (also in pause)
+			triggerCenter.updateScheduler(tpf);
+			
+			// switch traffic lights due (simulation time)
+			trafficLightCenter.update(tpf);
+			
+			// update HMI presentations (simulation time)
+			HMICenter.update(tpf);
 		
 			updateDataWriter();
 			
@@ -533,7 +603,7 @@ public class Simulator extends SimulationBasics
 			
 			// send car data via TCP to CAN-bus
 			if(canClient != null)
-				canClient.sendCarData();
+				canClient.update();
 				
 			if(multiDriverClient != null)
 				multiDriverClient.update();
@@ -589,6 +659,9 @@ public class Simulator extends SimulationBasics
     		joystickSpringController.update(tpf);
     		
     		updateCoordinateSystem();
+    		
+    		// hand over state of this frame to readers on other threads
+    		car.publishState();
     	}
     }
 
@@ -615,6 +688,9 @@ public class Simulator extends SimulationBasics
 		{
 			if (dataWriterQuittable) 
 			{
+				if(channelRecorder != null)
+					channelRecorder.stop();
+				
 				dataWriter.quit();
 				dataWriter = null;
 				dataWriterQuittable = false;
@@ -660,6 +736,17 @@ public class Simulator extends SimulationBasics
 			if(multiDriverClient != null)
 				multiDriverClient.close();
 			
+			// write remaining channel data
+			if(channelRecorder != null)
+				channelRecorder.stop();
+			
+			// write remaining drive data
+			if(dataWriter != null)
+			{
+				dataWriter.quit();
+				dataWriter = null;
+			}
+			
 			trafficLightCenter.close();
 			
 			steeringTask.close();
@@ -685,16 +772,16 @@ public class Simulator extends SimulationBasics
 				eyetrackerCenter.close();
 			
 			joystickSpringController.close();
+			
+			// write remaining log records
+			drivingTaskLogger.quit();
+			eventLogSink.requestStop();
 			//initDrivingTaskSelectionGUI();
 		}
 
 		super.destroy();
 		logger.info("finished destroy()");
 		
-		if (physicalTraffic.getMultiThreadingEnable()){
-			physicalTraffic.executorShutdown();
-		}
-		
 		PlatformImpl.exit();
 		//System.exit(0);
     }
@@ -69,7 +69,7 @@ public class AddUpdate implements Update
 			sim.getPhysicsSpace().add(carControl);		
 			sim.getSceneNode().attachChild(carNode);
 			
-			sim.getMultiDriverClient().addRegisteredVehicle(vehicleID);
+			sim.getMultiDriverClient().addRemoteVehicle(new RemoteVehicle(vehicleID, carNode, carControl));
 			
 		} catch(Exception e) {
 			System.err.println("Could not create vehicle '" + vehicleID + "'!");
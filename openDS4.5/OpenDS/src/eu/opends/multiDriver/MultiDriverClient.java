@@ -19,24 +19,25 @@
 package eu.opends.multiDriver;
 
 
-import java.net.Socket;
-import java.net.SocketException;
-import java.net.SocketTimeoutException;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.io.*;
 
 import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
 
 import eu.opends.car.Car;
+import eu.opends.car.VehicleState;
 import eu.opends.drivingTask.scenario.ScenarioLoader;
 import eu.opends.drivingTask.settings.SettingsLoader;
 import eu.opends.drivingTask.settings.SettingsLoader.Setting;
-import eu.opends.environment.XMLParser;
+import eu.opends.environment.XMLInstructionReader;
 import eu.opends.main.SimulationDefaults;
 import eu.opends.main.Simulator;
+import eu.opends.tools.XMLMessageConnection;
 
 /**
  * This class represents the connector to the CAN-Interface. Steering, gas, brake and 
@@ -47,19 +48,22 @@ import eu.opends.main.Simulator;
  * 
  * @author Rafael Math
  */
-public class MultiDriverClient extends Thread
+public class MultiDriverClient extends Thread implements MultiDriverInstructionHandler
 {
 	private Simulator sim;
-	private ArrayList<Update> updateList = new ArrayList<Update>();
+	private ConcurrentLinkedQueue<Update> updateList = new ConcurrentLinkedQueue<Update>();
 	private Car car;
 	private int framerate;
-	private boolean stoprequested;
-	private boolean errorOccurred;
+	private volatile boolean stoprequested;
+	private volatile boolean errorOccurred;
 	private Calendar timeOfLastFire;
-	private PrintWriter printWriter;
-	private Socket socket;
+	private XMLMessageConnection connection;
+	private XMLInstructionReader instructionReader = new XMLInstructionReader();
 	private String id;
-	private ArrayList<String> registeredVehiclesList;
+	private ConcurrentHashMap<String, RemoteVehicle> remoteVehicleMap;
+	private TerrainHeightCache terrainHeightCache;
+	private long interpolationDelay;
+	private long maxExtrapolation;
 	
 	
 	/**
@@ -80,7 +84,8 @@ public class MultiDriverClient extends Thread
 		stoprequested = false;
 		errorOccurred = false;
 		timeOfLastFire = new GregorianCalendar();
-		registeredVehiclesList = new ArrayList<String>();
+		remoteVehicleMap = new ConcurrentHashMap<String, RemoteVehicle>();
+		terrainHeightCache = new TerrainHeightCache(sim.getSceneNode(), this);
 		
 		ScenarioLoader scenarioLoader = Simulator.getDrivingTask().getScenarioLoader();
 		String carModelPath = scenarioLoader.getModelPath();
@@ -90,11 +95,19 @@ public class MultiDriverClient extends Thread
 		int port = settingsLoader.getSetting(Setting.MultiDriver_port, SimulationDefaults.MultiDriver_port);
 		framerate = settingsLoader.getSetting(Setting.MultiDriver_updateRate, SimulationDefaults.MultiDriver_updateRate);
 		
+		// remote vehicles are rendered interpolationDelay ms in the past (ns)
+		interpolationDelay = 1000000L * settingsLoader.getSetting(Setting.MultiDriver_interpolationDelay, 
+				SimulationDefaults.MultiDriver_interpolationDelay);
+		maxExtrapolation = 1000000L * settingsLoader.getSetting(Setting.MultiDriver_maxExtrapolation, 
+				SimulationDefaults.MultiDriver_maxExtrapolation);
+		
+		// do not keep the simulator alive while waiting for messages
+		setDaemon(true);
+		
 		try {
 
 			// connect to Server
-			socket = new Socket(ip,port);
-			socket.setSoTimeout(10);
+			connection = new XMLMessageConnection(ip, port);
 			
 		 	// send car data (model path and driver name) to multi driver server and flush
 			
@@ -106,9 +119,7 @@ public class MultiDriverClient extends Thread
 			String registerString = "<multiDriver> <register id=\"salut\"> <modelPath>" + carModelPath + 
 										"</modelPath> <driverName>"	+ driverName + "</driverName> </register> </multiDriver>";
 			*/
-			printWriter = new PrintWriter(new OutputStreamWriter(socket.getOutputStream()));
-		 	printWriter.print(registerString);
-		 	printWriter.flush();
+		 	connection.send(registerString);
 		 	
 		 	//System.out.print(registerString);
 
@@ -122,7 +133,9 @@ public class MultiDriverClient extends Thread
     
 	/**
 	 * Listens for incoming MD instructions (as XML), such as position and orientation updates, 
-	 * which will be forwarded to the XML-parser
+	 * which will be forwarded to the XML-parser. Resulting updates are handed over to the 
+	 * render thread by a lock-free queue (see updateSceneGraph()). Blocks while no message 
+	 * arrives.
 	 */
 	@Override
 	public void run() 
@@ -135,8 +148,16 @@ public class MultiDriverClient extends Thread
 		{
 			try {
 
-				// delete "NUL" at the end of each line
-				String message = readMessage(socket).replace("\0", "");
+				// next complete XML element
+				String message = connection.readMessage();
+				
+				if(message == null)
+				{
+					// will be returned if e.g. server was shut down
+					if(!stoprequested)
+						shutDownMessage = "Multi driver server: connection closed by server";
+					break;
+				}
 				
 				// print XML instruction
 				//System.out.println(message);
@@ -145,23 +166,14 @@ public class MultiDriverClient extends Thread
 				// on "registered" --> call method setID();
 				// on "update" --> perform changes
 				// on "unregistered" --> call method requestStop()
-				XMLParser parser = new XMLParser("<multiDriver>" + message + "</multiDriver>");
-				parser.evalMultiDriverInstruction(sim, this);
+				instructionReader.evalMultiDriverInstruction(message, this);
 
-			} catch (SocketException e) {
+			} catch (IOException e) {
 				
 				// will be thrown if e.g. server was shut down
 				shutDownMessage = "Multi driver server: connection closed by server";
 				errorOccurred = true;
 				
-			} catch (StringIndexOutOfBoundsException e) {
-				
-				// will be thrown if e.g. "stop server" button has been clicked
-				shutDownMessage = "Multi driver server: connection closed by server";
-				errorOccurred = true;
-				
-			} catch (SocketTimeoutException e) {
-				
 			} catch (Exception e) {
 				e.printStackTrace();
 			}
@@ -169,17 +181,11 @@ public class MultiDriverClient extends Thread
 		}
 		
 		// close TCP connection to multi driver server if connected at all
-		try {
-			if ((socket != null) && (printWriter != null))
-			{			
-				// close socket connection
-				printWriter.close();
-				socket.close();
-					
-				System.out.println(shutDownMessage);
-			}
-		} catch (Exception ex) {
-			System.err.println("Could not close connection to multi driver server");
+		if(connection != null)
+		{			
+			// close socket connection
+			connection.close();
+			System.out.println(shutDownMessage);
 		}
 	}
 
@@ -190,24 +196,24 @@ public class MultiDriverClient extends Thread
 	public synchronized void sendCarData()
 	{
 		// break, if no connection established
-		if(socket == null || id == null || errorOccurred)
+		if(connection == null || id == null || errorOccurred)
 			return;
 		
 		// generate time stamp
 		Calendar currentTime = new GregorianCalendar();
 		
 		// if enough time has passed by since last fire, the event will be forwarded
-		if(forwardEvent(currentTime))
+		// state of the last frame
+		VehicleState state = car.getState();
+		
+		if(state != null && forwardEvent(currentTime))
 		{
-			Vector3f pos = car.getPosition();
-			//Vector3d pos = car.getGeoPosition();
-			Quaternion rot = car.getRotation();
-			//float heading = car.getHeadingDegree();
-			Quaternion wheelRot = car.getCarControl().getWheel(0).getWheelSpatial().getLocalRotation();
-			float array[] = new float[3];
-			wheelRot.toAngles(array);
-			float wheelSteering = array[1];
-			float wheelPositon = array[0];
+			Vector3f pos = state.getPosition();
+			//Vector3d pos = state.getGeoPosition();
+			Quaternion rot = state.getRotation();
+			//float heading = state.getHeadingDegree();
+			float wheelSteering = state.getWheelSteering();
+			float wheelPositon = state.getWheelPosition();
 
 		 	// send car data (ID, position and rotation) to multi driver server and flush
 			String positionString = "<update id=\"" + id + "\">" +
@@ -217,8 +223,12 @@ public class MultiDriverClient extends Thread
 										"<wheel steering=\"" + wheelSteering + "\" position=\"" + wheelPositon + "\"/>" +
 									"</update>";
 	
-		 	printWriter.print(positionString);
-		 	printWriter.flush();
+			try {
+				connection.send(positionString);
+			} catch (IOException e) {
+				System.err.println("Could not send car data to multi driver server");
+				errorOccurred = true;
+			}
 		}
 	}
 	
@@ -247,56 +257,66 @@ public class MultiDriverClient extends Thread
 	public synchronized void close() 
 	{
 		// break, if no connection established
-		if(socket == null || id == null || errorOccurred)	
+		if(connection == null || id == null || errorOccurred)	
 		{
 			stoprequested = true;
+			if(connection != null)
+				connection.shutdownInput();
 			return;
 		}
 
-	 	// send unregister string to multi driver server and flush
+	 	// send unregister string to multi driver server
 		String outputString = "<unregister>" + id + "</unregister>";
 
-	 	printWriter.print(outputString);
-	 	printWriter.flush();
+		try {
+			connection.send(outputString);
+		} catch (IOException e) {
+			System.err.println("Could not unregister from multi driver server");
+			stoprequested = true;
+			connection.shutdownInput();
+		}
 	}
     
 	
 	public ArrayList<String> getRegisteredVehicles() 
 	{
-		return registeredVehiclesList;
+		return new ArrayList<String>(remoteVehicleMap.keySet());
+	}
+	
+	
+	/**
+	 * Returns the vehicle of another driver.
+	 * 
+	 * @param vehicleID
+	 * 			Vehicle ID
+	 * 
+	 * @return
+	 * 			Remote vehicle (null, if not registered)
+	 */
+	public RemoteVehicle getRemoteVehicle(String vehicleID)
+	{
+		if(vehicleID == null)
+			return null;
+		
+		return remoteVehicleMap.get(vehicleID);
 	}
 	
 	
-	public synchronized void addRegisteredVehicle(String vehicleID)
+	public void addRemoteVehicle(RemoteVehicle vehicle)
 	{
-		registeredVehiclesList.add(vehicleID);
+		remoteVehicleMap.put(vehicle.getVehicleID(), vehicle);
 	}
 	
 	
-	public synchronized void removeRegisteredVehicle(String vehicleID)
+	public void removeRemoteVehicle(String vehicleID)
 	{
-		registeredVehiclesList.remove(vehicleID);
+		remoteVehicleMap.remove(vehicleID);
 	}
 	
 	
-	/**
-	 * Reads an incoming message from the socket connection.
-	 * 
-	 * @param socket
-	 * 			Socket connection
-	 * 
-	 * @return
-	 * 			Message string of up to 10,000 characters
-	 * 
-	 * @throws IOException
-	 */
-	private String readMessage(Socket socket) throws IOException 
+	public TerrainHeightCache getTerrainHeightCache()
 	{
-		BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-		char[] buffer = new char[10000];
-		int nrOfChars = bufferedReader.read(buffer, 0, buffer.length);
-		
-		return new String(buffer, 0, nrOfChars);
+		return terrainHeightCache;
 	}
 	
 	
@@ -377,12 +397,15 @@ public class MultiDriverClient extends Thread
 	
 	public void updateSceneGraph()
 	{		
-		while(updateList.size() > 0)	
-		{
-			Update update = updateList.get(0);
+		// add, remove and buffer states of remote vehicles
+		Update update;
+		while((update = updateList.poll()) != null)
 			update.performUpdate();
-			updateList.remove(0);
-		}
+		
+		// move remote vehicles to their (interpolated) pose at render time
+		long renderTime = System.nanoTime() - interpolationDelay;
+		for(RemoteVehicle vehicle : remoteVehicleMap.values())
+			vehicle.update(renderTime, maxExtrapolation, terrainHeightCache);
 	}
 
 }
@@ -0,0 +1,39 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.multiDriver;
+
+/**
+ * Receiver of the instructions of the multi driver server, as decoded by the
+ * XML parsers (implemented by MultiDriverClient).
+ * 
+ * @author OpenDS contributors
+ */
+public interface MultiDriverInstructionHandler
+{
+	public void setID(String id);
+	
+	public void requestStop(String id);
+	
+	public void addVehicle(String vehicleID, String modelPath, String driverName);
+	
+	public void changeVehicle(String vehicleID, String positionString, String rotationString, 
+			String headingString, String wheelString);
+	
+	public void removeVehicle(String vehicleID);
+}
@@ -0,0 +1,446 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.multiDriver;
+
+import com.jme3.bullet.control.VehicleControl;
+import com.jme3.math.FastMath;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+
+/**
+ * Vehicle of another driver connected to the multi driver server. Received states
+ * (snapshots) are buffered together with their time of arrival; every frame the
+ * vehicle is rendered at the state it had <code>interpolationDelay</code> ms ago,
+ * interpolated between the two snapshots around that time. If no newer snapshot
+ * has arrived yet (e.g. packet late or lost), the position is extrapolated from
+ * the velocity of the last two snapshots for at most <code>maxExtrapolation</code>
+ * ms and held afterwards.
+ *
+ * Snapshots providing a heading instead of a full rotation are conformed to the
+ * terrain: height, pitch and roll are computed from the ground heights below the
+ * center and the four probe points of the car model (looked up in a cell cache)
+ * and only if the rendered pose has changed since the last frame.
+ *
+ * Must be used by the render thread only.
+ *
+ * @author OpenDS contributors
+ */
+public class RemoteVehicle
+{
+	private static final int BUFFER_SIZE = 32;
+
+	// snapshots arriving in the same burst replace each other (no velocity from ~0 s)
+	private static final long MIN_SNAPSHOT_INTERVAL = 2000000L;  // ns
+
+
+	private static class Snapshot
+	{
+		long time;
+		Vector3f position = new Vector3f();
+		Quaternion rotation = new Quaternion();
+		float heading;
+		boolean hasHeading;
+		float steering;
+		boolean hasSteering;
+	}
+
+
+	private String vehicleID;
+	private VehicleControl control;
+	private Snapshot[] snapshots = new Snapshot[BUFFER_SIZE];
+	private int newest = -1;
+	private int count = 0;
+
+	// probe points (car model coordinates) for pitch and roll
+	private Vector3f frontPoint, backPoint, leftPoint, rightPoint;
+
+	// rendered pose
+	private Vector3f position = new Vector3f();
+	private Quaternion rotation = new Quaternion();
+	private float heading;
+	private boolean hasHeading;
+	private float steering;
+	private boolean hasSteering;
+	private boolean isExtrapolated;
+
+	// last pose applied to the scene
+	private Vector3f appliedPosition = new Vector3f(Float.NaN, Float.NaN, Float.NaN);
+	private Quaternion appliedRotation = new Quaternion();
+	private float appliedSteering = Float.NaN;
+
+	// last terrain-conforming pose (input: x, z, heading; output: y, rotation)
+	private float terrainX = Float.NaN, terrainZ = Float.NaN, terrainHeading = Float.NaN;
+	private float terrainY;
+	private Quaternion terrainRotation = new Quaternion();
+
+	private Vector3f tmpVector = new Vector3f();
+	private Vector3f probe = new Vector3f();
+
+
+	/**
+	 * Creates a remote vehicle.
+	 *
+	 * @param vehicleID
+	 * 			ID assigned by the multi driver server (name of car node).
+	 *
+	 * @param carNode
+	 * 			Car node (null, if pose should only be computed).
+	 *
+	 * @param control
+	 * 			Vehicle control of car (null, if pose should only be computed).
+	 */
+	public RemoteVehicle(String vehicleID, Node carNode, VehicleControl control)
+	{
+		this.vehicleID = vehicleID;
+		this.control = control;
+
+		for(int i=0; i<BUFFER_SIZE; i++)
+			snapshots[i] = new Snapshot();
+
+		if(carNode != null)
+		{
+			frontPoint = getLocalTranslation(carNode, "frontPoint");
+			backPoint = getLocalTranslation(carNode, "backPoint");
+			leftPoint = getLocalTranslation(carNode, "leftPoint");
+			rightPoint = getLocalTranslation(carNode, "rightPoint");
+		}
+	}
+
+
+	public String getVehicleID()
+	{
+		return vehicleID;
+	}
+
+
+	/**
+	 * Adds a received state. Fields not given (null) keep the value of the
+	 * previous snapshot.
+	 *
+	 * @param time
+	 * 			Time of arrival (System.nanoTime()).
+	 *
+	 * @param position
+	 * 			Position (may be null).
+	 *
+	 * @param rotation
+	 * 			Rotation (may be null).
+	 *
+	 * @param heading
+	 * 			Heading in radians, replaces rotation by a terrain-conforming one (may be null).
+	 *
+	 * @param steering
+	 * 			Steering angle of wheels (may be null).
+	 */
+	public void addSnapshot(long time, Vector3f position, Quaternion rotation, Float heading, Float steering)
+	{
+		Snapshot previous = (count > 0 ? snapshots[newest] : null);
+		Snapshot snapshot;
+
+		if(previous != null && time - previous.time < MIN_SNAPSHOT_INTERVAL)
+		{
+			// same burst --> overwrite newest snapshot (time of arrival is kept)
+			snapshot = previous;
+		}
+		else
+		{
+			newest = (newest + 1) % BUFFER_SIZE;
+			count = Math.min(count + 1, BUFFER_SIZE);
+			snapshot = snapshots[newest];
+			snapshot.time = time;
+
+			if(previous != null)
+			{
+				snapshot.position.set(previous.position);
+				snapshot.rotation.set(previous.rotation);
+				snapshot.heading = previous.heading;
+				snapshot.hasHeading = previous.hasHeading;
+				snapshot.steering = previous.steering;
+				snapshot.hasSteering = previous.hasSteering;
+			}
+			else
+			{
+				snapshot.position.set(0, 0, 0);
+				snapshot.rotation.loadIdentity();
+				snapshot.hasHeading = false;
+				snapshot.hasSteering = false;
+			}
+		}
+
+		if(position != null)
+			snapshot.position.set(position);
+
+		if(rotation != null)
+		{
+			snapshot.rotation.set(rotation);
+			snapshot.hasHeading = false;
+		}
+
+		if(heading != null)
+		{
+			snapshot.heading = heading;
+			snapshot.hasHeading = true;
+		}
+
+		if(steering != null)
+		{
+			snapshot.steering = steering;
+			snapshot.hasSteering = true;
+		}
+	}
+
+
+	/**
+	 * Computes the pose at the given render time from the buffered snapshots.
+	 *
+	 * @param renderTime
+	 * 			Time to render (System.nanoTime() minus interpolation delay).
+	 *
+	 * @param maxExtrapolation
+	 * 			Maximum time (ns) to extrapolate beyond the newest snapshot.
+	 *
+	 * @return
+	 * 			False, if no snapshot has been received so far.
+	 */
+	public boolean computePose(long renderTime, long maxExtrapolation)
+	{
+		if(count == 0)
+			return false;
+
+		// newest snapshot not later than render time
+		int index = newest;
+		int age = 0;
+		while(age < count-1 && snapshots[index].time > renderTime)
+		{
+			index = (index + BUFFER_SIZE - 1) % BUFFER_SIZE;
+			age++;
+		}
+
+		Snapshot from = snapshots[index];
+		isExtrapolated = false;
+
+		if(from.time > renderTime)
+		{
+			// render time before oldest snapshot
+			setPose(from);
+		}
+		else if(age > 0)
+		{
+			// interpolate
+			Snapshot to = snapshots[(index + 1) % BUFFER_SIZE];
+			float alpha = (float) (renderTime - from.time) / (to.time - from.time);
+
+			position.interpolateLocal(from.position, to.position, alpha);
+			rotation.slerp(from.rotation, to.rotation, alpha);
+			heading = interpolateAngle(from.heading, to.heading, alpha);
+			hasHeading = to.hasHeading;
+			steering = from.steering + (to.steering - from.steering) * alpha;
+			hasSteering = to.hasSteering;
+		}
+		else
+		{
+			setPose(from);
+
+			if(count > 1 && renderTime > from.time)
+			{
+				// extrapolate position by velocity of the last two snapshots
+				Snapshot previous = snapshots[(index + BUFFER_SIZE - 1) % BUFFER_SIZE];
+				float snapshotInterval = from.time - previous.time;
+				float extrapolationTime = Math.min(renderTime - from.time, maxExtrapolation);
+
+				tmpVector.set(from.position).subtractLocal(previous.position);
+				position.addLocal(tmpVector.multLocal(extrapolationTime / snapshotInterval));
+				isExtrapolated = true;
+			}
+		}
+
+		return true;
+	}
+
+
+	/**
+	 * Computes the pose at the given render time and applies it to the car (if it
+	 * has changed since the last frame).
+	 *
+	 * @param renderTime
+	 * 			Time to render (System.nanoTime() minus interpolation delay).
+	 *
+	 * @param maxExtrapolation
+	 * 			Maximum time (ns) to extrapolate beyond the newest snapshot.
+	 *
+	 * @param terrain
+	 * 			Ground heights used for vehicles sending a heading.
+	 */
+	public void update(long renderTime, long maxExtrapolation, TerrainHeightCache terrain)
+	{
+		if(control == null || !computePose(renderTime, maxExtrapolation))
+			return;
+
+		if(hasHeading)
+			conformToTerrain(terrain);
+
+		try {
+
+			if(!position.equals(appliedPosition) || !rotation.equals(appliedRotation))
+			{
+				control.setPhysicsLocation(position);
+				control.setPhysicsRotation(rotation);
+				appliedPosition.set(position);
+				appliedRotation.set(rotation);
+			}
+
+			if(hasSteering && steering != appliedSteering)
+			{
+				if(steering < 0)
+					control.steer((3.1415927f + steering)/1.5f);
+				else
+					control.steer((-3.1415927f + steering)/1.5f);
+				appliedSteering = steering;
+			}
+
+		} catch(Exception e) {
+			System.err.println("Could not set pose of vehicle '" + vehicleID + "'!");
+		}
+	}
+
+
+	public Vector3f getPosition()
+	{
+		return position;
+	}
+
+
+	public Quaternion getRotation()
+	{
+		return rotation;
+	}
+
+
+	/**
+	 * @return
+	 * 			True, if the last computed pose lies beyond the newest snapshot.
+	 */
+	public boolean isExtrapolated()
+	{
+		return isExtrapolated;
+	}
+
+
+	private void setPose(Snapshot snapshot)
+	{
+		position.set(snapshot.position);
+		rotation.set(snapshot.rotation);
+		heading = snapshot.heading;
+		hasHeading = snapshot.hasHeading;
+		steering = snapshot.steering;
+		hasSteering = snapshot.hasSteering;
+	}
+
+
+	private void conformToTerrain(TerrainHeightCache terrain)
+	{
+		// skip if pose unchanged (e.g. standing vehicle)
+		if(position.x == terrainX && position.z == terrainZ && heading == terrainHeading)
+		{
+			position.y = terrainY;
+			rotation.set(terrainRotation);
+			return;
+		}
+
+		rotation.fromAngles(0, heading, 0);
+
+		// adjust height
+		float groundHeight = terrain.getHeight(position);
+		if(!Float.isNaN(groundHeight))
+			position.y = groundHeight + 0.075f;
+
+		// adjust pitch angle
+		float pitch = 0;
+		if(frontPoint != null && backPoint != null)
+		{
+			float frontHeight = terrain.getHeight(toWorld(frontPoint));
+			float backHeight = terrain.getHeight(toWorld(backPoint));
+
+			if(!Float.isNaN(frontHeight) && !Float.isNaN(backHeight))
+			{
+				float heightDiff = backHeight - frontHeight;
+				float zDistance = backPoint.getZ() - frontPoint.getZ();
+
+				pitch = -FastMath.atan(heightDiff/zDistance); // pos pitch: front up / neg pitch: back up
+			}
+		}
+
+		// adjust roll angle
+		float roll = 0;
+		if(leftPoint != null && rightPoint != null)
+		{
+			float leftHeight = terrain.getHeight(toWorld(leftPoint));
+			float rightHeight = terrain.getHeight(toWorld(rightPoint));
+
+			if(!Float.isNaN(leftHeight) && !Float.isNaN(rightHeight))
+			{
+				float heightDiff = rightHeight - leftHeight;
+				float xDistance = rightPoint.getX() - leftPoint.getX();
+
+				roll = FastMath.atan(heightDiff/xDistance); // pos roll: right up / neg roll: left up
+			}
+		}
+
+		rotation.fromAngles(pitch, heading, roll);
+
+		terrainX = position.x;
+		terrainZ = position.z;
+		terrainHeading = heading;
+		terrainY = position.y;
+		terrainRotation.set(rotation);
+	}
+
+
+	private Vector3f toWorld(Vector3f localPoint)
+	{
+		// rotation holds yaw only at this point
+		return rotation.mult(localPoint, probe).addLocal(position);
+	}
+
+
+	private static float interpolateAngle(float from, float to, float alpha)
+	{
+		// shortest way around the circle
+		float diff = (to - from) % FastMath.TWO_PI;
+		if(diff > FastMath.PI)
+			diff -= FastMath.TWO_PI;
+		else if(diff < -FastMath.PI)
+			diff += FastMath.TWO_PI;
+
+		return from + diff * alpha;
+	}
+
+
+	private static Vector3f getLocalTranslation(Node carNode, String name)
+	{
+		Spatial point = carNode.getChild(name);
+		if(point == null)
+			return null;
+
+		// relative to car node
+		return carNode.worldToLocal(point.getWorldTranslation(), new Vector3f()).multLocal(carNode.getWorldScale());
+	}
+}
@@ -48,7 +48,7 @@ public class RemoveUpdate implements Update
 			sim.getPhysicsSpace().remove(control);
 			sim.getSceneNode().detachChild(object);
 			
-			sim.getMultiDriverClient().removeRegisteredVehicle(vehicleID);
+			sim.getMultiDriverClient().removeRemoteVehicle(vehicleID);
 			
 		} catch(Exception e) {
 			System.err.println("Could not delete vehicle '" + vehicleID + "'!");
@@ -0,0 +1,187 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.multiDriver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.jme3.collision.CollisionResult;
+import com.jme3.collision.CollisionResults;
+import com.jme3.math.Ray;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+
+/**
+ * Ground heights below given points, shared by all remote vehicles. The x-z-plane
+ * is divided into cells of <code>CELL_SIZE</code>; the height of a cell is found by
+ * casting a ray (towards ground) at the cell center once and kept afterwards, as
+ * the scenery does not move. Cells are further separated by the height of the ray
+ * origin (bands of <code>HEIGHT_BAND</code>), so bridges and roads below them are
+ * cached separately. The least recently used cells are evicted beyond
+ * <code>MAX_CELLS</code>. Geometries of remote vehicles are never reported as
+ * ground.
+ *
+ * Must be used by the render thread only.
+ *
+ * @author OpenDS contributors
+ */
+public class TerrainHeightCache
+{
+	private static final float CELL_SIZE = 0.25f;  // m
+	private static final float HEIGHT_BAND = 2f;   // m
+	private static final int MAX_CELLS = 16384;
+
+	private Node sceneNode;
+	private MultiDriverClient client;
+	private Map<Long, Float> cells;
+	private long rayCount = 0;
+	private long lookupCount = 0;
+
+	private Vector3f down = new Vector3f(0,-1,0);
+	private Vector3f origin = new Vector3f();
+	private Ray ray = new Ray();
+	private CollisionResults results = new CollisionResults();
+
+
+	/**
+	 * Creates an empty cache.
+	 *
+	 * @param sceneNode
+	 * 			Scene to cast rays at.
+	 *
+	 * @param client
+	 * 			Multi driver client (to skip geometries of remote vehicles).
+	 */
+	public TerrainHeightCache(Node sceneNode, MultiDriverClient client)
+	{
+		this.sceneNode = sceneNode;
+		this.client = client;
+
+		cells = new LinkedHashMap<Long, Float>(1024, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Float> eldest)
+			{
+				return size() > MAX_CELLS;
+			}
+		};
+	}
+
+
+	/**
+	 * Returns the height of the ground below the given point.
+	 *
+	 * @param point
+	 * 			Point above ground.
+	 *
+	 * @return
+	 * 			Height of ground (NaN, if no ground below point).
+	 */
+	public float getHeight(Vector3f point)
+	{
+		lookupCount++;
+
+		int cellX = (int) Math.floor(point.x / CELL_SIZE);
+		int cellZ = (int) Math.floor(point.z / CELL_SIZE);
+		int band = (int) Math.floor(point.y / HEIGHT_BAND);
+		Long key = ((long) (cellX & 0xffffff) << 40) | ((long) (cellZ & 0xffffff) << 16) | (band & 0xffff);
+
+		Float height = cells.get(key);
+		if(height == null)
+		{
+			// ray from top of band at cell center
+			origin.set((cellX + 0.5f) * CELL_SIZE, (band + 1) * HEIGHT_BAND, (cellZ + 0.5f) * CELL_SIZE);
+			height = castPerpendicularRay(origin);
+			cells.put(key, height);
+		}
+
+		return height;
+	}
+
+
+	/**
+	 * Removes all cells (e.g. after the scenery has been changed).
+	 */
+	public void clear()
+	{
+		cells.clear();
+	}
+
+
+	/**
+	 * @return
+	 * 			Number of rays cast so far.
+	 */
+	public long getRayCount()
+	{
+		return rayCount;
+	}
+
+
+	/**
+	 * @return
+	 * 			Number of heights looked up so far.
+	 */
+	public long getLookupCount()
+	{
+		return lookupCount;
+	}
+
+
+	private float castPerpendicularRay(Vector3f origin)
+	{
+		rayCount++;
+
+		// aim a ray from the given point towards ground (perpendicular)
+		ray.setOrigin(origin);
+		ray.setDirection(down);
+
+		// collect intersections between ray and scene elements in results list.
+		results.clear();
+		sceneNode.collideWith(ray, results);
+
+		for(int i=0; i<results.size(); i++)
+		{
+			CollisionResult collisionResult = results.getCollision(i);
+
+			if(!isPartOfRemoteVehicle(collisionResult.getGeometry()))
+				return collisionResult.getContactPoint().getY();
+		}
+
+		return Float.NaN;
+	}
+
+
+	private boolean isPartOfRemoteVehicle(Spatial spatial)
+	{
+		// car nodes of remote vehicles are named by vehicle ID
+		while(spatial != null && spatial != sceneNode)
+		{
+			if(client != null && client.getRemoteVehicle(spatial.getName()) != null)
+				return true;
+
+			spatial = spatial.getParent();
+		}
+
+		return false;
+	}
+}
@@ -35,12 +35,12 @@ import eu.opends.main.Simulator;
  */
 public class BrakeReactionTimer extends ReactionTimer 
 {
-	private long timer;
+	private long timer;			// System.nanoTime()
 	private boolean timerSet = false;
 	private float targetSpeed; 
 	private boolean mustPressBrakePedal;
 	private boolean hasPressedBrakepedal;
-	private long startTime;
+	private long startNanos;
 	private float taskCompletionTime;
 	private Vector3f startPosition;
 	private float taskCompletionDistance;
@@ -71,7 +71,7 @@ public class BrakeReactionTimer extends ReactionTimer
 			
 			this.targetSpeed = targetSpeed;
 			this.mustPressBrakePedal = mustPressBrakePedal;
-			this.startTime = System.currentTimeMillis();
+			this.startNanos = stimulusNanos;
 			this.taskCompletionTime = taskCompletionTime;
 			this.startPosition = sim.getCar().getPosition();
 			this.taskCompletionDistance = taskCompletionDistance;
@@ -92,7 +92,7 @@ public class BrakeReactionTimer extends ReactionTimer
 			System.err.println("Not above start speed " + startSpeed + "! Currently: " + sim.getCar().getCurrentSpeedKmh());
 			
 			// play sound when time/distance has been passed
-			this.startTime = System.currentTimeMillis();
+			this.startNanos = System.nanoTime();
 			this.taskCompletionTime = taskCompletionTime;
 			this.startPosition = sim.getCar().getPosition();
 			this.taskCompletionDistance = taskCompletionDistance;
@@ -120,21 +120,29 @@ public class BrakeReactionTimer extends ReactionTimer
 		if(timerIsActive)
 		{
 			// monitor whether brake pedal has been pressed
+			boolean brakeOnset = (!hasPressedBrakepedal && (sim.getCar().getBrakePedalIntensity() > 0));
 			hasPressedBrakepedal = (hasPressedBrakepedal || (sim.getCar().getBrakePedalIntensity() > 0));
 			
-			long currentTime = System.currentTimeMillis();
+			long currentTime = System.nanoTime();
 			
 			if(hasChangedLanes())
 				trialLogger.setAdditional_reaction(1);
 			
+			// pedal reactions are timed by the input changing the pedal
 			if(sim.getCar().getAcceleratorPedalIntensity() == 0)
-				trialLogger.setBrakeRT_noGas((int)(currentTime - startTime));
+				trialLogger.setBrakeRT_noGas(toMillis(getInputTime(ReactionCenter.Input.ACCELERATOR, currentTime) - startNanos));
+			
+			if(brakeOnset)
+			{
+				long brakeTime = getInputTime(ReactionCenter.Input.BRAKE, currentTime);
+				addStatistics((brakeTime - startNanos) / 1000000.0, (currentTime - brakeTime) / 1000000.0);
+			}
 			
 			if(sim.getCar().getBrakePedalIntensity() > 0)
-				trialLogger.setBrakeRT_StartBrake((int)(currentTime - startTime));
+				trialLogger.setBrakeRT_StartBrake(toMillis(getInputTime(ReactionCenter.Input.BRAKE, currentTime) - startNanos));
 			
 			if(sim.getCar().getBrakePedalIntensity() >= 0.8f)
-				trialLogger.setBrakeRT_80pcBrake((int)(currentTime - startTime));
+				trialLogger.setBrakeRT_80pcBrake(toMillis(getInputTime(ReactionCenter.Input.BRAKE, currentTime) - startNanos));
 			
 			if(timeExceeded() || distanceExceeded())
 			{
@@ -148,12 +156,12 @@ public class BrakeReactionTimer extends ReactionTimer
 			{
 				if(!timerSet)
 				{
-					timer = System.currentTimeMillis();
+					timer = currentTime;
 					timerSet = true;
 				}
 				
 				//System.err.println("-----------------------hold speed: " + (currentTime-timer));
-				if((currentTime-timer >= holdSpeedFor))
+				if((toMillis(currentTime-timer) >= holdSpeedFor))
 				{
 					if(mustPressBrakePedal)
 					{
@@ -170,12 +178,12 @@ public class BrakeReactionTimer extends ReactionTimer
 			}
 			
 			
-			long relativeStartTime = startTime - experimentStartTime;
+			long relativeStartTime = stimulusTime - experimentStartTime;
 			
 			long holdSpeedOffset = 0l;
 			if(timerSet)
 				holdSpeedOffset = currentTime-timer;
-			long reactionTime = currentTime - startTime - holdSpeedOffset;
+			long reactionTime = toMillis(currentTime - startNanos - holdSpeedOffset);
 			
 			if(correctReactionReported)
 			{
@@ -183,9 +191,8 @@ public class BrakeReactionTimer extends ReactionTimer
 				
 				trialLogger.setBrakeRT_success((int)reactionTime);
 				
-				reactionLogger.add(reactionGroupID, 1, reactionTime, startTime, relativeStartTime, comment);
+				reactionLogger.add(reactionGroupID, 1, reactionTime, stimulusTime, relativeStartTime, comment);
 				
-				reactionTimer = null;
 				comment = "";
 				
 				trialLogger.setReaction(1);
@@ -200,9 +207,8 @@ public class BrakeReactionTimer extends ReactionTimer
 			{
 				//System.err.println("FAILED");
 				
-				reactionLogger.add(reactionGroupID, -1, reactionTime, startTime, relativeStartTime, comment);
+				reactionLogger.add(reactionGroupID, -1, reactionTime, stimulusTime, relativeStartTime, comment);
 
-				reactionTimer = null;
 				comment = "";
 				
 				trialLogger.setReaction(0);
@@ -265,9 +271,9 @@ public class BrakeReactionTimer extends ReactionTimer
 			return false;
 		else
 		{
-			long currentTime = System.currentTimeMillis();
-			//System.err.println("Time: " + (currentTime-startTime));
-			return (currentTime-startTime > taskCompletionTime);
+			long currentTime = System.nanoTime();
+			//System.err.println("Time: " + toMillis(currentTime-startNanos));
+			return (toMillis(currentTime-startNanos) > taskCompletionTime);
 		}
 	}
 
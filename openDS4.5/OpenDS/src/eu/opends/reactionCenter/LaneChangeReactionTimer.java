@@ -38,12 +38,12 @@ public class LaneChangeReactionTimer extends ReactionTimer
 {
 	private float halfCarWidth = 0.75f;
 	
-	private long timer;
+	private long timer;			// System.nanoTime()
 	private boolean timerSet = false;
 	private String targetLane; 
 	private float minSteeringAngle;
 	private float steeringAngle;
-	private long startTime;
+	private long startNanos;
 	private float taskCompletionTime;
 	private Vector3f startPosition;
 	private float taskCompletionDistance;
@@ -73,7 +73,7 @@ public class LaneChangeReactionTimer extends ReactionTimer
 			
 			this.targetLane = targetLane;
 			this.minSteeringAngle = minSteeringAngle;
-			this.startTime = System.currentTimeMillis();
+			this.startNanos = stimulusNanos;
 			this.taskCompletionTime = taskCompletionTime;
 			this.startPosition = sim.getCar().getPosition();
 			this.taskCompletionDistance = taskCompletionDistance;
@@ -96,7 +96,7 @@ public class LaneChangeReactionTimer extends ReactionTimer
 			System.err.println("Not in start lane " + startLane + "! Currently: " + getCurrentLane());
 			
 			// play sound when time/distance has been passed
-			this.startTime = System.currentTimeMillis();
+			this.startNanos = System.nanoTime();
 			this.taskCompletionTime = taskCompletionTime;
 			this.startPosition = sim.getCar().getPosition();
 			this.taskCompletionDistance = taskCompletionDistance;
@@ -123,23 +123,31 @@ public class LaneChangeReactionTimer extends ReactionTimer
 		
 		if(timerIsActive)
 		{
-			long currentTime = System.currentTimeMillis();
+			long currentTime = System.nanoTime();
 			
 			float currentSteeringAngle = FastMath.abs(sim.getCar().getSteeringWheelState());
+			boolean steeringOnset = (steeringAngle < 0.004444f && currentSteeringAngle >= 0.004444f);
 			steeringAngle = Math.max(steeringAngle, currentSteeringAngle);
 			//System.err.println("steering angle: " + steeringAngle);
 			
 			if(isBraking())
 				trialLogger.setAdditional_reaction(1);
 			
+			// steering reactions are timed by the input changing the steering angle
+			if(steeringOnset)
+			{
+				long steeringTime = getInputTime(ReactionCenter.Input.STEERING, currentTime);
+				addStatistics((steeringTime - startNanos) / 1000000.0, (currentTime - steeringTime) / 1000000.0);
+			}
+			
 			if(currentSteeringAngle >= 0.004444f)
-				trialLogger.setLaneChangeRT_2angle((int)(currentTime - startTime));
+				trialLogger.setLaneChangeRT_2angle(toMillis(getInputTime(ReactionCenter.Input.STEERING, currentTime) - startNanos));
 			
 			if(currentSteeringAngle >= 0.006666f)
-				trialLogger.setLaneChangeRT_3angle((int)(currentTime - startTime));
+				trialLogger.setLaneChangeRT_3angle(toMillis(getInputTime(ReactionCenter.Input.STEERING, currentTime) - startNanos));
 			
 			if(enteringTargetLane())
-				trialLogger.setLaneChangeRT_enterLane((int)(currentTime - startTime));
+				trialLogger.setLaneChangeRT_enterLane(toMillis(currentTime - startNanos));
 			
 			if(timeExceeded() || distanceExceeded())
 			{
@@ -153,12 +161,12 @@ public class LaneChangeReactionTimer extends ReactionTimer
 			{
 				if(!timerSet)
 				{
-					timer = System.currentTimeMillis();
+					timer = currentTime;
 					timerSet = true;
 				}
 				
 				//System.err.println("-----------------------hold lane: " + (currentTime-timer));
-				if((currentTime-timer >= holdLaneFor) && (steeringAngle >= minSteeringAngle))
+				if((toMillis(currentTime-timer) >= holdLaneFor) && (steeringAngle >= minSteeringAngle))
 				{
 					reportCorrectReaction();
 				}
@@ -168,12 +176,12 @@ public class LaneChangeReactionTimer extends ReactionTimer
 				timerSet = false;
 			}
 			
-			long relativeStartTime = startTime - experimentStartTime;
+			long relativeStartTime = stimulusTime - experimentStartTime;
 			
 			long holdLaneOffset = 0l;
 			if(timerSet)
 				holdLaneOffset = currentTime-timer;
-			long reactionTime = currentTime - startTime - holdLaneOffset;
+			long reactionTime = toMillis(currentTime - startNanos - holdLaneOffset);
 			
 			if(correctReactionReported)
 			{
@@ -181,9 +189,8 @@ public class LaneChangeReactionTimer extends ReactionTimer
 				
 				trialLogger.setLaneChangeRT_success((int)reactionTime);
 				
-				reactionLogger.add(reactionGroupID, 1, reactionTime, startTime, relativeStartTime, comment);
+				reactionLogger.add(reactionGroupID, 1, reactionTime, stimulusTime, relativeStartTime, comment);
 				
-				reactionTimer = null;
 				comment = "";
 				
 				trialLogger.setReaction(1);
@@ -198,9 +205,8 @@ public class LaneChangeReactionTimer extends ReactionTimer
 			{
 				//System.err.println("FAILED");
 				
-				reactionLogger.add(reactionGroupID, -1, reactionTime, startTime, relativeStartTime, comment);
+				reactionLogger.add(reactionGroupID, -1, reactionTime, stimulusTime, relativeStartTime, comment);
 
-				reactionTimer = null;
 				comment = "";
 				
 				trialLogger.setReaction(0);
@@ -260,9 +266,9 @@ public class LaneChangeReactionTimer extends ReactionTimer
 			return false;
 		else
 		{
-			long currentTime = System.currentTimeMillis();
-			//System.err.println("Time: " + (currentTime-startTime));
-			return (currentTime-startTime > taskCompletionTime);
+			long currentTime = System.nanoTime();
+			//System.err.println("Time: " + toMillis(currentTime-startNanos));
+			return (toMillis(currentTime-startNanos) > taskCompletionTime);
 		}
 	}
 
@@ -24,6 +24,7 @@ import java.util.List;
 
 import com.jme3.input.InputManager;
 
+import eu.opends.analyzer.ChannelRecorder;
 import eu.opends.jasperReport.ReactionLogger;
 import eu.opends.main.Simulator;
 
@@ -33,6 +34,15 @@ import eu.opends.main.Simulator;
  */
 public class ReactionCenter
 {
+	/**
+	 * Inputs timestamped by the input listeners when changed.
+	 */
+	public enum Input
+	{
+		STEERING, ACCELERATOR, BRAKE;
+	}
+	
+	
 	private Simulator sim;
 	private InputManager inputManager;
 	private ReactionListener reactionListener;
@@ -42,6 +52,15 @@ public class ReactionCenter
 	private boolean isRunning = false;
 	private List<ReactionTimer> reactionTimerList = new ArrayList<ReactionTimer>();
 	
+	// read by the channel recorder (physics thread)
+	private volatile int activeTimerCount = 0;
+	private volatile int correctReactionCount = 0;
+	private volatile int failureReactionCount = 0;
+	
+	private ReactionStatistics statistics = new ReactionStatistics();
+	private long[] inputChangeTime = new long[Input.values().length];
+	private float[] inputValue = new float[Input.values().length];
+	
 	
 	public ReactionCenter(Simulator sim)
 	{
@@ -207,16 +226,118 @@ public class ReactionCenter
 	{		
 		if(isRunning)
 		{
+			int activeTimers = 0;
 			for(ReactionTimer reactionTimer : reactionTimerList)
+			{
 				reactionTimer.update();
+				if(reactionTimer.isActive())
+					activeTimers++;
+			}
+			activeTimerCount = activeTimers;
+		}
+	}
+	
+	
+	/**
+	 * Timestamps the given input if its value has changed. Called by the input 
+	 * listeners as soon as the input arrives (render thread).
+	 * 
+	 * @param input
+	 * 			Input (e.g. brake pedal).
+	 * 
+	 * @param value
+	 * 			Current value of the input (e.g. pedal intensity).
+	 */
+	public void reportInput(Input input, float value)
+	{
+		int i = input.ordinal();
+		if(inputValue[i] != value)
+		{
+			inputChangeTime[i] = System.nanoTime();
+			inputValue[i] = value;
 		}
 	}
 	
 	
+	/**
+	 * Returns the time of the latest change of the given input.
+	 * 
+	 * @param input
+	 * 			Input (e.g. brake pedal).
+	 * 
+	 * @return
+	 * 			Timestamp (System.nanoTime()) of the latest change.
+	 */
+	public long getInputChangeTime(Input input)
+	{
+		return inputChangeTime[input.ordinal()];
+	}
+	
+	
+	/**
+	 * Returns the reaction times measured from input timestamps and the 
+	 * distribution of their measurement error.
+	 * 
+	 * @return
+	 * 			Reaction statistics.
+	 */
+	public ReactionStatistics getStatistics()
+	{
+		return statistics;
+	}
+	
+	
+	/**
+	 * Registers the number of active reaction timers and the number of reported
+	 * correct and failure reactions as channels of the given recorder.
+	 * 
+	 * @param recorder
+	 * 			Channel recorder to register at.
+	 */
+	public void registerChannels(ChannelRecorder recorder)
+	{
+		int rate = recorder.getDefaultSampleRate();
+		
+		recorder.registerIntChannel("reaction.activeTimers", rate, new ChannelRecorder.IntChannel() {
+			public int getValue() { return activeTimerCount; }
+		});
+		
+		recorder.registerIntChannel("reaction.correctReactions", rate, new ChannelRecorder.IntChannel() {
+			public int getValue() { return correctReactionCount; }
+		});
+		
+		recorder.registerIntChannel("reaction.failureReactions", rate, new ChannelRecorder.IntChannel() {
+			public int getValue() { return failureReactionCount; }
+		});
+		
+		recorder.registerIntChannel("reaction.measuredReactions", rate, new ChannelRecorder.IntChannel() {
+			public int getValue() { return statistics.getCount(); }
+		});
+	}
+	
+	
 	public void reportCorrectReaction(int index)
+	{
+		reportCorrectReaction(index, System.nanoTime());
+	}
+	
+	
+	/**
+	 * Reports a correct reaction to the timer with the given index.
+	 * 
+	 * @param index
+	 * 			Index of reaction timer.
+	 * 
+	 * @param timestamp
+	 * 			System.nanoTime() when the input arrived.
+	 */
+	public void reportCorrectReaction(int index, long timestamp)
 	{
 		if(reactionTimerList.size() > index)
-			reactionTimerList.get(index).reportCorrectReaction();
+		{
+			reactionTimerList.get(index).reportCorrectReaction(timestamp);
+			correctReactionCount++;
+		}
 	}
 	
 	
@@ -224,16 +345,37 @@ public class ReactionCenter
 	{
 		ReactionTimer reactionTimer = getReactionTimer(timerID);
 		if(reactionTimer != null)
+		{
 			reactionTimer.reportCorrectReaction();
+			correctReactionCount++;
+		}
 		else
 			System.err.println("No reaction timer '" + timerID + "' found!");
 	}
 	
 	
 	public void reportFailureReaction(int index)
+	{
+		reportFailureReaction(index, System.nanoTime());
+	}
+	
+	
+	/**
+	 * Reports a failure reaction to the timer with the given index.
+	 * 
+	 * @param index
+	 * 			Index of reaction timer.
+	 * 
+	 * @param timestamp
+	 * 			System.nanoTime() when the input arrived.
+	 */
+	public void reportFailureReaction(int index, long timestamp)
 	{
 		if(reactionTimerList.size() > index)
-			reactionTimerList.get(index).reportFailureReaction();
+		{
+			reactionTimerList.get(index).reportFailureReaction(timestamp);
+			failureReactionCount++;
+		}
 	}
 	
 	
@@ -241,7 +383,10 @@ public class ReactionCenter
 	{
 		ReactionTimer reactionTimer = getReactionTimer(timerID);
 		if(reactionTimer != null)
+		{
 			reactionTimer.reportFailureReaction();
+			failureReactionCount++;
+		}
 		else
 			System.err.println("No reaction timer '" + timerID + "' found!");
 	}
@@ -263,6 +408,8 @@ public class ReactionCenter
 		{
 			for(ReactionTimer reactionTimer : reactionTimerList)
 				reactionTimer.close();
+			
+			Simulator.getDrivingTaskLogger().reportText("Reaction measurement: " + statistics.getSummary());
 		}
 		
 		isRunning = false;
@@ -37,6 +37,9 @@ public class ReactionListener implements ActionListener
 
 	public void onAction(String binding, boolean value, float tpf) 
 	{
+		// timestamp of input (reaction time does not depend on frame rate)
+		long timestamp = System.nanoTime();
+		
 		try {
 			
 			String[] reactionGroupArray = binding.split("_");
@@ -45,7 +48,7 @@ public class ReactionListener implements ActionListener
 					reactionGroupArray[1].equalsIgnoreCase("group") && value)
 			{
 				int index = Integer.parseInt(reactionGroupArray[2]);
-				reactionCenter.reportCorrectReaction(index);
+				reactionCenter.reportCorrectReaction(index, timestamp);
 				System.out.println("Key: reaction_group_" + index);
 			}
 			
@@ -53,7 +56,7 @@ public class ReactionListener implements ActionListener
 					reactionGroupArray[1].equalsIgnoreCase("group") && value) 
 			{
 				int index = Integer.parseInt(reactionGroupArray[2]);
-				reactionCenter.reportFailureReaction(index);
+				reactionCenter.reportFailureReaction(index, timestamp);
 				System.out.println("Key: failure_group_" + index);
 			}
 			
@@ -0,0 +1,142 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.reactionCenter;
+
+import java.util.Arrays;
+
+/**
+ * Collects the reaction times measured from input timestamps together with their
+ * measurement error, i.e. the amount of time a measurement sampled once per frame
+ * (at the next update of the reaction center) would have added. Reports the
+ * distribution of both values. May be read by any thread.
+ *
+ * @author OpenDS contributors
+ */
+public class ReactionStatistics
+{
+	private double[] reactionTimes = new double[64];
+	private double[] errors = new double[64];
+	private int count = 0;
+
+
+	/**
+	 * Adds a measurement.
+	 *
+	 * @param reactionTime
+	 * 			Reaction time (in ms) computed from the input timestamp.
+	 *
+	 * @param error
+	 * 			Time (in ms) between input and frame sampling the reaction.
+	 */
+	public synchronized void add(double reactionTime, double error)
+	{
+		if(count == errors.length)
+		{
+			reactionTimes = Arrays.copyOf(reactionTimes, 2*count);
+			errors = Arrays.copyOf(errors, 2*count);
+		}
+
+		reactionTimes[count] = reactionTime;
+		errors[count] = error;
+		count++;
+	}
+
+
+	/**
+	 * @return
+	 * 			Number of measurements.
+	 */
+	public synchronized int getCount()
+	{
+		return count;
+	}
+
+
+	/**
+	 * @return
+	 * 			Mean measurement error (in ms), 0 if no measurements.
+	 */
+	public synchronized double getMeanError()
+	{
+		double sum = 0;
+		for(int i=0; i<count; i++)
+			sum += errors[i];
+		return (count > 0 ? sum/count : 0);
+	}
+
+
+	/**
+	 * Returns the given percentile of the measurement error.
+	 *
+	 * @param percentile
+	 * 			Percentile (0..100), e.g. 50 for median, 100 for maximum.
+	 *
+	 * @return
+	 * 			Measurement error (in ms), 0 if no measurements.
+	 */
+	public synchronized double getErrorPercentile(double percentile)
+	{
+		return getPercentile(errors, percentile);
+	}
+
+
+	/**
+	 * Returns the given percentile of the reaction time.
+	 *
+	 * @param percentile
+	 * 			Percentile (0..100), e.g. 50 for median, 100 for maximum.
+	 *
+	 * @return
+	 * 			Reaction time (in ms), 0 if no measurements.
+	 */
+	public synchronized double getReactionTimePercentile(double percentile)
+	{
+		return getPercentile(reactionTimes, percentile);
+	}
+
+
+	/**
+	 * @return
+	 * 			One-line summary of the distributions.
+	 */
+	public synchronized String getSummary()
+	{
+		if(count == 0)
+			return "no reactions measured";
+
+		return String.format("%d reactions, reaction time (ms) median %.1f, min %.1f, max %.1f; " +
+				"frame sampling error (ms) mean %.2f, median %.2f, p95 %.2f, max %.2f", count,
+				getReactionTimePercentile(50), getReactionTimePercentile(0), getReactionTimePercentile(100),
+				getMeanError(), getErrorPercentile(50), getErrorPercentile(95), getErrorPercentile(100));
+	}
+
+
+	private double getPercentile(double[] values, double percentile)
+	{
+		if(count == 0)
+			return 0;
+
+		double[] sorted = Arrays.copyOf(values, count);
+		Arrays.sort(sorted);
+
+		// nearest rank
+		int rank = (int) Math.ceil(percentile / 100.0 * count);
+		return sorted[Math.max(0, Math.min(count-1, rank-1))];
+	}
+}
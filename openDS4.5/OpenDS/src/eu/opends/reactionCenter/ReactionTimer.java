@@ -18,13 +18,13 @@
 
 package eu.opends.reactionCenter;
 
-import java.util.Calendar;
-import java.util.GregorianCalendar;
-
 import eu.opends.jasperReport.ReactionLogger;
 import eu.opends.main.Simulator;
 
 /**
+ * Reaction times are measured between the timestamps (System.nanoTime()) of the
+ * stimulus onset (setup of the timer by a trigger action) and the input reporting
+ * the reaction, rather than at the next frame.
  * 
  * @author Rafael Math
  */
@@ -38,7 +38,9 @@ public abstract class ReactionTimer
 	protected String timerID;
 	protected int index;
 	
-	protected Calendar reactionTimer = null;
+	protected long stimulusTime;	// wall clock (ms)
+	protected long stimulusNanos;
+	protected long reactionNanos;
 	protected String comment;
 	protected String reactionGroupID;
 	protected boolean correctReactionReported = false;
@@ -79,14 +81,12 @@ public abstract class ReactionTimer
 		if(timerIsActive)
 		{
 			// report previous reaction as missing
-			long reactionStartTime = reactionTimer.getTimeInMillis();
-			long relativeStartTime = reactionStartTime - experimentStartTime;
-			reactionLogger.add(reactionGroupID, -2, 10000L, reactionStartTime, relativeStartTime, comment);
+			long relativeStartTime = stimulusTime - experimentStartTime;
+			reactionLogger.add(reactionGroupID, -2, 10000L, stimulusTime, relativeStartTime, comment);
 			
 			trialLogger.setReaction(0);
 			trialLogger.writeLog();
 			
-			reactionTimer = null;
 			timerIsActive = false;
 		}
 	}
@@ -94,33 +94,33 @@ public abstract class ReactionTimer
 	
 	public void update()
 	{
-		if(timerIsActive)
+		if(timerIsActive && (correctReactionReported || failureReactionReported))
 		{
-			long reactionStartTime = reactionTimer.getTimeInMillis();
-			long relativeStartTime = reactionStartTime - experimentStartTime;
-			long currentTime = new GregorianCalendar().getTimeInMillis();
-			long reactionTime = currentTime - reactionStartTime;
+			long relativeStartTime = stimulusTime - experimentStartTime;
+			
+			// reaction time from timestamp of input, error: delay until this frame
+			long frameNanos = System.nanoTime();
+			double reactionTime = (reactionNanos - stimulusNanos) / 1000000.0;
+			addStatistics(reactionTime, (frameNanos - reactionNanos) / 1000000.0);
 			
 			if(correctReactionReported)
 			{		
 				// report correct reaction
-				reactionLogger.add(reactionGroupID, 1, reactionTime, reactionStartTime, relativeStartTime, comment);
+				reactionLogger.add(reactionGroupID, 1, toMillis(reactionNanos - stimulusNanos), stimulusTime, relativeStartTime, comment);
 
-				reactionTimer = null;
 				comment = "";
 				
-				System.err.println("Correct: " + reactionTime);
+				System.err.println("Correct: " + String.format("%.1f", reactionTime));
 				timerIsActive = false;
 			}
 			else if(failureReactionReported)
 			{
 				// report failure reaction
-				reactionLogger.add(reactionGroupID, -1, reactionTime, reactionStartTime, relativeStartTime, comment);
+				reactionLogger.add(reactionGroupID, -1, toMillis(reactionNanos - stimulusNanos), stimulusTime, relativeStartTime, comment);
 
-				reactionTimer = null;
 				comment = "";
 				
-				System.err.println("Failure: " + reactionTime);
+				System.err.println("Failure: " + String.format("%.1f", reactionTime));
 				timerIsActive = false;
 			}
 		}
@@ -129,16 +129,89 @@ public abstract class ReactionTimer
 	
 	public void reportCorrectReaction()
 	{
+		reportCorrectReaction(System.nanoTime());
+	}
+	
+	
+	/**
+	 * Reports a correct reaction given at the given time.
+	 * 
+	 * @param timestamp
+	 * 			System.nanoTime() when the input arrived.
+	 */
+	public void reportCorrectReaction(long timestamp)
+	{
+		if(!correctReactionReported && !failureReactionReported)
+			reactionNanos = timestamp;
 		correctReactionReported = true;
 	}
 	
 	
 	public void reportFailureReaction()
 	{
+		reportFailureReaction(System.nanoTime());
+	}
+	
+	
+	/**
+	 * Reports a failure reaction given at the given time.
+	 * 
+	 * @param timestamp
+	 * 			System.nanoTime() when the input arrived.
+	 */
+	public void reportFailureReaction(long timestamp)
+	{
+		if(!correctReactionReported && !failureReactionReported)
+			reactionNanos = timestamp;
 		failureReactionReported = true;
 	}
 	
 	
+	/**
+	 * Returns the time of the latest change of the given input, if it happened
+	 * after the stimulus onset. Otherwise (e.g. pedal pressed before or changed 
+	 * by other sources than the input listeners) the given frame time is returned.
+	 * 
+	 * @param input
+	 * 			Input (e.g. brake pedal).
+	 * 
+	 * @param frameNanos
+	 * 			System.nanoTime() of the current frame.
+	 * 
+	 * @return
+	 * 			Timestamp (System.nanoTime()) of the input.
+	 */
+	protected long getInputTime(ReactionCenter.Input input, long frameNanos)
+	{
+		long inputNanos = sim.getReactionCenter().getInputChangeTime(input);
+		if(inputNanos - stimulusNanos >= 0 && inputNanos - frameNanos <= 0)
+			return inputNanos;
+		else
+			return frameNanos;
+	}
+	
+	
+	protected static int toMillis(long nanos)
+	{
+		return (int) (nanos / 1000000L);
+	}
+	
+	
+	/**
+	 * Adds a measurement to the statistics of the reaction center.
+	 * 
+	 * @param reactionTime
+	 * 			Reaction time (in ms) computed from the input timestamp.
+	 * 
+	 * @param error
+	 * 			Time (in ms) between input and frame sampling the reaction.
+	 */
+	protected void addStatistics(double reactionTime, double error)
+	{
+		sim.getReactionCenter().getStatistics().add(reactionTime, error);
+	}
+	
+	
 	public void close()
 	{
 		if(timerIsActive)
@@ -146,6 +219,12 @@ public abstract class ReactionTimer
 	}
 
 
+	public boolean isActive()
+	{
+		return timerIsActive;
+	}
+
+
 	public String getTimerID() 
 	{
 		return timerID;
@@ -160,7 +239,10 @@ public abstract class ReactionTimer
 	
 	private void resetTimer()
 	{
-		reactionTimer = new GregorianCalendar();
+		// stimulus onset: setup is called by the trigger action presenting the stimulus
+		stimulusTime = System.currentTimeMillis();
+		stimulusNanos = System.nanoTime();
+		reactionNanos = stimulusNanos;
 		correctReactionReported = false;
 		failureReactionReported = false;
 	}
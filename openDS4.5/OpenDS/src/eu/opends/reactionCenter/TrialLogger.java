@@ -18,6 +18,7 @@
 
 package eu.opends.reactionCenter;
 
+import eu.opends.analyzer.EventLogSink;
 import eu.opends.main.SimulationDefaults;
 import eu.opends.main.Simulator;
 
@@ -27,6 +28,38 @@ import eu.opends.main.Simulator;
  */
 public class TrialLogger 
 {
+	private static final String newLine = System.getProperty("line.separator");
+	
+	
+	/**
+	 * Snapshot of the values of a trial, written as one line (separated by ';')
+	 * by the event log sink.
+	 */
+	private static class TrialRecord implements EventLogSink.Record
+	{
+		private Object[] values;
+		
+		
+		private TrialRecord(Object... values)
+		{
+			this.values = values;
+		}
+		
+		
+		@Override
+		public void write(StringBuilder out)
+		{
+			for(int i=0; i<values.length; i++)
+			{
+				if(i > 0)
+					out.append(';');
+				out.append(values[i]);
+			}
+			out.append(newLine);
+		}
+	}
+	
+	
 	private int trialNumber = -1;
 	private String vpn_age_gender_track = "-1;-1;-1;-1";
 	private String vpn = "-1";
@@ -112,11 +145,11 @@ public class TrialLogger
 	
 	public void writeLog()
 	{		
-		Simulator.getDrivingTaskLogger().reportText(trialNumber + ";" + vpn + ";" + age + ";" + gender + ";" + 
-				task + ";" + task_detail + ";" + condition_num + ";" + condition_string + ";" + track + ";" + 
-				reaction + ";" + additional_reaction + ";" + brakeRT_noGas + ";" + brakeRT_StartBrake + ";" + 
-				brakeRT_80pcBrake +	";" + brakeRT_success + ";" + laneChangeRT_2angle + ";" + 
-				laneChangeRT_3angle + ";" + laneChangeRT_enterLane + ";" + laneChangeRT_success);
+		Simulator.getDrivingTaskLogger().reportRecord(new TrialRecord(trialNumber, vpn, age, gender, 
+				task, task_detail, condition_num, condition_string, track, 
+				reaction, additional_reaction, brakeRT_noGas, brakeRT_StartBrake, 
+				brakeRT_80pcBrake, brakeRT_success, laneChangeRT_2angle, 
+				laneChangeRT_3angle, laneChangeRT_enterLane, laneChangeRT_success));
 	}
 
 	
@@ -18,386 +18,479 @@
 
 package eu.opends.settingsController;
 
-import java.io.StringWriter;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
 import com.jme3.math.FastMath;
 
 import eu.opends.car.Car;
 import eu.opends.car.SteeringCar;
+import eu.opends.car.VehicleState;
 import eu.opends.drivingTask.settings.SettingsLoader.Setting;
 import eu.opends.main.SimulationDefaults;
 import eu.opends.main.Simulator;
-import eu.opends.tools.Vector3d;
+import eu.opends.settingsController.BinaryStreamFormat.ValueType;
+import eu.opends.settingsController.APISignal.BooleanSignal;
+import eu.opends.settingsController.APISignal.DoubleSignal;
+import eu.opends.settingsController.APISignal.FloatSignal;
+import eu.opends.settingsController.APISignal.IntSignal;
+import eu.opends.settingsController.APISignal.StringSignal;
 
 /**
- * 
+ * All signals of the settings controller API. Signals are registered once in
+ * <code>registerSignals()</code> and compiled into an indexed table: the signal ID
+ * (binary streaming mode) is the index in this table, subscriptions are a flag per
+ * signal, resolved queries (path or part of a path) are cached as arrays of signal
+ * IDs and XML messages are generated from a pre-built tree of the data schema.
+ * Values are read from the vehicle state published last by the render thread, so
+ * all values of a message belong to the same frame.
+ *
  * @author Daniel Braun
  */
 public class APIData {
-	
+
+	private static final int MAX_CACHED_QUERIES = 1000;
+
 	private Car car;
+	private final float maxSteeringAngle;
 	private String dataSchema;
-	private Map<String, Boolean> dataMap = new HashMap<String, Boolean>();
-	
-	
+
+	// signal ID = index in these arrays
+	private ArrayList<APISignal> signalList = new ArrayList<APISignal>();
+	private APISignal[] signals;
+	private boolean[] subscribed;
+
+	private HashMap<String, Integer> signalIndex = new HashMap<String, Integer>();
+	private HashMap<String, int[]> queryCache = new HashMap<String, int[]>();
+	private SchemaNode schemaRoot = new SchemaNode("root");
+
+
+	private static class SchemaNode
+	{
+		private String name;
+		private ArrayList<SchemaNode> children = new ArrayList<SchemaNode>();
+		private int signalID = -1;
+
+
+		private SchemaNode(String name)
+		{
+			this.name = name;
+		}
+
+
+		private SchemaNode getChild(String name)
+		{
+			for(SchemaNode child : children)
+				if(child.name.equals(name))
+					return child;
+
+			SchemaNode child = new SchemaNode(name);
+			children.add(child);
+			return child;
+		}
+	}
+
+
 	public APIData(Car car){
+		this(car, Simulator.getDrivingTask().getSettingsLoader().getSetting(
+				Setting.CANInterface_maxSteeringAngle, SimulationDefaults.CANInterface_maxSteeringAngle));
+	}
+
+
+	/**
+	 * Compiles the signal table.
+	 *
+	 * @param car
+	 * 			Car to set values of.
+	 *
+	 * @param maxSteeringAngle
+	 * 			Steering angle (in degree) at full steering wheel state, read once 
+	 * 			as connection threads compute the steering angle signal.
+	 */
+	public APIData(Car car, float maxSteeringAngle){
 		this.car = car;
-		
-		dataSchema =  "<root>"+
-				"<thisVehicle>"+
-				"<interior>"+
-					"<cockpit>"+
-						"<pedals>"+
-							"<gasPedal>"+
-								"<Properties><pressedState></pressedState></Properties>"+
-							"</gasPedal>"+
-							"<brakePedal>"+
-								"<Properties><pressedState></pressedState></Properties>"+ 
-							"</brakePedal>"+ 
-						"</pedals>"+ 
-						"<steeringWheel>"+ 
-							"<Properties><steerAngle></steerAngle></Properties>"+ 
-						"</steeringWheel>"+ 
-						"<cruiseControl>"+ 	//DN 20170411: Add handbrake and cruise control
-							"<Properties>"+
-								"<cruiseControlActivated></cruiseControlActivated>"+
-								"<cruiseControlIncrease></cruiseControlIncrease>"+
-								"<cruiseControlDecrease></cruiseControlDecrease>"+
-							"</Properties>"+ 
-						"</cruiseControl>"+
-						"<handBrake>"+
-							"<Properties><handBrakeOn></handBrakeOn></Properties>"+ 
-						"</handBrake>"+ 
-					"</cockpit>"+ 
-				"</interior>"+ 
-				"<exterior>"+ 
-					"<lights>"+ 
-						"<Properties><headlights></headlights></Properties>"+ 
-					"</lights>"+ 
-					"<gearUnit>"+ 
-						"<Properties><currentGear></currentGear></Properties>"+ 
-					"</gearUnit>"+ 
-					"<engineCompartment>"+ 
-						"<engine><Properties>"+ 
-							"<running></running>"+ 
-							"<actualRpm></actualRpm>"+ 
-						"</Properties></engine>"+ 
-					"</engineCompartment>"+ 
-					"<fueling>"+ 
-						"<fuelType>"+ 
-							"<Properties><currentConsumption></currentConsumption></Properties>"+
-							"<tank><Properties>"+ 
-								"<maxAmount></maxAmount>"+ 
-								"<actualAmount></actualAmount>"+
-							"</Properties></tank>"+
-						"</fuelType>"+
-					"</fueling>"+
-				"</exterior>"+
-				"<physicalAttributes><Properties>"+
-					"<latitude></latitude>"+
-					"<longitude></longitude>"+
-					"<altitude></altitude>"+
-					"<orientation></orientation>"+
-					"<speed></speed>"+
-					"<rise></rise>"+
-					"<accelerationLateral></accelerationLateral>"+
-					"<rotation></rotation>"+
-					"<accelerationRotation></accelerationRotation>"+
-					"<acceleration></acceleration>"+
-				"</Properties></physicalAttributes>"+
-			"</thisVehicle>"+
-		"</root>";
-		
-		Boolean init = true;
-		
+		this.maxSteeringAngle = maxSteeringAngle;
+
+		registerSignals();
+
+		// compile signal table
+		signals = signalList.toArray(new APISignal[signalList.size()]);
+		subscribed = new boolean[signals.length];
+
+		for (int i = 0; i < signals.length; i++) {
+
+			// all signals are subscribed initially
+			subscribed[i] = true;
+			signalIndex.put(signals[i].getPath(), i);
+
+			String[] nodes = signals[i].getPath().split("/");
+			SchemaNode node = schemaRoot;
+			for (int j = 2; j < nodes.length; j++)
+				node = node.getChild(nodes[j]);
+			node.signalID = i;
+		}
+
+		StringBuilder schema = new StringBuilder();
+		appendSchema(schema, schemaRoot);
+		dataSchema = schema.toString();
+	}
+
+
+	/**
+	 * Registers all signals of the API. The order of registration defines the
+	 * signal IDs and the order of elements in the data schema.
+	 */
+	private void registerSignals(){
+
 		//interior
-		dataMap.put("/root/thisVehicle/interior/cockpit/pedals/gasPedal/Properties/pressedState", init);
-		dataMap.put("/root/thisVehicle/interior/cockpit/pedals/brakePedal/Properties/pressedState", init);
-		dataMap.put("/root/thisVehicle/interior/cockpit/steeringWheel/Properties/steerAngle", init);
-		
+		register(new FloatSignal("/root/thisVehicle/interior/cockpit/pedals/gasPedal/Properties/pressedState") {
+			public float getFloat(VehicleState state) { return state.getAcceleratorPedalIntensity(); } // in %
+		});
+
+		register(new FloatSignal("/root/thisVehicle/interior/cockpit/pedals/brakePedal/Properties/pressedState") {
+			public float getFloat(VehicleState state) { return state.getBrakePedalIntensity(); } // in %
+
+			//20170221 JS: created for setting value in simulated car
+			public String setValue(String newValue) {
+				car.toggleBrake();
+				return String.valueOf(car.getBrakePedalIntensity()); // in %
+			}
+		});
+
+		register(new FloatSignal("/root/thisVehicle/interior/cockpit/steeringWheel/Properties/steerAngle") {
+			public float getFloat(VehicleState state) {
+				return -maxSteeringAngle*state.getSteeringWheelState(); // in degree (+ = right, - = left)
+			}
+		});
+
 		//DN 20170411: Add handbrake and cruise control
-		dataMap.put("/root/thisVehicle/interior/cockpit/cruiseControl/Properties/cruiseControlActivated", init);
-		dataMap.put("/root/thisVehicle/interior/cockpit/cruiseControl/Properties/cruiseControlIncrease", init);
-		dataMap.put("/root/thisVehicle/interior/cockpit/cruiseControl/Properties/cruiseControlDecrease", init);	
-		dataMap.put("/root/thisVehicle/interior/cockpit/handBrake/Properties/handBrakeOn", init);
+		register(new BooleanSignal("/root/thisVehicle/interior/cockpit/cruiseControl/Properties/cruiseControlActivated") {
+			public boolean getBoolean(VehicleState state) { return state.isCruiseControl(); }
+
+			public String setValue(String newValue) {
+				((SteeringCar) car).setCruiseControl(Boolean.parseBoolean(newValue));
+				return Boolean.toString(car.isCruiseControl());
+			}
+		});
+
+		register(new BooleanSignal("/root/thisVehicle/interior/cockpit/cruiseControl/Properties/cruiseControlIncrease") {
+			public boolean getBoolean(VehicleState state) { return state.isCruiseControl(); }
+
+			public String setValue(String newValue) {
+				((SteeringCar) car).increaseCruiseControl(Integer.parseInt(newValue));
+				return Boolean.toString(car.isCruiseControl());
+			}
+		});
+
+		register(new BooleanSignal("/root/thisVehicle/interior/cockpit/cruiseControl/Properties/cruiseControlDecrease") {
+			public boolean getBoolean(VehicleState state) { return state.isCruiseControl(); }
+
+			public String setValue(String newValue) {
+				((SteeringCar) car).decreaseCruiseControl(Integer.parseInt(newValue));
+				return Boolean.toString(car.isCruiseControl());
+			}
+		});
+
+		register(new BooleanSignal("/root/thisVehicle/interior/cockpit/handBrake/Properties/handBrakeOn") {
+			public boolean getBoolean(VehicleState state) { return state.isHandBrakeApplied(); }
+
+			public String setValue(String newValue) {
+				((SteeringCar) car).applyHandBrake(Boolean.parseBoolean(newValue));
+				return Boolean.toString(((SteeringCar) car).isHandBrakeApplied());
+			}
+		});
 
 		//exterior
-		dataMap.put("/root/thisVehicle/exterior/lights/Properties/headlights", init);
-		dataMap.put("/root/thisVehicle/exterior/gearUnit/Properties/currentGear", init);
-		dataMap.put("/root/thisVehicle/exterior/engineCompartment/engine/Properties/running", init);
-		dataMap.put("/root/thisVehicle/exterior/engineCompartment/engine/Properties/actualRpm", init);
-		dataMap.put("/root/thisVehicle/exterior/fueling/fuelType/Properties/currentConsumption", init);
-		dataMap.put("/root/thisVehicle/exterior/fueling/fuelType/tank/Properties/maxAmount", init);
-		dataMap.put("/root/thisVehicle/exterior/fueling/fuelType/tank/Properties/actualAmount", init);
-		
+		register(new StringSignal("/root/thisVehicle/exterior/lights/Properties/headlights") {
+			public String getValue(VehicleState state) { return state.getLightState(); }
+
+			public String setValue(String newValue) {
+				car.toggleLight();
+				return car.getLightState();
+			}
+		});
+
+		register(new IntSignal("/root/thisVehicle/exterior/gearUnit/Properties/currentGear") {
+			public int getInt(VehicleState state) { return state.getGear(); }
+		});
+
+		register(new IntSignal("/root/thisVehicle/exterior/engineCompartment/engine/Properties/running") {
+			public int getInt(VehicleState state) { return state.isEngineOn() ? 1 : 0; }
+		});
+
+		register(new IntSignal("/root/thisVehicle/exterior/engineCompartment/engine/Properties/actualRpm") {
+			public int getInt(VehicleState state) { return (int) state.getRPM(); }
+		});
+
+		register(new FloatSignal("/root/thisVehicle/exterior/fueling/fuelType/Properties/currentConsumption") {
+			public float getFloat(VehicleState state) { return state.getLitersPer100Km(); } // current fuel consumption
+		});
+
+		register(new FloatSignal("/root/thisVehicle/exterior/fueling/fuelType/tank/Properties/maxAmount") {
+			public float getFloat(VehicleState state) { return 60; } //TODO set max Capacity
+		});
+
+		register(new FloatSignal("/root/thisVehicle/exterior/fueling/fuelType/tank/Properties/actualAmount") {
+			public float getFloat(VehicleState state) { return 60 - state.getTotalFuelConsumption(); } //TODO set max Capacity
+		});
+
 		//physicalAttributes
-		dataMap.put("/root/thisVehicle/physicalAttributes/Properties/latitude", init);
-		dataMap.put("/root/thisVehicle/physicalAttributes/Properties/longitude", init);
-		dataMap.put("/root/thisVehicle/physicalAttributes/Properties/altitude", init);
-		dataMap.put("/root/thisVehicle/physicalAttributes/Properties/orientation", init);
-		dataMap.put("/root/thisVehicle/physicalAttributes/Properties/speed", init);
-		dataMap.put("/root/thisVehicle/physicalAttributes/Properties/rise", init);
-		dataMap.put("/root/thisVehicle/physicalAttributes/Properties/accelerationLateral", init);
-		dataMap.put("/root/thisVehicle/physicalAttributes/Properties/rotation", init);
-		dataMap.put("/root/thisVehicle/physicalAttributes/Properties/accelerationRotation", init);
-		dataMap.put("/root/thisVehicle/physicalAttributes/Properties/acceleration", init);
+		register(new DoubleSignal("/root/thisVehicle/physicalAttributes/Properties/latitude") {
+			public double getDouble(VehicleState state) { return state.getGeoPosition().getX(); } // N-S position in geo coordinates
+		});
+
+		register(new DoubleSignal("/root/thisVehicle/physicalAttributes/Properties/longitude") {
+			public double getDouble(VehicleState state) { return state.getGeoPosition().getY(); } // W-E position in geo coordinates
+		});
+
+		register(new DoubleSignal("/root/thisVehicle/physicalAttributes/Properties/altitude") {
+			public double getDouble(VehicleState state) { return state.getGeoPosition().getZ(); } // meters above sea level
+		});
+
+		register(new FloatSignal("/root/thisVehicle/physicalAttributes/Properties/orientation") {
+			public float getFloat(VehicleState state) { return state.getHeadingDegree(); } // 0..360 degree
+		});
+
+		register(new FloatSignal("/root/thisVehicle/physicalAttributes/Properties/speed") {
+			public float getFloat(VehicleState state) { return state.getSpeedKmh(); } // in Km/h
+		});
+
+		register(new FloatSignal("/root/thisVehicle/physicalAttributes/Properties/rise") {
+			public float getFloat(VehicleState state) { return state.getSlopeDegree(); } // in degree (+ = uphill)
+		});
+
+		register(new FloatSignal("/root/thisVehicle/physicalAttributes/Properties/accelerationLateral") {
+			public float getFloat(VehicleState state) { return state.getLateralAcceleration(); } // in m/s^2
+		});
+
+		register(new FloatSignal("/root/thisVehicle/physicalAttributes/Properties/rotation") {
+			public float getFloat(VehicleState state) { return state.getYawRate() * FastMath.RAD_TO_DEG; } // in degree/s (+ = left)
+		});
+
+		// the following two signals are not computed yet: the value is always empty
+		// in XML messages and NaN in binary frames
+		register(new FloatSignal("/root/thisVehicle/physicalAttributes/Properties/accelerationRotation") {
+			public float getFloat(VehicleState state) { return Float.NaN; } //TODO how to calc?
+		});
+
+		register(new FloatSignal("/root/thisVehicle/physicalAttributes/Properties/acceleration") {
+			public float getFloat(VehicleState state) { return Float.NaN; } //TODO how to calc?
+		});
+	}
+
+
+	private void register(APISignal signal){
+		signalList.add(signal);
 	}
-	
+
+
 	//20170221 JS: created for setting value in simulated car
 	public String setValue(String var, String newVal)
 	{
-		String value = "";
-		
-		if(var.equals("/root/thisVehicle/interior/cockpit/pedals/brakePedal/Properties/pressedState")){
-			car.toggleBrake();			
-			float brakePedalPress = car.getBrakePedalIntensity(); // in %
-			value = String.valueOf(brakePedalPress);
-		}else if(var.equals("/root/thisVehicle/exterior/lights/Properties/headlights")){
-			car.toggleLight();
-			String lightState = car.getLightState();
-			value = lightState;	
-		}
-		//DN 20170411: Add handbrake and cruise control
-		else if(var.equals("/root/thisVehicle/interior/cockpit/handBrake/Properties/handBrakeOn")){
-			((SteeringCar) car).applyHandBrake(Boolean.parseBoolean(newVal));
-			value = Boolean.toString(((SteeringCar) car).isHandBrakeApplied());
-		}else if(var.equals("/root/thisVehicle/interior/cockpit/cruiseControl/Properties/cruiseControlActivated")){
-			((SteeringCar) car).setCruiseControl(Boolean.parseBoolean(newVal));
-			value = Boolean.toString(((SteeringCar) car).isCruiseControl());
-		}else if(var.equals("/root/thisVehicle/interior/cockpit/cruiseControl/Properties/cruiseControlIncrease")){
-			((SteeringCar) car).increaseCruiseControl(Integer.parseInt(newVal));
-			value = Boolean.toString(((SteeringCar) car).isCruiseControl());
-		}else if(var.equals("/root/thisVehicle/interior/cockpit/cruiseControl/Properties/cruiseControlDecrease")){
-			((SteeringCar) car).decreaseCruiseControl(Integer.parseInt(newVal));
-			value = Boolean.toString(((SteeringCar) car).isCruiseControl());
-		}
-		return value;
+		Integer signalID = signalIndex.get(var);
+		if(signalID == null)
+			return "";
+
+		// reply with the value of the car after the change (the published state 
+		// is one frame older and would not contain the change yet)
+		return signals[signalID].setValue(newVal);
 	}
 
-	private String getValue(String var){
-		String value = "";
-		
-		//interior
-		if(var.equals("/root/thisVehicle/interior/cockpit/pedals/gasPedal/Properties/pressedState")){
-			float gasPedalPress = car.getAcceleratorPedalIntensity(); // in %
-			value = String.valueOf(gasPedalPress);
-		}
-		else if(var.equals("/root/thisVehicle/interior/cockpit/pedals/brakePedal/Properties/pressedState")){
-			float brakePedalPress = car.getBrakePedalIntensity(); // in %	
-			value = String.valueOf(brakePedalPress);
-		}
-		else if(var.equals("/root/thisVehicle/interior/cockpit/steeringWheel/Properties/steerAngle")){
-			float maxSteeringAngle = Simulator.getDrivingTask().getSettingsLoader().getSetting(
-					Setting.CANInterface_maxSteeringAngle, SimulationDefaults.CANInterface_maxSteeringAngle);			
-			float steeringAngle = -maxSteeringAngle*car.getSteeringWheelState(); // in degree (+ = right, - = left)
-			
-			value = String.valueOf(steeringAngle);					
-		}
 
-		//DN 20170411: Add handbrake and cruise control
-		else if(var.equals("/root/thisVehicle/interior/cockpit/handBrake/Properties/handBrakeOn")){
-			value = Boolean.toString(((SteeringCar) car).isHandBrakeApplied());
-		}
-		else if(var.equals("/root/thisVehicle/interior/cockpit/cruiseControl/Properties/cruiseControlActivated")){
-			value = Boolean.toString(((SteeringCar) car).isCruiseControl());
-		}	
-		else if(var.equals("/root/thisVehicle/interior/cockpit/cruiseControl/Properties/cruiseControlIncrease")){
-			value = Boolean.toString(((SteeringCar) car).isCruiseControl());
-		}
-		else if(var.equals("/root/thisVehicle/interior/cockpit/cruiseControl/Properties/cruiseControlDecrease")){
-			value = Boolean.toString(((SteeringCar) car).isCruiseControl());
-		}
+	/**
+	 * @return
+	 * 			Vehicle state published last; null if not available yet.
+	 */
+	public VehicleState getVehicleState(){
+		return car.getState();
+	}
 
-		//exterior
-		else if(var.equals("/root/thisVehicle/exterior/lights/Properties/headlights")){
-			String lightState = car.getLightState();
-			value = lightState;			
-		}
-		else if(var.equals("/root/thisVehicle/exterior/gearUnit/Properties/currentGear")){
-			int selectedGear = car.getTransmission().getGear();
-			value = String.valueOf(selectedGear);			
-		}
-		else if(var.equals("/root/thisVehicle/exterior/engineCompartment/engine/Properties/running")){
-			int engineOn;
-			if(car.isEngineOn())
-				engineOn = 1;
-			else
-				engineOn = 0;
-			value = String.valueOf(engineOn);			
-		}
-		else if(var.equals("/root/thisVehicle/exterior/engineCompartment/engine/Properties/actualRpm")){
-			int rpm = (int) car.getTransmission().getRPM();
-			value = String.valueOf(rpm);			
-		}
-		else if(var.equals("/root/thisVehicle/exterior/fueling/fuelType/Properties/currentConsumption")){
-			float fuelConsumption = car.getPowerTrain().getLitersPer100Km();  // current fuel consumption
-			value = String.valueOf(fuelConsumption);
-		}
-		else if(var.equals("/root/thisVehicle/exterior/fueling/fuelType/tank/Properties/maxAmount")){
-			float maxFuelCapacity = 60; //TODO set max Capacity
-			value = String.valueOf(maxFuelCapacity);
-		}
-		else if(var.equals("/root/thisVehicle/exterior/fueling/fuelType/tank/Properties/actualAmount")){
-			float fuelLeft = 60 - car.getPowerTrain().getTotalFuelConsumption(); //TODO set max Capacity
-			value = String.valueOf(fuelLeft);			
-		}
-		
-		//physicalAttributes
-		else if(var.equals("/root/thisVehicle/physicalAttributes/Properties/latitude")){
-			Vector3d geoPosition = car.getGeoPosition();
-			double latitude = geoPosition.getX();  // N-S position in geo coordinates
-			value = String.valueOf(latitude);
-		}
-		else if(var.equals("/root/thisVehicle/physicalAttributes/Properties/longitude")){
-			Vector3d geoPosition = car.getGeoPosition();
-			double longitude = geoPosition.getY(); // W-E position in geo coordinates
-			value = String.valueOf(longitude);		
-		}
-		else if(var.equals("/root/thisVehicle/physicalAttributes/Properties/altitude")){
-			Vector3d geoPosition = car.getGeoPosition();
-			double altitude = geoPosition.getZ();  // meters above sea level
-			value = String.valueOf(altitude);
-		}
-		else if(var.equals("/root/thisVehicle/physicalAttributes/Properties/orientation")){
-			float orientation = car.getHeadingDegree();  // 0..360 degree
-			value = String.valueOf(orientation);
-		}
-		else if(var.equals("/root/thisVehicle/physicalAttributes/Properties/speed")){
-			float speed = FastMath.abs(car.getCarControl().getCurrentVehicleSpeedKmHour());  // in Km/h
-			value = String.valueOf(speed);
-		}
-		else if(var.equals("/root/thisVehicle/physicalAttributes/Properties/rise")){
-			//TODO how to calc rise?
-		}
-		else if(var.equals("/root/thisVehicle/physicalAttributes/Properties/accelerationLateral")){
-			//TODO how to calc?			
-		}
-		else if(var.equals("/root/thisVehicle/physicalAttributes/Properties/rotation")){
-			//TODO how to calc?
+
+	/**
+	 * Returns the IDs of all signals whose path contains the given string.
+	 */
+	private int[] resolve(String query){
+		int[] signalIDs = queryCache.get(query);
+
+		if(signalIDs == null){
+			int count = 0;
+			int[] matches = new int[signals.length];
+			for (int i = 0; i < signals.length; i++)
+				if(signals[i].getPath().contains(query))
+					matches[count++] = i;
+
+			signalIDs = new int[count];
+			System.arraycopy(matches, 0, signalIDs, 0, count);
+
+			if(queryCache.size() < MAX_CACHED_QUERIES)
+				queryCache.put(query, signalIDs);
 		}
-		else if(var.equals("/root/thisVehicle/physicalAttributes/Properties/accelerationRotation")){
-			//TODO how to calc?			
+
+		return signalIDs;
+	}
+
+
+	public synchronized String getValues(String[] list, boolean nameOnly){
+		boolean[] selected = new boolean[signals.length];
+		for (String query : list)
+			for (int signalID : resolve(query))
+				selected[signalID] = true;
+
+		return toXML(selected, nameOnly);
+	}
+
+
+	private String toXML(boolean[] selected, boolean nameOnly){
+		StringBuilder xml = new StringBuilder(1024);
+
+		// read all values from the same state
+		VehicleState state = car.getState();
+		if(state == null)
+			nameOnly = true;
+
+		if(!appendValues(xml, schemaRoot, selected, nameOnly, state))
+			xml.append("<root/>");
+
+		return xml.toString();
+	}
+
+
+	/**
+	 * Appends the element of the given node if it contains at least one selected signal.
+	 *
+	 * @return
+	 * 			true, if the element has been appended.
+	 */
+	private boolean appendValues(StringBuilder xml, SchemaNode node, boolean[] selected, boolean nameOnly,
+			VehicleState state){
+		if(node.signalID >= 0){
+
+			if(!selected[node.signalID])
+				return false;
+
+			String value = nameOnly ? "" : signals[node.signalID].getValue(state);
+			if(value == null || value.isEmpty())
+				xml.append('<').append(node.name).append("/>");
+			else{
+				xml.append('<').append(node.name).append('>');
+				appendEscaped(xml, value);
+				xml.append("</").append(node.name).append('>');
+			}
+			return true;
 		}
-		else if(var.equals("/root/thisVehicle/physicalAttributes/Properties/acceleration")){
-			//TODO how to calc?			
+
+		int start = xml.length();
+		xml.append('<').append(node.name).append('>');
+
+		boolean hasContent = false;
+		for (SchemaNode child : node.children)
+			hasContent |= appendValues(xml, child, selected, nameOnly, state);
+
+		if(!hasContent){
+			xml.setLength(start);
+			return false;
 		}
-		
-		return value;
+
+		xml.append("</").append(node.name).append('>');
+		return true;
 	}
-	
-	public synchronized String getValues(String[] list, boolean nameOnly){
-		String value ="";
-		
-		List <String> arrList = new ArrayList<String>();
-		
-		for (Map.Entry<String,Boolean> entry: dataMap.entrySet()) {
-			for (int i = 0; i < list.length; i++) {
-				if(entry.getKey().contains(list[i])){
-					arrList.add(entry.getKey());
-					break;
-				}
-			}			
-		}	
-		
-		String[] varList = arrList.toArray(new String[arrList.size()]); 
-		
-		DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-		DocumentBuilder documentBuilder;
-		
-		try {
-			documentBuilder = documentBuilderFactory.newDocumentBuilder();
-			Document document = documentBuilder.newDocument();
-				
-			Element rootElement = document.createElement("root");
-			
-			
-			for (int j = 0; j < varList.length; j++) {				
-					String path = varList[j];
-					String[] nodes = path.split("/");
-					
-					Element e = rootElement;
-					
-					for (int i = 2; i < nodes.length; i++) {
-						NodeList nL = e.getElementsByTagName(nodes[i]);	
-						
-						if(nL.getLength() > 0)
-							e = (Element) nL.item(0);
-						else{
-							Element e2 = document.createElement(nodes[i]);
-							e.appendChild(e2);
-							e = e2;
-						}
-					}
-					
-					if(!nameOnly)
-						e.setTextContent(getValue(path));				
-			}				
-	
-					
-			
-			document.appendChild(rootElement);		
-			
-			TransformerFactory tf = TransformerFactory.newInstance();
-			Transformer transformer = tf.newTransformer();
-			transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-			StringWriter writer = new StringWriter();
-			transformer.transform(new DOMSource(document), new StreamResult(writer));
-			String output = writer.getBuffer().toString().replaceAll("\n|\r", "");
-			
-			value = output;		
-		} catch (Exception e) {
-			e.printStackTrace();
+
+
+	private static void appendEscaped(StringBuilder xml, String value){
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if(c == '<')
+				xml.append("&lt;");
+			else if(c == '>')
+				xml.append("&gt;");
+			else if(c == '&')
+				xml.append("&amp;");
+			else if(c != '\n' && c != '\r')
+				xml.append(c);
 		}
-		
-		return value;
 	}
-			
+
+
+	private static void appendSchema(StringBuilder xml, SchemaNode node){
+		xml.append('<').append(node.name).append('>');
+		for (SchemaNode child : node.children)
+			appendSchema(xml, child);
+		xml.append("</").append(node.name).append('>');
+	}
+
+
 	public String getSchema(){
 		return dataSchema;
 	}
-	
+
+
 	public synchronized void subscribe(String s){
-		for (Map.Entry<String,Boolean> entry: dataMap.entrySet()) {
-			if(entry.getKey().contains(s))
-				entry.setValue(true);
-		}		
+		for (int signalID : resolve(s))
+			subscribed[signalID] = true;
 	}
-	
+
+
 	public synchronized void unsubscribe(String s){
-		for (Map.Entry<String,Boolean> entry: dataMap.entrySet()) {
-			if(entry.getKey().contains(s))
-				entry.setValue(false);
-		}				
+		for (int signalID : resolve(s))
+			subscribed[signalID] = false;
+	}
+
+
+	/**
+	 * Returns the IDs of all subscribed signals in ascending order (binary streaming mode).
+	 */
+	public synchronized int[] getSubscribedSignalIDs(){
+		int count = 0;
+		for (int i = 0; i < signals.length; i++)
+			if(subscribed[i])
+				count++;
+
+		int[] signalIDs = new int[count];
+		count = 0;
+		for (int i = 0; i < signals.length; i++)
+			if(subscribed[i])
+				signalIDs[count++] = i;
+
+		return signalIDs;
+	}
+
+
+	/**
+	 * Returns the signal table (XML) for the given signal IDs (binary streaming mode).
+	 */
+	public String getSignalTable(int[] signalIDs){
+		StringBuilder table = new StringBuilder();
+		for (int signalID : signalIDs) {
+			table.append("<Signal ID=\"").append(signalID).append("\" Type=\"")
+				.append(signals[signalID].getType().getName()).append("\">")
+				.append(signals[signalID].getPath()).append("</Signal>");
+		}
+		return table.toString();
 	}
-	
+
+
+	public String getSignalPath(int signalID){
+		return signals[signalID].getPath();
+	}
+
+
+	public ValueType getValueType(int signalID){
+		return signals[signalID].getType();
+	}
+
+
+	/**
+	 * Writes the value of the given signal in the given state as primitive to the 
+	 * buffer (binary streaming mode). Values not available are written as NaN.
+	 */
+	public void writeValue(int signalID, VehicleState state, ByteBuffer buffer){
+		signals[signalID].writeValue(state, buffer);
+	}
+
+
 	public synchronized String getAllSubscribedValues(boolean nameOnly){
-		List<String> subscribedValues = new ArrayList<String>();
-		
-		for (Map.Entry<String,Boolean> entry: dataMap.entrySet()) {
-			if(entry.getValue())
-				subscribedValues.add(entry.getKey());
-		}			
-				
-		String[] arr = new String[subscribedValues.size()];
-		arr = subscribedValues.toArray(arr);
-		
-		return getValues(arr, nameOnly);
+		return toXML(subscribed, nameOnly);
 	}
 
 }
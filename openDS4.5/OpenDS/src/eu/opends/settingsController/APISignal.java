@@ -0,0 +1,214 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.settingsController;
+
+import java.nio.ByteBuffer;
+
+import eu.opends.car.VehicleState;
+import eu.opends.settingsController.BinaryStreamFormat.ValueType;
+
+/**
+ * Signal of the settings controller API, identified by its path in the data
+ * schema (e.g. "/root/thisVehicle/physicalAttributes/Properties/speed"). Each
+ * signal is an accessor of the car: implementations of the typed subclasses read
+ * the value from a published <code>VehicleState</code> and (optionally) pass a new
+ * value to the car.
+ *
+ * @author OpenDS contributors
+ */
+public abstract class APISignal
+{
+	private String path;
+	private ValueType type;
+
+
+	protected APISignal(String path, ValueType type)
+	{
+		this.path = path;
+		this.type = type;
+	}
+
+
+	public String getPath()
+	{
+		return path;
+	}
+
+
+	public ValueType getType()
+	{
+		return type;
+	}
+
+
+	/**
+	 * @return
+	 * 			Value of the given state as text (XML mode); empty string if not available.
+	 */
+	public abstract String getValue(VehicleState state);
+
+
+	/**
+	 * Writes the value of the given state as primitive to the given buffer (binary 
+	 * streaming mode).
+	 */
+	public abstract void writeValue(VehicleState state, ByteBuffer buffer);
+
+
+	/**
+	 * Sets the given value. Signals which cannot be set ignore the request. The new
+	 * value will be visible in the state of the next frame.
+	 *
+	 * @param newValue
+	 * 			Value to set (text).
+	 *
+	 * @return
+	 * 			Value of the car after the change (read from the car, as the
+	 * 			published state is older); empty string if the signal cannot be set.
+	 */
+	public String setValue(String newValue)
+	{
+		return "";
+	}
+
+
+	public static abstract class FloatSignal extends APISignal
+	{
+		public FloatSignal(String path)
+		{
+			super(path, ValueType.FLOAT);
+		}
+
+
+		/**
+		 * @return
+		 * 			Value of the given state or NaN if not available.
+		 */
+		public abstract float getFloat(VehicleState state);
+
+
+		public String getValue(VehicleState state)
+		{
+			float value = getFloat(state);
+			if(Float.isNaN(value))
+				return "";
+			return String.valueOf(value);
+		}
+
+
+		public void writeValue(VehicleState state, ByteBuffer buffer)
+		{
+			buffer.putFloat(getFloat(state));
+		}
+	}
+
+
+	public static abstract class DoubleSignal extends APISignal
+	{
+		public DoubleSignal(String path)
+		{
+			super(path, ValueType.DOUBLE);
+		}
+
+
+		/**
+		 * @return
+		 * 			Value of the given state or NaN if not available.
+		 */
+		public abstract double getDouble(VehicleState state);
+
+
+		public String getValue(VehicleState state)
+		{
+			double value = getDouble(state);
+			if(Double.isNaN(value))
+				return "";
+			return String.valueOf(value);
+		}
+
+
+		public void writeValue(VehicleState state, ByteBuffer buffer)
+		{
+			buffer.putDouble(getDouble(state));
+		}
+	}
+
+
+	public static abstract class IntSignal extends APISignal
+	{
+		public IntSignal(String path)
+		{
+			super(path, ValueType.INT);
+		}
+
+
+		public abstract int getInt(VehicleState state);
+
+
+		public String getValue(VehicleState state)
+		{
+			return String.valueOf(getInt(state));
+		}
+
+
+		public void writeValue(VehicleState state, ByteBuffer buffer)
+		{
+			buffer.putInt(getInt(state));
+		}
+	}
+
+
+	public static abstract class BooleanSignal extends APISignal
+	{
+		public BooleanSignal(String path)
+		{
+			super(path, ValueType.BOOLEAN);
+		}
+
+
+		public abstract boolean getBoolean(VehicleState state);
+
+
+		public String getValue(VehicleState state)
+		{
+			return Boolean.toString(getBoolean(state));
+		}
+
+
+		public void writeValue(VehicleState state, ByteBuffer buffer)
+		{
+			buffer.put((byte) (getBoolean(state) ? 1 : 0));
+		}
+	}
+
+
+	public static abstract class StringSignal extends APISignal
+	{
+		public StringSignal(String path)
+		{
+			super(path, ValueType.STRING);
+		}
+
+
+		public void writeValue(VehicleState state, ByteBuffer buffer)
+		{
+			BinaryStreamFormat.putString(buffer, getValue(state));
+		}
+	}
+}
@@ -0,0 +1,155 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.settingsController;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+import eu.opends.car.VehicleState;
+
+/**
+ * Binary streaming mode of the settings controller protocol.
+ *
+ * A client requests the binary mode by sending the XML event
+ * <code>&lt;Event Name="EstablishBinaryStream"&gt;interval&lt;/Event&gt;</code>. The
+ * server answers (in XML) with the event "BinaryStreamEstablished" containing the
+ * signal table: one entry <code>&lt;Signal ID="id" Type="type"&gt;path&lt;/Signal&gt;</code>
+ * per subscribed signal, with the table version as attribute. Whenever the
+ * subscriptions change, a new table with a higher version is sent ("SignalTable").
+ * "AbolishBinaryStream" switches back to XML updates.
+ *
+ * Requests and responses remain XML. Instead of the periodic "SubscribedValues"
+ * messages, the server sends binary frames (big-endian) on the same stream:
+ *
+ * <pre>
+ * byte   FRAME_MARKER (0x00, never part of an XML message)
+ * int    number of bytes following
+ * short  table version
+ * int    sequence number
+ * long   time stamp (ms) of the vehicle state
+ * short  number of values
+ * n *    short signal ID, value (float: 4, int: 4, double: 8, boolean: 1,
+ *        string: short length + UTF-8 bytes)
+ * </pre>
+ *
+ * Unavailable float or double values are sent as NaN (empty in XML messages). This
+ * includes signals that are not computed yet, i.e. accelerationRotation and
+ * acceleration of physicalAttributes.
+ *
+ * @author OpenDS contributors
+ */
+public class BinaryStreamFormat
+{
+	public static final byte FRAME_MARKER = 0x00;
+	public static final ByteOrder BYTE_ORDER = ByteOrder.BIG_ENDIAN;
+
+	/**
+	 * Size of marker and length field.
+	 */
+	public static final int FRAME_PREFIX_SIZE = 5;
+
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+
+	public enum ValueType
+	{
+		FLOAT("float"), INT("int"), DOUBLE("double"), BOOLEAN("boolean"), STRING("string");
+
+		private String name;
+
+		private ValueType(String name)
+		{
+			this.name = name;
+		}
+
+		public String getName()
+		{
+			return name;
+		}
+	}
+
+
+	/**
+	 * Writes a frame of the given signal values to the given buffer.
+	 *
+	 * @param data
+	 * 			Source of the values.
+	 *
+	 * @param state
+	 * 			Vehicle state to read all values from.
+	 *
+	 * @param signalIDs
+	 * 			IDs of all signals to send.
+	 *
+	 * @param tableVersion
+	 * 			Version of the signal table the IDs refer to.
+	 *
+	 * @param sequenceNumber
+	 * 			Number of the frame.
+	 *
+	 * @param buffer
+	 * 			Buffer to write to (will be cleared first). If too small, a larger
+	 * 			buffer will be allocated.
+	 *
+	 * @return
+	 * 			Buffer containing the frame, ready to be read.
+	 */
+	public static ByteBuffer encodeFrame(APIData data, VehicleState state, int[] signalIDs, short tableVersion,
+			int sequenceNumber, ByteBuffer buffer)
+	{
+		while(true)
+		{
+			buffer.clear();
+			try {
+
+				buffer.put(FRAME_MARKER);
+				buffer.putInt(0);
+				buffer.putShort(tableVersion);
+				buffer.putInt(sequenceNumber);
+				buffer.putLong(state.getTimeStamp());
+				buffer.putShort((short) signalIDs.length);
+
+				for(int signalID : signalIDs)
+				{
+					buffer.putShort((short) signalID);
+					data.writeValue(signalID, state, buffer);
+				}
+
+				buffer.putInt(1, buffer.position() - FRAME_PREFIX_SIZE);
+				buffer.flip();
+				return buffer;
+
+			} catch (BufferOverflowException e) {
+
+				// repeat with larger buffer
+				buffer = ByteBuffer.allocate(2 * buffer.capacity()).order(BYTE_ORDER);
+			}
+		}
+	}
+
+
+	static void putString(ByteBuffer buffer, String value)
+	{
+		byte[] bytes = value.getBytes(UTF8);
+		buffer.putShort((short) bytes.length);
+		buffer.put(bytes);
+	}
+}
@@ -26,6 +26,7 @@ import java.io.OutputStream;
 import java.io.StringReader;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -38,6 +39,7 @@ import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.InputSource;
 
+import eu.opends.car.VehicleState;
 import eu.opends.main.Simulator;
 
 /**
@@ -56,6 +58,11 @@ public class ConnectionHandler extends Thread
 	
 	private Lock intervalLock = new ReentrantLock();
 	
+	// binary streaming mode (see BinaryStreamFormat)
+	private volatile boolean binaryMode = false;
+	private int[] streamSignals = new int[0];
+	private short tableVersion = 0;
+	
 	
 	public static int byteArrToInt(byte[] b){
 		int value = 0;
@@ -197,6 +204,11 @@ public class ConnectionHandler extends Thread
 			
 			response += "<Message>";
 			
+			// signal table sent with this response (binary mode, see sendResponse())
+			int[] signals = null;
+			short version = tableVersion;
+			boolean binaryStream = binaryMode;
+			
 			for (int i = 0; i < nodes.getLength(); i++) {
 				String eventName = (((Element) nodes.item(i)).getAttribute("Name"));				
 				
@@ -214,6 +226,29 @@ public class ConnectionHandler extends Thread
 					
 					response += "<Event Name=\"ConnectionEstablished\"/>\n";
 				}
+				else if(eventName.equals("EstablishBinaryStream")){
+					String val = nodes.item(i).getTextContent();
+					
+					if(val.length() > 0){
+						try{
+							setUpdateInterval(Integer.valueOf(val.trim()));
+						} catch(Exception e){}
+					}
+					
+					// binary mode will be enabled as soon as the signal table has been sent
+					signals = data.getSubscribedSignalIDs();
+					version++;
+					binaryStream = true;
+					response += "<Event Name=\"BinaryStreamEstablished\"" + createSignalTable(signals, version) + "</Event>\n";
+					
+					if(!updateSender.isAlive())
+						updateSender.start();
+				}
+				else if(eventName.equals("AbolishBinaryStream")){
+					binaryMode = false;
+					binaryStream = false;
+					response += "<Event Name=\"BinaryStreamAbolished\"/>\n";
+				}
 				else if(eventName.equals("AbolishConnection")){				
 					response += "<Event Name=\"ConnectionAbolished\"/>\n";
 					this.interrupt();
@@ -249,10 +284,22 @@ public class ConnectionHandler extends Thread
 				else if(eventName.equals("Subscribe")){		
 					data.subscribe(nodes.item(i).getTextContent());
 					response += "<Event Name=\"Subscriptions\">\n" + data.getAllSubscribedValues(true) + "\n</Event>";
+					
+					if(binaryStream){
+						signals = data.getSubscribedSignalIDs();
+						version++;
+						response += "<Event Name=\"SignalTable\"" + createSignalTable(signals, version) + "</Event>\n";
+					}
 				}
 				else if(eventName.equals("Unsubscribe")){	
 					data.unsubscribe(nodes.item(i).getTextContent());
 					response += "<Event Name=\"Subscriptions\">\n" + data.getAllSubscribedValues(true) + "\n</Event>";
+					
+					if(binaryStream){
+						signals = data.getSubscribedSignalIDs();
+						version++;
+						response += "<Event Name=\"SignalTable\"" + createSignalTable(signals, version) + "</Event>\n";
+					}
 				}
 				else{
 					System.err.println("Unknow event received!");
@@ -266,7 +313,10 @@ public class ConnectionHandler extends Thread
 			
 			
 			
-			sendResponse(response);		
+			if(signals != null)
+				sendResponse(response, signals, version, binaryStream);
+			else
+				sendResponse(response);		
 			
 			
 		} catch (Exception e) {;
@@ -275,6 +325,19 @@ public class ConnectionHandler extends Thread
 		}		
 	}
 	
+	/**
+	 * Creates the attribute and content of an event announcing the given signal 
+	 * table. The table will be used for binary frames after the response containing 
+	 * it has been sent (see sendResponse(String, int[], short, boolean)).
+	 */
+	private String createSignalTable(int[] signals, short version){
+		return " Version=\"" + version + "\">\n" + data.getSignalTable(signals) + "\n";
+	}
+	
+	public boolean isBinaryMode(){
+		return binaryMode;
+	}
+	
 	public synchronized void sendResponse(String response){		
 		try {
 			byte[] msg = (response).getBytes("UTF-8");			
@@ -283,5 +346,61 @@ public class ConnectionHandler extends Thread
 			e.printStackTrace();
 		}
 	}
+	
+	/**
+	 * Sends a response containing a new signal table and switches to that table. 
+	 * As the update sender uses the same lock, no binary frame can be sent between 
+	 * the response and the switch, and no other response will enable binary mode.
+	 * 
+	 * @param response
+	 * 			Response announcing the signal table.
+	 * 
+	 * @param signals
+	 * 			IDs of the signals of the table.
+	 * 
+	 * @param version
+	 * 			Version of the table.
+	 * 
+	 * @param binaryStream
+	 * 			Whether binary frames will be sent from now on.
+	 */
+	private synchronized void sendResponse(String response, int[] signals, short version, boolean binaryStream){
+		sendResponse(response);
+		
+		// client knows the new signal table now
+		streamSignals = signals;
+		tableVersion = version;
+		binaryMode = binaryStream;
+	}
+	
+	/**
+	 * Sends a binary frame containing the current values of all signals of the 
+	 * signal table.
+	 * 
+	 * @param sequenceNumber
+	 * 			Number of the frame.
+	 * 
+	 * @param buffer
+	 * 			Buffer to encode the frame with.
+	 * 
+	 * @return
+	 * 			Buffer to use for the next frame (a larger one, if the given buffer 
+	 * 			was too small).
+	 */
+	public synchronized ByteBuffer sendBinaryFrame(int sequenceNumber, ByteBuffer buffer){
+		VehicleState state = data.getVehicleState();
+		if(state == null)
+			return buffer;
+		
+		buffer = BinaryStreamFormat.encodeFrame(data, state, streamSignals, tableVersion, sequenceNumber, buffer);
+		
+		try {
+			out.write(buffer.array(), buffer.arrayOffset(), buffer.limit());
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		
+		return buffer;
+	}
 
 }
@@ -18,6 +18,8 @@
 
 package eu.opends.settingsController;
 
+import java.nio.ByteBuffer;
+
 /**
  * 
  * @author Daniel Braun
@@ -27,6 +29,8 @@ public class UpdateSender extends Thread
 	
 	private APIData  data;
 	ConnectionHandler connectionHandler;
+	private ByteBuffer buffer = ByteBuffer.allocate(1024).order(BinaryStreamFormat.BYTE_ORDER);
+	private int sequenceNumber = 0;
 	
 	public UpdateSender(APIData data, ConnectionHandler connectionHandler){
 		this.data = data;
@@ -36,8 +40,13 @@ public class UpdateSender extends Thread
 	public void run(){
 		while(!isInterrupted()){
 			
-			String response = "<Message><Event Name=\"SubscribedValues\">\n" + data.getAllSubscribedValues(false) + "\n</Event></Message>\n";
-			connectionHandler.sendResponse(response);
+			if(connectionHandler.isBinaryMode()){
+				buffer = connectionHandler.sendBinaryFrame(sequenceNumber++, buffer);
+			}
+			else{
+				String response = "<Message><Event Name=\"SubscribedValues\">\n" + data.getAllSubscribedValues(false) + "\n</Event></Message>\n";
+				connectionHandler.sendResponse(response);
+			}
 						
 			try {
 				Thread.sleep(connectionHandler.getUpdateInterval());
@@ -0,0 +1,200 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.tools;
+
+/**
+ * Sum, mean and standard deviation of the values of the last period of time (e.g.
+ * fuel burned during the last 2 seconds, average speed). The samples are stored
+ * in a ring buffer of fixed capacity and the sums are updated whenever a sample
+ * is added or expires, so adding a sample and reading a result take constant time
+ * and do not allocate memory. Time is given by the caller (usually simulation
+ * time in seconds), so the window does not depend on the wall clock.
+ *
+ * If more samples than the capacity arrive within the period, the oldest samples
+ * are dropped early.
+ *
+ * @author OpenDS contributors
+ */
+public class RollingWindow
+{
+	private final double period;
+	private final double[] times;
+	private final double[] values;
+
+	// index of the oldest sample
+	private int head = 0;
+	private int size = 0;
+	private int addedSinceResummation = 0;
+	private double sum = 0;
+	private double sumOfSquares = 0;
+
+
+	/**
+	 * Creates a new rolling window.
+	 *
+	 * @param period
+	 * 			Length of the observation period (same unit as the time stamps).
+	 *
+	 * @param capacity
+	 * 			Maximum number of samples within the observation period.
+	 */
+	public RollingWindow(double period, int capacity)
+	{
+		this.period = period;
+		this.times = new double[capacity];
+		this.values = new double[capacity];
+	}
+
+
+	/**
+	 * Adds a sample and removes all samples which are older than the observation
+	 * period (time stamp &lt;= time - period).
+	 *
+	 * @param time
+	 * 			Time stamp of the sample (must not decrease).
+	 *
+	 * @param value
+	 * 			Value of the sample.
+	 */
+	public void add(double time, double value)
+	{
+		expire(time);
+
+		// buffer full --> drop oldest sample
+		if(size == times.length)
+			removeOldest();
+
+		int index = (head + size) % times.length;
+		times[index] = time;
+		values[index] = value;
+		size++;
+
+		sum += value;
+		sumOfSquares += value * value;
+
+		// recompute sums from time to time to avoid accumulation of rounding errors
+		addedSinceResummation++;
+		if(addedSinceResummation >= times.length)
+			resum();
+	}
+
+
+	/**
+	 * Removes all samples which are older than the observation period.
+	 *
+	 * @param time
+	 * 			Current time.
+	 */
+	public void expire(double time)
+	{
+		double observationTimeStamp = time - period;
+		while(size > 0 && times[head] <= observationTimeStamp)
+			removeOldest();
+	}
+
+
+	/**
+	 * @return
+	 * 			Number of samples in the observation period.
+	 */
+	public int getCount()
+	{
+		return size;
+	}
+
+
+	/**
+	 * @return
+	 * 			Sum of all values in the observation period.
+	 */
+	public double getSum()
+	{
+		return sum;
+	}
+
+
+	/**
+	 * @return
+	 * 			Arithmetic average of all values in the observation period (0 if empty).
+	 */
+	public double getMean()
+	{
+		if(size == 0)
+			return 0;
+
+		return sum / size;
+	}
+
+
+	/**
+	 * @return
+	 * 			Standard deviation of all values in the observation period (0 if empty).
+	 */
+	public double getStandardDeviation()
+	{
+		if(size == 0)
+			return 0;
+
+		double mean = sum / size;
+		return Math.sqrt(Math.max(0, sumOfSquares / size - mean * mean));
+	}
+
+
+	/**
+	 * Removes all samples.
+	 */
+	public void clear()
+	{
+		head = 0;
+		size = 0;
+		sum = 0;
+		sumOfSquares = 0;
+		addedSinceResummation = 0;
+	}
+
+
+	private void removeOldest()
+	{
+		double value = values[head];
+		sum -= value;
+		sumOfSquares -= value * value;
+		head = (head + 1) % times.length;
+		size--;
+
+		if(size == 0)
+		{
+			sum = 0;
+			sumOfSquares = 0;
+		}
+	}
+
+
+	private void resum()
+	{
+		sum = 0;
+		sumOfSquares = 0;
+		for(int i=0; i<size; i++)
+		{
+			double value = values[(head + i) % times.length];
+			sum += value;
+			sumOfSquares += value * value;
+		}
+		addedSinceResummation = 0;
+	}
+}
@@ -0,0 +1,270 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.tools;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+
+/**
+ * TCP connection exchanging XML messages, e.g. with the multi driver server or the
+ * CAN-Interface. Each message is a top-level XML element (e.g.
+ * "&lt;update&gt;...&lt;/update&gt;" or "&lt;registered id="1" /&gt;"); white spaces,
+ * line breaks and NUL characters between messages are skipped. Messages split
+ * across several reads are reassembled, several messages received by one read are
+ * returned one by one.
+ *
+ * The channel is blocking: a thread waiting in <code>readMessage()</code> uses no
+ * CPU until data arrives or the connection is shut down. The read buffer is reused
+ * (and grows up to <code>MAX_MESSAGE_SIZE</code> for long messages). Reading is
+ * meant for a single thread; sending may be done by any thread.
+ *
+ * @author OpenDS contributors
+ */
+public class XMLMessageConnection
+{
+	private static final int INITIAL_BUFFER_SIZE = 16*1024;
+	private static final int MAX_MESSAGE_SIZE = 1024*1024;
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private SocketChannel channel;
+	private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+	private ByteBuffer writeBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+	// bytes of the current message already scanned for its end
+	private int scanOffset = 0;
+	private int depth = 0;
+	private boolean isMessageStarted = false;
+
+
+	/**
+	 * Connects to the given address (blocking).
+	 *
+	 * @param ip
+	 * 			IP address of the server.
+	 *
+	 * @param port
+	 * 			Port of the server.
+	 *
+	 * @throws IOException
+	 * 			if connection could not be established.
+	 */
+	public XMLMessageConnection(String ip, int port) throws IOException
+	{
+		channel = SocketChannel.open(new InetSocketAddress(ip, port));
+		channel.socket().setTcpNoDelay(true);
+
+		// read buffer is kept in read mode between calls
+		readBuffer.flip();
+	}
+
+
+	/**
+	 * Waits for the next complete message.
+	 *
+	 * @return
+	 * 			Next message or null, if the connection has been closed.
+	 *
+	 * @throws IOException
+	 * 			if reading failed.
+	 */
+	public String readMessage() throws IOException
+	{
+		while(true)
+		{
+			String message = nextMessage();
+			if(message != null)
+				return message;
+
+			// need more data
+			readBuffer.compact();
+			if(!readBuffer.hasRemaining())
+			{
+				if(readBuffer.capacity() >= MAX_MESSAGE_SIZE)
+				{
+					// message exceeds maximum size --> drop incomplete data
+					System.err.println("XML message exceeds " + MAX_MESSAGE_SIZE + " bytes, discarded");
+					readBuffer.clear();
+					resetScan();
+				}
+				else
+				{
+					ByteBuffer largerBuffer = ByteBuffer.allocate(2*readBuffer.capacity());
+					readBuffer.flip();
+					largerBuffer.put(readBuffer);
+					readBuffer = largerBuffer;
+				}
+			}
+
+			int bytesRead = channel.read(readBuffer);
+			readBuffer.flip();
+
+			if(bytesRead < 0)
+				return null;
+		}
+	}
+
+
+	/**
+	 * Sends the given message (blocking until written to the socket).
+	 *
+	 * @param message
+	 * 			XML message.
+	 *
+	 * @throws IOException
+	 * 			if writing failed.
+	 */
+	public synchronized void send(String message) throws IOException
+	{
+		byte[] bytes = message.getBytes(UTF8);
+
+		if(bytes.length > writeBuffer.capacity())
+			writeBuffer = ByteBuffer.allocate(Math.max(bytes.length, 2*writeBuffer.capacity()));
+
+		writeBuffer.clear();
+		writeBuffer.put(bytes);
+		writeBuffer.flip();
+
+		while(writeBuffer.hasRemaining())
+			channel.write(writeBuffer);
+	}
+
+
+	/**
+	 * Wakes up the thread waiting in <code>readMessage()</code>, which will return null.
+	 * Sending is still possible.
+	 */
+	public void shutdownInput()
+	{
+		try {
+			channel.shutdownInput();
+		} catch (IOException e) {
+			// already closed
+		}
+	}
+
+
+	public void close()
+	{
+		try {
+			channel.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+
+	/**
+	 * Extracts the next complete message from the read buffer (read mode).
+	 *
+	 * @return
+	 * 			Message or null, if not yet completely received.
+	 */
+	private String nextMessage()
+	{
+		int start = readBuffer.position();
+		int limit = readBuffer.limit();
+
+		if(!isMessageStarted)
+		{
+			// skip white spaces, line breaks and NUL between messages
+			while(start < limit && readBuffer.get(start) != '<')
+				start++;
+			readBuffer.position(start);
+
+			if(start == limit)
+				return null;
+
+			isMessageStarted = true;
+			scanOffset = 0;
+		}
+
+		// continue scanning where the last call has stopped (at the start of a tag)
+		int i = start + scanOffset;
+		while(i < limit)
+		{
+			int tagEnd = findTagEnd(i, limit);
+			if(tagEnd < 0)
+				break;
+
+			byte second = readBuffer.get(i+1);
+			boolean isDeclaration = (second == '?' || second == '!');
+			if(second == '/')
+				depth--;
+			else if(!isDeclaration && readBuffer.get(tagEnd-1) != '/')
+				depth++;
+
+			i = tagEnd + 1;
+
+			if(depth <= 0 && isDeclaration)
+			{
+				// e.g. XML declaration or comment between messages --> skip
+				readBuffer.position(i);
+				resetScan();
+				return nextMessage();
+			}
+			else if(depth <= 0)
+			{
+				// complete top-level element
+				String message = new String(readBuffer.array(), readBuffer.arrayOffset() + start, i - start, UTF8);
+				readBuffer.position(i);
+				resetScan();
+				return message;
+			}
+
+			// skip text to next tag
+			while(i < limit && readBuffer.get(i) != '<')
+				i++;
+		}
+
+		// tag not yet complete --> rescan from its start after next read
+		scanOffset = i - start;
+		return null;
+	}
+
+
+	private int findTagEnd(int tagStart, int limit)
+	{
+		byte quote = 0;
+		for(int i=tagStart+1; i<limit; i++)
+		{
+			byte b = readBuffer.get(i);
+			if(quote != 0)
+			{
+				if(b == quote)
+					quote = 0;
+			}
+			else if(b == '"' || b == '\'')
+				quote = b;
+			else if(b == '>')
+				return i;
+		}
+		return -1;
+	}
+
+
+	private void resetScan()
+	{
+		isMessageStarted = false;
+		depth = 0;
+		scanOffset = 0;
+	}
+}
@@ -49,6 +49,7 @@ public class FollowBox
 	private float minDistance;
 	private float maxDistance;
     private MotionPath motionPath;
+    private WaypointPath path;
     private MotionEvent motionControl;
     private Spatial followBox;
 	private float carSpeed = 0;
@@ -80,6 +81,9 @@ public class FollowBox
 	    
 	    if(settings.isPathVisible())
 	    	motionPath.enableDebugShape(sim.getAssetManager(), sim.getSceneNode());
+	    
+	    // lookup tables shared with all follow boxes on the same route
+	    path = WaypointPath.getInstance(waypointList, motionPath);
 
 /*
 		// does not trigger every way point reliably !!!!!
@@ -272,10 +276,8 @@ public class FollowBox
 	private void performWayPointChange(int index)
 	{
 		// set follow box to WP
-		float traveledDistance = 0;
-        for (int i=0; i<index;i++)
-        	traveledDistance += motionPath.getSpline().getSegmentsLength().get(i);
-        float traveledTime = (traveledDistance/motionPath.getLength()) * motionControl.getInitialDuration();
+		float traveledDistance = path.getArcLength(index);
+        float traveledTime = (traveledDistance/path.getTotalLength()) * motionControl.getInitialDuration();
         motionControl.setTime(traveledTime);
         
         //System.err.println("SET: dist " + traveledDistance + ", time: " + traveledTime + ", index: " + index);
@@ -293,61 +295,13 @@ public class FollowBox
 	
 	public int getIndexOfWP(String wayPointID) 
 	{
-		for(int i=0; i<waypointList.size(); i++)
-			if(waypointList.get(i).getName().equals(wayPointID))
-				return i;
-		return -1;
+		return path.getIndex(wayPointID);
 	}
 
 	
 	public float getHeadingAtWP(int index) 
 	{
-		float heading = 0;
-		Waypoint nextWayPoint = getNextWayPoint(index);
-		
-		// if next way point available, compute heading towards it
-		if(nextWayPoint != null)
-		{
-			// compute driving direction by looking at next way point from current position 
-			Vector3f targetPosition = nextWayPoint.getPosition().clone();
-			targetPosition.setY(0);
-			
-			Vector3f currentPosition = waypointList.get(index).getPosition().clone();
-			currentPosition.setY(0);
-			
-			Vector3f drivingDirection = targetPosition.subtract(currentPosition).normalize();
-
-			// compute heading (orientation) from driving direction vector for
-			// angle between driving direction and heading "0"
-			float angle0  = drivingDirection.angleBetween(new Vector3f(0,0,-1));
-			// angle between driving direction and heading "90"
-			float angle90 = drivingDirection.angleBetween(new Vector3f(1,0,0));
-			
-			// get all candidates for heading
-			// find the value from {heading1,heading2} which matches with one of {heading3,heading4}
-			float heading1 = (2.0f * FastMath.PI + angle0)  % FastMath.TWO_PI;
-			float heading2 = (2.0f * FastMath.PI - angle0)  % FastMath.TWO_PI;
-			float heading3 = (2.5f * FastMath.PI + angle90) % FastMath.TWO_PI;
-			float heading4 = (2.5f * FastMath.PI - angle90) % FastMath.TWO_PI;
-			
-			float diff_1_3 = FastMath.abs(heading1-heading3);
-			float diff_1_4 = FastMath.abs(heading1-heading4);
-			float diff_2_3 = FastMath.abs(heading2-heading3);
-			float diff_2_4 = FastMath.abs(heading2-heading4);
-			
-			if((diff_1_3 < diff_1_4 && diff_1_3 < diff_2_3 && diff_1_3 < diff_2_4) ||
-				(diff_1_4 < diff_1_3 && diff_1_4 < diff_2_3 && diff_1_4 < diff_2_4))
-			{
-				// if diff_1_3 or diff_1_4 are smallest --> the correct heading is heading1
-				heading = heading1;
-			}
-			else
-			{
-				// if diff_2_3 or diff_2_4 are smallest --> the correct heading is heading2
-				heading = heading2;
-			}
-		}
-		return heading;
+		return path.getHeading(index);
 	}
 	
 	
@@ -476,17 +430,11 @@ public class FollowBox
 
 	private float getCurrentDistance(Vector3f trafficObjectPos) 
 	{
-		// get box's position on xz-plane (ignore y component)
+		// distance between box and trafficObject on xz-plane (ignore y component)
 		Vector3f followBoxPosition = getPosition();
-		followBoxPosition.setY(0);
-		
-		// get traffic object's position on xz-plane (ignore y component)
-		Vector3f trafficObjectPosition = trafficObjectPos;
-		trafficObjectPosition.setY(0);
-		
-		// distance between box and trafficObject
-		float currentDistance = followBoxPosition.distance(trafficObjectPosition);
-		return currentDistance;
+		float dx = followBoxPosition.getX() - trafficObjectPos.getX();
+		float dz = followBoxPosition.getZ() - trafficObjectPos.getZ();
+		return FastMath.sqrt(dx*dx + dz*dz);
 	}
 	
 	
@@ -509,74 +457,45 @@ public class FollowBox
 		
 		// if next way point with lower speed comes closer --> reduce speed
 		int currentIndex = motionControl.getCurrentWayPoint();
-		Waypoint nextWP = getNextWayPoint(currentIndex);
-		if(nextWP != null)
+		
+		// speed difference in m/s between current WP's speed and next WP's speed
+		// (0 if there is no next WP)
+		float speedDifference = path.getSpeedDifference(currentIndex);
+		
+		// if speed at the next WP is lower than at the current WP --> brake traffic object
+		if(speedDifference > 0)
 		{
-			// current way point (already passed)
-			Waypoint curentWP = waypointList.get(currentIndex);
+			// speed at current way point (already passed)
+			float currentSpeed = path.getSpeed(currentIndex);
 			
-			// speed at current way point
-			float currentSpeedInKmh = curentWP.getSpeed();
-			float currentSpeed = currentSpeedInKmh / 3.6f;
+			// % of traveled distance between current and next way point
+			float wayPercentage = motionControl.getCurrentValue();
 			
-			// speed at next way point
-			float targetSpeedInKmh = nextWP.getSpeed();
-			float targetSpeed = targetSpeedInKmh / 3.6f;
+			// distance (in meters) between follow box and next way point
+			float distanceToNextWP = (1 - wayPercentage) * path.getDistanceToNext(currentIndex);
 			
-			// if speed at the next WP is lower than at the current WP --> brake traffic object
-			if(targetSpeed < currentSpeed)
-			{
-				// % of traveled distance between current and next way point
-				float wayPercentage = motionControl.getCurrentValue();
-				
-				// distance between current and next way point
-				Vector3f currentPos = curentWP.getPosition().clone();
-				currentPos.setY(0);
-				Vector3f nextPos = nextWP.getPosition().clone();
-				nextPos.setY(0);
-				float distance = currentPos.distance(nextPos);
-				
-				// distance (in meters) between follow box and next way point
-				float distanceToNextWP = (1 - wayPercentage) * distance;
+			// compute the distance in front of the next WP at what the traffic object has to start 
+			// braking with 50% brake force in order to reach the next WP's (lower) speed in time.
+			float deceleration50Percent = 50f * trafficObject.getMaxBrakeForce()/trafficObject.getMass();
 			
-				// speed difference in m/s between current WP's speed and next WP's speed
-				float speedDifference = currentSpeed - targetSpeed;
-				
-				// compute the distance in front of the next WP at what the traffic object has to start 
-				// braking with 50% brake force in order to reach the next WP's (lower) speed in time.
-				float deceleration50Percent = 50f * trafficObject.getMaxBrakeForce()/trafficObject.getMass();
-				
-				// time in seconds needed for braking process
-				float time = speedDifference / deceleration50Percent;
-				
-				// distance covered during braking process
-				float coveredDistance = 0.5f * -deceleration50Percent * time * time + currentSpeed * time;
+			// distance covered during braking process
+			float coveredDistance = path.getBrakingDistance(currentIndex, deceleration50Percent);
 
-				// start braking in x meters
-				float distanceToBrakingPoint = distanceToNextWP - coveredDistance;
+			// start braking in x meters
+			float distanceToBrakingPoint = distanceToNextWP - coveredDistance;
+			
+			if(distanceToBrakingPoint < 0)
+			{
+				// reduce speed linearly beginning from braking point
 				
-				if(distanceToBrakingPoint < 0)
-				{
-					// reduce speed linearly beginning from braking point
-					
-					// % of traveled distance between braking point and next way point
-					float speedPercentage = -distanceToBrakingPoint/coveredDistance;
-					
-					//   0% traveled: reduced speed = currentSpeed
-					//  50% traveled: reduced speed = (currentSpeed+targetSpeed)/2
-					// 100% traveled: reduced speed = targetSpeed
-					float reducedSpeed = currentSpeed - (speedPercentage * speedDifference);
-					reducedSpeedInKmh = reducedSpeed * 3.6f;
-					
-					/*
-					if(trafficObject.getName().equals("car1"))
-					{
-						float trafficObjectSpeedInKmh = trafficObject.getLinearSpeedInKmh();
-						System.out.println(curentWP.getName() + " : " + speedPercentage + " : " + 
-								reducedSpeedInKmh + " : " + trafficObjectSpeedInKmh + " : " + targetSpeedInKmh);
-					}
-					*/
-				}
+				// % of traveled distance between braking point and next way point
+				float speedPercentage = -distanceToBrakingPoint/coveredDistance;
+				
+				//   0% traveled: reduced speed = currentSpeed
+				//  50% traveled: reduced speed = (currentSpeed+targetSpeed)/2
+				// 100% traveled: reduced speed = targetSpeed
+				float reducedSpeed = currentSpeed - (speedPercentage * speedDifference);
+				reducedSpeedInKmh = reducedSpeed * 3.6f;
 			}
 		}
 		return reducedSpeedInKmh;
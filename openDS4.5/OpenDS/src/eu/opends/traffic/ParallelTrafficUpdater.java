@@ -0,0 +1,229 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.traffic;
+
+import java.util.ArrayList;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+import eu.opends.main.Simulator;
+
+/**
+ * Updates all traffic objects once per frame in three steps:
+ *
+ * 1. capture (render thread): positions of all traffic objects and the steering
+ *    car are copied to a <code>TrafficSnapshot</code>.
+ * 2. sense (parallel): each traffic car computes its steering and pedal commands
+ *    from the snapshot only. The traffic cars are split into fixed partitions of
+ *    consecutive cars; the render thread processes the first partition, one worker
+ *    thread per remaining partition processes the others. All threads meet at a
+ *    frame barrier when done.
+ * 3. commit (render thread): commands are applied to all traffic cars in list
+ *    order; pedestrians (using the snapshot) and animated road signs are updated.
+ *
+ * Scene graph and physics space are only accessed by the render thread. As every
+ * car decides on the same snapshot, the result does not depend on the number of
+ * threads or on scheduling.
+ *
+ * @author OpenDS contributors
+ */
+public class ParallelTrafficUpdater
+{
+	private Simulator sim;
+	private ArrayList<TrafficObject> trafficObjectList;
+	private TrafficCar[] trafficCars;
+	private TrafficSnapshot snapshot = new TrafficSnapshot();
+	private int[] partitionStart;
+	private Worker[] workers;
+	private CyclicBarrier startBarrier;
+	private CyclicBarrier endBarrier;
+	private volatile boolean isRunning = true;
+
+
+	private class Worker extends Thread
+	{
+		private int partition;
+
+
+		private Worker(int partition)
+		{
+			super("TrafficWorker-" + partition);
+			this.partition = partition;
+			setDaemon(true);
+		}
+
+
+		public void run()
+		{
+			try {
+
+				while(true)
+				{
+					startBarrier.await();
+
+					if(!isRunning)
+						break;
+
+					sensePartition(partition);
+
+					endBarrier.await();
+				}
+
+			} catch (InterruptedException e) {
+				// closed
+			} catch (BrokenBarrierException e) {
+				// closed
+			}
+		}
+	}
+
+
+	/**
+	 * @param sim
+	 * 			Simulator.
+	 *
+	 * @param trafficObjectList
+	 * 			List of all traffic objects (must not change after construction).
+	 *
+	 * @param numberOfThreads
+	 * 			Number of threads sensing in parallel (including render thread).
+	 */
+	public ParallelTrafficUpdater(Simulator sim, ArrayList<TrafficObject> trafficObjectList, int numberOfThreads)
+	{
+		this.sim = sim;
+		this.trafficObjectList = trafficObjectList;
+
+		ArrayList<TrafficCar> trafficCarList = new ArrayList<TrafficCar>();
+		for(TrafficObject trafficObject : trafficObjectList)
+			if(trafficObject instanceof TrafficCar)
+				trafficCarList.add((TrafficCar) trafficObject);
+		trafficCars = trafficCarList.toArray(new TrafficCar[trafficCarList.size()]);
+
+		// split cars into partitions of (almost) equal size
+		int partitions = Math.max(1, Math.min(numberOfThreads, trafficCars.length));
+		partitionStart = new int[partitions+1];
+		for(int i=0; i<=partitions; i++)
+			partitionStart[i] = (int) ((long) i * trafficCars.length / partitions);
+
+		// render thread handles partition 0
+		workers = new Worker[partitions-1];
+		if(workers.length > 0)
+		{
+			startBarrier = new CyclicBarrier(partitions);
+			endBarrier = new CyclicBarrier(partitions);
+
+			for(int i=0; i<workers.length; i++)
+			{
+				workers[i] = new Worker(i+1);
+				workers[i].start();
+			}
+		}
+	}
+
+
+	public int getNumberOfPartitions()
+	{
+		return partitionStart.length - 1;
+	}
+
+
+	/**
+	 * Updates all traffic objects (render thread only).
+	 *
+	 * @param tpf
+	 * 			Time per frame.
+	 */
+	public void update(float tpf)
+	{
+		if(!sim.isPause())
+		{
+			// capture
+			snapshot.capture(trafficObjectList, sim.getCar());
+			for(TrafficCar trafficCar : trafficCars)
+				trafficCar.capture();
+
+			// sense
+			sense();
+		}
+
+		// commit
+		for(TrafficObject trafficObject : trafficObjectList)
+		{
+			if(trafficObject instanceof TrafficCar)
+				((TrafficCar) trafficObject).commit();
+			else if(trafficObject instanceof Pedestrian)
+				((Pedestrian) trafficObject).update(tpf, snapshot);
+			else
+				trafficObject.update(tpf, trafficObjectList);
+		}
+	}
+
+
+	private void sense()
+	{
+		if(workers.length > 0 && isRunning)
+		{
+			try {
+
+				startBarrier.await();
+				sensePartition(0);
+				endBarrier.await();
+				return;
+
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			} catch (BrokenBarrierException e) {
+				e.printStackTrace();
+			}
+
+			// parallel update failed --> continue single-threaded
+			close();
+		}
+
+		for(int i=0; i<getNumberOfPartitions(); i++)
+			sensePartition(i);
+	}
+
+
+	private void sensePartition(int partition)
+	{
+		for(int i=partitionStart[partition]; i<partitionStart[partition+1]; i++)
+		{
+			try {
+				trafficCars[i].sense(snapshot);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+
+	/**
+	 * Stops all worker threads.
+	 */
+	public void close()
+	{
+		isRunning = false;
+
+		for(Worker worker : workers)
+			worker.interrupt();
+
+		workers = new Worker[0];
+	}
+}
@@ -56,6 +56,12 @@ public class Pedestrian implements AnimationListener, TrafficObject
 	// safety distances // TODO get from scenario.xml
 	private float minLateralSafetyDistance = 2;
 	private float minForwardSafetyDistance = 5;
+	
+	// indices of nearby traffic objects (grows if needed)
+	private int[] neighbours = new int[16];
+	
+	// snapshot reused by update(float, ArrayList) outside the phased update
+	private TrafficSnapshot ownSnapshot = new TrafficSnapshot();
 
 	// walking speed of the character
 	private float walkingSpeedKmh = 4f;
@@ -117,6 +123,23 @@ public class Pedestrian implements AnimationListener, TrafficObject
     
     @Override
 	public void update(float tpf, ArrayList<TrafficObject> vehicleList) 
+    {
+    	ownSnapshot.capture(vehicleList, sim.getCar());
+    	update(tpf, ownSnapshot);
+    }
+    
+    
+    /**
+     * Updates this pedestrian. Obstacles are looked up in the given snapshot of 
+     * the current frame.
+     * 
+     * @param tpf
+     * 			Time per frame.
+     * 
+     * @param snapshot
+     * 			Positions of all traffic objects and the steering car.
+     */
+	public void update(float tpf, TrafficSnapshot snapshot) 
     {
     	// prevent pedestrians from high jump when adding to the physics engine
     	if(tpf < 1.0f && !initialized)
@@ -152,7 +175,7 @@ public class Pedestrian implements AnimationListener, TrafficObject
 		        	characterControl.setViewDirection(viewDirection);
 		       
 		        
-		        if (distance < 0.1f || obstaclesInTheWay(vehicleList))
+		        if (distance < 0.1f || obstaclesInTheWay(snapshot))
 		        { 
 		        	if (!animationStandCommand.equals(animationController.getAnimationName())) 
 		        		animationController.animate(animationStandCommand, 1f, 1f, 0);
@@ -301,17 +324,28 @@ public class Pedestrian implements AnimationListener, TrafficObject
 	}
 	
 	
-	private boolean obstaclesInTheWay(ArrayList<TrafficObject> trafficObjectList)
+	private boolean obstaclesInTheWay(TrafficSnapshot snapshot)
 	{		
 		// check distance from user-controlled car
-		if(obstacleTooClose(sim.getCar().getPosition()))
+		if(obstacleTooClose(snapshot.getSteeringCarPosition()))
 			return true;
 
-		// check distance from other cars (exclude pedestrians)
-		for(TrafficObject vehicle : trafficObjectList)
+		// check distance from nearby cars (exclude pedestrians); obstacles further away 
+		// than the radius cannot fall below lateral and forward safety distance
+		float radius = FastMath.sqrt(minForwardSafetyDistance * minForwardSafetyDistance 
+				+ minLateralSafetyDistance * minLateralSafetyDistance) + 1f;
+		int count = snapshot.findNeighbours(getPosition(), radius, neighbours);
+		if(count > neighbours.length)
+		{
+			neighbours = new int[2*count];
+			count = snapshot.findNeighbours(getPosition(), radius, neighbours);
+		}
+		
+		for(int i=0; i<count; i++)
 		{
-			if(!vehicle.getName().equals(name) && vehicle instanceof TrafficCar)		
-				if(obstacleTooClose(vehicle.getPosition()))
+			int index = neighbours[i];
+			if(snapshot.getTrafficObject(index) instanceof TrafficCar)		
+				if(obstacleTooClose(snapshot.getPosition(index)))
 					return true;
 		}
 		
@@ -19,16 +19,12 @@
 package eu.opends.traffic;
 
 import java.util.ArrayList;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
-import eu.opends.drivingTask.settings.SettingsLoader;
 import eu.opends.drivingTask.settings.SettingsLoader.Setting;
 import eu.opends.main.SimulationDefaults;
 
 import eu.opends.main.Simulator;
+import eu.opends.trigger.TrafficCarTriggerListener;
 
 
 /**
@@ -47,19 +43,28 @@ public class PhysicalTraffic extends Thread
 
 	
 	private boolean multiThreadingEnabled = false;
-    private int multiThreading_numberOfThreads = 0;
-    ScheduledThreadPoolExecutor executor; 
+    private int multiThreading_numberOfThreads = 1;
+    private ParallelTrafficUpdater trafficUpdater;
+    
 	public PhysicalTraffic(Simulator sim)
 	{
 		multiThreadingEnabled = Simulator.getSettingsLoader().getSetting(Setting.MultiThreading_enableThreads, SimulationDefaults.MultiThreading_enableThreads);
-		multiThreading_numberOfThreads = Simulator.getSettingsLoader().getSetting(Setting.MultiThreading_numberOfThreads, SimulationDefaults.multiThreading_numberOfThreads);	
-		if (multiThreadingEnabled){
-				executor = new ScheduledThreadPoolExecutor(multiThreading_numberOfThreads);
-		}
+		if (multiThreadingEnabled)
+			multiThreading_numberOfThreads = Simulator.getSettingsLoader().getSetting(Setting.MultiThreading_numberOfThreads, SimulationDefaults.multiThreading_numberOfThreads);	
+
+		// traffic cars may request green at traffic light triggers (like the driver's car)
+		TrafficCarTriggerListener triggerListener = null;
+		if(Simulator.getSettingsLoader().getSetting(Setting.TrafficLights_trafficCarsRequestGreen, SimulationDefaults.TrafficLights_trafficCarsRequestGreen))
+			triggerListener = new TrafficCarTriggerListener(sim);
+		
 		for(TrafficCarData vehicleData : vehicleDataList)
 		{
 			// build and add traffic cars
-			trafficObjectList.add(new TrafficCar(sim, vehicleData));
+			TrafficCar trafficCar = new TrafficCar(sim, vehicleData);
+			trafficObjectList.add(trafficCar);
+			
+			if(triggerListener != null)
+				sim.getTriggerCenter().addTriggerSource(trafficCar.getCarNode(), triggerListener);
 		}
 
 		for(PedestrianData pedestrianData : pedestrianDataList)
@@ -73,6 +78,9 @@ public class PhysicalTraffic extends Thread
 			// build and add animated road signs
 			trafficObjectList.add(new AnimatedRoadSign(sim, animatedRoadSignData));
 		}
+		
+		// senses in parallel if more than one thread is available
+		trafficUpdater = new ParallelTrafficUpdater(sim, trafficObjectList, multiThreading_numberOfThreads);
 	}
 	
 	
@@ -152,23 +160,9 @@ public class PhysicalTraffic extends Thread
 	
 	public void update(float tpf)
 	{
-		if (getMultiThreadingEnable()){
-			for (int i=0; i<getTrafficObjectList().size(); i++){
-				TrafficObject singleCar = getTrafficObjectList().get(i);
-				Runnable worker = new MyRunnable(tpf, singleCar);
-				executor.execute(worker);
-			}
-		}
-		else {
-			for(TrafficObject trafficObject : trafficObjectList){
-				trafficObject.update(tpf, trafficObjectList);
-			}
-		}
+		trafficUpdater.update(tpf);
 	}
 	
-	public void executorShutdown(){
-		executor.shutdown();		
-	}
 	
 	public Boolean getMultiThreadingEnable() {
 			return this.multiThreadingEnabled;
@@ -178,30 +172,15 @@ public class PhysicalTraffic extends Thread
 	{
 		isRunning = false;
 		
+		// stop worker threads
+		trafficUpdater.close();
+		
 		// close all traffic objects
 		for(TrafficObject trafficObject : trafficObjectList)
 			if(trafficObject instanceof TrafficCar)
 				((TrafficCar) trafficObject).close();
-	}
-
-	
-	public static class MyRunnable implements Runnable {
-		private TrafficObject singleVehicle;
-		private float tpf;
-		
-		MyRunnable(float tpf, TrafficObject singleVehicle){
-			this.singleVehicle = singleVehicle;
-			this.tpf = tpf;
-		}
 		
-		@Override
-		public void run() {
-			try {
-				singleVehicle.update(tpf, trafficObjectList);
-			} catch (Exception e){
-				System.out.println(e);
-			}
-			
-		}
+		WaypointPath.clearCache();
 	}
+
 }
@@ -34,6 +34,7 @@ import com.jme3.scene.Geometry;
 import com.jme3.scene.shape.Box;
 import com.jme3.texture.Texture;
 
+import eu.opends.analyzer.ChannelRecorder;
 import eu.opends.car.Car;
 import eu.opends.car.LightTexturesContainer.TurnSignalState;
 import eu.opends.environment.TrafficLightCenter;
@@ -55,6 +56,28 @@ public class TrafficCar extends Car implements TrafficObject
 	private Material brickMaterial;
 	private boolean loseCargo = false;
 	private boolean isSpeedLimitedToSteeringCar = false;
+	
+	// scratch vectors of channel recorder (physics thread only)
+	private Vector3f ownPhysicsLocation = new Vector3f();
+	private Vector3f steeringCarPhysicsLocation = new Vector3f();
+	
+	// state captured by the render thread before sensing (see capture())
+	private Vector3f capturedPosition = new Vector3f();
+	private Vector3f capturedFrontPos = new Vector3f();
+	private Vector3f capturedCenterPos = new Vector3f();
+	private Vector3f capturedWayPoint = new Vector3f();
+	private float capturedSpeed = 0;
+	
+	// snapshot reused by update(float, ArrayList) outside the phased update
+	private TrafficSnapshot ownSnapshot = new TrafficSnapshot();
+	
+	// commands computed while sensing (see sense()), applied by commit()
+	private float steeringCommand = 0;
+	private float acceleratorCommand = 0;
+	private float brakeCommand = 0;
+	
+	// indices of nearby traffic objects (grows if needed)
+	private int[] neighbours = new int[16];
 
 	
 	public TrafficCar(Simulator sim, TrafficCarData trafficCarData)
@@ -117,6 +140,27 @@ public class TrafficCar extends Car implements TrafficObject
 	}
 	
 	
+	/**
+	 * Registers all channels of a car and the distance (in meters) to the 
+	 * steering car at the given recorder.
+	 */
+	@Override
+	public void registerChannels(ChannelRecorder recorder, String prefix)
+	{
+		super.registerChannels(recorder, prefix);
+		
+		recorder.registerFloatChannel(prefix + "distanceToSteeringCar", recorder.getDefaultSampleRate(), 
+				new ChannelRecorder.FloatChannel() {
+			public float getValue() 
+			{ 
+				carControl.getPhysicsLocation(ownPhysicsLocation);
+				sim.getCar().getCarControl().getPhysicsLocation(steeringCarPhysicsLocation);
+				return ownPhysicsLocation.distance(steeringCarPhysicsLocation);
+			}
+		});
+	}
+	
+	
 	public String getName() 
 	{
 		return name;
@@ -165,15 +209,64 @@ public class TrafficCar extends Car implements TrafficObject
 	
 	@Override
 	public void update(float tpf, ArrayList<TrafficObject> vehicleList) 
+	{
+		if(!sim.isPause())
+		{
+			ownSnapshot.capture(vehicleList, sim.getCar());
+			capture();
+			sense(ownSnapshot);
+		}
+		
+		commit();
+	}
+	
+	
+	/**
+	 * Copies the state of this car needed for sensing (render thread only).
+	 */
+	public void capture()
+	{
+		carControl.getPhysicsLocation(capturedPosition);
+		capturedFrontPos.set(frontGeometry.getWorldTranslation());
+		capturedCenterPos.set(centerGeometry.getWorldTranslation());
+		capturedWayPoint.set(followBox.getPosition());
+		capturedSpeed = getCurrentSpeedKmh();
+	}
+	
+	
+	/**
+	 * Computes steering and pedal commands from the captured state of this car 
+	 * and the given snapshot. Neither the scene graph nor the physics space will 
+	 * be accessed, hence different cars may sense in parallel.
+	 * 
+	 * @param snapshot
+	 * 			Positions of all traffic objects and the steering car.
+	 */
+	public void sense(TrafficSnapshot snapshot)
+	{
+		// steering
+		steeringCommand = getSteeringTowardsPosition(capturedWayPoint);
+		
+		// speed
+		computePedalCommands(snapshot);
+	}
+	
+	
+	/**
+	 * Applies the commands of the latest sense() call and updates lights and
+	 * follow box (render thread only).
+	 */
+	public void commit()
 	{
 		if(!sim.isPause())
 		{
 			// update steering
-			Vector3f wayPoint = followBox.getPosition();
-			steerTowardsPosition(wayPoint);
+			steer(steeringCommand);
 			
 			// update speed
-			updateSpeed(vehicleList);
+			setAcceleratorPedalIntensity(acceleratorCommand);
+			setBrakePedalIntensity(brakeCommand);
+			applyPedals();
 			
 			// update lights
 			updateLightState();
@@ -232,7 +325,7 @@ public class TrafficCar extends Car implements TrafficObject
 	}
 
 
-	private void steerTowardsPosition(Vector3f wayPoint) 
+	private float getSteeringTowardsPosition(Vector3f wayPoint) 
 	{
 		// get relative position of way point --> steering direction
 		// -1: way point is located on the left side of the vehicle
@@ -242,9 +335,7 @@ public class TrafficCar extends Car implements TrafficObject
 		
 		// get angle between driving direction and way point direction --> steering intensity
 		// only consider 2D space (projection of WPs to xz-plane)
-		Vector3f carFrontPos = frontGeometry.getWorldTranslation();
-		Vector3f carCenterPos = centerGeometry.getWorldTranslation();
-		float steeringAngle = Util.getAngleBetweenPoints(carFrontPos, carCenterPos, wayPoint, true);
+		float steeringAngle = Util.getAngleBetweenPoints(capturedFrontPos, capturedCenterPos, wayPoint, true);
 		
 		// compute steering intensity in percent
 		//  0     degree =   0%
@@ -253,18 +344,16 @@ public class TrafficCar extends Car implements TrafficObject
 		// >22.5  degree = 100%
 		float steeringIntensity = Math.max(Math.min(4*steeringAngle/FastMath.PI,1f),0f);
 		
-		// apply steering instruction
-		steer(steeringDirection*steeringIntensity);
-		
-		//System.out.println(steeringDirection*steeringIntensity);
+		// steering instruction
+		return steeringDirection*steeringIntensity;
 	}
 
 	
 	private int getRelativePosition(Vector3f wayPoint)
 	{
 		// get vehicles center point and point in driving direction
-		Vector3f frontPosition = frontGeometry.getWorldTranslation();
-		Vector3f centerPosition = centerGeometry.getWorldTranslation();
+		Vector3f frontPosition = capturedFrontPos;
+		Vector3f centerPosition = capturedCenterPos;
 		
 		// convert Vector3f to Point2D.Float, as needed for Line2D.Float
 		Point2D.Float centerPoint = new Point2D.Float(centerPosition.getX(),centerPosition.getZ());
@@ -295,19 +384,19 @@ public class TrafficCar extends Car implements TrafficObject
 	}
 
 	
-	private void updateSpeed(ArrayList<TrafficObject> vehicleList) 
+	private void computePedalCommands(TrafficSnapshot snapshot) 
 	{
-		float targetSpeed = getTargetSpeed();
+		float targetSpeed = getTargetSpeed(snapshot.getSteeringCarSpeed());
 		
 		if(overwriteSpeed >= 0)
 			targetSpeed = Math.min(targetSpeed, overwriteSpeed);
 		
 		// stop car in order to avoid collision with other traffic objects and driving car
 		// also for red traffic lights
-		if(obstaclesInTheWay(vehicleList))
+		if(obstaclesInTheWay(snapshot))
 			targetSpeed = 0;
 		
-		float currentSpeed = getCurrentSpeedKmh();
+		float currentSpeed = capturedSpeed;
 		
 		//System.out.print(name + ": " + targetSpeed + " *** " + currentSpeed);
 		
@@ -316,8 +405,8 @@ public class TrafficCar extends Car implements TrafficObject
 		if(currentSpeed < targetSpeed)
 		{
 			// too slow --> accelerate
-			setAcceleratorPedalIntensity(-1);
-			setBrakePedalIntensity(0);
+			acceleratorCommand = -1;
+			brakeCommand = 0;
 			//System.out.println("gas");
 			//System.out.print(" *** gas");
 		}
@@ -334,8 +423,8 @@ public class TrafficCar extends Car implements TrafficObject
 			// formerly use
 			//brakeIntensity = 1.0f;
 			
-			setBrakePedalIntensity(brakeIntensity);
-			setAcceleratorPedalIntensity(0);
+			brakeCommand = brakeIntensity;
+			acceleratorCommand = 0;
 			
 			//System.out.println("brake: " + brakeIntensity);
 			//System.out.print(" *** brake");
@@ -343,13 +432,15 @@ public class TrafficCar extends Car implements TrafficObject
 		else
 		{
 			// else release pedals
-			setAcceleratorPedalIntensity(0);
-			setBrakePedalIntensity(0);
+			acceleratorCommand = 0;
+			brakeCommand = 0;
 			//System.out.print(" *** free");
 		}
-		
-		
-		
+	}
+	
+	
+	private void applyPedals() 
+	{
 		// accelerate
 		if(engineOn)
 			carControl.accelerate(acceleratorPedalIntensity * accelerationForce);
@@ -368,6 +459,12 @@ public class TrafficCar extends Car implements TrafficObject
 
 
 	public float getTargetSpeed() 
+	{
+		return getTargetSpeed(sim.getCar().getCurrentSpeedKmh());
+	}
+	
+	
+	private float getTargetSpeed(float steeringCarSpeed) 
 	{
 		// maximum speed for current way point segment
 		float regularSpeed = followBox.getSpeed();
@@ -379,7 +476,7 @@ public class TrafficCar extends Car implements TrafficObject
 		
 		// limit maximum speed to speed of steering car 
 		if(isSpeedLimitedToSteeringCar)
-			targetSpeed = Math.min(sim.getCar().getCurrentSpeedKmh(), targetSpeed);
+			targetSpeed = Math.min(steeringCarSpeed, targetSpeed);
 		
 		return targetSpeed;
 	}
@@ -406,17 +503,26 @@ public class TrafficCar extends Car implements TrafficObject
 	}
 
 
-	private boolean obstaclesInTheWay(ArrayList<TrafficObject> vehicleList)
+	private boolean obstaclesInTheWay(TrafficSnapshot snapshot)
 	{
 		// check distance from driving car
-		if(obstacleTooClose(sim.getCar().getPosition()))
+		if(obstacleTooClose(snapshot.getSteeringCarPosition()))
 			return true;
 
-		// check distance from other traffic (except oneself)
-		for(TrafficObject vehicle : vehicleList)
+		// check distance from nearby traffic (except oneself)
+		float radius = getObstacleRadius();
+		int count = snapshot.findNeighbours(capturedPosition, radius, neighbours);
+		if(count > neighbours.length)
 		{
-			if(!vehicle.getName().equals(name))		
-				if(obstacleTooClose(vehicle.getPosition()))
+			neighbours = new int[2*count];
+			count = snapshot.findNeighbours(capturedPosition, radius, neighbours);
+		}
+		
+		for(int i=0; i<count; i++)
+		{
+			int index = neighbours[i];
+			if(snapshot.getTrafficObject(index) != this)
+				if(obstacleTooClose(snapshot.getPosition(index)))
 					return true;
 		}
 		
@@ -432,12 +538,12 @@ public class TrafficCar extends Car implements TrafficObject
 
 	private boolean obstacleTooClose(Vector3f obstaclePos)
 	{
-		float distanceToObstacle = obstaclePos.distance(getPosition());
+		float distanceToObstacle = obstaclePos.distance(capturedPosition);
 		
 		// angle between driving direction of traffic car and direction towards obstacle
 		// (consider 3D space, because obstacle could be located on a bridge above traffic car)
-		Vector3f carFrontPos = frontGeometry.getWorldTranslation();
-		Vector3f carCenterPos = centerGeometry.getWorldTranslation();
+		Vector3f carFrontPos = capturedFrontPos;
+		Vector3f carCenterPos = capturedCenterPos;
 		float angle = Util.getAngleBetweenPoints(carFrontPos, carCenterPos, obstaclePos, false);
 		if(belowSafetyDistance(angle, distanceToObstacle))
 			return true;
@@ -456,6 +562,22 @@ public class TrafficCar extends Car implements TrafficObject
 	}
 	
 	
+	/**
+	 * Obstacles further away than the returned distance cannot fall below the safety 
+	 * distance, as lateral and forward distance are bounded by their maximum values.
+	 */
+	private float getObstacleRadius()
+	{
+		float maxForwardDistance = minForwardSafetyDistance;
+		if(useSpeedDependentForwardSafetyDistance)
+			maxForwardDistance = Math.max(0.5f * capturedSpeed, minForwardSafetyDistance);
+		
+		// 1 meter tolerance for rounding errors
+		return FastMath.sqrt(maxForwardDistance * maxForwardDistance 
+				+ minLateralSafetyDistance * minLateralSafetyDistance) + 1f;
+	}
+	
+	
 	private boolean belowSafetyDistance(float angle, float distance) 
 	{	
 		float lateralDistance = distance * FastMath.sin(angle);
@@ -467,7 +589,7 @@ public class TrafficCar extends Car implements TrafficObject
 		float speedDependentForwardSafetyDistance = 0;
 		
 		if(useSpeedDependentForwardSafetyDistance)
-			speedDependentForwardSafetyDistance = 0.5f * getCurrentSpeedKmh();
+			speedDependentForwardSafetyDistance = 0.5f * capturedSpeed;
 		
 		if((lateralDistance < minLateralSafetyDistance) && (forwardDistance > 0) && 
 				(forwardDistance < Math.max(speedDependentForwardSafetyDistance , minForwardSafetyDistance)))
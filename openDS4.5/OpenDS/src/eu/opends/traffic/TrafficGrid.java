@@ -0,0 +1,178 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.traffic;
+
+import com.jme3.math.Vector3f;
+
+/**
+ * Uniform grid over the xz-plane containing the indices of a set of positions
+ * (e.g. the positions of a <code>TrafficSnapshot</code>). Cells are stored in a
+ * hash table of linked lists (int arrays), so the grid has no bounds and building
+ * it once per frame does not allocate memory unless the number of positions grows.
+ *
+ * Queries return all indices within the cells overlapping a square around the
+ * given position, i.e. a superset of all positions within the given radius. The
+ * y-component is ignored, so objects on a bridge above are returned as well.
+ * Queries do not modify the grid and may run in parallel.
+ *
+ * @author OpenDS contributors
+ */
+public class TrafficGrid
+{
+	/**
+	 * Default edge length of a cell (in meters).
+	 */
+	public static final float DEFAULT_CELL_SIZE = 20f;
+
+	private float cellSize;
+	private int size = 0;
+
+	// hash table: first entry of each bucket (-1 if empty)
+	private int[] bucketHead = new int[]{-1};
+	private int mask = 0;
+
+	// entries: next entry of same bucket and cell coordinates
+	private int[] next = new int[0];
+	private int[] cellX = new int[0];
+	private int[] cellZ = new int[0];
+
+
+	public TrafficGrid()
+	{
+		this(DEFAULT_CELL_SIZE);
+	}
+
+
+	public TrafficGrid(float cellSize)
+	{
+		this.cellSize = cellSize;
+	}
+
+
+	/**
+	 * Sorts the first <code>count</code> positions into the grid. Index i of
+	 * a query result refers to <code>positions[i]</code>.
+	 *
+	 * @param positions
+	 * 			Positions to insert.
+	 *
+	 * @param count
+	 * 			Number of positions to insert.
+	 */
+	public void build(Vector3f[] positions, int count)
+	{
+		if(next.length < count)
+		{
+			next = new int[count];
+			cellX = new int[count];
+			cellZ = new int[count];
+		}
+
+		// at least two buckets per entry
+		int buckets = Integer.highestOneBit(Math.max(1, count)) << 2;
+		if(bucketHead.length != buckets)
+		{
+			bucketHead = new int[buckets];
+			mask = buckets - 1;
+		}
+
+		for(int i=0; i<buckets; i++)
+			bucketHead[i] = -1;
+
+		// insert in reverse order, so every bucket lists its entries in ascending order
+		for(int i=count-1; i>=0; i--)
+		{
+			int x = getCell(positions[i].getX());
+			int z = getCell(positions[i].getZ());
+			int bucket = getBucket(x, z);
+
+			cellX[i] = x;
+			cellZ[i] = z;
+			next[i] = bucketHead[bucket];
+			bucketHead[bucket] = i;
+		}
+
+		size = count;
+	}
+
+
+	public int size()
+	{
+		return size;
+	}
+
+
+	/**
+	 * Writes the indices of all entries in cells overlapping the square of edge
+	 * length 2*radius around the given position to the result array.
+	 *
+	 * @param position
+	 * 			Center of the query.
+	 *
+	 * @param radius
+	 * 			Query radius (in meters).
+	 *
+	 * @param result
+	 * 			Array to write the indices to.
+	 *
+	 * @return
+	 * 			Number of entries found. If this number exceeds the length of the result
+	 * 			array, only the first entries have been written and the query should be
+	 * 			repeated with a larger array.
+	 */
+	public int query(Vector3f position, float radius, int[] result)
+	{
+		int minX = getCell(position.getX() - radius);
+		int maxX = getCell(position.getX() + radius);
+		int minZ = getCell(position.getZ() - radius);
+		int maxZ = getCell(position.getZ() + radius);
+
+		int count = 0;
+		for(int x=minX; x<=maxX; x++)
+		{
+			for(int z=minZ; z<=maxZ; z++)
+			{
+				for(int i=bucketHead[getBucket(x, z)]; i>=0; i=next[i])
+				{
+					// skip entries of other cells in the same bucket
+					if(cellX[i] == x && cellZ[i] == z)
+					{
+						if(count < result.length)
+							result[count] = i;
+						count++;
+					}
+				}
+			}
+		}
+
+		return count;
+	}
+
+
+	private int getCell(float coordinate)
+	{
+		return (int) Math.floor(coordinate / cellSize);
+	}
+
+
+	private int getBucket(int x, int z)
+	{
+		return ((x * 73856093) ^ (z * 19349663)) & mask;
+	}
+}
@@ -0,0 +1,126 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.traffic;
+
+import java.util.List;
+
+import com.jme3.math.Vector3f;
+
+import eu.opends.car.Car;
+
+/**
+ * Positions of all traffic objects and of the steering car at the beginning of
+ * a frame. The snapshot is captured by the render thread and must not be changed
+ * while traffic cars are sensing their environment (possibly in parallel), so all
+ * traffic cars decide on exactly the same data, no matter in which order or on
+ * which thread they are processed. Vectors are pre-allocated and reused in every
+ * frame. All traffic object positions are indexed by a <code>TrafficGrid</code>, so
+ * obstacle checks only need to consider nearby objects.
+ *
+ * @author OpenDS contributors
+ */
+public class TrafficSnapshot
+{
+	private TrafficObject[] trafficObjects = new TrafficObject[0];
+	private Vector3f[] positions = new Vector3f[0];
+	private int size = 0;
+	private TrafficGrid grid = new TrafficGrid();
+	private Vector3f steeringCarPosition = new Vector3f();
+	private float steeringCarSpeed = 0;
+
+
+	/**
+	 * Copies the current positions of the given traffic objects and the position
+	 * and speed of the steering car (render thread only).
+	 *
+	 * @param trafficObjectList
+	 * 			List of all traffic objects.
+	 *
+	 * @param steeringCar
+	 * 			Car controlled by the driver.
+	 */
+	public void capture(List<TrafficObject> trafficObjectList, Car steeringCar)
+	{
+		size = trafficObjectList.size();
+		if(positions.length < size)
+		{
+			Vector3f[] newPositions = new Vector3f[size];
+			System.arraycopy(positions, 0, newPositions, 0, positions.length);
+			for(int i=positions.length; i<size; i++)
+				newPositions[i] = new Vector3f();
+
+			positions = newPositions;
+			trafficObjects = new TrafficObject[size];
+		}
+
+		for(int i=0; i<size; i++)
+		{
+			TrafficObject trafficObject = trafficObjectList.get(i);
+			trafficObjects[i] = trafficObject;
+			positions[i].set(trafficObject.getPosition());
+		}
+		
+		grid.build(positions, size);
+
+		steeringCar.getCarControl().getPhysicsLocation(steeringCarPosition);
+		steeringCarSpeed = steeringCar.getCurrentSpeedKmh();
+	}
+
+
+	public int size()
+	{
+		return size;
+	}
+
+
+	public TrafficObject getTrafficObject(int index)
+	{
+		return trafficObjects[index];
+	}
+
+
+	public Vector3f getPosition(int index)
+	{
+		return positions[index];
+	}
+
+
+	/**
+	 * Looks up the indices of all traffic objects which might be located within 
+	 * the given radius (xz-plane) around the given position.
+	 * 
+	 * @see TrafficGrid#query(Vector3f, float, int[])
+	 */
+	public int findNeighbours(Vector3f position, float radius, int[] result)
+	{
+		return grid.query(position, radius, result);
+	}
+
+
+	public Vector3f getSteeringCarPosition()
+	{
+		return steeringCarPosition;
+	}
+
+
+	public float getSteeringCarSpeed()
+	{
+		return steeringCarSpeed;
+	}
+}
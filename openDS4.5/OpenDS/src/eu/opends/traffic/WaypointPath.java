@@ -0,0 +1,303 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.traffic;
+
+import java.util.HashMap;
+import java.util.List;
+
+import com.jme3.cinematic.MotionPath;
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+
+/**
+ * Lookup tables of a way point path which are needed by <code>FollowBox</code>
+ * in every frame or on every reset: arc length from the first way point along
+ * the spline, straight (xz-plane) distance and speed change to the next way point,
+ * heading at each way point and index of each way point name. The tables are
+ * computed once per route and shared by all follow boxes using the same way points,
+ * curve tension and cycle setting. Instances are immutable.
+ *
+ * @author OpenDS contributors
+ */
+public class WaypointPath
+{
+	private static HashMap<String, WaypointPath> pathCache = new HashMap<String, WaypointPath>();
+
+	private int size;
+	private float totalLength;
+	private float[] arcLength;
+	private int[] nextIndex;
+	private float[] distanceToNext;
+	private float[] speed;
+	private float[] speedDifference;
+	private float[] brakingCoefficient;
+	private float[] heading;
+	private HashMap<String, Integer> indexMap = new HashMap<String, Integer>();
+
+
+	/**
+	 * Returns the lookup tables for the given way points and the spline of the
+	 * given motion path. Tables will be computed on the first request of a route,
+	 * subsequent requests with equal way points and spline settings return the
+	 * same instance.
+	 *
+	 * @param waypointList
+	 * 			Way points of the path.
+	 *
+	 * @param motionPath
+	 * 			Motion path containing all way points.
+	 *
+	 * @return
+	 * 			Shared lookup tables of the path.
+	 */
+	public static synchronized WaypointPath getInstance(List<Waypoint> waypointList, MotionPath motionPath)
+	{
+		String key = getKey(waypointList, motionPath);
+		WaypointPath path = pathCache.get(key);
+		if(path == null)
+		{
+			path = new WaypointPath(waypointList, motionPath);
+			pathCache.put(key, path);
+		}
+		return path;
+	}
+	
+	
+	/**
+	 * Removes all lookup tables of previously loaded driving tasks.
+	 */
+	public static synchronized void clearCache()
+	{
+		pathCache.clear();
+	}
+
+
+	private static String getKey(List<Waypoint> waypointList, MotionPath motionPath)
+	{
+		StringBuilder key = new StringBuilder();
+		key.append(motionPath.isCycle()).append(';').append(motionPath.getCurveTension());
+		for(Waypoint waypoint : waypointList)
+		{
+			Vector3f position = waypoint.getPosition();
+			key.append(';').append(waypoint.getName()).append(':').append(position.getX()).append(',')
+				.append(position.getY()).append(',').append(position.getZ()).append(':').append(waypoint.getSpeed());
+		}
+		return key.toString();
+	}
+
+
+	private WaypointPath(List<Waypoint> waypointList, MotionPath motionPath)
+	{
+		size = waypointList.size();
+		boolean isCyclic = motionPath.isCycle();
+		totalLength = motionPath.getLength();
+
+		// arc length of spline from first way point
+		List<Float> segmentsLength = motionPath.getSpline().getSegmentsLength();
+		arcLength = new float[size];
+		for(int i=1; i<size; i++)
+			arcLength[i] = arcLength[i-1] + segmentsLength.get(i-1);
+
+		nextIndex = new int[size];
+		distanceToNext = new float[size];
+		speed = new float[size];
+		speedDifference = new float[size];
+		brakingCoefficient = new float[size];
+		heading = new float[size];
+
+		for(int i=0; i<size; i++)
+		{
+			Waypoint waypoint = waypointList.get(i);
+			speed[i] = waypoint.getSpeed() / 3.6f;
+
+			if(!indexMap.containsKey(waypoint.getName()))
+				indexMap.put(waypoint.getName(), i);
+
+			if(isCyclic)
+				nextIndex[i] = (i+1) % size;
+			else
+				nextIndex[i] = (i+1 < size) ? i+1 : -1;
+
+			if(nextIndex[i] >= 0)
+			{
+				Vector3f currentPos = waypoint.getPosition().clone();
+				currentPos.setY(0);
+				Vector3f nextPos = waypointList.get(nextIndex[i]).getPosition().clone();
+				nextPos.setY(0);
+				distanceToNext[i] = currentPos.distance(nextPos);
+
+				float targetSpeed = waypointList.get(nextIndex[i]).getSpeed() / 3.6f;
+				speedDifference[i] = speed[i] - targetSpeed;
+
+				// distance covered while decelerating from current to target speed is
+				// (v0^2 - v1^2) / (2 * deceleration) = brakingCoefficient / deceleration
+				brakingCoefficient[i] = speedDifference[i] * (speed[i] + targetSpeed) / 2f;
+
+				heading[i] = computeHeading(currentPos, nextPos);
+			}
+		}
+	}
+
+
+	private static float computeHeading(Vector3f currentPosition, Vector3f targetPosition)
+	{
+		// compute driving direction by looking at next way point from current position
+		Vector3f drivingDirection = targetPosition.subtract(currentPosition).normalize();
+
+		// compute heading (orientation) from driving direction vector for
+		// angle between driving direction and heading "0"
+		float angle0  = drivingDirection.angleBetween(new Vector3f(0,0,-1));
+		// angle between driving direction and heading "90"
+		float angle90 = drivingDirection.angleBetween(new Vector3f(1,0,0));
+
+		// get all candidates for heading
+		// find the value from {heading1,heading2} which matches with one of {heading3,heading4}
+		float heading1 = (2.0f * FastMath.PI + angle0)  % FastMath.TWO_PI;
+		float heading2 = (2.0f * FastMath.PI - angle0)  % FastMath.TWO_PI;
+		float heading3 = (2.5f * FastMath.PI + angle90) % FastMath.TWO_PI;
+		float heading4 = (2.5f * FastMath.PI - angle90) % FastMath.TWO_PI;
+
+		float diff_1_3 = FastMath.abs(heading1-heading3);
+		float diff_1_4 = FastMath.abs(heading1-heading4);
+		float diff_2_3 = FastMath.abs(heading2-heading3);
+		float diff_2_4 = FastMath.abs(heading2-heading4);
+
+		if((diff_1_3 < diff_1_4 && diff_1_3 < diff_2_3 && diff_1_3 < diff_2_4) ||
+			(diff_1_4 < diff_1_3 && diff_1_4 < diff_2_3 && diff_1_4 < diff_2_4))
+		{
+			// if diff_1_3 or diff_1_4 are smallest --> the correct heading is heading1
+			return heading1;
+		}
+		else
+		{
+			// if diff_2_3 or diff_2_4 are smallest --> the correct heading is heading2
+			return heading2;
+		}
+	}
+
+
+	public int size()
+	{
+		return size;
+	}
+
+
+	/**
+	 * @return
+	 * 			Length of the spline (in meters).
+	 */
+	public float getTotalLength()
+	{
+		return totalLength;
+	}
+
+
+	/**
+	 * @return
+	 * 			Length of the spline from the first to the given way point (in meters).
+	 */
+	public float getArcLength(int index)
+	{
+		return arcLength[index];
+	}
+
+
+	/**
+	 * @return
+	 * 			Index of the successor of the given way point or -1 if not available.
+	 */
+	public int getNextIndex(int index)
+	{
+		return nextIndex[index];
+	}
+
+
+	/**
+	 * @return
+	 * 			Distance (xz-plane, in meters) to the next way point; 0 if not available.
+	 */
+	public float getDistanceToNext(int index)
+	{
+		return distanceToNext[index];
+	}
+
+
+	/**
+	 * @return
+	 * 			Speed (in m/s) at the given way point.
+	 */
+	public float getSpeed(int index)
+	{
+		return speed[index];
+	}
+
+
+	/**
+	 * @return
+	 * 			Speed at the given way point minus speed at the next way point (in m/s);
+	 * 			0 if not available.
+	 */
+	public float getSpeedDifference(int index)
+	{
+		return speedDifference[index];
+	}
+
+
+	/**
+	 * Returns the distance (in meters) needed to slow down from the speed of the given
+	 * way point to the speed of the next way point.
+	 *
+	 * @param index
+	 * 			Index of way point.
+	 *
+	 * @param deceleration
+	 * 			Deceleration (in m/s^2) of the traffic object.
+	 *
+	 * @return
+	 * 			Braking distance.
+	 */
+	public float getBrakingDistance(int index, float deceleration)
+	{
+		return brakingCoefficient[index] / deceleration;
+	}
+
+
+	/**
+	 * @return
+	 * 			Heading (in radians) at the given way point towards the next way point;
+	 * 			0 if not available.
+	 */
+	public float getHeading(int index)
+	{
+		return heading[index];
+	}
+
+
+	/**
+	 * @return
+	 * 			Index of the first way point with the given name or -1 if not available.
+	 */
+	public int getIndex(String wayPointID)
+	{
+		Integer index = indexMap.get(wayPointID);
+		if(index == null)
+			return -1;
+		return index;
+	}
+}
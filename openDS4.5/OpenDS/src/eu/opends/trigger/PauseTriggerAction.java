@@ -53,35 +53,22 @@ public class PauseTriggerAction extends TriggerAction
 			{
 				sim.setPause(true);
 				
+				// end pause after duration (real time, as simulation time stands still)
 				if(duration > 0)
 				{
-					StopPauseThread st = new StopPauseThread(duration);
-					st.start();
+					TriggerCenter.getScheduler().scheduleRealTime(duration, new Runnable()
+					{
+						@Override
+						public void run()
+						{
+							sim.setPause(false);
+						}
+					});
 				}
 				
 				updateCounter();
 			}
 		}
 	}
-	
-	
-	class StopPauseThread extends Thread 
-	{
-        int duration;
-        
-        StopPauseThread(int duration) 
-        {
-            this.duration = duration;
-        }
 
-        public void run() 
-        {
-        	try {Thread.sleep(1000*duration);} 
-        	catch (InterruptedException e){}
-
-    		sim.setPause(false);
-        }
-    }
-
-	
 }
@@ -60,7 +60,8 @@ public class SendNumberToParallelPortTriggerAction extends TriggerAction
 	
 	/**
 	 * Sends the given number to the parallel port followed by "0" after the given
-	 *  amount of milliseconds
+	 *  amount of milliseconds (at the first frame after, as this is executed by the
+	 *  render thread)
 	 */
 	@Override
 	protected void execute() 
@@ -69,16 +70,14 @@ public class SendNumberToParallelPortTriggerAction extends TriggerAction
 		{
 			sendNumberToParallelPort(number);
 			
-			try {
-				
-				Thread.sleep(duration);
-				
-			} catch (InterruptedException e) {
-
-				e.printStackTrace();
-			}
-			
-			sendNumberToParallelPort(0);
+			TriggerCenter.getScheduler().scheduleRealTime(duration/1000f, new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					sendNumberToParallelPort(0);
+				}
+			});
 			
 			updateCounter();
 		}
@@ -0,0 +1,59 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.trigger;
+
+import com.jme3.scene.Spatial;
+
+import eu.opends.main.Simulator;
+import eu.opends.trigger.TriggerGrid.Category;
+import eu.opends.trigger.TriggerGrid.Trigger;
+
+/**
+ * Handles the triggers entered by traffic cars. Like the driver, a traffic car 
+ * entering a traffic light trigger requests green light (TRIGGER mode only), 
+ * so traffic cars do not wait at red traffic lights until the driver arrives. 
+ * Phase triggers and road object triggers (trigger actions) are reserved for 
+ * the driver's car and ignored.
+ * 
+ * @author OpenDS contributors
+ */
+public class TrafficCarTriggerListener implements TriggerListener 
+{
+	private Simulator sim;
+	
+	
+	public TrafficCarTriggerListener(Simulator sim)
+	{
+		this.sim = sim;
+	}
+	
+	
+	@Override
+	public void onTriggerEnter(Spatial source, Trigger trigger) 
+	{
+		if(trigger.getCategory() == Category.TrafficLight)
+			sim.getTrafficLightCenter().reportTrafficCarCollision(trigger.getID());
+	}
+
+	
+	@Override
+	public void onTriggerExit(Spatial source, Trigger trigger) 
+	{
+	}
+}
@@ -48,12 +48,19 @@ public abstract class TriggerAction
 	
 	
 	/**
-	 * Method will be called on trigger collision, await delay and perform some action.
+	 * Method will be called on trigger collision, await delay (simulation time) and 
+	 * perform some action on the render thread.
 	 */
 	public void performAction()
 	{
-		TriggerActionDelayThread triggerActionDelayThread = new TriggerActionDelayThread(this, delay);
-		triggerActionDelayThread.start();
+		TriggerCenter.getScheduler().schedule(delay, new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				execute();
+			}
+		});
 	}
 	
 	
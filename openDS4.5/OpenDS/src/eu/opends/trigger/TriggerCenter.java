@@ -20,21 +20,26 @@ package eu.opends.trigger;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
 
 //import com.jme3.scene.Node;
 import com.jme3.scene.Spatial;
 
+import eu.opends.analyzer.ChannelRecorder;
 //import eu.opends.audio.AudioCenter;
 //import eu.opends.basics.MapObject;
 import eu.opends.basics.SimulationBasics;
-import eu.opends.car.Car;
+//import eu.opends.car.Car;
 import eu.opends.environment.TrafficLightCenter.TriggerType;
 import eu.opends.main.Simulator;
+import eu.opends.trigger.TriggerGrid.Category;
+import eu.opends.trigger.TriggerGrid.Trigger;
 
 
 /**
@@ -46,23 +51,43 @@ public class TriggerCenter
 {
 	private Simulator sim;
 
-	private String triggerName;
-
 	private static Map<String,Spatial> trafficLightTriggerList, trafficLightPhaseTriggerList;
+	private static boolean trafficLightTriggersChanged = false;
 
 	private LinkedList<Spatial> roadObjectsTriggerList;
-	public static ArrayList<String> triggerReportList = new ArrayList<String>(5);
+	
+	// broad phase: all triggers indexed by position
+	private static final float TRIGGER_GRID_CELL_SIZE = 32;
+	private TriggerGrid triggerGrid = new TriggerGrid(TRIGGER_GRID_CELL_SIZE);
+	private ArrayList<Trigger> hitTriggers = new ArrayList<Trigger>();
+	
+	// further objects (traffic cars, see PhysicalTraffic) receiving enter/exit events
+	private ArrayList<TriggerSource> triggerSources = new ArrayList<TriggerSource>();
+	
+	// triggers which have been reported recently (accessed by render thread only)
+	private static HashSet<String> triggerReportSet = new HashSet<String>();
+	private static TriggerScheduler scheduler = new TriggerScheduler();
+	
+	// time (simulation time) until a reported trigger can be hit again
+	private static final float TRIGGER_LOCK_TIME = 2;
+	
+	// number of trigger events (sampled by channel recorder on the physics thread)
+	private static AtomicInteger triggerEventCount = new AtomicInteger();
+	private static AtomicInteger remoteTriggerEventCount = new AtomicInteger();
+	private static AtomicInteger cameraWaypointTriggerEventCount = new AtomicInteger();
 
 	
 	public static void addToTrafficLightTriggerList(String trafficLightName, Spatial trafficLightTriggerObject)
 	{
 		trafficLightTriggerList.put(trafficLightName, trafficLightTriggerObject);
+		trafficLightTriggersChanged = true;
 	}
 	
 	
 	public static void addToTrafficLightPhaseTriggerList(String trafficLightName, Spatial trafficLightTriggerObject)
 	{
 		trafficLightPhaseTriggerList.put(trafficLightName, trafficLightTriggerObject);
+		trafficLightTriggersChanged = true;
 	}
 	
 	
@@ -73,9 +98,52 @@ public class TriggerCenter
 		trafficLightTriggerList = new HashMap<String,Spatial>();
 		trafficLightPhaseTriggerList = new HashMap<String,Spatial>();
 		roadObjectsTriggerList = new LinkedList<Spatial>();
+		triggerReportSet = new HashSet<String>();
+		scheduler = new TriggerScheduler();
+		triggerEventCount.set(0);
+		remoteTriggerEventCount.set(0);
+		cameraWaypointTriggerEventCount.set(0);
+	}
+	
+	
+	/**
+	 * Returns the scheduler executing delayed trigger actions on the render thread.
+	 * 
+	 * @return
+	 * 			Trigger scheduler.
+	 */
+	public static TriggerScheduler getScheduler()
+	{
+		return scheduler;
 	}
 
 	
+	/**
+	 * Registers the number of trigger events (triggers hit by the car, remote 
+	 * triggers and camera waypoint triggers) as channels of the given recorder. 
+	 * As the counters only increase, every increment marks a trigger event.
+	 * 
+	 * @param recorder
+	 * 			Channel recorder to register at.
+	 */
+	public void registerChannels(ChannelRecorder recorder)
+	{
+		int rate = recorder.getDefaultSampleRate();
+		
+		recorder.registerIntChannel("trigger.events", rate, new ChannelRecorder.IntChannel() {
+			public int getValue() { return triggerEventCount.get(); }
+		});
+		
+		recorder.registerIntChannel("trigger.remoteEvents", rate, new ChannelRecorder.IntChannel() {
+			public int getValue() { return remoteTriggerEventCount.get(); }
+		});
+		
+		recorder.registerIntChannel("trigger.cameraWaypointEvents", rate, new ChannelRecorder.IntChannel() {
+			public int getValue() { return cameraWaypointTriggerEventCount.get(); }
+		});
+	}
+	
+	
 	public void setup() 
 	{
 		Spatial tempSpatial;
@@ -99,70 +167,167 @@ public class TriggerCenter
 			}
 
 		}
+		
+		buildTriggerGrid();
+	}
+	
+	
+	/**
+	 * Registers all triggers in the trigger grid (in the order they have been 
+	 * checked before: traffic light, traffic light phase, road object triggers).
+	 */
+	private void buildTriggerGrid()
+	{
+		triggerGrid.clear();
+		
+		for(Entry<String, Spatial> trigger : trafficLightTriggerList.entrySet())
+			triggerGrid.add(trigger.getKey(), trigger.getValue(), Category.TrafficLight);
+		
+		for(Entry<String, Spatial> trigger : trafficLightPhaseTriggerList.entrySet())
+			triggerGrid.add(trigger.getKey(), trigger.getValue(), Category.TrafficLightPhase);
+		
+		for(Spatial trigger : roadObjectsTriggerList)
+			triggerGrid.add(trigger.getName(), trigger, Category.RoadObject);
+		
+		trafficLightTriggersChanged = false;
 	}
 
 	
 	public void doTriggerChecks() 
 	{
-		handleTrafficLightCollision(trafficLightTriggerList);
-		handleTrafficLightPhaseCollision(trafficLightPhaseTriggerList);
-		handleRoadObjectsCollision(roadObjectsTriggerList);
+		// traffic lights added after setup
+		if(trafficLightTriggersChanged)
+			buildTriggerGrid();
+		
+		// triggers intersecting the car (broad phase by grid, then bounds check)
+		hitTriggers.clear();
+		triggerGrid.getIntersectingTriggers(sim.getCar().getCarNode().getWorldBound(), hitTriggers);
+		
+		for(int i=0; i<hitTriggers.size(); i++)
+		{
+			Trigger trigger = hitTriggers.get(i);
+			switch(trigger.getCategory())
+			{
+				case TrafficLight : handleTrafficLightCollision(trigger.getID()); break;
+				case TrafficLightPhase : handleTrafficLightPhaseCollision(trigger.getID()); break;
+				case RoadObject : handleRoadObjectsCollision(trigger.getID()); break;
+			}
+		}
+		
+		updateTriggerSources();
 		//computeContactWithCar();
 	}
-
+	
+	
+	private static class TriggerSource
+	{
+		Spatial spatial;
+		TriggerListener listener;
+		ArrayList<Trigger> contacts = new ArrayList<Trigger>();
+		ArrayList<Trigger> currentContacts = new ArrayList<Trigger>();
+	}
+	
 	
 	/**
-	 * This method handles a collision of the car with a traffic light trigger. 
-	 * The TrafficLightTrigger which recognizes cars located close to a traffic 
-	 * light (up to 40 meters) and requests green light.
-	 * A collision will be forwarded to the traffic light center.
+	 * Registers an object (e.g. traffic car) which will be checked against all 
+	 * triggers every frame. The listener will be notified whenever the object 
+	 * enters or exits a trigger.
 	 * 
-	 * @param triggerList
-	 * 			list of all traffic light triggers in order to monitor approximation 
-	 * 			to traffic lights
+	 * @param source
+	 * 			Object to check.
+	 * 
+	 * @param listener
+	 * 			Listener receiving enter and exit events.
 	 */
-	private void handleTrafficLightCollision(Map<String,Spatial> triggerList)
+	public void addTriggerSource(Spatial source, TriggerListener listener)
+	{
+		TriggerSource triggerSource = new TriggerSource();
+		triggerSource.spatial = source;
+		triggerSource.listener = listener;
+		triggerSources.add(triggerSource);
+	}
+	
+	
+	public void removeTriggerSource(Spatial source)
+	{
+		for(int i=triggerSources.size()-1; i>=0; i--)
+		{
+			if(triggerSources.get(i).spatial == source)
+				triggerSources.remove(i);
+		}
+	}
+	
+	
+	private void updateTriggerSources()
 	{
-		for (Entry<String, Spatial> trigger : triggerList.entrySet())
+		for(int s=0; s<triggerSources.size(); s++)
 		{
-			triggerName = trigger.getValue().getName();
+			TriggerSource source = triggerSources.get(s);
+			source.currentContacts.clear();
+			triggerGrid.getIntersectingTriggers(source.spatial.getWorldBound(), source.currentContacts);
 			
-			// calculate intersection of the car with a road object trigger
-			Spatial triggerObject = sim.getTriggerNode().getChild(triggerName);		
+			for(int i=0; i<source.currentContacts.size(); i++)
+			{
+				Trigger trigger = source.currentContacts.get(i);
+				if(!source.contacts.contains(trigger))
+					source.listener.onTriggerEnter(source.spatial, trigger);
+			}
 			
-			if(sim.getCar().getCarNode().getWorldBound().intersects(triggerObject.getWorldBound())) 
+			for(int i=0; i<source.contacts.size(); i++)
 			{
-				sim.getTrafficLightCenter().reportCollision(trigger.getKey(), TriggerType.REQUEST);
-				//System.err.println("Trigger: " + System.currentTimeMillis());
+				Trigger trigger = source.contacts.get(i);
+				if(!source.currentContacts.contains(trigger))
+					source.listener.onTriggerExit(source.spatial, trigger);
 			}
+			
+			ArrayList<Trigger> previousContacts = source.contacts;
+			source.contacts = source.currentContacts;
+			source.currentContacts = previousContacts;
 		}
 	}
 	
 	
+	/**
+	 * Executes all trigger actions (and trigger unlocks) due. Must be called 
+	 * once per frame, also in pause.
+	 * 
+	 * @param tpf
+	 * 			Time per frame (in seconds).
+	 */
+	public void updateScheduler(float tpf)
+	{
+		scheduler.update(tpf, sim.isPause());
+	}
+
+	
+	/**
+	 * This method handles a collision of the car with a traffic light trigger. 
+	 * The TrafficLightTrigger which recognizes cars located close to a traffic 
+	 * light (up to 40 meters) and requests green light.
+	 * A collision will be forwarded to the traffic light center.
+	 * 
+	 * @param trafficLightName
+	 * 			name of the traffic light whose trigger has been hit
+	 */
+	private void handleTrafficLightCollision(String trafficLightName)
+	{
+		sim.getTrafficLightCenter().reportCollision(trafficLightName, TriggerType.REQUEST);
+		//System.err.println("Trigger: " + System.currentTimeMillis());
+	}
+	
+	
 	/**
 	 * This method handles a collision of the car with a traffic light phase trigger.
 	 * The TrafficLightPhaseTrigger is a long range trigger (up to 150 meters) 
 	 * which controls the SIM-TD traffic light phase assistant</p>
 	 * A collision will be forwarded to the traffic light center.
 	 * 
-	 * @param triggerList
-	 * 			list of all traffic light triggers in order to monitor approximation 
-	 * 			to traffic lights
+	 * @param trafficLightName
+	 * 			name of the traffic light whose phase trigger has been hit
 	 */
-	private void handleTrafficLightPhaseCollision(Map<String,Spatial> triggerList)
+	private void handleTrafficLightPhaseCollision(String trafficLightName)
 	{
-		for (Entry<String, Spatial> trigger : triggerList.entrySet())
-		{
-			triggerName = trigger.getValue().getName();
-			
-			// calculate intersection of the car with a road object trigger
-			Spatial triggerObject = sim.getTriggerNode().getChild(triggerName);
-			
-			if(sim.getCar().getCarNode().getWorldBound().intersects(triggerObject.getWorldBound())) 
-			{
-				sim.getTrafficLightCenter().reportCollision(trigger.getKey(), TriggerType.PHASE);
-			}
-		}
+		sim.getTrafficLightCenter().reportCollision(trafficLightName, TriggerType.PHASE);
 	}
 	
 	
@@ -171,33 +336,14 @@ public class TriggerCenter
 	 * SpeedLimitTrigger, CautionSignTrigger or BlindTrigger. A collision will be forwarded 
 	 * to the HMI center.
 	 * 
-	 * @param triggerList
-	 * 			list of all road object triggers in order to monitor approximation 
-	 * 			to such an object
+	 * @param triggerName
+	 * 			name of the road object trigger which has been hit
 	 */
-	private void handleRoadObjectsCollision(LinkedList<Spatial> triggerList)
+	private void handleRoadObjectsCollision(String triggerName)
 	{
-		Car car = sim.getCar();
-
-		for (Spatial trigger : triggerList) 
-		{	
-			// TODO: caution! trigger center may be farther away than 1000 meters when hitting
-			if(trigger.getWorldTranslation().distance(car.getCarNode().getWorldTranslation()) < 1000)
-			{
-				String triggerName = trigger.getName();
-					
-				// calculate collision of the car with a road object trigger
-
-				Spatial triggerObject = sim.getTriggerNode().getChild(triggerName);
-				
-				// if car intersects with a trigger --> report trigger to HMI Center
-				if(car.getCarNode().getWorldBound().intersects(triggerObject.getWorldBound()))
-				{
-					if(SimulationBasics.getTriggerActionListMap().containsKey(triggerName))
-						TriggerCenter.performTriggerAction(triggerName);
-				}
-			}
-		}
+		// report trigger to HMI Center
+		if(SimulationBasics.getTriggerActionListMap().containsKey(triggerName))
+			TriggerCenter.performTriggerAction(triggerName);
 	}
 
 
@@ -317,29 +463,28 @@ public class TriggerCenter
 	 * @param triggerID
 	 * 			name of the trigger (needed to look up action)
 	 */
-	public static void performTriggerAction(String triggerID) 
+	public static void performTriggerAction(final String triggerID) 
 	{
-		if(!triggerReportList.contains(triggerID))
+		// add trigger to report list
+		if(addTriggerReport(triggerID))
 		{
 			System.err.println("Trigger hit: " + triggerID);
-			// add trigger to report list
-			triggerReportList.add(triggerID);
-			
-			// remove trigger from report list after 2 seconds
-			int seconds = 2;
+			triggerEventCount.incrementAndGet();
 		
 			List<TriggerAction> triggerActionList = SimulationBasics.getTriggerActionListMap().get(triggerID);
 			for(TriggerAction triggerAction : triggerActionList)
-			{
 				triggerAction.performAction();
-				
-				// extend two seconds by time of pause duration, if pause trigger was contained in list
-				if(triggerAction instanceof PauseTriggerAction)
-					seconds += ((PauseTriggerAction)triggerAction).getDuration();
-			}
 			
-			RemoveFromReportListThread removeThread = new RemoveFromReportListThread(triggerID, seconds);
-			removeThread.start();
+			// remove trigger from report list after 2 seconds of simulation time (time 
+			// in pause, e.g. caused by a pause trigger action, does not count)
+			scheduler.schedule(TRIGGER_LOCK_TIME, new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					removeReport(triggerID);
+				}
+			});
 		}
 	}
 	
@@ -356,6 +501,7 @@ public class TriggerCenter
 		if(SimulationBasics.getRemoteTriggerActionListMap().containsKey(triggerID))
 		{
 			System.err.println("Remote trigger hit: " + triggerID);
+			remoteTriggerEventCount.incrementAndGet();
 		
 			List<TriggerAction> triggerActionList = SimulationBasics.getRemoteTriggerActionListMap().get(triggerID);
 			for(TriggerAction triggerAction : triggerActionList)
@@ -376,6 +522,7 @@ public class TriggerCenter
 		if(SimulationBasics.getCameraWaypointTriggerActionListMap().containsKey(triggerID))
 		{
 			System.err.println("CameraWaypoint trigger hit: " + triggerID);
+			cameraWaypointTriggerEventCount.incrementAndGet();
 		
 			List<TriggerAction> triggerActionList = SimulationBasics.getCameraWaypointTriggerActionListMap().get(triggerID);
 			for(TriggerAction triggerAction : triggerActionList)
@@ -387,15 +534,45 @@ public class TriggerCenter
 	/**
 	 * Every time a trigger is reported it will be added to trigger report 
 	 * list in order to avoid multiple instances of the event (e.g. if car 
-	 * still hits the trigger after 10 milliseconds). This method removes 
-	 * the given trigger from this list again.
+	 * still hits the trigger after 10 milliseconds). Must be called by the 
+	 * render thread.
+	 * 
+	 * @param objectID
+	 * 			ID of the trigger to be added to the report list
+	 * 
+	 * @return
+	 * 			false, if the trigger is already contained in the report list
+	 */
+	public static boolean addTriggerReport(String objectID)
+	{
+		return triggerReportSet.add(objectID);
+	}
+	
+	
+	/**
+	 * Removes the given trigger from the trigger report list again. May be 
+	 * called by any thread; the trigger will be removed by the render thread
+	 * at the next update.
 	 *  
 	 * @param objectID
 	 * 			ID of the trigger to be removed from the report list
 	 */
-	public static void removeTriggerReport(String objectID)
+	public static void removeTriggerReport(final String objectID)
+	{
+		scheduler.schedule(0, new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				removeReport(objectID);
+			}
+		});
+	}
+	
+	
+	private static void removeReport(String objectID)
 	{
-		if(!triggerReportList.remove(objectID))
+		if(!triggerReportSet.remove(objectID))
 			System.err.println("Could not remove '" + objectID + "' from trigger report list!");
 	}
 
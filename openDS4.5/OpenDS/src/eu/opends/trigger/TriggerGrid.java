@@ -0,0 +1,284 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.trigger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+
+import com.jme3.bounding.BoundingBox;
+import com.jme3.bounding.BoundingSphere;
+import com.jme3.bounding.BoundingVolume;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Spatial;
+
+/**
+ * Spatial hash of triggers (broad phase). Each trigger is registered in all cells
+ * (x-z-plane) its world bound overlaps; very large triggers are kept in a separate
+ * list which is checked on every query. A query only tests the triggers of the
+ * cells overlapping the bound of the source (e.g. the car) for intersection, hence
+ * its cost depends on the number of triggers near the source, not on the number
+ * of triggers of the map.
+ *
+ * Triggers are assumed not to move. After moving a trigger, call <code>clear()</code>
+ * and add all triggers again.
+ *
+ * @author OpenDS contributors
+ */
+public class TriggerGrid
+{
+	public enum Category
+	{
+		TrafficLight, TrafficLightPhase, RoadObject
+	}
+
+
+	/**
+	 * Trigger registered in the grid.
+	 */
+	public static class Trigger
+	{
+		private String id;
+		private Spatial spatial;
+		private Category category;
+		private int index;
+		private int queryStamp = -1;
+
+
+		public String getID()
+		{
+			return id;
+		}
+
+
+		public Spatial getSpatial()
+		{
+			return spatial;
+		}
+
+
+		public Category getCategory()
+		{
+			return category;
+		}
+	}
+
+
+	// triggers spanning more cells are checked on every query
+	private static final int MAX_CELLS_PER_TRIGGER = 256;
+
+	private static final Comparator<Trigger> registrationOrder = new Comparator<Trigger>()
+	{
+		@Override
+		public int compare(Trigger t1, Trigger t2)
+		{
+			return t1.index - t2.index;
+		}
+	};
+
+	private float cellSize;
+	private HashMap<Long, ArrayList<Trigger>> cells = new HashMap<Long, ArrayList<Trigger>>();
+	private ArrayList<Trigger> largeTriggers = new ArrayList<Trigger>();
+	private int triggerCount = 0;
+	private int queryStamp = 0;
+	private Vector3f extent = new Vector3f();
+
+
+	/**
+	 * Creates an empty grid.
+	 *
+	 * @param cellSize
+	 * 			Edge length of a cell (in m).
+	 */
+	public TriggerGrid(float cellSize)
+	{
+		this.cellSize = cellSize;
+	}
+
+
+	/**
+	 * Registers a trigger at its current world bound.
+	 *
+	 * @param id
+	 * 			ID reported for this trigger (e.g. name of traffic light).
+	 *
+	 * @param spatial
+	 * 			Trigger object.
+	 *
+	 * @param category
+	 * 			Category of trigger.
+	 */
+	public void add(String id, Spatial spatial, Category category)
+	{
+		BoundingVolume bound = spatial.getWorldBound();
+		if(bound == null)
+			return;
+
+		Trigger trigger = new Trigger();
+		trigger.id = id;
+		trigger.spatial = spatial;
+		trigger.category = category;
+		trigger.index = triggerCount++;
+
+		getExtent(bound, extent);
+		Vector3f center = bound.getCenter();
+		int minCellX = getCell(center.x - extent.x);
+		int maxCellX = getCell(center.x + extent.x);
+		int minCellZ = getCell(center.z - extent.z);
+		int maxCellZ = getCell(center.z + extent.z);
+
+		if((long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1) > MAX_CELLS_PER_TRIGGER)
+		{
+			largeTriggers.add(trigger);
+			return;
+		}
+
+		for(int cellX=minCellX; cellX<=maxCellX; cellX++)
+		{
+			for(int cellZ=minCellZ; cellZ<=maxCellZ; cellZ++)
+			{
+				Long key = getKey(cellX, cellZ);
+				ArrayList<Trigger> cell = cells.get(key);
+				if(cell == null)
+				{
+					cell = new ArrayList<Trigger>(4);
+					cells.put(key, cell);
+				}
+				cell.add(trigger);
+			}
+		}
+	}
+
+
+	/**
+	 * Removes all triggers.
+	 */
+	public void clear()
+	{
+		cells.clear();
+		largeTriggers.clear();
+		triggerCount = 0;
+	}
+
+
+	/**
+	 * @return
+	 * 			Number of registered triggers.
+	 */
+	public int getTriggerCount()
+	{
+		return triggerCount;
+	}
+
+
+	/**
+	 * Looks up all triggers intersecting the given bound.
+	 *
+	 * @param bound
+	 * 			World bound of the source (e.g. car).
+	 *
+	 * @param result
+	 * 			List the triggers will be added to (in order of registration).
+	 */
+	public void getIntersectingTriggers(BoundingVolume bound, ArrayList<Trigger> result)
+	{
+		if(bound == null)
+			return;
+
+		// each trigger is tested once, even if registered in several cells
+		queryStamp++;
+		int resultStart = result.size();
+
+		getExtent(bound, extent);
+		Vector3f center = bound.getCenter();
+		int minCellX = getCell(center.x - extent.x);
+		int maxCellX = getCell(center.x + extent.x);
+		int minCellZ = getCell(center.z - extent.z);
+		int maxCellZ = getCell(center.z + extent.z);
+
+		if((long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1) > cells.size())
+		{
+			// bound covers more cells than occupied --> test all occupied cells
+			for(ArrayList<Trigger> cell : cells.values())
+			{
+				for(int i=0; i<cell.size(); i++)
+					test(cell.get(i), bound, result);
+			}
+		}
+		else
+		{
+			for(int cellX=minCellX; cellX<=maxCellX; cellX++)
+			{
+				for(int cellZ=minCellZ; cellZ<=maxCellZ; cellZ++)
+				{
+					ArrayList<Trigger> cell = cells.get(getKey(cellX, cellZ));
+					if(cell != null)
+					{
+						for(int i=0; i<cell.size(); i++)
+							test(cell.get(i), bound, result);
+					}
+				}
+			}
+		}
+
+		for(int i=0; i<largeTriggers.size(); i++)
+			test(largeTriggers.get(i), bound, result);
+
+		if(result.size() - resultStart > 1)
+			Collections.sort(result.subList(resultStart, result.size()), registrationOrder);
+	}
+
+
+	private void test(Trigger trigger, BoundingVolume bound, ArrayList<Trigger> result)
+	{
+		if(trigger.queryStamp != queryStamp)
+		{
+			trigger.queryStamp = queryStamp;
+			if(bound.intersects(trigger.spatial.getWorldBound()))
+				result.add(trigger);
+		}
+	}
+
+
+	private static void getExtent(BoundingVolume bound, Vector3f store)
+	{
+		if(bound instanceof BoundingBox)
+			((BoundingBox) bound).getExtent(store);
+		else if(bound instanceof BoundingSphere)
+		{
+			float radius = ((BoundingSphere) bound).getRadius();
+			store.set(radius, radius, radius);
+		}
+		else
+			store.set(Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE);
+	}
+
+
+	private int getCell(float coordinate)
+	{
+		return (int) Math.max(Integer.MIN_VALUE/2, Math.min(Integer.MAX_VALUE/2, Math.floor(coordinate / cellSize)));
+	}
+
+
+	private static Long getKey(int cellX, int cellZ)
+	{
+		return ((long) cellX << 32) ^ (cellZ & 0xffffffffL);
+	}
+}
@@ -0,0 +1,172 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.trigger;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Executes delayed tasks (e.g. trigger actions) on the render thread, replacing
+ * a sleeping thread per task. Time is advanced by <code>update()</code> once per
+ * frame. Two clocks are available: simulation time, which stands still while the
+ * simulation is paused, and real time, which always advances (e.g. to end a pause
+ * after a given duration). Tasks due at the same time are executed in the order
+ * they have been scheduled.
+ *
+ * Tasks may be scheduled from any thread; they are handed over to the render
+ * thread by a concurrent queue and their delay starts at the next update. Tasks
+ * without delay are executed even while the simulation is paused.
+ *
+ * @author OpenDS contributors
+ */
+public class TriggerScheduler
+{
+	private ConcurrentLinkedQueue<ScheduledTask> incomingTasks = new ConcurrentLinkedQueue<ScheduledTask>();
+	private PriorityQueue<ScheduledTask> simulationTimeTasks = new PriorityQueue<ScheduledTask>();
+	private PriorityQueue<ScheduledTask> realTimeTasks = new PriorityQueue<ScheduledTask>();
+	private double simulationTime = 0;
+	private double realTime = 0;
+	private long sequenceNumber = 0;
+
+
+	private static class ScheduledTask implements Comparable<ScheduledTask>
+	{
+		Runnable task;
+		float delay;
+		boolean isRealTime;
+		double dueTime;
+		long sequenceNumber;
+
+
+		@Override
+		public int compareTo(ScheduledTask other)
+		{
+			if(dueTime != other.dueTime)
+				return (dueTime < other.dueTime ? -1 : 1);
+
+			return (sequenceNumber < other.sequenceNumber ? -1 : (sequenceNumber == other.sequenceNumber ? 0 : 1));
+		}
+	}
+
+
+	/**
+	 * Executes the given task after the given amount of simulation time (time
+	 * in pause does not count).
+	 *
+	 * @param delay
+	 * 			Delay in seconds (simulation time).
+	 *
+	 * @param task
+	 * 			Task to execute on the render thread.
+	 */
+	public void schedule(float delay, Runnable task)
+	{
+		add(delay, task, false);
+	}
+
+
+	/**
+	 * Executes the given task after the given amount of real time (time in pause
+	 * counts).
+	 *
+	 * @param delay
+	 * 			Delay in seconds (real time).
+	 *
+	 * @param task
+	 * 			Task to execute on the render thread.
+	 */
+	public void scheduleRealTime(float delay, Runnable task)
+	{
+		add(delay, task, true);
+	}
+
+
+	private void add(float delay, Runnable task, boolean isRealTime)
+	{
+		ScheduledTask scheduledTask = new ScheduledTask();
+		scheduledTask.task = task;
+		scheduledTask.delay = Math.max(0, delay);
+		scheduledTask.isRealTime = isRealTime;
+		incomingTasks.add(scheduledTask);
+	}
+
+
+	/**
+	 * Advances the clocks and executes all tasks due. Must be called once per
+	 * frame by the render thread.
+	 *
+	 * @param tpf
+	 * 			Time per frame (in seconds).
+	 *
+	 * @param isPaused
+	 * 			Whether the simulation is paused (simulation time stands still).
+	 */
+	public void update(float tpf, boolean isPaused)
+	{
+		// tasks scheduled since last update: delay starts now
+		ScheduledTask scheduledTask;
+		while((scheduledTask = incomingTasks.poll()) != null)
+		{
+			scheduledTask.sequenceNumber = sequenceNumber++;
+			if(scheduledTask.isRealTime)
+			{
+				scheduledTask.dueTime = realTime + scheduledTask.delay;
+				realTimeTasks.add(scheduledTask);
+			}
+			else
+			{
+				scheduledTask.dueTime = simulationTime + scheduledTask.delay;
+				simulationTimeTasks.add(scheduledTask);
+			}
+		}
+
+		realTime += tpf;
+		if(!isPaused)
+			simulationTime += tpf;
+
+		executeDueTasks(realTimeTasks, realTime);
+		executeDueTasks(simulationTimeTasks, simulationTime);
+	}
+
+
+	/**
+	 * @return
+	 * 			Number of tasks waiting for execution.
+	 */
+	public int getPendingTaskCount()
+	{
+		return incomingTasks.size() + simulationTimeTasks.size() + realTimeTasks.size();
+	}
+
+
+	private void executeDueTasks(PriorityQueue<ScheduledTask> queue, double time)
+	{
+		// tasks scheduled by these tasks will be queued at the next update
+		while(!queue.isEmpty() && queue.peek().dueTime <= time)
+		{
+			try {
+
+				queue.poll().task.run();
+
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+	}
+}
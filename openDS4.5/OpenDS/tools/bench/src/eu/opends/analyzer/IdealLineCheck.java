@@ -0,0 +1,127 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.analyzer;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import com.jme3.math.Vector2f;
+import com.jme3.math.Vector3f;
+
+import eu.opends.drivingTask.DrivingTaskDataQuery;
+import eu.opends.drivingTask.scenario.IdealTrackContainer;
+import eu.opends.drivingTask.scenario.ScenarioLoader;
+import eu.opends.drivingTask.scene.SceneLoader;
+
+/**
+ * Regression check of the deviation computation: computes every ideal line once
+ * by scanning all way points (reference) and once using <code>WayPointGrid</code>
+ * and reports any difference in area, length, status, ideal points or deviation
+ * points (compared bit by bit), as well as the run time of both variants.
+ *
+ * The check runs on recorded drives: the ideal lines are taken from the given
+ * driving task, the way points from the given drive logs (text or binary). The
+ * exit status is 1 if any result differs or a log could not be read, 2 on wrong
+ * arguments.
+ *
+ * Usage: IdealLineCheck &lt;driving task&gt; &lt;log file&gt; ...
+ *
+ * @author OpenDS contributors
+ */
+public class IdealLineCheck
+{
+	private static int differences = 0;
+	private static long referenceNanos = 0;
+	private static long indexedNanos = 0;
+
+
+	public static void main(String[] args) throws Exception
+	{
+		if(args.length < 2)
+		{
+			System.err.println("Usage: IdealLineCheck <driving task> <log file> ...");
+			System.exit(2);
+		}
+
+		DrivingTaskDataQuery dtData = new DrivingTaskDataQuery(args[0]);
+		if(!dtData.isValidDrivingTask())
+			System.exit(2);
+
+		Map<String, IdealTrackContainer> idealTrackMap =
+				ScenarioLoader.extractIdealTracks(dtData, SceneLoader.extractPoints(dtData));
+
+		boolean readError = false;
+		for(int i=1; i<args.length; i++)
+		{
+			DataReader dataReader = new DataReader();
+			if(!dataReader.initReader(args[i], false) || !dataReader.loadDriveData())
+			{
+				System.err.println("Could not read '" + args[i] + "'");
+				readError = true;
+				continue;
+			}
+
+			for(Map.Entry<String, IdealTrackContainer> entry : idealTrackMap.entrySet())
+				check(args[i] + " / " + entry.getKey(), entry.getValue().getRoadWidth(),
+						entry.getValue().getIdealPoints(), dataReader.getCarPositionList());
+		}
+
+		System.out.println("reference: " + String.format("%.0f", referenceNanos / 1e6) + " ms, indexed: " +
+				String.format("%.0f", indexedNanos / 1e6) + " ms");
+
+		if(differences == 0)
+			System.out.println("Results identical");
+		else
+			System.err.println(differences + " ideal lines differ");
+
+		if(differences > 0 || readError)
+			System.exit(1);
+	}
+
+
+	private static void check(String name, Float roadWidth, ArrayList<Vector2f> idealPoints,
+			ArrayList<Vector3f> wayPoints) throws Exception
+	{
+		// warm up (both variants)
+		new IdealLine(name, roadWidth, idealPoints, wayPoints, null);
+		new IdealLine(name, roadWidth, idealPoints, wayPoints, new WayPointGrid(wayPoints, IdealLine.MAX_DISTANCE));
+
+		long start = System.nanoTime();
+		IdealLine reference = new IdealLine(name, roadWidth, idealPoints, wayPoints, null);
+		referenceNanos += System.nanoTime() - start;
+
+		start = System.nanoTime();
+		IdealLine indexed = new IdealLine(name, roadWidth, idealPoints, wayPoints,
+				new WayPointGrid(wayPoints, IdealLine.MAX_DISTANCE));
+		indexedNanos += System.nanoTime() - start;
+
+		boolean identical = Float.floatToIntBits(reference.getArea()) == Float.floatToIntBits(indexed.getArea())
+				&& Float.floatToIntBits(reference.getLength()) == Float.floatToIntBits(indexed.getLength())
+				&& reference.getStatus() == indexed.getStatus()
+				&& reference.getIdealPoints().equals(indexed.getIdealPoints())
+				&& reference.getDeviationPoints().equals(indexed.getDeviationPoints());
+
+		System.out.println(name + ": area " + reference.getArea() + ", length " + reference.getLength() +
+				", status " + reference.getStatus() + (identical ? "" : " --> DIFFERENT (area " +
+				indexed.getArea() + ", length " + indexed.getLength() + ", status " + indexed.getStatus() + ")"));
+
+		if(!identical)
+			differences++;
+	}
+}
@@ -0,0 +1,139 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.analyzer;
+
+import java.io.File;
+import java.util.LinkedList;
+import java.util.Random;
+
+/**
+ * Measures the steps of the drive analyzer that depend on the length of a
+ * recording: loading, building the driven line (all levels of detail) and
+ * seeking to random points in time. A binary drive log with the given number of
+ * samples (a car driving on a winding road at 20 Hz) is generated in a temporary
+ * file. For comparison, seeking by index in the (legacy) linked list of data units
+ * is measured on a smaller number of seeks.
+ *
+ * Usage: ReplayBenchmark [&lt;number of samples&gt; [&lt;number of seeks&gt;]]
+ *
+ * @author OpenDS contributors
+ */
+public class ReplayBenchmark
+{
+	public static void main(String[] args) throws Exception
+	{
+		int samples = 1000000;
+		int seeks = 100000;
+		if(args.length >= 1)
+			samples = Integer.parseInt(args[0]);
+		if(args.length >= 2)
+			seeks = Integer.parseInt(args[1]);
+
+		File file = File.createTempFile("replayBenchmark", BinaryDataFormat.FILE_EXTENSION);
+		file.deleteOnExit();
+		long startTime = 1451606400000L;
+		writeLog(file, startTime, samples);
+
+		long start = System.nanoTime();
+		DataReader dataReader = new DataReader();
+		if(!dataReader.initReader(file.getPath(), false) || !dataReader.loadDriveData())
+		{
+			System.err.println("Could not read " + file);
+			return;
+		}
+		System.out.println("load " + dataReader.getSampleCount() + " samples: " +
+				String.format("%.0f", (System.nanoTime() - start) / 1e6) + " ms");
+
+		start = System.nanoTime();
+		DrivenLineMesh drivenLineMesh = new DrivenLineMesh(dataReader.getPositionX(),
+				dataReader.getPositionY(), dataReader.getPositionZ(), samples);
+		System.out.println("build driven line: " +
+				String.format("%.0f", (System.nanoTime() - start) / 1e6) + " ms");
+
+		for(int level=0; level<DrivenLineMesh.LOD_TOLERANCES.length; level++)
+			System.out.println("  level " + level + " (tolerance " + DrivenLineMesh.LOD_TOLERANCES[level] +
+					" m): " + drivenLineMesh.getVertexCount(level) + " vertices");
+
+		// seek to random points in time (binary search + data unit of the found sample)
+		Random random = new Random(1);
+		long duration = dataReader.getTimeStamp(samples - 1) - startTime;
+		float check = 0;
+		start = System.nanoTime();
+		for(int i=0; i<seeks; i++)
+		{
+			long timeStamp = startTime + (long) (random.nextDouble() * duration);
+			int index = dataReader.getIndex(timeStamp);
+			check += dataReader.getDataUnit(index).getSpeed();
+		}
+		System.out.println("seek (array): " + String.format("%.3f", (System.nanoTime() - start) / 1e3 / seeks) +
+				" us/seek");
+
+		// seek by index in linked list
+		LinkedList<DataUnit> dataUnitList = dataReader.getDataUnitList();
+		int listSeeks = Math.max(1, seeks / 1000);
+		start = System.nanoTime();
+		for(int i=0; i<listSeeks; i++)
+			check += dataUnitList.get(random.nextInt(samples)).getSpeed();
+		System.out.println("seek (linked list): " +
+				String.format("%.3f", (System.nanoTime() - start) / 1e3 / listSeeks) + " us/seek");
+
+		if(Float.isNaN(check))
+			System.err.println("Invalid data");
+	}
+
+
+	private static void writeLog(File file, long startTime, int samples) throws Exception
+	{
+		BinaryDataWriter writer = new BinaryDataWriter(file, "benchmark.xml", "2016_01_01-00_00_00",
+				startTime, "benchmark", BinaryDataFormat.getDriveDataColumns());
+
+		try {
+
+			float x = 0;
+			float z = 0;
+			float heading = 0;
+			float speed = 15;
+			for(int i=0; i<samples; i++)
+			{
+				// 20 Hz, slowly changing curvature
+				heading += 0.01f * (float) Math.sin(i / 500.0);
+				x += speed * 0.05f * (float) Math.sin(heading);
+				z += speed * 0.05f * (float) Math.cos(heading);
+
+				writer.setLong(0, startTime + 50L * i);
+				writer.setFloat(1, x);
+				writer.setFloat(2, 0.5f * (float) Math.sin(i / 2000.0));
+				writer.setFloat(3, z);
+				writer.setFloat(4, 0);
+				writer.setFloat(5, (float) Math.sin(heading/2));
+				writer.setFloat(6, 0);
+				writer.setFloat(7, (float) Math.cos(heading/2));
+				writer.setFloat(8, speed * 3.6f);
+				writer.setFloat(9, 0);
+				writer.setFloat(10, 0.2f);
+				writer.setFloat(11, 0);
+				writer.setBoolean(12, true);
+				writer.nextRow();
+			}
+
+		} finally {
+			writer.close();
+		}
+	}
+}
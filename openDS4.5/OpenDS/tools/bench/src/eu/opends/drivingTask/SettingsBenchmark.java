@@ -0,0 +1,191 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.drivingTask;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import eu.opends.drivingTask.DrivingTaskDataQuery.Layer;
+import eu.opends.drivingTask.scenario.ScenarioLoader.CarProperty;
+import eu.opends.drivingTask.settings.SettingsLoader;
+import eu.opends.drivingTask.settings.SettingsLoader.Setting;
+
+/**
+ * Compares the lookup of settings and car properties by XPath (one query per
+ * request) with the values resolved at load time (<code>CompiledProperties</code>).
+ * The settings and scenario documents are generated in memory and contain a value
+ * for every constant of <code>Setting</code> and <code>CarProperty</code>, so no
+ * driving task files are needed. Reports the time to resolve all properties at
+ * load time and the time per request of both variants.
+ *
+ * Usage: SettingsBenchmark [&lt;number of requests&gt;]
+ *
+ * @author OpenDS contributors
+ */
+public class SettingsBenchmark
+{
+	private static final String SETTINGS_NS = "http://opends.eu/drivingtask/settings";
+	private static final String SCENARIO_NS = "http://opends.eu/drivingtask/scenario";
+
+
+	public static void main(String[] args) throws Exception
+	{
+		int requests = 20000;
+		if(args.length >= 1)
+			requests = Integer.parseInt(args[0]);
+
+		Setting[] settings = Setting.values();
+		String[] settingQueries = new String[settings.length];
+		for(Setting setting : settings)
+			settingQueries[setting.ordinal()] = setting.getXPathQuery();
+
+		CarProperty[] carProperties = CarProperty.values();
+		String[] carPropertyQueries = new String[carProperties.length];
+		for(CarProperty carProperty : carProperties)
+			carPropertyQueries[carProperty.ordinal()] = carProperty.getXPathQuery();
+
+		DrivingTaskDataQuery dtData = new DrivingTaskDataQuery(null,
+				createDocument(SCENARIO_NS, "scenario", carPropertyQueries), null,
+				createDocument(SETTINGS_NS, "settings", settingQueries), null);
+
+		// load time (all settings + all car properties)
+		int loads = 50;
+		for(int i=0; i<loads/5; i++)
+			resolveAll(dtData, settingQueries, carPropertyQueries);
+
+		long start = System.nanoTime();
+		for(int i=0; i<loads; i++)
+			resolveAll(dtData, settingQueries, carPropertyQueries);
+		System.out.println("resolve " + settings.length + " settings + " + carProperties.length +
+				" car properties: " + String.format("%.2f", (System.nanoTime() - start) / 1e6 / loads) + " ms");
+
+		SettingsLoader settingsLoader = new SettingsLoader(dtData);
+		CompiledProperties<CarProperty> carPropertyValues =
+				new CompiledProperties<CarProperty>(dtData, Layer.SCENARIO, carPropertyQueries);
+
+		System.out.println("lookup;XPath [us/request];compiled [us/request]");
+
+		// warm up
+		runXPath(dtData, requests/10);
+		runCompiled(settingsLoader, carPropertyValues, requests/10);
+
+		start = System.nanoTime();
+		float checkXPath = runXPath(dtData, requests);
+		double xpathMicros = (System.nanoTime() - start) / 1e3 / requests;
+
+		start = System.nanoTime();
+		float checkCompiled = runCompiled(settingsLoader, carPropertyValues, requests);
+		double compiledMicros = (System.nanoTime() - start) / 1e3 / requests;
+
+		System.out.println("getSetting + getCarProperty;" + String.format("%.3f", xpathMicros) + ";" +
+				String.format("%.3f", compiledMicros));
+
+		if(checkXPath != checkCompiled)
+			System.err.println("Results differ: " + checkXPath + " vs. " + checkCompiled);
+	}
+
+
+	private static void resolveAll(DrivingTaskDataQuery dtData, String[] settingQueries, String[] carPropertyQueries)
+	{
+		new CompiledProperties<Setting>(dtData, Layer.SETTINGS, settingQueries);
+		new CompiledProperties<CarProperty>(dtData, Layer.SCENARIO, carPropertyQueries);
+	}
+
+
+	// the per-frame requests of PowerTrain (car property) and APIData (setting)
+	private static float runXPath(DrivingTaskDataQuery dtData, int requests)
+	{
+		float sum = 0;
+		for(int i=0; i<requests; i++)
+		{
+			sum += dtData.getValue(Layer.SETTINGS, Setting.CANInterface_maxSteeringAngle.getXPathQuery(), Float.class);
+			sum += dtData.getValue(Layer.SCENARIO, CarProperty.engine_displacement.getXPathQuery(), Float.class);
+		}
+		return sum;
+	}
+
+
+	private static float runCompiled(SettingsLoader settingsLoader,
+			CompiledProperties<CarProperty> carPropertyValues, int requests)
+	{
+		float sum = 0;
+		for(int i=0; i<requests; i++)
+		{
+			sum += settingsLoader.getSetting(Setting.CANInterface_maxSteeringAngle, 0f);
+			sum += carPropertyValues.getValue(CarProperty.engine_displacement, Float.class);
+		}
+		return sum;
+	}
+
+
+	/**
+	 * Creates a document containing the nodes of all given (absolute) queries,
+	 * e.g. "/settings:settings/settings:general/settings:driverName". The value of
+	 * each element or attribute is its position in the list of queries.
+	 */
+	private static Document createDocument(String namespace, String rootName, String[] queries) throws Exception
+	{
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		Document document = factory.newDocumentBuilder().newDocument();
+
+		Element root = document.createElementNS(namespace, rootName + ":" + rootName);
+		document.appendChild(root);
+
+		for(int i=0; i<queries.length; i++)
+		{
+			String[] steps = queries[i].split("/");
+			Element element = root;
+
+			// steps[0] is empty, steps[1] is the root
+			for(int k=2; k<steps.length; k++)
+			{
+				String step = steps[k];
+				if(step.startsWith("@"))
+				{
+					element.setAttribute(step.substring(1), String.valueOf(i));
+					break;
+				}
+
+				Element child = null;
+				for(Node node = element.getFirstChild(); node != null; node = node.getNextSibling())
+				{
+					if(node.getNodeName().equals(step))
+						child = (Element) node;
+				}
+
+				if(child == null)
+				{
+					child = document.createElementNS(namespace, step);
+					element.appendChild(child);
+				}
+
+				element = child;
+
+				if(k == steps.length-1)
+					element.appendChild(document.createTextNode(String.valueOf(i)));
+			}
+		}
+
+		return document;
+	}
+}
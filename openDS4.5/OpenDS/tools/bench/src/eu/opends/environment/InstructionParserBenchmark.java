@@ -0,0 +1,234 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.environment;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import eu.opends.multiDriver.MultiDriverInstructionHandler;
+
+/**
+ * Compares the cost of decoding multi driver instructions with the DOM-based
+ * XMLParser and the streaming XMLInstructionReader. Both parsers decode the same
+ * "update" messages (one "change" per vehicle, as sent by the multi driver server
+ * every tick) and dispatch them to a handler which only counts the calls, so no
+ * running simulation or server is needed. Before measuring, the benchmark checks
+ * that both parsers produce the same calls. For each parser it reports messages
+ * per second, CPU time per message and bytes allocated per message.
+ *
+ * Usage: InstructionParserBenchmark [&lt;number of messages&gt; [&lt;vehicles per message&gt;]]
+ *
+ * @author OpenDS contributors
+ */
+public class InstructionParserBenchmark
+{
+	private static class RecordingHandler implements MultiDriverInstructionHandler
+	{
+		StringBuilder calls = null;
+		long checksum = 0;
+
+
+		private void record(String call)
+		{
+			checksum += call.length();
+			if(calls != null)
+				calls.append(call).append('\n');
+		}
+
+
+		@Override
+		public void setID(String id)
+		{
+			record("setID " + id);
+		}
+
+
+		@Override
+		public void requestStop(String id)
+		{
+			record("requestStop " + id);
+		}
+
+
+		@Override
+		public void addVehicle(String vehicleID, String modelPath, String driverName)
+		{
+			record("add " + vehicleID + " " + modelPath + " " + driverName);
+		}
+
+
+		@Override
+		public void changeVehicle(String vehicleID, String positionString, String rotationString,
+				String headingString, String wheelString)
+		{
+			record("change " + vehicleID + " " + positionString + " " + rotationString + " "
+					+ headingString + " " + wheelString);
+		}
+
+
+		@Override
+		public void removeVehicle(String vehicleID)
+		{
+			record("remove " + vehicleID);
+		}
+	}
+
+
+	public static void main(String[] args)
+	{
+		int messages = 20000;
+		int vehicles = 8;
+		if(args.length >= 1)
+			messages = Integer.parseInt(args[0]);
+		if(args.length >= 2)
+			vehicles = Integer.parseInt(args[1]);
+
+		String[] messageList = createMessages(100, vehicles);
+
+		// both parsers must produce the same calls
+		RecordingHandler domHandler = new RecordingHandler();
+		RecordingHandler staxHandler = new RecordingHandler();
+		domHandler.calls = new StringBuilder();
+		staxHandler.calls = new StringBuilder();
+		XMLInstructionReader instructionReader = new XMLInstructionReader();
+		for(String message : messageList)
+		{
+			new XMLParser("<multiDriver>" + message + "</multiDriver>").evalMultiDriverInstruction(null, domHandler);
+			instructionReader.evalMultiDriverInstruction(message, staxHandler);
+		}
+
+		if(!domHandler.calls.toString().equals(staxHandler.calls.toString()))
+		{
+			System.err.println("Parsers differ:\n" + domHandler.calls + "\n---\n" + staxHandler.calls);
+			return;
+		}
+		System.out.println("vehicles per message: " + vehicles + ", message size: "
+				+ messageList[2].length() + " chars, parsers produce identical calls");
+		System.out.println("parser;messages/s;CPU time [us/message];allocated bytes/message");
+
+		RecordingHandler handler = new RecordingHandler();
+
+		// warm up
+		runDOM(messageList, handler, messages/5);
+		runStAX(messageList, instructionReader, handler, messages/5);
+
+		for(int run=0; run<2; run++)
+		{
+			long cpuStart = getCpuTime();
+			long allocStart = getAllocatedBytes();
+			long start = System.nanoTime();
+			runDOM(messageList, handler, messages);
+			report("DOM (XMLParser)", messages, System.nanoTime() - start, getCpuTime() - cpuStart,
+					getAllocatedBytes() - allocStart);
+
+			cpuStart = getCpuTime();
+			allocStart = getAllocatedBytes();
+			start = System.nanoTime();
+			runStAX(messageList, instructionReader, handler, messages);
+			report("StAX (XMLInstructionReader)", messages, System.nanoTime() - start, getCpuTime() - cpuStart,
+					getAllocatedBytes() - allocStart);
+		}
+
+		// prevent dead code elimination
+		System.out.println("checksum: " + handler.checksum);
+	}
+
+
+	private static String[] createMessages(int count, int vehicles)
+	{
+		String[] messageList = new String[count];
+
+		// first messages register and add all vehicles (one top-level element per message)
+		messageList[0] = "<registered id=\"mdv_0\" />";
+		StringBuilder builder = new StringBuilder("<update>");
+		for(int v=1; v<=vehicles; v++)
+			builder.append("<add id=\"mdv_" + v + "\" modelPath=\"Models/Cars/drivingCars/CitroenC4/Car.j3o\" "
+					+ "driverName=\"driver " + v + "\" />");
+		builder.append("</update>");
+		messageList[1] = builder.toString();
+
+		for(int i=2; i<count; i++)
+		{
+			builder.setLength(0);
+			builder.append("<update>");
+			for(int v=1; v<=vehicles; v++)
+			{
+				builder.append("<change id=\"mdv_" + v + "\" pos=\"" + (12.5f + i*0.4f) + ";" + (0.61f + v*0.01f)
+						+ ";" + (-310.25f + v*7.3f) + "\" rot=\"0.9987;0.0012;" + (0.0501f + i*0.0001f)
+						+ ";-0.0003\" heading=\"\" wheel=\"" + (0.01f*v) + ";" + (i*0.7f) + "\" />");
+			}
+			builder.append("</update>");
+			messageList[i] = builder.toString();
+		}
+
+		return messageList;
+	}
+
+
+	private static void runDOM(String[] messageList, RecordingHandler handler, int messages)
+	{
+		for(int i=0; i<messages; i++)
+		{
+			// same wrapping as in MultiDriverClient before
+			String message = messageList[2 + i % (messageList.length-2)];
+			XMLParser parser = new XMLParser("<multiDriver>" + message + "</multiDriver>");
+			parser.evalMultiDriverInstruction(null, handler);
+		}
+	}
+
+
+	private static void runStAX(String[] messageList, XMLInstructionReader instructionReader,
+			RecordingHandler handler, int messages)
+	{
+		for(int i=0; i<messages; i++)
+		{
+			String message = messageList[2 + i % (messageList.length-2)];
+			instructionReader.evalMultiDriverInstruction(message, handler);
+		}
+	}
+
+
+	private static void report(String parser, int messages, long wallTime, long cpuTime, long allocatedBytes)
+	{
+		double messagesPerSecond = messages / (wallTime / 1e9);
+		double cpuPerMessage = cpuTime / 1000.0 / messages;
+		String allocated = (allocatedBytes >= 0 ? String.valueOf(allocatedBytes / messages) : "n/a");
+		System.out.println(String.format("%s;%.0f;%.2f;%s", parser, messagesPerSecond, cpuPerMessage, allocated));
+	}
+
+
+	private static long getCpuTime()
+	{
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		return threadBean.getCurrentThreadCpuTime();
+	}
+
+
+	private static long getAllocatedBytes()
+	{
+		// HotSpot only
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if(threadBean instanceof com.sun.management.ThreadMXBean)
+		{
+			com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+			return sunThreadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+}
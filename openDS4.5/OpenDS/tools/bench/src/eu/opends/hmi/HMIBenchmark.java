@@ -0,0 +1,411 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.hmi;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+
+/**
+ * Measures the cost of many concurrent HMI presentations and dashboards without a
+ * running simulation.
+ *
+ * 1) Presentations: a number of synthetic presentation models (a car approaching
+ * a target at 50 km/h) are updated for a few seconds, once by a polling thread per
+ * presentation (as HMIThread did before) and once by the PresentationScheduler at
+ * 60 frames per second. Reported are the threads started, the CPU load of the
+ * process and the number of updates.
+ *
+ * 2) Dashboards: a HMIWebSocketServer broadcasts a traffic light assistant message
+ * to a number of local WebSocket clients, once by sending the string to every
+ * connection (as before) and once by HMIWebSocketServer.sendMsg(). Reported are
+ * the CPU time and the bytes allocated per broadcast on the sending thread and
+ * the broadcasts per second until all clients have received all messages.
+ *
+ * Usage: HMIBenchmark [&lt;presentations&gt; [&lt;seconds&gt; [&lt;clients&gt; [&lt;broadcasts&gt; [&lt;port&gt;]]]]]
+ *
+ * @author OpenDS contributors
+ */
+public class HMIBenchmark
+{
+	private static final float SPEED = 50f / 3.6f; // m/s
+	private static final int FRAME_RATE = 60;
+	private static final String MESSAGE = "<presentation><trafficLightAssistant id=\"trafficLightAssistant\">"
+			+ "<command>update</command><priority>10</priority><timestamp>1466000000000</timestamp>"
+			+ "<infoTrafficLight id=\"1\">-15</infoTrafficLight><infoTrafficLight id=\"2\">50</infoTrafficLight>"
+			+ "<greenArrow>false</greenArrow></trafficLightAssistant></presentation>";
+
+	// time seen by the synthetic presentation models (in seconds)
+	private static volatile double time = 0;
+
+
+	private static class SyntheticPresentationModel extends PresentationModel
+	{
+		private float startDistance;
+		private double startTime;
+		int updateCount = 0;
+
+
+		SyntheticPresentationModel(float startDistance)
+		{
+			this.startDistance = startDistance;
+			this.startTime = time;
+			this.minimumDistance = 5;
+		}
+
+
+		private int getRoundedDistance()
+		{
+			float distance = startDistance - (float) (time - startTime) * SPEED;
+			return Math.round(distance/precisionFactor)*precisionFactor;
+		}
+
+
+		@Override
+		public void computePreviousParameters()
+		{
+			previousRoundedDist = getRoundedDistance();
+		}
+
+
+		@Override
+		public void computeCurrentParameters()
+		{
+			currentRoundedDist = getRoundedDistance();
+		}
+
+
+		@Override
+		public long createPresentation()
+		{
+			return 0;
+		}
+
+
+		@Override
+		public void updatePresentation(long presentationID)
+		{
+			updateCount++;
+		}
+
+
+		@Override
+		public String generateMessage()
+		{
+			return "Obstacle in " + currentRoundedDist + " m";
+		}
+	}
+
+
+	private static class PollingThread extends Thread
+	{
+		private PresentationModel presentationModel;
+
+
+		PollingThread(PresentationModel presentationModel)
+		{
+			this.presentationModel = presentationModel;
+		}
+
+
+		@Override
+		public void run()
+		{
+			// loop of HMIThread (without printing to console)
+			presentationModel.computePreviousParameters();
+			presentationModel.computeCurrentParameters();
+
+			while(!presentationModel.stopPresentation())
+			{
+				if(presentationModel.hasChangedParameter())
+					presentationModel.updatePresentation(0);
+
+				presentationModel.shiftCurrentToPreviousParameters();
+				presentationModel.computeCurrentParameters();
+
+				try {Thread.sleep(100);}
+				catch (InterruptedException e){}
+			}
+		}
+	}
+
+
+	private static class CountingClient extends WebSocketClient
+	{
+		AtomicLong messageCount;
+
+
+		CountingClient(URI uri, AtomicLong messageCount)
+		{
+			super(uri);
+			this.messageCount = messageCount;
+		}
+
+
+		@Override
+		public void onOpen(ServerHandshake handshake)
+		{
+		}
+
+
+		@Override
+		public void onMessage(String message)
+		{
+			messageCount.incrementAndGet();
+		}
+
+
+		@Override
+		public void onClose(int code, String reason, boolean remote)
+		{
+		}
+
+
+		@Override
+		public void onError(Exception e)
+		{
+		}
+	}
+
+
+	public static void main(String[] args) throws Exception
+	{
+		int presentations = 200;
+		int seconds = 5;
+		int clients = 20;
+		int broadcasts = 20000;
+		int port = 2112;
+		if(args.length >= 1)
+			presentations = Integer.parseInt(args[0]);
+		if(args.length >= 2)
+			seconds = Integer.parseInt(args[1]);
+		if(args.length >= 3)
+			clients = Integer.parseInt(args[2]);
+		if(args.length >= 4)
+			broadcasts = Integer.parseInt(args[3]);
+		if(args.length >= 5)
+			port = Integer.parseInt(args[4]);
+
+		System.out.println(presentations + " presentations for " + seconds + " s");
+		System.out.println("method;threads started;process CPU [%];updates");
+		runPollingThreads(presentations, seconds);
+		runScheduler(presentations, seconds);
+
+		System.out.println(clients + " WebSocket clients, " + broadcasts + " broadcasts of "
+				+ MESSAGE.length() + " chars");
+		System.out.println("method;CPU time [us/broadcast];allocated bytes/broadcast;broadcasts/s");
+		runBroadcasts(clients, broadcasts, port);
+
+		System.exit(0);
+	}
+
+
+	private static void runPollingThreads(int presentations, int seconds) throws InterruptedException
+	{
+		SyntheticPresentationModel[] models = new SyntheticPresentationModel[presentations];
+		PollingThread[] threads = new PollingThread[presentations];
+
+		long start = System.nanoTime();
+		long cpuStart = getProcessCpuTime();
+
+		for(int i=0; i<presentations; i++)
+		{
+			models[i] = createModel(i, seconds);
+			threads[i] = new PollingThread(models[i]);
+			threads[i].start();
+		}
+
+		while(System.nanoTime() - start < seconds * 1000000000L)
+		{
+			time = (System.nanoTime() - start) / 1e9;
+			Thread.sleep(1);
+		}
+
+		for(int i=0; i<presentations; i++)
+			threads[i].join();
+
+		report("thread per presentation", presentations, System.nanoTime() - start,
+				getProcessCpuTime() - cpuStart, models);
+	}
+
+
+	private static void runScheduler(int presentations, int seconds) throws InterruptedException
+	{
+		SyntheticPresentationModel[] models = new SyntheticPresentationModel[presentations];
+		PresentationScheduler scheduler = new PresentationScheduler();
+
+		time = 0;
+		long start = System.nanoTime();
+		long cpuStart = getProcessCpuTime();
+
+		for(int i=0; i<presentations; i++)
+		{
+			models[i] = createModel(i, seconds);
+			scheduler.add(models[i], null, 0);
+		}
+
+		// render loop
+		float tpf = 1f / FRAME_RATE;
+		long frameIntervalNanos = 1000000000L / FRAME_RATE;
+		long nextFrame = start;
+		while(scheduler.getActivePresentationCount() > 0)
+		{
+			scheduler.update(tpf, false);
+			time += tpf;
+
+			nextFrame += frameIntervalNanos;
+			long sleepNanos = nextFrame - System.nanoTime();
+			if(sleepNanos > 0)
+				Thread.sleep(sleepNanos / 1000000, (int) (sleepNanos % 1000000));
+		}
+
+		report("PresentationScheduler", 0, System.nanoTime() - start,
+				getProcessCpuTime() - cpuStart, models);
+	}
+
+
+	private static SyntheticPresentationModel createModel(int index, int seconds)
+	{
+		// start distances spread over 64 steps; all presentations end within the given time
+		float maxDistance = seconds * SPEED;
+		return new SyntheticPresentationModel(5 + maxDistance * ((index % 64) + 1) / 65f);
+	}
+
+
+	private static void report(String method, int threads, long wallTime, long cpuTime,
+			SyntheticPresentationModel[] models)
+	{
+		long updates = 0;
+		for(SyntheticPresentationModel model : models)
+			updates += model.updateCount;
+
+		System.out.println(String.format("%s;%d;%.1f;%d", method, threads, 100.0 * cpuTime / wallTime, updates));
+	}
+
+
+	private static void runBroadcasts(int clients, int broadcasts, int port) throws Exception
+	{
+		HMIWebSocketServer server = new HMIWebSocketServer(new InetSocketAddress("127.0.0.1", port));
+		server.debug = false;
+		Thread.sleep(500);
+
+		AtomicLong messageCount = new AtomicLong();
+		for(int i=0; i<clients; i++)
+		{
+			CountingClient client = new CountingClient(new URI("ws://127.0.0.1:" + port), messageCount);
+			if(!client.connectBlocking())
+			{
+				System.err.println("Could not connect to HMIWebSocketServer");
+				return;
+			}
+		}
+
+		// wait for server to register all connections
+		while(server.connections().size() < clients)
+			Thread.sleep(10);
+
+		for(int run=0; run<2; run++)
+		{
+			// send string to every connection (as before)
+			long cpuStart = getThreadCpuTime();
+			long allocStart = getAllocatedBytes();
+			long start = System.nanoTime();
+			long expected = messageCount.get() + (long) clients * broadcasts;
+			for(int i=0; i<broadcasts; i++)
+			{
+				synchronized(server.connections())
+				{
+					for(WebSocket socket : server.connections())
+						socket.send(MESSAGE);
+				}
+			}
+			long cpuTime = getThreadCpuTime() - cpuStart;
+			long allocatedBytes = getAllocatedBytes() - allocStart;
+			waitForMessages(messageCount, expected);
+			reportBroadcasts("send to every connection", broadcasts, System.nanoTime() - start, cpuTime, allocatedBytes);
+
+			// pre-encoded frame
+			cpuStart = getThreadCpuTime();
+			allocStart = getAllocatedBytes();
+			start = System.nanoTime();
+			expected = messageCount.get() + (long) clients * broadcasts;
+			for(int i=0; i<broadcasts; i++)
+				server.sendMsg(MESSAGE);
+			cpuTime = getThreadCpuTime() - cpuStart;
+			allocatedBytes = getAllocatedBytes() - allocStart;
+			waitForMessages(messageCount, expected);
+			reportBroadcasts("HMIWebSocketServer.sendMsg()", broadcasts, System.nanoTime() - start, cpuTime, allocatedBytes);
+		}
+	}
+
+
+	private static void waitForMessages(AtomicLong messageCount, long expected) throws InterruptedException
+	{
+		long start = System.currentTimeMillis();
+		while(messageCount.get() < expected && System.currentTimeMillis() - start < 60000)
+			Thread.sleep(1);
+
+		if(messageCount.get() < expected)
+			System.err.println("Missing messages: " + (expected - messageCount.get()));
+	}
+
+
+	private static void reportBroadcasts(String method, int broadcasts, long wallTime, long cpuTime, long allocatedBytes)
+	{
+		String allocated = (allocatedBytes >= 0 ? String.valueOf(allocatedBytes / broadcasts) : "n/a");
+		System.out.println(String.format("%s;%.2f;%s;%.0f", method, cpuTime / 1000.0 / broadcasts, allocated,
+				broadcasts / (wallTime / 1e9)));
+	}
+
+
+	private static long getProcessCpuTime()
+	{
+		// HotSpot only
+		java.lang.management.OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+		if(osBean instanceof com.sun.management.OperatingSystemMXBean)
+			return ((com.sun.management.OperatingSystemMXBean) osBean).getProcessCpuTime();
+		return 0;
+	}
+
+
+	private static long getThreadCpuTime()
+	{
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		return threadBean.getCurrentThreadCpuTime();
+	}
+
+
+	private static long getAllocatedBytes()
+	{
+		// HotSpot only
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if(threadBean instanceof com.sun.management.ThreadMXBean)
+		{
+			com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+			return sunThreadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,193 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.knowledgeBase;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.dfki.automotive.kapcom.knowledgebase.NetClient;
+import de.dfki.automotive.netprotocol.msg.NetMessage;
+import de.dfki.automotive.netprotocol.msg.NetMessageInStream;
+import de.dfki.automotive.netprotocol.msg.NetMessageServer;
+
+/**
+ * Minimal stand-in for a KAPcom server, e.g. to measure the traffic caused by
+ * OpenDS without a running KAPcom installation. Every request is acknowledged
+ * (requests for instances are answered with the requested path), nothing is
+ * stored. Received messages are counted by message type (see NetClient.MsgType_*).
+ *
+ * Usage: KAPcomStubServer [&lt;port&gt;]
+ * (prints the number of messages received per second by type)
+ *
+ * @author OpenDS contributors
+ */
+public class KAPcomStubServer extends NetMessageServer implements NetMessageServer.IEventListener
+{
+	private static final int MAX_MSG_TYPE = 1024;
+
+	private long[] messageCount = new long[MAX_MSG_TYPE];
+	private long totalMessageCount = 0;
+
+
+	/**
+	 * Starts listening at the given port of the loop back interface.
+	 *
+	 * @param port
+	 * 			Port to listen at (e.g. NetClient.DefaultPort).
+	 */
+	public KAPcomStubServer(int port)
+	{
+		super("127.0.0.1", port);
+		super.name = "KAPcomStubServer";
+		super.enableDebugLogging = false;
+		super.setEventListener(this);
+		setAutoProcessing(AutoProcessTypes_All);
+	}
+
+
+	@Override
+	public void message(NetMessage msg, MessageEventReply action)
+	{
+		int msgType = msg.getMsgType();
+
+		synchronized(this)
+		{
+			if(msgType >= 0 && msgType < MAX_MSG_TYPE)
+				messageCount[msgType]++;
+			totalMessageCount++;
+		}
+
+		action.handeled = true;
+
+		if(msg.getReplyTo() != 0 || msgType == NetClient.MsgType_Hello
+				|| msgType == NetMessage.MsgTypeOK || msgType == NetMessage.MsgTypeFailed)
+		{
+			// no reply expected
+			return;
+		}
+
+		if(msgType == NetClient.MsgType_GetInstanceByShortID)
+		{
+			// reply: ID of (created) instance
+			String path = msg.getDataVE().getVal("path", "");
+			String id = msg.getDataVE().getVal("id", "");
+			NetMessage reply = new NetMessage(NetMessage.MsgTypeOK);
+			reply.setData(path + "/" + id);
+			action.customReply = reply;
+		}
+		else
+			action.okReply = true;
+	}
+
+
+	/**
+	 * @param msgType
+	 * 			Message type (see NetClient.MsgType_*).
+	 *
+	 * @return
+	 * 			Number of messages of the given type received so far.
+	 */
+	public synchronized long getMessageCount(int msgType)
+	{
+		return messageCount[msgType];
+	}
+
+
+	/**
+	 * @return
+	 * 			Number of messages (of all types) received so far.
+	 */
+	public synchronized long getTotalMessageCount()
+	{
+		return totalMessageCount;
+	}
+
+
+	@Override
+	public void outgoingMessage(NetMessage msg, AtomicReference<Boolean> interrupt)
+	{
+	}
+
+
+	@Override
+	public void connectionTerminated(long connectionId, Object meta)
+	{
+		System.out.println("Connection #" + connectionId + " was terminated.");
+	}
+
+
+	@Override
+	public void newConnection(long connectionId)
+	{
+		System.out.println("New connection: #" + connectionId);
+	}
+
+
+	@Override
+	public void backgroundProcessingError(long connectionID, Throwable ex, boolean[] dropConnection)
+	{
+		System.err.println("Error on connection #" + connectionID + ": " + ex.getMessage());
+	}
+
+
+	@Override
+	public void disposed()
+	{
+	}
+
+
+	@Override
+	public void newStream(NetMessageInStream s)
+	{
+	}
+
+
+	@Override
+	public void waitingForReply()
+	{
+	}
+
+
+	public static void main(String[] args) throws InterruptedException
+	{
+		int port = NetClient.DefaultPort;
+		if(args.length >= 1)
+			port = Integer.parseInt(args[0]);
+
+		KAPcomStubServer server = new KAPcomStubServer(port);
+		System.out.println("KAPcom stub server listening at port " + port);
+		System.out.println("messages/s;AddInstanceXml;GetInstanceByShortID;SetOrCreateProperty");
+
+		long[] last = new long[4];
+		while(true)
+		{
+			Thread.sleep(1000);
+
+			long[] current = new long[]{server.getTotalMessageCount(),
+					server.getMessageCount(NetClient.MsgType_AddInstanceXml),
+					server.getMessageCount(NetClient.MsgType_GetInstanceByShortID),
+					server.getMessageCount(NetClient.MsgType_SetOrCreateProperty)};
+
+			if(current[0] != last[0])
+				System.out.println((current[0]-last[0]) + ";" + (current[1]-last[1]) + ";"
+						+ (current[2]-last[2]) + ";" + (current[3]-last[3]));
+
+			last = current;
+		}
+	}
+}
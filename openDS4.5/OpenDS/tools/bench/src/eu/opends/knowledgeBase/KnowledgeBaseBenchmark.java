@@ -0,0 +1,147 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.knowledgeBase;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import de.dfki.automotive.kapcom.knowledgebase.NetClient;
+
+/**
+ * Connects the knowledge base to a local KAPcomStubServer and measures the traffic
+ * and CPU time caused by property writes (as done by WriteToKnowledgeBaseTrigger
+ * actions). A writer thread emulating the render thread writes a number of
+ * properties every frame; afterwards the knowledge base stays connected without
+ * any writes (idle). For both phases, the messages per second received by the
+ * server and the CPU time of the knowledge base thread are reported, as well as
+ * the average time a write blocks the caller.
+ *
+ * Usage: KnowledgeBaseBenchmark [&lt;seconds per phase&gt; [&lt;writes per frame&gt; [&lt;port&gt;]]]
+ *
+ * @author OpenDS contributors
+ */
+public class KnowledgeBaseBenchmark
+{
+	private static final int FRAME_RATE = 60;
+
+
+	public static void main(String[] args) throws InterruptedException
+	{
+		int seconds = 5;
+		int writesPerFrame = 4;
+		int port = NetClient.DefaultPort + 1;
+		if(args.length >= 1)
+			seconds = Integer.parseInt(args[0]);
+		if(args.length >= 2)
+			writesPerFrame = Integer.parseInt(args[1]);
+		if(args.length >= 3)
+			port = Integer.parseInt(args[2]);
+
+		KAPcomStubServer server = new KAPcomStubServer(port);
+
+		final KnowledgeBase kb = KnowledgeBase.KB;
+		kb.setFallback(false);
+		kb.Initialize(null, "127.0.0.1", port);
+		if(!kb.isConnected())
+		{
+			System.err.println("Could not connect to stub server");
+			return;
+		}
+		kb.start();
+
+		System.out.println("update interval: " + kb.getOutgoingUpdateIntervalMillis() + " ms, "
+				+ writesPerFrame + " writes per frame at " + FRAME_RATE + " fps");
+		System.out.println("phase;messages/s;GetInstanceByShortID/s;SetOrCreateProperty/s;"
+				+ "KB thread CPU [%];write call [us]");
+
+		// writing phase
+		long messages = server.getTotalMessageCount();
+		long instanceRequests = server.getMessageCount(NetClient.MsgType_GetInstanceByShortID);
+		long propertyRequests = server.getMessageCount(NetClient.MsgType_SetOrCreateProperty);
+		long cpuStart = getThreadCpuTime(kb);
+		long start = System.nanoTime();
+
+		long frames = 0;
+		long writeTime = 0;
+		long frameIntervalNanos = 1000000000L / FRAME_RATE;
+		long nextFrame = start;
+		while(System.nanoTime() - start < seconds * 1000000000L)
+		{
+			long writeStart = System.nanoTime();
+			for(int i=0; i<writesPerFrame; i++)
+			{
+				// as configured in a driving task: a few folders, changing values
+				kb.sendSetProperty("/study/trigger" + (i % 2) + "/action" + i, "value",
+						String.valueOf(frames % 100), "int");
+			}
+			writeTime += System.nanoTime() - writeStart;
+			frames++;
+
+			nextFrame += frameIntervalNanos;
+			long sleepNanos = nextFrame - System.nanoTime();
+			if(sleepNanos > 0)
+				Thread.sleep(sleepNanos / 1000000, (int) (sleepNanos % 1000000));
+		}
+
+		// let last writes arrive
+		Thread.sleep(2*kb.getOutgoingUpdateIntervalMillis());
+
+		double duration = (System.nanoTime() - start) / 1e9;
+		report("writing", duration, server.getTotalMessageCount() - messages,
+				server.getMessageCount(NetClient.MsgType_GetInstanceByShortID) - instanceRequests,
+				server.getMessageCount(NetClient.MsgType_SetOrCreateProperty) - propertyRequests,
+				getThreadCpuTime(kb) - cpuStart, writeTime / 1000.0 / (frames * writesPerFrame));
+
+		// idle phase
+		messages = server.getTotalMessageCount();
+		instanceRequests = server.getMessageCount(NetClient.MsgType_GetInstanceByShortID);
+		propertyRequests = server.getMessageCount(NetClient.MsgType_SetOrCreateProperty);
+		cpuStart = getThreadCpuTime(kb);
+		start = System.nanoTime();
+
+		Thread.sleep(seconds * 1000L);
+
+		duration = (System.nanoTime() - start) / 1e9;
+		report("idle", duration, server.getTotalMessageCount() - messages,
+				server.getMessageCount(NetClient.MsgType_GetInstanceByShortID) - instanceRequests,
+				server.getMessageCount(NetClient.MsgType_SetOrCreateProperty) - propertyRequests,
+				getThreadCpuTime(kb) - cpuStart, 0);
+
+		kb.disconnect();
+		kb.join(5000);
+		server.setAutoProcessing(KAPcomStubServer.AutoProcessTypes_None);
+		System.exit(0);
+	}
+
+
+	private static void report(String phase, double duration, long messages, long instanceRequests,
+			long propertyRequests, long cpuTime, double writeMicros)
+	{
+		System.out.println(String.format("%s;%.1f;%.1f;%.1f;%.1f;%.2f", phase, messages / duration,
+				instanceRequests / duration, propertyRequests / duration, 100 * cpuTime / 1e9 / duration,
+				writeMicros));
+	}
+
+
+	private static long getThreadCpuTime(Thread thread)
+	{
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		return threadBean.getThreadCpuTime(thread.getId());
+	}
+}
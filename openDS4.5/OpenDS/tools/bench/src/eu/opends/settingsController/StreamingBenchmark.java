@@ -0,0 +1,252 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.settingsController;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+
+import eu.opends.car.Car;
+import eu.opends.car.PowerTrain;
+import eu.opends.car.VehicleState;
+import eu.opends.main.SimulationDefaults;
+import eu.opends.tools.Vector3d;
+
+/**
+ * Compares the cost of the periodic subscription updates of the settings
+ * controller in XML mode ("SubscribedValues" message) and in binary streaming
+ * mode (see <code>BinaryStreamFormat</code>). The values are provided by a car
+ * stub, so no running simulation is needed. Every message is generated from a
+ * different vehicle state (as published by the render thread once per frame);
+ * the states are captured before the measurement, so the cost of capturing a
+ * state (render thread) is reported separately and not charged to the modes
+ * compared. For each mode the benchmark reports messages per second, CPU time
+ * per message and bytes per message.
+ *
+ * Usage: StreamingBenchmark [&lt;number of messages&gt;]
+ *
+ * @author OpenDS contributors
+ */
+public class StreamingBenchmark
+{
+	// signals which can be provided without simulation
+	private static final String[] SIGNALS = {
+		"/root/thisVehicle/interior/cockpit/pedals/",
+		"/root/thisVehicle/exterior/lights/Properties/headlights",
+		"/root/thisVehicle/exterior/engineCompartment/engine/Properties/running",
+		"/root/thisVehicle/exterior/fueling/",
+		"/root/thisVehicle/physicalAttributes/Properties/latitude",
+		"/root/thisVehicle/physicalAttributes/Properties/longitude",
+		"/root/thisVehicle/physicalAttributes/Properties/altitude",
+		"/root/thisVehicle/physicalAttributes/Properties/orientation",
+		"/root/thisVehicle/physicalAttributes/Properties/rise",
+		"/root/thisVehicle/physicalAttributes/Properties/accelerationLateral",
+		"/root/thisVehicle/physicalAttributes/Properties/rotation",
+		"/root/thisVehicle/physicalAttributes/Properties/accelerationRotation",
+		"/root/thisVehicle/physicalAttributes/Properties/acceleration"
+	};
+
+	// number of different vehicle states the messages are generated from
+	private static final int STATES = 1000;
+
+	private static int counter = 0;
+	private static VehicleState[] states = new VehicleState[STATES];
+	private static int currentState = 0;
+	private static boolean statesCaptured = false;
+
+
+	public static void main(String[] args) throws Exception
+	{
+		int messages = 5000;
+		if(args.length >= 1)
+			messages = Integer.parseInt(args[0]);
+
+		Car car = new Car()
+		{
+			@Override
+			public float getAcceleratorPedalIntensity()
+			{
+				return (counter % 100) / 100f;
+			}
+
+			@Override
+			public float getBrakePedalIntensity()
+			{
+				return (counter % 50) / 50f;
+			}
+
+			@Override
+			public String getLightState()
+			{
+				return "LowBeam";
+			}
+
+			@Override
+			public boolean isEngineOn()
+			{
+				return true;
+			}
+
+			@Override
+			public PowerTrain getPowerTrain()
+			{
+				return new PowerTrain(this);
+			}
+
+			@Override
+			public Vector3d getGeoPosition(Vector3f position, Vector3d store)
+			{
+				return store.set(48.2 + counter * 1e-7, 7.5 + counter * 1e-7, 210.5);
+			}
+
+			@Override
+			public float getHeadingDegree(float[] angles)
+			{
+				return counter % 360;
+			}
+
+			@Override
+			public Vector3f getPosition(Vector3f store)
+			{
+				return store.set(counter * 0.1f, 0, 0);
+			}
+
+			@Override
+			public Quaternion getRotation(Quaternion store)
+			{
+				return store.set(0, 0, 0, 1);
+			}
+
+			@Override
+			public float getCurrentSpeedKmh()
+			{
+				return counter % 130;
+			}
+
+			@Override
+			public float getSlopeDegree(float[] angles)
+			{
+				return 1.5f;
+			}
+
+			@Override
+			public float getYawRate(Vector3f store)
+			{
+				return (counter % 10) / 100f;
+			}
+
+			@Override
+			public float getLateralAcceleration(float yawRate)
+			{
+				return (counter % 10) / 10f;
+			}
+
+			@Override
+			public VehicleState getState()
+			{
+				// states captured in advance
+				if(statesCaptured)
+					return states[currentState];
+				return super.getState();
+			}
+		};
+
+		// all signals are subscribed initially
+		APIData data = new APIData(car, SimulationDefaults.CANInterface_maxSteeringAngle);
+		data.unsubscribe("/root");
+		for(String signal : SIGNALS)
+			data.subscribe(signal);
+
+		int[] signalIDs = data.getSubscribedSignalIDs();
+		System.out.println("subscribed signals: " + signalIDs.length);
+		System.out.println("mode;messages/s;CPU time [us/message];bytes/message");
+
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+		// capture states (as done by the render thread)
+		long cpuStart = threadBean.getCurrentThreadCpuTime();
+		long start = System.nanoTime();
+		captureStates(car);
+		report("publishState", STATES, 0, System.nanoTime() - start, threadBean.getCurrentThreadCpuTime() - cpuStart);
+
+		// warm up
+		runXML(data, messages/10);
+		runBinary(car, data, signalIDs, messages/10);
+
+		cpuStart = threadBean.getCurrentThreadCpuTime();
+		start = System.nanoTime();
+		long bytes = runXML(data, messages);
+		report("XML", messages, bytes, System.nanoTime() - start, threadBean.getCurrentThreadCpuTime() - cpuStart);
+
+		cpuStart = threadBean.getCurrentThreadCpuTime();
+		start = System.nanoTime();
+		bytes = runBinary(car, data, signalIDs, messages);
+		report("binary", messages, bytes, System.nanoTime() - start, threadBean.getCurrentThreadCpuTime() - cpuStart);
+	}
+
+
+	private static void captureStates(Car car)
+	{
+		for(int i=0; i<STATES; i++)
+		{
+			counter++;
+			car.publishState();
+			states[i] = car.getState();
+		}
+		statesCaptured = true;
+	}
+
+
+	private static long runXML(APIData data, int messages) throws Exception
+	{
+		long bytes = 0;
+		for(int i=0; i<messages; i++)
+		{
+			currentState = i % STATES;
+			String response = "<Message><Event Name=\"SubscribedValues\">\n"
+					+ data.getAllSubscribedValues(false) + "\n</Event></Message>\n";
+			bytes += response.getBytes("UTF-8").length;
+		}
+		return bytes;
+	}
+
+
+	private static long runBinary(Car car, APIData data, int[] signalIDs, int messages)
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(1024).order(BinaryStreamFormat.BYTE_ORDER);
+		long bytes = 0;
+		for(int i=0; i<messages; i++)
+		{
+			currentState = i % STATES;
+			buffer = BinaryStreamFormat.encodeFrame(data, car.getState(), signalIDs, (short) 1, i, buffer);
+			bytes += buffer.limit();
+		}
+		return bytes;
+	}
+
+
+	private static void report(String mode, int messages, long bytes, long nanos, long cpuNanos)
+	{
+		System.out.println(mode + ";" + String.format("%.0f", messages / (nanos / 1e9)) + ";"
+				+ String.format("%.2f", cpuNanos / 1000.0 / messages) + ";" + (bytes / messages));
+	}
+}
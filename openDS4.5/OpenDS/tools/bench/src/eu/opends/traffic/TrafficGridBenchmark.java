@@ -0,0 +1,157 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.traffic;
+
+import java.util.Random;
+
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+
+import eu.opends.tools.Util;
+
+/**
+ * Measures the cost per frame of the traffic obstacle checks with all-pairs
+ * scan (previous implementation) and with <code>TrafficGrid</code> for 50, 200
+ * and 1000 traffic objects. Objects are placed randomly on a quadratic area with
+ * constant density (one object per 2500 m^2) and random heading. Both variants
+ * use the same safety-distance test as <code>TrafficCar</code> and must report
+ * the same number of blocked objects.
+ *
+ * Usage: TrafficGridBenchmark [&lt;number of frames&gt;]
+ *
+ * @author OpenDS contributors
+ */
+public class TrafficGridBenchmark
+{
+	private static final int[] OBJECT_COUNTS = {50, 200, 1000};
+	private static final float AREA_PER_OBJECT = 2500f;
+	private static final float MIN_FORWARD_SAFETY_DISTANCE = 8;
+	private static final float MIN_LATERAL_SAFETY_DISTANCE = 2;
+	private static final float SPEED_KMH = 50;
+
+
+	public static void main(String[] args)
+	{
+		int frames = 200;
+		if(args.length >= 1)
+			frames = Integer.parseInt(args[0]);
+
+		System.out.println("objects;all-pairs [ms/frame];grid [ms/frame];speed-up;blocked objects");
+
+		for(int count : OBJECT_COUNTS)
+		{
+			Vector3f[] centers = new Vector3f[count];
+			Vector3f[] fronts = new Vector3f[count];
+			createObjects(count, centers, fronts);
+
+			// warm up
+			int blockedAllPairs = runAllPairs(centers, fronts, count);
+			int blockedGrid = runGrid(new TrafficGrid(), centers, fronts, count, new int[count]);
+			if(blockedAllPairs != blockedGrid)
+				System.err.println("Result mismatch: " + blockedAllPairs + " != " + blockedGrid);
+
+			long start = System.nanoTime();
+			for(int i=0; i<frames; i++)
+				runAllPairs(centers, fronts, count);
+			double allPairsTime = (System.nanoTime() - start) / 1000000.0 / frames;
+
+			TrafficGrid grid = new TrafficGrid();
+			int[] neighbours = new int[count];
+			start = System.nanoTime();
+			for(int i=0; i<frames; i++)
+				runGrid(grid, centers, fronts, count, neighbours);
+			double gridTime = (System.nanoTime() - start) / 1000000.0 / frames;
+
+			System.out.println(count + ";" + String.format("%.3f", allPairsTime) + ";"
+					+ String.format("%.3f", gridTime) + ";" + String.format("%.1f", allPairsTime/gridTime)
+					+ ";" + blockedGrid);
+		}
+	}
+
+
+	private static void createObjects(int count, Vector3f[] centers, Vector3f[] fronts)
+	{
+		Random random = new Random(count);
+		float edgeLength = FastMath.sqrt(count * AREA_PER_OBJECT);
+		for(int i=0; i<count; i++)
+		{
+			float heading = random.nextFloat() * FastMath.TWO_PI;
+			centers[i] = new Vector3f(random.nextFloat() * edgeLength, 0, random.nextFloat() * edgeLength);
+			fronts[i] = centers[i].add(FastMath.sin(heading), 0, FastMath.cos(heading));
+		}
+	}
+
+
+	private static int runAllPairs(Vector3f[] centers, Vector3f[] fronts, int count)
+	{
+		int blocked = 0;
+		for(int i=0; i<count; i++)
+		{
+			for(int j=0; j<count; j++)
+			{
+				if(i != j && obstacleTooClose(centers[i], fronts[i], centers[j]))
+				{
+					blocked++;
+					break;
+				}
+			}
+		}
+		return blocked;
+	}
+
+
+	private static int runGrid(TrafficGrid grid, Vector3f[] centers, Vector3f[] fronts, int count, int[] neighbours)
+	{
+		grid.build(centers, count);
+
+		float maxForwardDistance = Math.max(0.5f * SPEED_KMH, MIN_FORWARD_SAFETY_DISTANCE);
+		float radius = FastMath.sqrt(maxForwardDistance * maxForwardDistance
+				+ MIN_LATERAL_SAFETY_DISTANCE * MIN_LATERAL_SAFETY_DISTANCE) + 1f;
+
+		int blocked = 0;
+		for(int i=0; i<count; i++)
+		{
+			int found = grid.query(centers[i], radius, neighbours);
+			for(int k=0; k<found; k++)
+			{
+				int j = neighbours[k];
+				if(i != j && obstacleTooClose(centers[i], fronts[i], centers[j]))
+				{
+					blocked++;
+					break;
+				}
+			}
+		}
+		return blocked;
+	}
+
+
+	private static boolean obstacleTooClose(Vector3f center, Vector3f front, Vector3f obstaclePos)
+	{
+		float distance = obstaclePos.distance(center);
+		float angle = Util.getAngleBetweenPoints(front, center, obstaclePos, false);
+
+		float lateralDistance = distance * FastMath.sin(angle);
+		float forwardDistance = distance * FastMath.cos(angle);
+		float forwardSafetyDistance = Math.max(0.5f * SPEED_KMH, MIN_FORWARD_SAFETY_DISTANCE);
+
+		return (lateralDistance < MIN_LATERAL_SAFETY_DISTANCE) && (forwardDistance > 0)
+				&& (forwardDistance < forwardSafetyDistance);
+	}
+}
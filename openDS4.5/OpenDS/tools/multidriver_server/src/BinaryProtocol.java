@@ -0,0 +1,108 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+
+/**
+ * Binary variant of the multi-driver protocol. A client selects it on registration:
+ *
+ * <pre>
+ * &lt;register protocol="binary"&gt;&lt;modelPath&gt;...&lt;/modelPath&gt;&lt;driverName&gt;...&lt;/driverName&gt;&lt;/register&gt;
+ * </pre>
+ *
+ * The server answers with the usual line <code>&lt;registered id="mdv_N" /&gt;</code>.
+ * Afterwards both directions use frames (big-endian): int length of the following
+ * bytes, byte frame type, payload.
+ *
+ * <pre>
+ * client --> server
+ *   UPDATE:      double x, y, z; float rotation w, x, y, z; float wheel steering, position
+ *   UNREGISTER:  (empty)
+ *
+ * server --> client
+ *   STATE:       short number of entries; per entry: int vehicle number (N of "mdv_N"),
+ *                byte field mask, fields of the mask in the order below
+ *                  ADD:         string model path, string driver name
+ *                  POSITION:    double x, y, z (absolute)
+ *                  POSITION_DELTA: float dx, dy, dz (relative to last position sent)
+ *                  ROTATION:    float w, x, y, z
+ *                  HEADING:     float heading
+ *                  WHEEL:       float steering, position
+ *                  REMOVE:      (no fields)
+ *   UNREGISTERED: (empty), connection will be closed
+ * </pre>
+ *
+ * Strings are encoded as short length + UTF-8 bytes. Only fields which have changed
+ * since the last state sent to the client are included; vehicles without changes
+ * are omitted.
+ *
+ * @author OpenDS contributors
+ */
+public class BinaryProtocol
+{
+	public static final byte UPDATE = 1;
+	public static final byte UNREGISTER = 2;
+	public static final byte STATE = 10;
+	public static final byte UNREGISTERED = 11;
+
+	public static final int ADD = 1;
+	public static final int POSITION = 2;
+	public static final int POSITION_DELTA = 4;
+	public static final int ROTATION = 8;
+	public static final int HEADING = 16;
+	public static final int WHEEL = 32;
+	public static final int REMOVE = 64;
+
+	// size of length field
+	public static final int HEADER_SIZE = 4;
+
+	// size of UPDATE payload (without frame type)
+	public static final int UPDATE_SIZE = 3*8 + 4*4 + 2*4;
+
+	public static final int MAX_FRAME_SIZE = 1024*1024;
+
+	public static final Charset UTF8 = Charset.forName("UTF-8");
+
+
+	public static void putString(ByteBuffer buffer, String value)
+	{
+		byte[] bytes = (value != null ? value : "").getBytes(UTF8);
+		buffer.putShort((short) bytes.length);
+		buffer.put(bytes);
+	}
+
+
+	public static String getString(ByteBuffer buffer)
+	{
+		byte[] bytes = new byte[buffer.getShort() & 0xffff];
+		buffer.get(bytes);
+		return new String(bytes, UTF8);
+	}
+
+
+	/**
+	 * Returns the vehicle number of the given ID ("mdv_N" --> N).
+	 */
+	public static int getVehicleNumber(String id)
+	{
+		return Integer.parseInt(id.substring(id.indexOf('_')+1));
+	}
+}
@@ -17,8 +17,6 @@
 */
 
 
-import java.util.ArrayList;
-
 
 public class CarData 
 {
@@ -32,20 +30,25 @@ public class CarData
 	private Float rotY;
 	private Float rotZ;
 	private Float heading;
-	private ArrayList<String> knownClients;
-	private ArrayList<String> sentToClients;
 	private float wheelSteering;
 	private float wheelPos;
+	private int number;
+	private int version;
+	
+	// XML "change" element of the current version (shared by all XML connections)
+	private byte[] changeElement = null;
+	private int changeElementVersion = -1;
 	
 	
 	public CarData()
 	{
-		this("","");
+		this(0,"","");
 	}
 
 
-	public CarData(String modelPath, String driverName) 
+	public CarData(int number, String modelPath, String driverName) 
 	{
+		this.number = number;
 		this.modelPath = modelPath;
 		this.driverName = driverName;
 		posX = 0;
@@ -56,10 +59,18 @@ public class CarData
 		rotY = 0f;
 		rotZ = 0f;
 		heading = 0f;
-		knownClients = new ArrayList<String> ();
-		sentToClients = new ArrayList<String> ();
 		wheelSteering = 0;
 		wheelPos = 0;
+		version = 0;
+	}
+
+
+	/**
+	 * @return
+	 * 			Vehicle number (N of ID "mdv_N").
+	 */
+	public int getNumber() {
+		return number;
 	}
 
 
@@ -163,28 +174,55 @@ public class CarData
 	}
 	
 	
-	public ArrayList<String> getKnownClients() {
-		return knownClients;
-	}
-
-
-	public void setKnownClients(ArrayList<String> knownClients) {
-		this.knownClients = knownClients;
-	}
-
-
-	public boolean isUpdateSent(String threadID) {
-		return sentToClients.contains(threadID);
-	}
-
-
-	public void setUpdateSent(String threadID) {
-		this.sentToClients.add(threadID);		
-	}
-	
-	
-	public void setUpdateNotSent() {
-		this.sentToClients.clear();		
+	/**
+	 * @return
+	 * 			Version of the data. Increased with every update received from the client,
+	 * 			so each connection can check whether it has sent the latest data.
+	 */
+	public int getVersion() {
+		return version;
+	}
+	
+	
+	public void increaseVersion() {
+		version++;
+	}
+	
+	
+	/**
+	 * Returns the XML element describing the current position, rotation (or heading) 
+	 * and wheel state of this vehicle, e.g. &lt;change id="mdv_1" pos="1;2;3" 
+	 * rot="1;2;3;4" wheel="1;2" /&gt;. The element is generated and encoded once per 
+	 * version and sent to every XML client as it is.
+	 * 
+	 * @param id
+	 * 			ID of this vehicle (e.g. "mdv_1").
+	 * 
+	 * @return
+	 * 			Change element of the current version (UTF-8). Must not be modified.
+	 */
+	public byte[] getChangeElement(String id) {
+		if(changeElementVersion != version)
+		{
+			StringBuilder element = new StringBuilder(160);
+			element.append("<change id=\"").append(id).append("\" ")
+				.append("pos=\"").append(posX).append(";").append(posY)
+				.append(";").append(posZ).append("\" ");
+
+			if (heading != null)
+				element.append("heading=\"").append(heading).append("\" ");
+			else if(rotW != null && rotX != null && rotY != null && rotZ != null)
+				element.append("rot=\"").append(rotW).append(";").append(rotX)
+					.append(";").append(rotY).append(";").append(rotZ).append("\" ");
+
+			element.append("wheel=\"").append(wheelSteering).append(";")
+				.append(wheelPos).append("\" />");
+
+			changeElement = element.toString().getBytes(BinaryProtocol.UTF8);
+			changeElementVersion = version;
+		}
+		
+		return changeElement;
 	}
 
 
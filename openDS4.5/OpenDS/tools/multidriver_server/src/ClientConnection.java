@@ -0,0 +1,292 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+
+
+/**
+ * State of a single client connection of the multi-driver server. All methods are
+ * called by the selector thread of the server only, hence no synchronization.
+ *
+ * Besides the buffers, the connection keeps the last state of every vehicle which
+ * has been sent to the client. The server uses it to send only vehicles (XML) or
+ * fields (binary) that have changed since.
+ *
+ * @author OpenDS contributors
+ */
+public class ClientConnection
+{
+	private static final int READ_BUFFER_SIZE = 64*1024;
+
+	// largest message accepted: a binary frame of maximum size (incl. header)
+	private static final int MAX_READ_BUFFER_SIZE = BinaryProtocol.HEADER_SIZE + BinaryProtocol.MAX_FRAME_SIZE;
+
+	private SocketChannel channel;
+	private SelectionKey key;
+	private String id = null;
+	private boolean isBinary = false;
+	private boolean closeAfterWrite = false;
+	private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+	private ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<ByteBuffer>();
+	private int pendingBytes = 0;
+	private HashMap<String, SentState> knownVehicles = new HashMap<String, SentState>();
+
+
+	/**
+	 * Last state of a vehicle sent to this client. In binary mode, the position is
+	 * the position the client has reconstructed from the (float) deltas, so rounding
+	 * errors do not accumulate.
+	 */
+	public static class SentState
+	{
+		int version = -1;
+		double posX, posY, posZ;
+		Float rotW, rotX, rotY, rotZ;
+		Float heading;
+		float wheelSteering, wheelPos;
+	}
+
+
+	public ClientConnection(SocketChannel channel, SelectionKey key)
+	{
+		this.channel = channel;
+		this.key = key;
+	}
+
+
+	public SocketChannel getChannel()
+	{
+		return channel;
+	}
+
+
+	public String getID()
+	{
+		return id;
+	}
+
+
+	public void setID(String id)
+	{
+		this.id = id;
+	}
+
+
+	public boolean isBinary()
+	{
+		return isBinary;
+	}
+
+
+	public void setBinary(boolean isBinary)
+	{
+		this.isBinary = isBinary;
+	}
+
+
+	public HashMap<String, SentState> getKnownVehicles()
+	{
+		return knownVehicles;
+	}
+
+
+	/**
+	 * @return
+	 * 			Number of bytes queued but not yet accepted by the socket.
+	 */
+	public int getPendingBytes()
+	{
+		return pendingBytes;
+	}
+
+
+	public ByteBuffer getReadBuffer()
+	{
+		return readBuffer;
+	}
+
+
+	/**
+	 * Marks the connection to be closed as soon as all queued data has been written.
+	 */
+	public void setCloseAfterWrite()
+	{
+		closeAfterWrite = true;
+	}
+
+
+	public boolean isCloseAfterWrite()
+	{
+		return closeAfterWrite;
+	}
+
+
+	/**
+	 * Reads available data into the read buffer. The buffer grows (up to the size
+	 * of the largest binary frame) if a message does not fit.
+	 *
+	 * @return
+	 * 			false, if the client has closed the connection.
+	 *
+	 * @throws IOException
+	 * 			if reading failed or a binary frame exceeds the maximum size.
+	 */
+	public boolean read() throws IOException
+	{
+		if(!readBuffer.hasRemaining())
+		{
+			if(readBuffer.capacity() < MAX_READ_BUFFER_SIZE)
+			{
+				ByteBuffer largerBuffer = ByteBuffer.allocate(Math.min(2*readBuffer.capacity(), MAX_READ_BUFFER_SIZE));
+				readBuffer.flip();
+				largerBuffer.put(readBuffer);
+				readBuffer = largerBuffer;
+			}
+			else if(isBinary)
+			{
+				// dropping part of a frame would break the framing of all further data
+				throw new IOException("Client '" + id + "': frame exceeds " + MAX_READ_BUFFER_SIZE + " bytes");
+			}
+			else
+			{
+				// message exceeds buffer --> drop incomplete data (next message starts with '<')
+				System.err.println("Client '" + id + "': message too long, discarded");
+				readBuffer.clear();
+			}
+		}
+
+		return channel.read(readBuffer) >= 0;
+	}
+
+
+	/**
+	 * Extracts the next complete top-level XML element (e.g.
+	 * "&lt;update&gt;...&lt;/update&gt;") from the given buffer (read mode).
+	 *
+	 * @return
+	 * 			The element or null, if not yet completely received.
+	 */
+	public static String nextXMLMessage(ByteBuffer buffer)
+	{
+		int start = buffer.position();
+		int limit = buffer.limit();
+
+		// skip white spaces and line breaks between messages
+		while(start < limit && buffer.get(start) != '<')
+			start++;
+		buffer.position(start);
+
+		int nameEnd = start + 1;
+		while(nameEnd < limit)
+		{
+			byte b = buffer.get(nameEnd);
+			if(b == ' ' || b == '>' || b == '/' || b == '\t' || b == '\r' || b == '\n')
+				break;
+			nameEnd++;
+		}
+
+		if(nameEnd >= limit)
+			return null;
+
+		// search closing tag "</name>"
+		int nameLength = nameEnd - start - 1;
+		int end = -1;
+		for(int i=nameEnd; i+nameLength+2 < limit; i++)
+		{
+			if(buffer.get(i) == '<' && buffer.get(i+1) == '/' && buffer.get(i+nameLength+2) == '>')
+			{
+				boolean matches = true;
+				for(int j=0; j<nameLength && matches; j++)
+					matches = buffer.get(i+2+j) == buffer.get(start+1+j);
+
+				if(matches)
+				{
+					end = i+nameLength+3;
+					break;
+				}
+			}
+		}
+
+		if(end < 0)
+			return null;
+
+		byte[] message = new byte[end - start];
+		buffer.get(message);
+		return new String(message, BinaryProtocol.UTF8);
+	}
+
+
+	/**
+	 * Queues the given data and writes as much as the socket accepts without blocking.
+	 * Remaining data will be written when the channel becomes writable.
+	 */
+	public void send(ByteBuffer data) throws IOException
+	{
+		pendingBytes += data.remaining();
+		writeQueue.add(data);
+		flush();
+	}
+
+
+	/**
+	 * Writes queued data.
+	 *
+	 * @return
+	 * 			true, if all queued data has been written.
+	 */
+	public boolean flush() throws IOException
+	{
+		while(!writeQueue.isEmpty())
+		{
+			ByteBuffer data = writeQueue.peek();
+			pendingBytes -= channel.write(data);
+
+			if(data.hasRemaining())
+			{
+				// socket buffer full --> wait for OP_WRITE
+				if(key.isValid())
+					key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+				return false;
+			}
+
+			writeQueue.poll();
+		}
+
+		if(key.isValid())
+			key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+		return true;
+	}
+
+
+	public void close()
+	{
+		key.cancel();
+
+		try {
+			channel.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
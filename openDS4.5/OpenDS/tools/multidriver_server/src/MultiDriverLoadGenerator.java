@@ -0,0 +1,213 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 OpenDS contributors
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+
+/**
+ * Simulates many multi-driver clients on a single thread in order to load test a
+ * running multi-driver server. Every client registers, drives on a circle and sends
+ * its position at the given rate; all data received from the server is read and
+ * counted. At the end, the update rate and the received bytes per client and
+ * second are reported.
+ *
+ * Usage: MultiDriverLoadGenerator &lt;host&gt; &lt;port&gt; [&lt;clients&gt; [&lt;updates/s&gt;
+ * [&lt;seconds&gt; [xml|binary]]]]
+ *
+ * @author OpenDS contributors
+ */
+public class MultiDriverLoadGenerator
+{
+	public static void main(String[] args) throws Exception
+	{
+		if(args.length < 2)
+		{
+			System.out.println("Usage: MultiDriverLoadGenerator <host> <port> [<clients> [<updates/s> [<seconds> [xml|binary]]]]");
+			return;
+		}
+
+		String host = args[0];
+		int port = Integer.parseInt(args[1]);
+		int clients = (args.length > 2 ? Integer.parseInt(args[2]) : 100);
+		int rate = (args.length > 3 ? Integer.parseInt(args[3]) : 20);
+		int seconds = (args.length > 4 ? Integer.parseInt(args[4]) : 10);
+		boolean binary = (args.length > 5 && args[5].equalsIgnoreCase("binary"));
+
+		Selector selector = Selector.open();
+		SocketChannel[] channels = new SocketChannel[clients];
+		String[] ids = new String[clients];
+		ByteBuffer readBuffer = ByteBuffer.allocate(256*1024);
+
+		// connect and register (blocking)
+		for(int i=0; i<clients; i++)
+		{
+			channels[i] = SocketChannel.open(new InetSocketAddress(host, port));
+			String register = "<register" + (binary ? " protocol=\"binary\"" : "") + ">" +
+					"<modelPath>Models/Cars/drivingCars/CitroenC4/Car.j3o</modelPath>" +
+					"<driverName>load_" + i + "</driverName></register>";
+			write(channels[i], ByteBuffer.wrap(register.getBytes(BinaryProtocol.UTF8)));
+			ids[i] = readRegisteredID(channels[i]);
+
+			channels[i].configureBlocking(false);
+			channels[i].register(selector, SelectionKey.OP_READ);
+		}
+
+		System.out.println(clients + " clients registered (" + (binary ? "binary" : "xml") + " protocol)");
+
+		ByteBuffer frame = ByteBuffer.allocate(BinaryProtocol.HEADER_SIZE + 1 + BinaryProtocol.UPDATE_SIZE);
+		long updatesSent = 0;
+		long bytesSent = 0;
+		long bytesReceived = 0;
+		long interval = 1000000000L / rate;
+		long start = System.nanoTime();
+		long end = start + seconds * 1000000000L;
+		long nextUpdate = start;
+
+		while(System.nanoTime() - end < 0)
+		{
+			long now = System.nanoTime();
+			if(now - nextUpdate >= 0)
+			{
+				double time = (now - start) / 1e9;
+				for(int i=0; i<clients; i++)
+				{
+					// drive on a circle (radius depends on client)
+					double radius = 20 + i;
+					double angle = time * 10 / radius + i;
+					double x = radius * Math.cos(angle);
+					double z = radius * Math.sin(angle);
+					float w = (float) Math.cos(-angle/2);
+					float y = (float) Math.sin(-angle/2);
+					float wheelPos = (float) (time * 10 % (2*Math.PI));
+
+					ByteBuffer data;
+					if(binary)
+					{
+						frame.clear();
+						frame.putInt(1 + BinaryProtocol.UPDATE_SIZE).put(BinaryProtocol.UPDATE);
+						frame.putDouble(x).putDouble(0).putDouble(z);
+						frame.putFloat(w).putFloat(0).putFloat(y).putFloat(0);
+						frame.putFloat(0.1f).putFloat(wheelPos);
+						frame.flip();
+						data = frame;
+					}
+					else
+					{
+						String update = "<update id=\"" + ids[i] + "\">" +
+								"<position x=\"" + x + "\" y=\"0\" z=\"" + z + "\" />" +
+								"<rotation w=\"" + w + "\" x=\"0\" y=\"" + y + "\" z=\"0\" />" +
+								"<wheel steering=\"0.1\" position=\"" + wheelPos + "\" /></update>";
+						data = ByteBuffer.wrap(update.getBytes(BinaryProtocol.UTF8));
+					}
+
+					bytesSent += data.remaining();
+					write(channels[i], data);
+					updatesSent++;
+				}
+
+				nextUpdate += interval;
+			}
+
+			long waitMillis = Math.max(1, (nextUpdate - System.nanoTime()) / 1000000L);
+			selector.select(waitMillis);
+
+			Iterator<SelectionKey> keyIterator = selector.selectedKeys().iterator();
+			while(keyIterator.hasNext())
+			{
+				SelectionKey key = keyIterator.next();
+				keyIterator.remove();
+
+				readBuffer.clear();
+				int bytes = ((SocketChannel) key.channel()).read(readBuffer);
+				if(bytes < 0)
+				{
+					System.err.println("Connection closed by server");
+					key.cancel();
+				}
+				else
+					bytesReceived += bytes;
+			}
+		}
+
+		double duration = (System.nanoTime() - start) / 1e9;
+
+		// unregister
+		for(int i=0; i<clients; i++)
+		{
+			ByteBuffer data;
+			if(binary)
+			{
+				data = ByteBuffer.allocate(BinaryProtocol.HEADER_SIZE + 1);
+				data.putInt(1).put(BinaryProtocol.UNREGISTER).flip();
+			}
+			else
+				data = ByteBuffer.wrap(("<unregister>" + ids[i] + "</unregister>").getBytes(BinaryProtocol.UTF8));
+
+			write(channels[i], data);
+			channels[i].close();
+		}
+		selector.close();
+
+		System.out.println("duration [s]: " + String.format("%.1f", duration));
+		System.out.println("updates sent/s: " + String.format("%.0f", updatesSent / duration));
+		System.out.println("bytes sent/s per client: " + String.format("%.0f", bytesSent / duration / clients));
+		System.out.println("bytes received/s per client: " + String.format("%.0f", bytesReceived / duration / clients));
+	}
+
+
+	private static void write(SocketChannel channel, ByteBuffer data) throws IOException
+	{
+		// non-blocking channels may accept only parts of the data
+		while(data.hasRemaining())
+		{
+			if(channel.write(data) == 0)
+				Thread.yield();
+		}
+	}
+
+
+	private static String readRegisteredID(SocketChannel channel) throws IOException
+	{
+		// read byte by byte up to the end of the line, following data belongs to updates
+		ByteBuffer oneByte = ByteBuffer.allocate(1);
+		StringBuilder line = new StringBuilder();
+		while(true)
+		{
+			oneByte.clear();
+			if(channel.read(oneByte) < 0)
+				throw new IOException("Connection closed by server");
+
+			char c = (char) oneByte.get(0);
+			if(c == '\n')
+				break;
+			line.append(c);
+		}
+
+		// <registered id="mdv_N" />
+		String response = line.toString();
+		int start = response.indexOf("id=\"") + 4;
+		return response.substring(start, response.indexOf('"', start));
+	}
+}
@@ -22,6 +22,11 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 
 
+/**
+ * Headless multi-driver server.
+ * 
+ * Usage: MultiDriverServerNoGUI [&lt;port&gt; [&lt;max. frame rate&gt;]]
+ */
 public class MultiDriverServerNoGUI
 {
     // maximum frame rate: frame rate can be set individually in each client, 
@@ -45,7 +50,12 @@ public class MultiDriverServerNoGUI
 		try {
 			
 			if(args.length > 0)
+			{
 				port = Integer.parseInt(args[0]);
+				
+				if(args.length > 1)
+					maxFramerate = Integer.parseInt(args[1]);
+			}
 			else
 			{
 				System.out.print("Please select port: ");
@@ -60,7 +70,7 @@ public class MultiDriverServerNoGUI
 			
 		ServerThread server = new ServerThread(maxFramerate, port, null);
 		
-		System.out.println("Press 'e' + <enter> to terminate: ");
+		System.out.println("Press 's' + <enter> for statistics, 'e' + <enter> to terminate: ");
 		 	
 	 	while (true)
 	 	{
@@ -71,8 +81,11 @@ public class MultiDriverServerNoGUI
 				e1.printStackTrace();
 			}
 	 		
-	 		if(line.equalsIgnoreCase("e"))
+	 		if(line == null || line.equalsIgnoreCase("e"))
 	 			break;
+	 		
+	 		if(line.equalsIgnoreCase("s"))
+	 			System.out.println(server.getStatistics());
 	 	}
 	 	
 	 	server.stopServer();
@@ -18,277 +18,786 @@
 
 
 import java.io.IOException;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.net.SocketTimeoutException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
 
 import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
 
 
-public class ServerThread 
+/**
+ * Multi-driver server. A single thread serves all clients with a NIO selector:
+ * incoming updates are read whenever they arrive, while the state of all vehicles
+ * is broadcast at a fixed tick (maxFramerate). Each connection remembers what it
+ * has been sent, so a tick only sends vehicles (XML clients) or fields (binary
+ * clients, see <code>BinaryProtocol</code>) that have changed. Clients which do
+ * not read their data are skipped until their backlog has been written.
+ *
+ * @author Rafael Math
+ */
+public class ServerThread
 {
-	private ConcurrentHashMap<String, CarData> clientData = new ConcurrentHashMap<String, CarData>();
-	private ArrayList<ClientThread> threadList = new ArrayList<ClientThread>();
-	private ServerSocket serverSocket;
-    private boolean running = true;
-    private ServerThread server;
-    private int counter = 0;
-    private JTextArea textArea;
-    
-    
-    public ArrayList<ClientThread> getThreadList()
-    {
-    	return threadList;
-    }
-    
-	
-	public synchronized String registerNewClient(String modelPath, String driverName)
+	// skip broadcasts to a client as long as more bytes are waiting to be written
+	private static final int MAX_PENDING_BYTES = 256*1024;
+
+	// position changes larger than this are sent as absolute value (binary protocol)
+	private static final double MAX_POSITION_DELTA = 1000;
+
+	private LinkedHashMap<String, CarData> clientData = new LinkedHashMap<String, CarData>();
+	private ArrayList<ClientConnection> connectionList = new ArrayList<ClientConnection>();
+	private Selector selector;
+	private ServerSocketChannel serverChannel;
+	private volatile boolean running = true;
+	private int counter = 0;
+	private JTextArea textArea;
+	private long tickInterval;
+	private ByteBuffer stateBuffer = ByteBuffer.allocate(64*1024);
+	private XMLParser parser = new XMLParser();
+
+	// statistics
+	private volatile long ticks = 0;
+	private volatile long tickNanos = 0;
+	private volatile long bytesSent = 0;
+	private volatile long updatesReceived = 0;
+	private volatile long skippedBroadcasts = 0;
+
+
+	private String registerNewClient(String modelPath, String driverName)
 	{
 		// generate non-existing ID
 		counter++;
 		String id = "mdv_" + counter;
-		
-		clientData.put(id, new CarData(modelPath, driverName));
-		
+
+		clientData.put(id, new CarData(counter, modelPath, driverName));
+
 		return id;
 	}
-	
 
-	public synchronized void unregisterClient(String id)
+
+	private void unregisterClient(String id)
 	{
 		clientData.remove(id);
 	}
 
 
-	public ConcurrentHashMap<String, CarData> getClientData() 
+	public ServerThread(int maxFramerate, int port, JTextArea textArea)
 	{
-		return clientData;		
-	}
-    
-	
-    public ServerThread(int maxFramerate, int port, JTextArea textArea)
-	{
-		server = this;
 		this.textArea = textArea;
- 
-        try {
-            serverSocket = new ServerSocket(port);
-            serverSocket.setSoTimeout(1000/maxFramerate);
-        } catch (IOException e) {
-            System.err.println("Could not listen on port: " + port);
-            System.exit(-1);
-        }
- 
-        
-        ( new Thread() { 
-        	public void run()
-	        {
-	        	try {
-	        		
-			    	while (running)
-			        {
-			    		update();
-			    		
-			    		try {			    			
-				        	Socket clientSocket = serverSocket.accept();
-			
-				        	ClientThread thread = new ClientThread(server, clientSocket);
-				        	thread.start();
-				        	threadList.add(thread);
-				        	
-			    		} catch (SocketTimeoutException timeOutException) {
-			    		}
-			        }
-
-			    	// unregister all vehicles
-			    	unregisterAllVehicles();
-			    	
-			    	// close all client sockets
-			    	for(ClientThread thread : threadList)
-			    		thread.closeClientSocket();
-			    	
-			    	// close server socket
-			        serverSocket.close();
-			        
+		this.tickInterval = 1000000000L/maxFramerate;
+
+		try {
+			selector = Selector.open();
+			serverChannel = ServerSocketChannel.open();
+			serverChannel.configureBlocking(false);
+			serverChannel.bind(new InetSocketAddress(port));
+			serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+		} catch (IOException e) {
+			System.err.println("Could not listen on port: " + port);
+			System.exit(-1);
+		}
+
+		( new Thread("MultiDriver_ServerThread") {
+			public void run()
+			{
+				try {
+
+					long nextTick = System.nanoTime();
+
+					while (running)
+					{
+						long waitMillis = (nextTick - System.nanoTime()) / 1000000L;
+						if(waitMillis > 0)
+							selector.select(waitMillis);
+						else
+							selector.selectNow();
+
+						processSelectedKeys();
+
+						long now = System.nanoTime();
+						if(now - nextTick >= 0)
+						{
+							update();
+							tickNanos += System.nanoTime() - now;
+							ticks++;
+
+							// do not catch up on missed ticks
+							nextTick += tickInterval;
+							if(now - nextTick >= 0)
+								nextTick = now + tickInterval;
+						}
+					}
+
+					// unregister all vehicles
+					unregisterAllVehicles();
+
+					// close all client sockets
+					for(ClientConnection connection : connectionList)
+						connection.close();
+
+					// close server socket
+					serverChannel.close();
+					selector.close();
+
 				} catch (IOException e) {
-			
+
 					e.printStackTrace();
 				}
-        	}
+			}
+		} ).start();
+	}
 
 
-        } ).start();
+	public void stopServer()
+	{
+		running = false;
+		selector.wakeup();
 	}
 
-	
-	public void stopServer()
-    {
-    	running = false;
-    }
-	
-	
-	private void unregisterAllVehicles() 
+
+	/**
+	 * @return
+	 * 			Number of ticks, average time per tick, bytes sent, updates received and
+	 * 			broadcasts skipped because of slow clients (since start).
+	 */
+	public String getStatistics()
+	{
+		long ticks = this.ticks;
+		return "clients: " + connectionList.size() + ", ticks: " + ticks +
+				", avg. tick time: " + (ticks > 0 ? (tickNanos / ticks / 1000) : 0) + " us" +
+				", bytes sent: " + bytesSent + ", updates received: " + updatesReceived +
+				", skipped broadcasts: " + skippedBroadcasts;
+	}
+
+
+	private void processSelectedKeys()
 	{
-		Iterator<ClientThread> threadIterator = threadList.iterator();
-		while(threadIterator.hasNext()) 
+		Iterator<SelectionKey> keyIterator = selector.selectedKeys().iterator();
+		while(keyIterator.hasNext())
 		{
-			ClientThread thread = threadIterator.next();		
-			String removeString = "";
-			
-			ArrayList<String> clientList = clientData.get(thread.getID()).getKnownClients();
-			
-			// search for deletes
-			Iterator<String> clientIterator = clientList.iterator();
-			while(clientIterator.hasNext()) 
+			SelectionKey key = keyIterator.next();
+			keyIterator.remove();
+
+			if(!key.isValid())
+				continue;
+
+			if(key.isAcceptable())
 			{
-				// remove client (id)
-				removeString += "<remove id=\"" + clientIterator.next() + "\" />";
+				accept();
+				continue;
+			}
+
+			ClientConnection connection = (ClientConnection) key.attachment();
+			try {
+
+				if(key.isReadable())
+				{
+					if(!connection.read())
+					{
+						disconnect(connection);
+						continue;
+					}
+
+					evalMessages(connection);
+				}
+
+				if(key.isValid() && key.isWritable())
+				{
+					if(connection.flush() && connection.isCloseAfterWrite())
+						disconnect(connection);
+				}
+
+			} catch (IOException e) {
+
+				// connection reset by client
+				disconnect(connection);
 			}
-			
-			// generate output string
-			if(!removeString.isEmpty())
+		}
+	}
+
+
+	private void accept()
+	{
+		try {
+
+			SocketChannel channel = serverChannel.accept();
+			if(channel == null)
+				return;
+
+			channel.configureBlocking(false);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+			ClientConnection connection = new ClientConnection(channel, key);
+			key.attach(connection);
+			connectionList.add(connection);
+
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+
+	private void disconnect(ClientConnection connection)
+	{
+		connection.close();
+		connectionList.remove(connection);
+
+		// remove vehicle of a client which has not unregistered itself
+		String id = connection.getID();
+		if(id != null && clientData.remove(id) != null)
+			System.err.println("Client '" + id + "' disconnected");
+	}
+
+
+	private void evalMessages(ClientConnection connection) throws IOException
+	{
+		ByteBuffer buffer = connection.getReadBuffer();
+		buffer.flip();
+
+		while(buffer.hasRemaining() && !connection.isCloseAfterWrite())
+		{
+			if(connection.isBinary())
+			{
+				if(!evalBinaryMessage(connection, buffer))
+					break;
+			}
+			else
 			{
-				String outputString = "<update>" + removeString + "</update>";
-				thread.update(outputString);
+				String message = ClientConnection.nextXMLMessage(buffer);
+				if(message == null)
+					break;
+
+				evalXMLMessage(connection, message);
+			}
+		}
+
+		buffer.compact();
+	}
+
+
+	private void evalXMLMessage(ClientConnection connection, String message) throws IOException
+	{
+		parser.parse(message);
+
+		if(parser.isRegister())
+		{
+			String id = registerNewClient(parser.getModelPath(), parser.getDriverName());
+			connection.setID(id);
+			System.out.println("Client '" + id + "' registered");
+
+			sendLine(connection, "<registered id=\"" + id + "\" />");
+
+			// all further messages of this client are binary frames
+			if(parser.isBinaryProtocol())
+				connection.setBinary(true);
+		}
+		else if(parser.isUnregister())
+		{
+			String unregisterID = parser.getUnregisterID();
+			unregisterClient(unregisterID);
+			System.err.println("Client '" + unregisterID + "' unregistered");
+
+			sendLine(connection, "<unregistered id=\"" + connection.getID() + "\" />");
+			connection.setCloseAfterWrite();
+		}
+		else if(parser.isUpdate())
+		{
+			CarData carData = clientData.get(parser.getUpdateID());
+			if(carData == null)
+				return;
+
+			carData.setPosX(parser.getPosX());
+			carData.setPosY(parser.getPosY());
+			carData.setPosZ(parser.getPosZ());
+
+			carData.setRotW(parser.getRotW());
+			carData.setRotX(parser.getRotX());
+			carData.setRotY(parser.getRotY());
+			carData.setRotZ(parser.getRotZ());
+
+			carData.setHeading(parser.getHeading());
+
+			carData.setWheelSteering(parser.getWheelSteering());
+			carData.setWheelPos(parser.getWheelPosition());
+
+			carData.increaseVersion();
+			updatesReceived++;
+		}
+
+		if(connection.isCloseAfterWrite() && connection.getPendingBytes() == 0)
+			disconnect(connection);
+	}
+
+
+	/**
+	 * Evaluates the next frame of the given buffer (read mode).
+	 *
+	 * @return
+	 * 			false, if the frame has not been received completely.
+	 */
+	private boolean evalBinaryMessage(ClientConnection connection, ByteBuffer buffer) throws IOException
+	{
+		if(buffer.remaining() < BinaryProtocol.HEADER_SIZE)
+			return false;
+
+		int length = buffer.getInt(buffer.position());
+		if(length < 1 || length > BinaryProtocol.MAX_FRAME_SIZE)
+			throw new IOException("Invalid frame length: " + length);
+
+		if(buffer.remaining() < BinaryProtocol.HEADER_SIZE + length)
+			return false;
+
+		buffer.getInt();
+		int end = buffer.position() + length;
+		byte type = buffer.get();
+
+		if(type == BinaryProtocol.UPDATE && length > BinaryProtocol.UPDATE_SIZE)
+		{
+			CarData carData = clientData.get(connection.getID());
+			if(carData != null)
+			{
+				carData.setPosX(buffer.getDouble());
+				carData.setPosY(buffer.getDouble());
+				carData.setPosZ(buffer.getDouble());
+
+				carData.setRotW(buffer.getFloat());
+				carData.setRotX(buffer.getFloat());
+				carData.setRotY(buffer.getFloat());
+				carData.setRotZ(buffer.getFloat());
+
+				carData.setHeading(null);
+
+				carData.setWheelSteering(buffer.getFloat());
+				carData.setWheelPos(buffer.getFloat());
+
+				carData.increaseVersion();
+				updatesReceived++;
+			}
+		}
+		else if(type == BinaryProtocol.UNREGISTER)
+		{
+			String id = connection.getID();
+			unregisterClient(id);
+			System.err.println("Client '" + id + "' unregistered");
+
+			ByteBuffer frame = ByteBuffer.allocate(BinaryProtocol.HEADER_SIZE + 1);
+			frame.putInt(1).put(BinaryProtocol.UNREGISTERED).flip();
+			send(connection, frame);
+			connection.setCloseAfterWrite();
+
+			if(connection.getPendingBytes() == 0)
+				disconnect(connection);
+		}
+
+		// skip unknown content
+		buffer.position(end);
+		return true;
+	}
+
+
+	private void sendLine(ClientConnection connection, String line) throws IOException
+	{
+		send(connection, ByteBuffer.wrap((line + "\n").getBytes(BinaryProtocol.UTF8)));
+	}
+
+
+	private void send(ClientConnection connection, ByteBuffer data) throws IOException
+	{
+		bytesSent += data.remaining();
+		connection.send(data);
+	}
+
+
+	private void unregisterAllVehicles()
+	{
+		for(ClientConnection connection : connectionList)
+		{
+			if(connection.getID() == null || connection.isCloseAfterWrite())
+				continue;
+
+			try {
+
+				if(connection.isBinary())
+				{
+					stateBuffer.clear();
+					stateBuffer.position(BinaryProtocol.HEADER_SIZE + 1 + 2);
+
+					for(String carID : connection.getKnownVehicles().keySet())
+					{
+						ensureStateCapacity(5);
+						stateBuffer.putInt(BinaryProtocol.getVehicleNumber(carID));
+						stateBuffer.put((byte) BinaryProtocol.REMOVE);
+					}
+
+					if(!connection.getKnownVehicles().isEmpty())
+						sendState(connection, connection.getKnownVehicles().size());
+				}
+				else
+				{
+					StringBuilder removeString = new StringBuilder();
+
+					for(String carID : connection.getKnownVehicles().keySet())
+						removeString.append("<remove id=\"").append(carID).append("\" />");
+
+					if(removeString.length() > 0)
+						sendLine(connection, "<update>" + removeString + "</update>");
+				}
+
+			} catch (IOException e) {
+				// client not reachable any more
 			}
 		}
 	}
-	
-	
-    public void update() 
+
+
+	public void update()
 	{
 		/*
 		EXAMPLE:
-		
+
 		<update>
 			<add id="mdv_1" modelPath="" driverName="" />
 			<change id="mdv_1" pos="1;2;3" rot="1;2;3;4" heading="358.4"  wheel="1;2" />
 			<remove id="mdv_1">
 		<update>
 		*/
-    	
-    	if(textArea != null)
-    		textArea.replaceRange("", 0, textArea.getText().length());
-    	
-		Iterator<ClientThread> threadIterator = threadList.iterator();
-		while(threadIterator.hasNext()) 
+
+		ArrayList<ClientConnection> connections = new ArrayList<ClientConnection>(connectionList);
+		for(ClientConnection connection : connections)
 		{
-			ClientThread thread = threadIterator.next();
-			
-			if(!thread.isAlive())
+			String connectionID = connection.getID();
+
+			// skip connections which have not registered yet (or are about to close)
+			if(connectionID == null || connection.isCloseAfterWrite())
+				continue;
+
+			// slow client: wait until backlog has been written
+			if(connection.getPendingBytes() > MAX_PENDING_BYTES)
 			{
-				threadIterator.remove();
-				break;
+				skippedBroadcasts++;
+				continue;
 			}
-			
-			String threadID = thread.getID();
-			
-			// prevent to process a thread that has not been created properly 
-			// (parallel threads: create vs. update !!!)
-			if(threadID == null)
-				break;
-			
-			String addString = "";
-			String changeString = "";
-			String removeString = "";
-			
-			ArrayList<String> clientList;
-			
+
 			try {
-				clientList = clientData.get(threadID).getKnownClients();
-			} catch (Exception e) {
-				break;
+
+				if(connection.isBinary())
+					updateBinary(connection);
+				else
+					updateXML(connection);
+
+			} catch (IOException e) {
+				disconnect(connection);
 			}
-			
-			// iterate over all registered clients
-			for(Entry<String, CarData> cd : clientData.entrySet())
+		}
+
+		if(textArea != null)
+			updateTextArea();
+	}
+
+
+	private void updateXML(ClientConnection connection) throws IOException
+	{
+		String connectionID = connection.getID();
+		StringBuilder addString = new StringBuilder();
+		StringBuilder removeString = new StringBuilder();
+
+		// change elements are copied to the state buffer as encoded by CarData
+		stateBuffer.clear();
+		int changes = 0;
+
+		// iterate over all registered clients
+		for(Entry<String, CarData> cd : clientData.entrySet())
+		{
+			String carID = cd.getKey();
+			CarData carData = cd.getValue();
+
+			// exclude own client
+			if(carID.equals(connectionID))
+				continue;
+
+			ClientConnection.SentState sentState = connection.getKnownVehicles().get(carID);
+			if(sentState == null)
 			{
-				String carID = cd.getKey();
-				CarData carData = cd.getValue();
-				
-				// exclude own client
-				if(!carID.equals(threadID))
-				{
-					if(!clientList.contains(carID))
-					{
-						// add new client (id + model path + name)
-						addString += "<add id=\"" + carID + 
-										"\" modelPath=\"" + carData.getModelPath() + 
-										"\" driverName=\""	+ carData.getDriverName() + "\" />";
-						
-						clientList.add(carID);
-					}
-					
-					// update position and rotation data (id + pos + rot|heading) if update available
-					if(!carData.isUpdateSent(threadID))
-					{
-						String rotationString;
-						
-						if (carData.getHeading() != null)
-							rotationString = "heading=\"" + carData.getHeading() + "\" ";
-						else if(carData.getRotW() != null && carData.getRotX() != null && carData.getRotY() != null && carData.getRotZ() != null)
-							rotationString = "rot=\""	+ carData.getRotW() + ";" + carData.getRotX() + ";" + carData.getRotY() + ";" + carData.getRotZ() + "\" ";
-						else
-							rotationString = "";
-						
-						changeString += "<change id=\"" + carID + "\" " +
-							"pos=\"" + carData.getPosX() + ";" + carData.getPosY() + ";" + carData.getPosZ() + "\" " +
-							rotationString +
-							"wheel=\"" + carData.getWheelSteering() + ";" + carData.getWheelPos() + "\" " +
-							"/>";
-						carData.setUpdateSent(threadID);
-					}
-				}
-				else if(textArea != null)
-				{
-					// update list of currently available multi-driver vehicles
-					DecimalFormat df = new DecimalFormat("0.00");
-			        textArea.append(threadID + "   " + padLeft(carData.getDriverName(),30) + ":    [" + 
-			        		padLeft(df.format(carData.getPosX()),20) + "   " + 
-			        		padLeft(df.format(carData.getPosY()),20) + "   " + 
-			        		padLeft(df.format(carData.getPosZ()),20) + "   ]\n\r");					
-				}
+				// add new client (id + model path + name)
+				addString.append("<add id=\"").append(carID)
+					.append("\" modelPath=\"").append(carData.getModelPath())
+					.append("\" driverName=\"").append(carData.getDriverName()).append("\" />");
+
+				sentState = new ClientConnection.SentState();
+				connection.getKnownVehicles().put(carID, sentState);
+			}
+
+			// update position and rotation data (id + pos + rot|heading) if update available
+			// (element is generated once per version, not per recipient)
+			if(sentState.version != carData.getVersion())
+			{
+				byte[] changeElement = carData.getChangeElement(carID);
+				ensureStateCapacity(changeElement.length);
+				stateBuffer.put(changeElement);
+				sentState.version = carData.getVersion();
+				changes++;
+			}
+		}
+
+		// search for deletes
+		Iterator<String> iterator = connection.getKnownVehicles().keySet().iterator();
+		while(iterator.hasNext())
+		{
+			String carID = iterator.next();
+			if(!clientData.containsKey(carID))
+			{
+				// remove client (id)
+				removeString.append("<remove id=\"").append(carID).append("\" />");
+				iterator.remove();
 			}
-			
-			// search for deletes
-			Iterator<String> iterator = clientList.iterator();
-			while(iterator.hasNext()) 
+		}
+
+		// generate output string
+		if(addString.length() > 0 || changes > 0 || removeString.length() > 0)
+		{
+			byte[] addElements = ("<update>" + addString).getBytes(BinaryProtocol.UTF8);
+			byte[] removeElements = (removeString + "</update>\n").getBytes(BinaryProtocol.UTF8);
+			stateBuffer.flip();
+
+			ByteBuffer message = ByteBuffer.allocate(addElements.length + stateBuffer.remaining() + removeElements.length);
+			message.put(addElements).put(stateBuffer).put(removeElements).flip();
+			send(connection, message);
+		}
+	}
+
+
+	private void updateBinary(ClientConnection connection) throws IOException
+	{
+		String connectionID = connection.getID();
+		int entries = 0;
+
+		// reserve space for header, frame type and number of entries
+		stateBuffer.clear();
+		stateBuffer.position(BinaryProtocol.HEADER_SIZE + 1 + 2);
+
+		for(Entry<String, CarData> cd : clientData.entrySet())
+		{
+			String carID = cd.getKey();
+			CarData carData = cd.getValue();
+
+			// exclude own client
+			if(carID.equals(connectionID))
+				continue;
+
+			ClientConnection.SentState sentState = connection.getKnownVehicles().get(carID);
+			if(sentState != null && sentState.version == carData.getVersion())
+				continue;
+
+			byte[] modelPath = null;
+			byte[] driverName = null;
+			int mask = 0;
+
+			if(sentState == null)
 			{
-			    String carID = iterator.next();
-				if(!clientData.containsKey(carID))
+				modelPath = carData.getModelPath().getBytes(BinaryProtocol.UTF8);
+				driverName = carData.getDriverName().getBytes(BinaryProtocol.UTF8);
+				mask = BinaryProtocol.ADD | BinaryProtocol.POSITION | BinaryProtocol.WHEEL;
+				if(carData.getHeading() != null)
+					mask |= BinaryProtocol.HEADING;
+				else if(hasRotation(carData))
+					mask |= BinaryProtocol.ROTATION;
+
+				sentState = new ClientConnection.SentState();
+				connection.getKnownVehicles().put(carID, sentState);
+			}
+			else
+			{
+				double dx = carData.getPosX() - sentState.posX;
+				double dy = carData.getPosY() - sentState.posY;
+				double dz = carData.getPosZ() - sentState.posZ;
+				if(Math.abs(dx) > MAX_POSITION_DELTA || Math.abs(dy) > MAX_POSITION_DELTA || Math.abs(dz) > MAX_POSITION_DELTA)
+					mask |= BinaryProtocol.POSITION;
+				else if(dx != 0 || dy != 0 || dz != 0)
+					mask |= BinaryProtocol.POSITION_DELTA;
+
+				if(carData.getHeading() != null)
 				{
-					// remove client (id)
-					removeString += "<remove id=\"" + carID + "\" />";
-					
-					iterator.remove();
+					if(!carData.getHeading().equals(sentState.heading))
+						mask |= BinaryProtocol.HEADING;
 				}
+				else if(hasRotation(carData) && (!carData.getRotW().equals(sentState.rotW) ||
+						!carData.getRotX().equals(sentState.rotX) || !carData.getRotY().equals(sentState.rotY) ||
+						!carData.getRotZ().equals(sentState.rotZ)))
+					mask |= BinaryProtocol.ROTATION;
+
+				if(carData.getWheelSteering() != sentState.wheelSteering || carData.getWheelPos() != sentState.wheelPos)
+					mask |= BinaryProtocol.WHEEL;
+			}
+
+			sentState.version = carData.getVersion();
+
+			if(mask == 0)
+				continue;
+
+			ensureStateCapacity(4 + 1 + (modelPath != null ? 4 + modelPath.length + driverName.length : 0) +
+					3*8 + 4*4 + 4 + 2*4);
+
+			stateBuffer.putInt(carData.getNumber());
+			stateBuffer.put((byte) mask);
+
+			if((mask & BinaryProtocol.ADD) != 0)
+			{
+				stateBuffer.putShort((short) modelPath.length).put(modelPath);
+				stateBuffer.putShort((short) driverName.length).put(driverName);
+			}
+
+			if((mask & BinaryProtocol.POSITION) != 0)
+			{
+				stateBuffer.putDouble(carData.getPosX());
+				stateBuffer.putDouble(carData.getPosY());
+				stateBuffer.putDouble(carData.getPosZ());
+
+				sentState.posX = carData.getPosX();
+				sentState.posY = carData.getPosY();
+				sentState.posZ = carData.getPosZ();
+			}
+			else if((mask & BinaryProtocol.POSITION_DELTA) != 0)
+			{
+				float dx = (float) (carData.getPosX() - sentState.posX);
+				float dy = (float) (carData.getPosY() - sentState.posY);
+				float dz = (float) (carData.getPosZ() - sentState.posZ);
+				stateBuffer.putFloat(dx).putFloat(dy).putFloat(dz);
+
+				// track position as reconstructed by the client
+				sentState.posX += dx;
+				sentState.posY += dy;
+				sentState.posZ += dz;
 			}
-					
-			//System.out.println("<update>" + addString + changeString + removeString + "</update>");
-			
-			// generate output string
-			if(!addString.isEmpty() || !changeString.isEmpty() || !removeString.isEmpty())
+
+			if((mask & BinaryProtocol.ROTATION) != 0)
 			{
-				String outputString = "<update>" + addString + changeString + removeString + "</update>";
-				thread.update(outputString);
+				stateBuffer.putFloat(carData.getRotW()).putFloat(carData.getRotX());
+				stateBuffer.putFloat(carData.getRotY()).putFloat(carData.getRotZ());
+
+				sentState.rotW = carData.getRotW();
+				sentState.rotX = carData.getRotX();
+				sentState.rotY = carData.getRotY();
+				sentState.rotZ = carData.getRotZ();
+			}
+
+			if((mask & BinaryProtocol.HEADING) != 0)
+			{
+				stateBuffer.putFloat(carData.getHeading());
+				sentState.heading = carData.getHeading();
+			}
+
+			if((mask & BinaryProtocol.WHEEL) != 0)
+			{
+				stateBuffer.putFloat(carData.getWheelSteering()).putFloat(carData.getWheelPos());
+				sentState.wheelSteering = carData.getWheelSteering();
+				sentState.wheelPos = carData.getWheelPos();
+			}
+
+			entries++;
+		}
+
+		// search for deletes
+		Iterator<String> iterator = connection.getKnownVehicles().keySet().iterator();
+		while(iterator.hasNext())
+		{
+			String carID = iterator.next();
+			if(!clientData.containsKey(carID))
+			{
+				ensureStateCapacity(5);
+				stateBuffer.putInt(BinaryProtocol.getVehicleNumber(carID));
+				stateBuffer.put((byte) BinaryProtocol.REMOVE);
+				iterator.remove();
+				entries++;
 			}
 		}
+
+		if(entries > 0)
+			sendState(connection, entries);
+	}
+
+
+	private static boolean hasRotation(CarData carData)
+	{
+		return carData.getRotW() != null && carData.getRotX() != null &&
+				carData.getRotY() != null && carData.getRotZ() != null;
+	}
+
+
+	private void ensureStateCapacity(int bytes)
+	{
+		if(stateBuffer.remaining() < bytes)
+		{
+			ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(2*stateBuffer.capacity(), stateBuffer.position() + bytes));
+			stateBuffer.flip();
+			newBuffer.put(stateBuffer);
+			stateBuffer = newBuffer;
+		}
+	}
+
+
+	/**
+	 * Completes the header of the STATE frame in the state buffer and queues a copy
+	 * of it for the given connection.
+	 */
+	private void sendState(ClientConnection connection, int entries) throws IOException
+	{
+		int length = stateBuffer.position() - BinaryProtocol.HEADER_SIZE;
+		stateBuffer.putInt(0, length);
+		stateBuffer.put(BinaryProtocol.HEADER_SIZE, BinaryProtocol.STATE);
+		stateBuffer.putShort(BinaryProtocol.HEADER_SIZE + 1, (short) entries);
+		stateBuffer.flip();
+
+		// the state buffer is reused for the next client, the queue needs its own copy
+		ByteBuffer frame = ByteBuffer.allocate(stateBuffer.remaining());
+		frame.put(stateBuffer).flip();
+		send(connection, frame);
+	}
+
+
+	private void updateTextArea()
+	{
+		// update list of currently available multi-driver vehicles
+		final StringBuilder text = new StringBuilder();
+		DecimalFormat df = new DecimalFormat("0.00");
+
+		for(ClientConnection connection : connectionList)
+		{
+			CarData carData = (connection.getID() != null ? clientData.get(connection.getID()) : null);
+			if(carData != null)
+			{
+				text.append(connection.getID()).append("   ").append(padLeft(carData.getDriverName(),30)).append(":    [")
+					.append(padLeft(df.format(carData.getPosX()),20)).append("   ")
+					.append(padLeft(df.format(carData.getPosY()),20)).append("   ")
+					.append(padLeft(df.format(carData.getPosZ()),20)).append("   ]\n\r");
+			}
+		}
+
+		SwingUtilities.invokeLater(new Runnable() {
+			public void run()
+			{
+				textArea.setText(text.toString());
+			}
+		});
+	}
+
+
+	private String padLeft(String s, int n)
+	{
+		int addSpaces = Math.max(0, n - 2*s.length());
+
+		StringBuilder spaces = new StringBuilder();
+		for(int i=0; i<addSpaces; i++)
+			spaces.append(" ");
+
+		return spaces + s;
 	}
-    
-    
-    private String padLeft(String s, int n) 
-    {
-    	int addSpaces = Math.max(0, n - 2*s.length());
-    	
-    	String spaces = "";
-    	for(int i=0; i<addSpaces; i++)
-    		spaces += " ";
-    	
-        return spaces + s;  
-    }
 }
@@ -19,23 +19,27 @@
 
 import java.io.StringReader;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
-import org.w3c.dom.CharacterData;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 
+/**
+ * Streaming (StAX) parser of the messages received from multi-driver clients. No
+ * DOM is built; the relevant elements are matched by name while reading, so the
+ * message does not need an enclosing root element. An instance may be reused for
+ * any number of messages (see <code>parse()</code>), but must not be used by
+ * several threads at the same time.
+ */
 public class XMLParser
 {
-	private Document doc;
-	private boolean errorOccured = false;
+	private XMLInputFactory factory;
+	private StringBuilder text = new StringBuilder(64);
 	
 	private String modelPath = null;
 	private String driverName = null;
+	private String protocol = null;
 	private String updateID = null;
 	private Double posX = null;
 	private Double posY = null;
@@ -50,154 +54,160 @@ public class XMLParser
 	private String unregisterID = null;
 	
 	
+	public XMLParser()
+	{
+		factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+	}
+	
+	
 	/**
-	 * Creates a DOM-object from the given input string. If the input string 
-	 * is not a valid XML string, a warning message will be returned.
+	 * Parses the given message. The results of the previous message are discarded. 
+	 * If the input string is not a valid XML string, a warning message will be 
+	 * printed and the message will be ignored.
 	 * 
 	 * @param xmlstring
 	 * 			XML input string to parse
 	 */
-	public XMLParser(String xmlstring)
+	public void parse(String xmlstring)
 	{
-		try {
-	        InputSource xmlsource = new InputSource();
-	        xmlsource.setCharacterStream(new StringReader(xmlstring));
-
-			DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-			DocumentBuilder db = dbf.newDocumentBuilder();
-
-			doc = db.parse(xmlsource);
-
-		} catch (Exception e) {
-			System.err.println("[WARNING]: Malformed XML input (XMLParser.java): " + xmlstring);
-			errorOccured = true;
-		}
-
+		// example multi driver instructions:
+		//<register protocol="binary">  (attribute optional)
+		//	<modelPath>foo/far/test.scene</modelPath>
+		//	<driverName>TestDriver</driverName>
+		//<register>
+		//
+		//<update id="mdv_11">
+		//	<position x="1.1" y="2.2" z="3.3" />
+		//	<rotation w="1.1" x="2.2" y="3.3" z="4.4" />
+		//	<heading>358.4</heading>
+		//	<wheel steering="1.1" position="2.2" />
+		//<update>
+		//
+		//<unregister>mdv_14</unregister>
 		
-		// on "registered" --> set ID
-		// on "update" --> perform changes
-		// on "unregistered" --> call method requestStop()
+		reset();
 		
-		if(!errorOccured)
-		{		
-			// example multi driver instructions:
-			//<multiDriver>
-			//	<register>
-			//		<modelPath>foo/far/test.scene</modelPath>
-			//		<driverName>TestDriver</driverName>
-			//	<register>
-			//</multiDriver>
-			//
-			//<multiDriver>
-			//	<update id="mdv_11">
-			//		<position x="1.1" y="2.2" z="3.3" />
-			//		<rotation w="1.1" x="2.2" y="3.3" z="4.4" />
-			//		<heading>358.4</heading>
-			//		<wheel steering="1.1" position="2.2" />
-			//	<update>
-			//</multiDriver>
-			//
-			//<multiDriver>
-			//	<unregister>mdv_14</unregister>
-			//</multiDriver>
+		XMLStreamReader reader = null;
+		try {
+			
+			reader = factory.createXMLStreamReader(new StringReader(xmlstring));
 			
-			NodeList nodeLst = doc.getElementsByTagName("multiDriver");
-			for(int i=0; i<nodeLst.getLength(); i++)
+			while(reader.hasNext())
 			{
-				Node currentNode = nodeLst.item(i);
+				if(reader.next() != XMLStreamConstants.START_ELEMENT)
+					continue;
 				
-				NodeList registerList = ((Element) currentNode).getElementsByTagName("register");
-				for(int j=0; j<registerList.getLength(); j++)
+				String name = reader.getLocalName();
+				if(name.equals("register"))
+					protocol = getAttribute(reader, "protocol");
+				else if(name.equals("modelPath"))
+					modelPath = readText(reader);
+				else if(name.equals("driverName"))
+					driverName = readText(reader);
+				else if(name.equals("update"))
+					updateID = getAttribute(reader, "id");
+				else if(name.equals("position"))
 				{
-					Element currentRegister = (Element) registerList.item(j);
-					
-					NodeList modelPathList = currentRegister.getElementsByTagName("modelPath");
-					for(int k=0; k<modelPathList.getLength(); k++)
-					{
-						Element currentModelPath = (Element) modelPathList.item(k);
-						modelPath = getCharacterDataFromElement(currentModelPath);
-					}
-
-					NodeList driverNameList = currentRegister.getElementsByTagName("driverName");
-					for(int k=0; k<driverNameList.getLength(); k++)
-					{
-						Element currentDriverName = (Element) driverNameList.item(k);
-						driverName = getCharacterDataFromElement(currentDriverName);
-					}
+					posX = Double.parseDouble(getAttribute(reader, "x"));
+					posY = Double.parseDouble(getAttribute(reader, "y"));
+					posZ = Double.parseDouble(getAttribute(reader, "z"));
 				}
-				
-				NodeList updateList = ((Element) currentNode).getElementsByTagName("update");
-				for(int j=0; j<updateList.getLength(); j++)
-				{					
-					Element currentUpdate = (Element) updateList.item(j);
-					updateID = currentUpdate.getAttribute("id");
-
-					NodeList positionList = currentUpdate.getElementsByTagName("position");
-					for(int k=0; k<positionList.getLength(); k++)
-					{
-						Element currentPosition = (Element) positionList.item(k);
-						posX = Double.parseDouble(currentPosition.getAttribute("x"));
-						posY = Double.parseDouble(currentPosition.getAttribute("y"));
-						posZ = Double.parseDouble(currentPosition.getAttribute("z"));
-					}
-					
-					NodeList rotationList = currentUpdate.getElementsByTagName("rotation");
-					for(int k=0; k<rotationList.getLength(); k++)
-					{
-						Element currentRotation = (Element) rotationList.item(k);
-						rotW = Float.parseFloat(currentRotation.getAttribute("w"));
-						rotX = Float.parseFloat(currentRotation.getAttribute("x"));
-						rotY = Float.parseFloat(currentRotation.getAttribute("y"));
-						rotZ = Float.parseFloat(currentRotation.getAttribute("z"));
-					}
-					
-					NodeList headingList = currentUpdate.getElementsByTagName("heading");
-					for(int k=0; k<headingList.getLength(); k++)
-					{
-						Element currentHeading = (Element) headingList.item(k);
-						heading = Float.parseFloat(getCharacterDataFromElement(currentHeading));
-					}
-					
-					NodeList wheelList = currentUpdate.getElementsByTagName("wheel");
-					for(int k=0; k<wheelList.getLength(); k++)
-					{
-						Element currentWheel = (Element) wheelList.item(k);
-						wheelSteering = Float.parseFloat(currentWheel.getAttribute("steering"));
-						wheelPosition = Float.parseFloat(currentWheel.getAttribute("position"));
-					}
+				else if(name.equals("rotation"))
+				{
+					rotW = Float.parseFloat(getAttribute(reader, "w"));
+					rotX = Float.parseFloat(getAttribute(reader, "x"));
+					rotY = Float.parseFloat(getAttribute(reader, "y"));
+					rotZ = Float.parseFloat(getAttribute(reader, "z"));
 				}
-				
-				NodeList unregisterList = ((Element) currentNode).getElementsByTagName("unregister");
-				for(int j=0; j<unregisterList.getLength(); j++)
+				else if(name.equals("heading"))
+					heading = Float.parseFloat(readText(reader));
+				else if(name.equals("wheel"))
 				{
-					Element currentUnregister = (Element) unregisterList.item(j);
-					unregisterID = getCharacterDataFromElement(currentUnregister);
+					wheelSteering = Float.parseFloat(getAttribute(reader, "steering"));
+					wheelPosition = Float.parseFloat(getAttribute(reader, "position"));
+				}
+				else if(name.equals("unregister"))
+					unregisterID = readText(reader);
+			}
+			
+		} catch (Exception e) {
+			System.err.println("[WARNING]: Malformed XML input (XMLParser.java): " + xmlstring);
+			reset();
+		} finally {
+			if(reader != null)
+			{
+				try {
+					reader.close();
+				} catch (XMLStreamException e) {
 				}
 			}
 		}
 	}
 	
 	
+	private void reset()
+	{
+		modelPath = null;
+		driverName = null;
+		protocol = null;
+		updateID = null;
+		posX = null;
+		posY = null;
+		posZ = null;
+		rotW = null;
+		rotX = null;
+		rotY = null;
+		rotZ = null;
+		heading = null;
+		wheelSteering = null;
+		wheelPosition = null;
+		unregisterID = null;
+	}
+	
+	
+	/**
+	 * @return
+	 * 			Value of the given attribute of the current element; empty string if 
+	 * 			not available (as DOM getAttribute()).
+	 */
+	private static String getAttribute(XMLStreamReader reader, String name)
+	{
+		String value = reader.getAttributeValue(null, name);
+		return (value != null ? value : "");
+	}
+	
+	
 	/**
-	 * Returns character data from XML element.
+	 * Returns the character data of the current element.
 	 * E.g. &lt;elem&gt;abc123&lt;/elem&gt;  --> "abc123"
 	 * 
-	 * @param elem
-	 * 			XML Element
-	 * 
 	 * @return
-	 * 			string representation of the given element
+	 * 			Character data or null, if the element has no character data.
 	 */
-	public static String getCharacterDataFromElement(Element elem)
+	private String readText(XMLStreamReader reader) throws XMLStreamException
 	{
-		Node child = elem.getFirstChild();
-		if (child instanceof CharacterData) 
+		text.setLength(0);
+		boolean hasText = false;
+		
+		int depth = 1;
+		while(depth > 0 && reader.hasNext())
 		{
-			CharacterData cd = (CharacterData) child;
-			return cd.getData();
+			int event = reader.next();
+			if(event == XMLStreamConstants.START_ELEMENT)
+				depth++;
+			else if(event == XMLStreamConstants.END_ELEMENT)
+				depth--;
+			else if(depth == 1 && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA))
+			{
+				text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+				hasText = true;
+			}
 		}
 		
-		return null;
+		return (hasText ? text.toString() : null);
 	}
 
 	
@@ -231,6 +241,16 @@ public class XMLParser
 	{
 		return driverName;
 	}
+	
+	
+	/**
+	 * @return
+	 * 			true, if the client requested the binary protocol on registration.
+	 */
+	public boolean isBinaryProtocol() 
+	{
+		return "binary".equals(protocol);
+	}
 
 	
 	public Object getUpdateID() 